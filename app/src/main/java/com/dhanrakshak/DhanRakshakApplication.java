@@ -27,6 +27,8 @@ public class DhanRakshakApplication extends Application implements Configuration
         public void onCreate() {
                 super.onCreate();
                 setupDailyNotificationWorker();
+                // Drain SMS left in the ingestion queue by a previous process
+                com.dhanrakshak.ai.sms.SmsIngestWorker.enqueue(this);
         }
 
         @NonNull
@@ -75,5 +77,20 @@ public class DhanRakshakApplication extends Application implements Configuration
                                 "DailyCloudSyncWork",
                                 ExistingPeriodicWorkPolicy.KEEP,
                                 syncWorkRequest);
+
+                // Hourly Crypto Price Refresh
+                PeriodicWorkRequest cryptoWorkRequest = new PeriodicWorkRequest.Builder(
+                                com.dhanrakshak.worker.CryptoPriceWorker.class, 1,
+                                java.util.concurrent.TimeUnit.HOURS)
+                                .setConstraints(new androidx.work.Constraints.Builder()
+                                                .setRequiredNetworkType(androidx.work.NetworkType.CONNECTED)
+                                                .build())
+                                .addTag("crypto_prices")
+                                .build();
+
+                WorkManager.getInstance(this).enqueueUniquePeriodicWork(
+                                "CryptoPriceWork",
+                                ExistingPeriodicWorkPolicy.KEEP,
+                                cryptoWorkRequest);
         }
 }
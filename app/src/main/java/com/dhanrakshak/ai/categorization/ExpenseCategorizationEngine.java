@@ -5,17 +5,20 @@ import android.util.Log;
 
 import com.dhanrakshak.data.local.dao.ExpenseCategoryDao;
 import com.dhanrakshak.data.local.dao.SmsTransactionDao;
-import com.dhanrakshak.data.local.entity.ExpenseCategory;
+import com.dhanrakshak.data.local.dao.SpendingRollupDao;
 import com.dhanrakshak.data.local.entity.SmsTransaction;
+import com.dhanrakshak.data.local.entity.SpendingRollup;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import dagger.hilt.android.qualifiers.ApplicationContext;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
@@ -23,7 +26,11 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 /**
  * AI-powered expense categorization engine.
  * Uses keyword matching + machine learning patterns to auto-categorize
- * transactions.
+ * transactions. Keyword rules are compiled into one
+ * {@link KeywordCategorizer} trie with explicit priorities, so results are
+ * deterministic and each transaction is scanned once. Before the rules,
+ * the user's learned merchants are checked, then {@link MerchantClassifier}
+ * generalizes them to similar merchants.
  */
 @Singleton
 public class ExpenseCategorizationEngine {
@@ -31,98 +38,107 @@ public class ExpenseCategorizationEngine {
     private static final String TAG = "ExpenseCategorizationEngine";
 
     private final Context context;
-    private final SmsTransactionDao smsTransactionDao;
+    private final SpendingRollupDao spendingRollupDao;
     private final ExpenseCategoryDao categoryDao;
 
-    // Keyword patterns for each category
-    private final Map<String, Pattern[]> categoryPatterns = new HashMap<>();
+    // Merchant to category learned mappings, persisted
+    private final MerchantCategoryStore merchantCategories;
 
-    // Merchant to category learned mappings
-    private final Map<String, Long> merchantCategoryCache = new HashMap<>();
+    // Generalizes learned mappings to unseen merchants
+    private final MerchantClassifier classifier;
+    private volatile boolean classifierBootstrapped;
+
+    // All category keywords, compiled once
+    private final KeywordCategorizer keywordCategorizer = buildRules();
 
     @Inject
-    public ExpenseCategorizationEngine(Context context,
-            SmsTransactionDao smsTransactionDao,
-            ExpenseCategoryDao categoryDao) {
+    public ExpenseCategorizationEngine(@ApplicationContext Context context,
+            SpendingRollupDao spendingRollupDao,
+            ExpenseCategoryDao categoryDao,
+            MerchantCategoryStore merchantCategories,
+            MerchantClassifier classifier) {
         this.context = context.getApplicationContext();
-        this.smsTransactionDao = smsTransactionDao;
+        this.spendingRollupDao = spendingRollupDao;
         this.categoryDao = categoryDao;
-
-        initializePatterns();
+        this.merchantCategories = merchantCategories;
+        this.classifier = classifier;
     }
 
-    private void initializePatterns() {
-        // Food & Dining
-        categoryPatterns.put("Food & Dining", new Pattern[] {
-                Pattern.compile(
-                        "(?i)(swiggy|zomato|uber\\s*eats|dominos|pizza|mcdonalds|kfc|burger|restaurant|cafe|hotel|food|meal|lunch|dinner|breakfast)"),
-                Pattern.compile("(?i)(barbeque|nation|haldiram|chai|coffee|starbucks|costa)")
-        });
-
-        // Shopping
-        categoryPatterns.put("Shopping", new Pattern[] {
-                Pattern.compile("(?i)(amazon|flipkart|myntra|ajio|nykaa|meesho|snapdeal|shopclues)"),
-                Pattern.compile(
-                        "(?i)(mall|mart|store|retail|lifestyle|big\\s*bazaar|dmart|reliance|croma|vijay\\s*sales)")
-        });
-
-        // Transportation
-        categoryPatterns.put("Transportation", new Pattern[] {
-                Pattern.compile("(?i)(uber|ola|rapido|meru|auto|taxi|cab|metro|irctc|railway|train|bus|redbus)"),
-                Pattern.compile("(?i)(petrol|diesel|fuel|hp|iocl|bpcl|shell|parking)")
-        });
-
-        // Utilities
-        categoryPatterns.put("Utilities", new Pattern[] {
-                Pattern.compile("(?i)(electricity|water|gas|piped|power|bescom|msedcl|pgvcl|uppcl)"),
-                Pattern.compile("(?i)(bill\\s*payment|utility|jio|airtel|vodafone|bsnl|vi|recharge|mobile\\s*bill)")
-        });
-
-        // Health
-        categoryPatterns.put("Health", new Pattern[] {
-                Pattern.compile("(?i)(hospital|clinic|doctor|medical|pharmacy|apollo|medplus|netmeds|1mg|pharmeasy)"),
-                Pattern.compile("(?i)(gym|fitness|cult|healthify|yoga|dental|diagnostic|lab)")
-        });
-
-        // Entertainment
-        categoryPatterns.put("Entertainment", new Pattern[] {
-                Pattern.compile("(?i)(netflix|prime|hotstar|disney|spotify|gaana|youtube|pvr|inox|movie|cinema)"),
-                Pattern.compile("(?i)(bookmyshow|gaming|dream11|mpl|book|subscription)")
-        });
-
-        // Investment
-        categoryPatterns.put("Investment", new Pattern[] {
-                Pattern.compile("(?i)(sip|mutual\\s*fund|zerodha|groww|upstox|kite|angel|mf|nse|bse)"),
-                Pattern.compile("(?i)(investment|trading|stock|share|demat|ipo|lumpsum)")
-        });
-
-        // Insurance
-        categoryPatterns.put("Insurance", new Pattern[] {
-                Pattern.compile("(?i)(insurance|lic|hdfc\\s*life|icici\\s*pru|sbi\\s*life|premium|policy)"),
-                Pattern.compile("(?i)(health\\s*insurance|term|car\\s*insurance|motor)")
-        });
-
-        // EMI & Loans
-        categoryPatterns.put("EMI & Loans", new Pattern[] {
-                Pattern.compile("(?i)(emi|loan|bajaj\\s*finserv|capital\\s*first|nbfc|credit|repayment)"),
-                Pattern.compile("(?i)(personal\\s*loan|home\\s*loan|car\\s*loan|education\\s*loan)")
-        });
-
-        // Education
-        categoryPatterns.put("Education", new Pattern[] {
-                Pattern.compile("(?i)(school|college|university|tuition|course|udemy|coursera|unacademy|byjus)"),
-                Pattern.compile("(?i)(education|books|exam|coaching|institute|academy)")
-        });
-
-        // Rent
-        categoryPatterns.put("Rent", new Pattern[] {
-                Pattern.compile("(?i)(rent|landlord|house\\s*rent|flat\\s*rent|pg|hostel|accommodation)")
-        });
-
-        // Transfer
-        categoryPatterns.put("Transfer", new Pattern[] {
-                Pattern.compile("(?i)(transfer|imps|neft|rtgs|upi|self\\s*transfer|fund\\s*transfer)")
-        });
+    private static KeywordCategorizer buildRules() {
+        return KeywordCategorizer.builder()
+                .add("Food & Dining", KeywordCategorizer.PRIORITY_BRAND,
+                        "swiggy*", "zomato*", "uber eats*", "dominos*", "mcdonalds*", "mcdonald*", "kfc",
+                        "starbucks*", "costa", "barbeque*", "haldiram*")
+                .add("Food & Dining", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "pizza*", "burger*", "restaurant*", "cafe*", "food*", "meal*", "lunch", "dinner",
+                        "breakfast", "chai", "coffee*")
+                .add("Food & Dining", KeywordCategorizer.PRIORITY_GENERIC, "hotel*")
+
+                .add("Shopping", KeywordCategorizer.PRIORITY_BRAND,
+                        "amazon*", "flipkart*", "myntra*", "ajio*", "nykaa*", "meesho*", "snapdeal*",
+                        "shopclues*", "big bazaar*", "dmart*", "croma*", "vijay sales*", "lifestyle*")
+                .add("Shopping", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "mall*", "mart", "store*", "retail*", "reliance*")
+
+                .add("Transportation", KeywordCategorizer.PRIORITY_BRAND,
+                        "uber*", "ola", "rapido*", "meru", "redbus*", "irctc*", "iocl", "bpcl", "hp", "shell")
+                .add("Transportation", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "metro*", "railway*", "train*", "taxi*", "cab", "cabs", "bus", "auto",
+                        "petrol*", "diesel*", "fuel*", "parking*")
+
+                .add("Utilities", KeywordCategorizer.PRIORITY_BRAND,
+                        "bescom*", "msedcl*", "pgvcl*", "uppcl*", "jio*", "airtel*", "vodafone*", "bsnl*", "vi")
+                .add("Utilities", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "electricity*", "water*", "gas", "piped gas*", "power*", "bill payment*",
+                        "utility*", "utilities*", "recharge*", "mobile bill*")
+
+                .add("Health", KeywordCategorizer.PRIORITY_BRAND,
+                        "apollo*", "medplus*", "netmeds*", "1mg*", "pharmeasy*", "cult*", "healthify*")
+                .add("Health", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "hospital*", "clinic*", "doctor*", "medical*", "pharmacy*", "gym*", "fitness*",
+                        "yoga*", "dental*", "diagnostic*", "lab", "labs")
+
+                .add("Entertainment", KeywordCategorizer.PRIORITY_BRAND,
+                        "netflix*", "hotstar*", "disney*", "spotify*", "gaana*", "youtube*", "pvr*",
+                        "inox*", "bookmyshow*", "dream11*", "mpl")
+                .add("Entertainment", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "movie*", "cinema*", "gaming*")
+                .add("Entertainment", KeywordCategorizer.PRIORITY_GENERIC,
+                        "prime", "book", "subscription*")
+
+                .add("Investment", KeywordCategorizer.PRIORITY_BRAND,
+                        "zerodha*", "groww*", "upstox*", "kite", "angel*", "nse", "bse")
+                .add("Investment", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "sip", "mutual fund*", "mf", "demat*", "ipo", "lumpsum*", "investment*",
+                        "trading*", "stock*")
+                .add("Investment", KeywordCategorizer.PRIORITY_GENERIC, "share", "shares")
+
+                .add("Insurance", KeywordCategorizer.PRIORITY_BRAND,
+                        "lic", "hdfc life*", "icici pru*", "sbi life*")
+                .add("Insurance", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "insurance*", "health insurance*", "car insurance*", "premium*", "policy*")
+                .add("Insurance", KeywordCategorizer.PRIORITY_GENERIC, "term", "motor*")
+
+                .add("EMI & Loans", KeywordCategorizer.PRIORITY_BRAND,
+                        "bajaj finserv*", "capital first*")
+                .add("EMI & Loans", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "emi", "loan*", "nbfc", "repayment*", "personal loan*", "home loan*", "car loan*",
+                        "education loan*")
+                .add("EMI & Loans", KeywordCategorizer.PRIORITY_GENERIC, "credit")
+
+                .add("Education", KeywordCategorizer.PRIORITY_BRAND,
+                        "udemy*", "coursera*", "unacademy*", "byjus*", "byju*")
+                .add("Education", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "school*", "college*", "university*", "tuition*", "course*", "education*",
+                        "books", "exam*", "coaching*", "institute*", "academy*")
+
+                .add("Rent", KeywordCategorizer.PRIORITY_SPECIFIC,
+                        "rent", "landlord*", "house rent*", "flat rent*", "pg", "hostel*", "accommodation*")
+
+                // Payment rails appear in most alerts, so they only win when nothing else matches
+                .add("Transfer", KeywordCategorizer.PRIORITY_GENERIC - 5,
+                        "transfer*", "imps", "neft", "rtgs", "upi", "self transfer*", "fund transfer*")
+                .build();
     }
 
     /**
@@ -130,72 +146,127 @@ public class ExpenseCategorizationEngine {
      */
     public Single<String> categorizeTransaction(String merchant, String description) {
         return Single.fromCallable(() -> {
-            String textToAnalyze = (merchant + " " + description).toLowerCase();
-
-            // First check cache for known merchant
-            if (merchantCategoryCache.containsKey(merchant.toLowerCase())) {
-                ExpenseCategory category = categoryDao.getById(
-                        merchantCategoryCache.get(merchant.toLowerCase())).blockingGet();
-                if (category != null) {
-                    return category.getName();
-                }
+            // First check learned choices for known merchant
+            String learned = merchantCategories.lookup(merchant);
+            if (learned != null) {
+                return learned;
             }
 
-            // Pattern matching
-            for (Map.Entry<String, Pattern[]> entry : categoryPatterns.entrySet()) {
-                for (Pattern pattern : entry.getValue()) {
-                    if (pattern.matcher(textToAnalyze).find()) {
-                        return entry.getKey();
-                    }
-                }
+            // Then the on-device classifier, when it is confident
+            String predicted = predict(merchant);
+            if (predicted != null) {
+                return predicted;
             }
 
-            return "Others";
+            return keywordCategorizer.categorize(merchant, description);
         }).subscribeOn(Schedulers.io());
     }
 
+    /**
+     * Categorize many transactions at once. Blocking; call off the main thread.
+     *
+     * Learned merchant choices come from memory, and each distinct merchant
+     * is scanned only once.
+     *
+     * @return Category names in input order
+     */
+    public List<String> categorize(List<SmsTransaction> transactions) {
+        List<String> merchants = new ArrayList<>(transactions.size());
+        for (SmsTransaction tx : transactions) {
+            merchants.add(tx.getMerchant());
+        }
+        return categorizeMerchants(merchants);
+    }
+
+    /**
+     * Categorize by merchant name only. Blocking; safe to call from several
+     * threads at once.
+     *
+     * @return Category names in input order
+     */
+    public List<String> categorizeMerchants(List<String> merchants) {
+        Map<String, String> byMerchant = new HashMap<>();
+        List<String> result = new ArrayList<>(merchants.size());
+        for (String name : merchants) {
+            String merchant = name != null ? name : "";
+            String key = merchant.toLowerCase(Locale.ROOT);
+
+            String category = byMerchant.get(key);
+            if (category == null) {
+                category = merchantCategories.lookup(merchant);
+                if (category == null) {
+                    category = predict(merchant);
+                }
+                if (category == null) {
+                    category = keywordCategorizer.categorize(merchant, null);
+                }
+                byMerchant.put(key, category);
+            }
+            result.add(category);
+        }
+        return result;
+    }
+
     /**
      * Batch categorize all uncategorized transactions.
+     * Runs as {@link RecategorizationWorker}; completes once queued.
      */
     public Completable categorizeAllUncategorized() {
-        return smsTransactionDao.getUncategorizedTransactions()
-                .firstOrError()
-                .flatMapCompletable(transactions -> Completable.fromAction(() -> {
-                    for (SmsTransaction tx : transactions) {
-                        String category = categorizeTransaction(
-                                tx.getMerchant() != null ? tx.getMerchant() : "",
-                                "").blockingGet();
-
-                        // Get category ID
-                        ExpenseCategory cat = categoryDao.getByName(category).blockingGet();
-                        if (cat != null) {
-                            tx.setCategoryId(cat.getId());
-                            smsTransactionDao.update(tx).blockingAwait();
-                        }
-                    }
-                })).subscribeOn(Schedulers.io());
+        return Completable.fromAction(() -> RecategorizationWorker.enqueue(context, false));
+    }
+
+    /**
+     * Re-run categorization over the whole history, e.g. after rules changed.
+     * Manually categorized transactions are left alone.
+     */
+    public Completable recategorizeAll() {
+        return Completable.fromAction(() -> RecategorizationWorker.enqueue(context, true));
     }
 
     /**
      * Learn from user's manual categorization.
      */
     public Completable learnFromUserChoice(String merchant, long categoryId) {
-        return Completable.fromAction(() -> {
-            merchantCategoryCache.put(merchant.toLowerCase(), categoryId);
-            Log.d(TAG, "Learned: " + merchant + " -> category " + categoryId);
-        });
+        return categoryDao.getById(categoryId)
+                .flatMapCompletable(category -> merchantCategories.learn(
+                        merchant, categoryId, category.getName())
+                        .doOnComplete(() -> classifier.train(merchant, category.getName())))
+                .doOnError(e -> Log.w(TAG, "Failed to learn " + merchant + " -> category " + categoryId, e))
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Compare the on-device classifier with the keyword rules on held-out
+     * learned merchants.
+     */
+    public Single<MerchantClassifier.Evaluation> evaluateClassifier() {
+        return Single.fromCallable(() -> {
+            MerchantClassifier.Evaluation evaluation =
+                    MerchantClassifier.evaluate(merchantCategories.getAll(), keywordCategorizer);
+            Log.i(TAG, "Classifier evaluation: " + evaluation);
+            return evaluation;
+        }).subscribeOn(Schedulers.io());
+    }
+
+    private String predict(String merchant) {
+        if (!classifierBootstrapped) {
+            // Mappings learned before the classifier existed
+            classifier.bootstrap(merchantCategories.getAll());
+            classifierBootstrapped = true;
+        }
+        return classifier.predict(merchant);
     }
 
     /**
-     * Get spending summary by category.
+     * Get spending summary by category, from the daily rollup (whole days).
      */
     public Single<Map<String, Double>> getSpendingByCategory(long startDate, long endDate) {
-        return smsTransactionDao.getCategoryWiseSpending(startDate, endDate)
-                .firstOrError()
+        return spendingRollupDao.getCategoryTotals("DEBIT",
+                SpendingRollup.toDay(startDate), SpendingRollup.toDay(endDate))
                 .map(spendingList -> {
                     Map<String, Double> result = new HashMap<>();
-                    for (SmsTransactionDao.CategorySpending spending : spendingList) {
-                        result.put(spending.categoryName, spending.totalAmount);
+                    for (SmsTransactionDao.CategorySum spending : spendingList) {
+                        result.put(spending.category, spending.total);
                     }
                     return result;
                 });
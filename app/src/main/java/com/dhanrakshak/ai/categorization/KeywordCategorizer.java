@@ -0,0 +1,292 @@
+package com.dhanrakshak.ai.categorization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keyword categorizer compiled into a single trie.
+ *
+ * Every keyword of every category goes into one trie over [a-z0-9 ]. A scan
+ * walks the trie from each word start of the text, so a transaction is
+ * categorized in one pass regardless of how many rules exist. When several
+ * keywords match, the winner is chosen deterministically: higher priority,
+ * then longer keyword, then the category declared first.
+ *
+ * Keywords match at word starts only. A keyword ending in {@code *} may run
+ * into the rest of the word ("swiggy*" matches "SWIGGYINSTAMART"); others
+ * must match a whole word, so "vi" doesn't fire inside "service". A space
+ * in a keyword also matches runs of whitespace or none at all
+ * ("uber eats" matches "UBER  EATS" and "UberEats").
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class KeywordCategorizer {
+
+    /** Category returned when nothing matches. */
+    public static final String DEFAULT_CATEGORY = "Others";
+
+    // Brand names beat category terms, which beat generic words like "upi"
+    public static final int PRIORITY_BRAND = 30;
+    public static final int PRIORITY_SPECIFIC = 20;
+    public static final int PRIORITY_GENERIC = 10;
+
+    // Symbols: a-z = 0..25, 0-9 = 26..35, space = 36
+    private static final int ALPHABET = 37;
+    private static final int SPACE = 36;
+    private static final int NONE = -1;
+
+    private final String[] categories;
+
+    // Dense trie: children[node * ALPHABET + symbol], 0 = no child (root is never a child)
+    private final int[] children;
+    private final int[] terminal;
+
+    // Per keyword
+    private final int[] keywordCategory;
+    private final int[] keywordPriority;
+    private final int[] keywordLength;
+    private final boolean[] keywordPrefix;
+
+    private KeywordCategorizer(Builder builder) {
+        this.categories = builder.categories.toArray(new String[0]);
+
+        int count = builder.keywords.size();
+        this.keywordCategory = new int[count];
+        this.keywordPriority = new int[count];
+        this.keywordLength = new int[count];
+        this.keywordPrefix = new boolean[count];
+
+        List<int[]> rows = new ArrayList<>();
+        List<Integer> terminals = new ArrayList<>();
+        rows.add(new int[ALPHABET]);
+        terminals.add(NONE);
+
+        for (int k = 0; k < count; k++) {
+            Rule rule = builder.keywords.get(k);
+            keywordCategory[k] = rule.category;
+            keywordPriority[k] = rule.priority;
+            keywordLength[k] = rule.text.replace(" ", "").length();
+            keywordPrefix[k] = rule.prefix;
+
+            int node = 0;
+            for (int i = 0; i < rule.text.length(); i++) {
+                int symbol = symbolOf(rule.text.charAt(i));
+                int next = rows.get(node)[symbol];
+                if (next == 0) {
+                    next = rows.size();
+                    rows.add(new int[ALPHABET]);
+                    terminals.add(NONE);
+                    rows.get(node)[symbol] = next;
+                }
+                node = next;
+            }
+            // Duplicate keyword: keep the better rule
+            int existing = terminals.get(node);
+            if (existing == NONE || better(k, existing)) {
+                terminals.set(node, k);
+            }
+        }
+
+        this.children = new int[rows.size() * ALPHABET];
+        this.terminal = new int[rows.size()];
+        for (int node = 0; node < rows.size(); node++) {
+            System.arraycopy(rows.get(node), 0, children, node * ALPHABET, ALPHABET);
+            terminal[node] = terminals.get(node);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Category for a transaction, or {@link #DEFAULT_CATEGORY}.
+     *
+     * @param merchant    Merchant name (may be null)
+     * @param description Free text such as the raw SMS (may be null)
+     */
+    public String categorize(CharSequence merchant, CharSequence description) {
+        int best = scan(merchant, NONE);
+        best = scan(description, best);
+        return best == NONE ? DEFAULT_CATEGORY : categories[keywordCategory[best]];
+    }
+
+    /**
+     * Categorize many transactions.
+     *
+     * @param merchants    Merchant names
+     * @param descriptions Free text, same order (or null to use merchants only)
+     * @return Categories in input order
+     */
+    public List<String> categorize(List<? extends CharSequence> merchants,
+            List<? extends CharSequence> descriptions) {
+        List<String> result = new ArrayList<>(merchants.size());
+        for (int i = 0; i < merchants.size(); i++) {
+            result.add(categorize(merchants.get(i), descriptions != null ? descriptions.get(i) : null));
+        }
+        return result;
+    }
+
+    /**
+     * All category names, in declaration order.
+     */
+    public List<String> getCategories() {
+        return Arrays.asList(categories.clone());
+    }
+
+    private int scan(CharSequence text, int best) {
+        if (text == null) {
+            return best;
+        }
+        int length = text.length();
+        boolean previousIsWord = false;
+
+        for (int start = 0; start < length; start++) {
+            boolean isWord = Character.isLetterOrDigit(text.charAt(start));
+            if (isWord && !previousIsWord) {
+                best = walk(text, start, best);
+            }
+            previousIsWord = isWord;
+        }
+        return best;
+    }
+
+    private int walk(CharSequence text, int start, int best) {
+        final int[] trie = children;
+        int length = text.length();
+        int node = 0;
+
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            int symbol;
+            if (Character.isWhitespace(c)) {
+                if (Character.isWhitespace(text.charAt(i - 1))) {
+                    continue;
+                }
+                symbol = SPACE;
+            } else {
+                symbol = symbolOf(c);
+                if (symbol < 0) {
+                    return best;
+                }
+            }
+
+            node = trie[node * ALPHABET + symbol];
+            if (node == 0) {
+                return best;
+            }
+
+            int k = terminal[node];
+            if (k != NONE && (keywordPrefix[k] || i + 1 == length
+                    || !Character.isLetterOrDigit(text.charAt(i + 1)))) {
+                if (best == NONE || better(k, best)) {
+                    best = k;
+                }
+            }
+        }
+        return best;
+    }
+
+    private boolean better(int candidate, int current) {
+        if (keywordPriority[candidate] != keywordPriority[current]) {
+            return keywordPriority[candidate] > keywordPriority[current];
+        }
+        if (keywordLength[candidate] != keywordLength[current]) {
+            return keywordLength[candidate] > keywordLength[current];
+        }
+        return keywordCategory[candidate] < keywordCategory[current];
+    }
+
+    private static int symbolOf(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + (c - '0');
+        }
+        if (c == ' ') {
+            return SPACE;
+        }
+        if (c >= 128) {
+            // e.g. KELVIN SIGN folds to 'k'
+            char lower = Character.toLowerCase(c);
+            if (lower >= 'a' && lower <= 'z') {
+                return lower - 'a';
+            }
+        }
+        return NONE;
+    }
+
+    private static final class Rule {
+        final int category;
+        final int priority;
+        final String text;
+        final boolean prefix;
+
+        Rule(int category, int priority, String text, boolean prefix) {
+            this.category = category;
+            this.priority = priority;
+            this.text = text;
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * Collects keyword rules; categories rank in the order first added.
+     */
+    public static final class Builder {
+        private final List<String> categories = new ArrayList<>();
+        private final List<Rule> keywords = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Add keywords for a category.
+         *
+         * @param category Category name
+         * @param priority One of the PRIORITY_ constants (or any int)
+         * @param words    Lowercase [a-z0-9 ] keywords; trailing {@code *} for prefix match
+         */
+        public Builder add(String category, int priority, String... words) {
+            int index = categories.indexOf(category);
+            if (index < 0) {
+                index = categories.size();
+                categories.add(category);
+            }
+
+            for (String keyword : words) {
+                boolean prefix = keyword.endsWith("*");
+                String text = prefix ? keyword.substring(0, keyword.length() - 1) : keyword;
+                text = text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+                if (text.isEmpty()) {
+                    throw new IllegalArgumentException("Empty keyword for " + category);
+                }
+                for (int i = 0; i < text.length(); i++) {
+                    if (symbolOf(text.charAt(i)) < 0) {
+                        throw new IllegalArgumentException("Unsupported character in keyword: " + keyword);
+                    }
+                }
+
+                keywords.add(new Rule(index, priority, text, prefix));
+                if (text.indexOf(' ') >= 0) {
+                    // "uber eats" also matches "ubereats"
+                    keywords.add(new Rule(index, priority, text.replace(" ", ""), prefix));
+                }
+            }
+            return this;
+        }
+
+        public KeywordCategorizer build() {
+            if (keywords.isEmpty()) {
+                throw new IllegalStateException("No keywords");
+            }
+            return new KeywordCategorizer(this);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.dhanrakshak.ai.categorization;
+
+import android.util.Log;
+
+import com.dhanrakshak.data.local.dao.MerchantCategoryDao;
+import com.dhanrakshak.data.local.entity.MerchantCategory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+
+/**
+ * Learned merchant categories: the {@code merchant_categories} table with a
+ * concurrent in-memory front.
+ *
+ * The table is read once, on first lookup; after that a lookup is a plain
+ * {@link ConcurrentHashMap} read with no lock and no database access.
+ * Merchants are keyed by {@link MerchantNormalizer#normalize(String)}.
+ */
+@Singleton
+public class MerchantCategoryStore {
+
+    private static final String TAG = "MerchantCategoryStore";
+
+    private final MerchantCategoryDao merchantCategoryDao;
+
+    // Normalized merchant -> category name
+    private final Map<String, String> categories = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    @Inject
+    public MerchantCategoryStore(MerchantCategoryDao merchantCategoryDao) {
+        this.merchantCategoryDao = merchantCategoryDao;
+    }
+
+    /**
+     * Learned category for a merchant, or null. Blocks only on first use.
+     */
+    public String lookup(String merchant) {
+        String key = MerchantNormalizer.normalize(merchant);
+        if (key.isEmpty()) {
+            return null;
+        }
+        ensureLoaded();
+        return categories.get(key);
+    }
+
+    /**
+     * All learned mappings, normalized merchant -> category name.
+     */
+    public Map<String, String> getAll() {
+        ensureLoaded();
+        return new HashMap<>(categories);
+    }
+
+    /**
+     * Remember the user's choice for a merchant.
+     */
+    public Completable learn(String merchant, long categoryId, String categoryName) {
+        String key = MerchantNormalizer.normalize(merchant);
+        if (key.isEmpty()) {
+            return Completable.complete();
+        }
+        return merchantCategoryDao.upsert(
+                new MerchantCategory(key, categoryId, categoryName, System.currentTimeMillis()))
+                .doOnComplete(() -> {
+                    categories.put(key, categoryName);
+                    Log.d(TAG, "Learned: " + key + " -> " + categoryName);
+                });
+    }
+
+    /**
+     * Update learned entries after a category rename.
+     */
+    public Completable renameCategory(long categoryId, String oldName, String newName) {
+        return merchantCategoryDao.renameCategory(categoryId, newName)
+                .doOnComplete(() -> categories.replaceAll(
+                        (merchant, name) -> name.equals(oldName) ? newName : name));
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            for (MerchantCategory mapping : merchantCategoryDao.getAll().blockingGet()) {
+                // Choices learned while loading are newer than the table
+                categories.putIfAbsent(mapping.getMerchantKey(), mapping.getCategoryName());
+            }
+            loaded = true;
+            Log.d(TAG, "Loaded " + categories.size() + " learned merchants");
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package com.dhanrakshak.ai.categorization;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.hilt.android.qualifiers.ApplicationContext;
+
+/**
+ * On-device merchant classifier: multinomial naive Bayes over hashed
+ * character n-grams.
+ *
+ * Trained incrementally from the user's own category corrections, so it
+ * generalizes them to merchants it hasn't seen ("swiggy genie" after
+ * "swiggy instamart" was corrected). Each merchant becomes
+ * {@link #BUCKETS} hashed features (3- and 4-grams plus whole tokens);
+ * scoring is a table lookup and an addition per feature and class, a few
+ * microseconds with no model runtime. The model is a primitive array file
+ * in no-backup storage, rewritten after every {@link #SAVE_EVERY} updates.
+ *
+ * The learned merchant table is the source of truth: the model keeps one
+ * example per merchant, unlearns the old category on a relabel and stores
+ * the labels it was trained on, so {@link #bootstrap} can retrain when
+ * updates were lost before a save or the table changed behind it.
+ */
+@Singleton
+public class MerchantClassifier {
+
+    private static final String TAG = "MerchantClassifier";
+
+    private static final String MODEL_FILE = "merchant_classifier.bin";
+    private static final int FILE_MAGIC = 0x4D4E4232; // "MNB2"
+
+    /** Hashed feature space; power of two. */
+    static final int BUCKETS = 4096;
+
+    private static final double ALPHA = 0.1;
+    private static final int SAVE_EVERY = 8;
+
+    /** Below this many training examples the model never answers. */
+    static final int MIN_EXAMPLES = 20;
+    /** Minimum posterior for {@link #predict(String)} to answer. */
+    static final double MIN_POSTERIOR = 0.8;
+    /** Share of a merchant's features seen in training for it to be scored at all. */
+    static final double MIN_KNOWN_FEATURES = 0.5;
+
+    private final File file;
+    private final Executor ioExecutor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final List<String> classes = new ArrayList<>();
+    private final List<int[]> featureCounts = new ArrayList<>();
+    private final List<float[]> logLikelihoods = new ArrayList<>();
+    private int[] classExamples = new int[0];
+    private long[] classFeatureTotals = new long[0];
+    // Buckets seen in any class; unseen merchants are left to the rules
+    private final boolean[] knownFeatures = new boolean[BUCKETS];
+    // Normalized merchant -> category the model was trained on
+    private final Map<String, String> labels = new HashMap<>();
+    private int examples;
+    private int unsaved;
+    private boolean loaded;
+
+    @Inject
+    public MerchantClassifier(@ApplicationContext Context context) {
+        this(new File(context.getApplicationContext().getNoBackupFilesDir(), MODEL_FILE),
+                Executors.newSingleThreadExecutor());
+    }
+
+    MerchantClassifier(File file, Executor ioExecutor) {
+        this.file = file;
+        this.ioExecutor = ioExecutor;
+    }
+
+    /**
+     * Most likely category, or null if the model isn't confident enough.
+     */
+    public String predict(String merchant) {
+        int[] features = features(merchant);
+        if (features.length == 0) {
+            return null;
+        }
+
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            if (examples < MIN_EXAMPLES || classes.size() < 2) {
+                return null;
+            }
+
+            int known = 0;
+            for (int feature : features) {
+                if (knownFeatures[feature]) {
+                    known++;
+                }
+            }
+            if (known < features.length * MIN_KNOWN_FEATURES) {
+                return null;
+            }
+
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            double[] scores = new double[classes.size()];
+            for (int c = 0; c < classes.size(); c++) {
+                float[] table = logLikelihoods.get(c);
+                double score = Math.log(classExamples[c] / (double) examples);
+                for (int feature : features) {
+                    score += table[feature];
+                }
+                scores[c] = score;
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = c;
+                }
+            }
+
+            // Posterior of the winner via log-sum-exp
+            double sum = 0;
+            for (double score : scores) {
+                sum += Math.exp(score - bestScore);
+            }
+            return 1 / sum >= MIN_POSTERIOR ? classes.get(best) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add one labelled merchant, replacing its previous label if any.
+     */
+    public void train(String merchant, String category) {
+        int[] features = features(merchant);
+        if (features.length == 0 || category == null) {
+            return;
+        }
+
+        ensureLoaded();
+        boolean save;
+        lock.writeLock().lock();
+        try {
+            String previous = labels.put(MerchantNormalizer.normalize(merchant), category);
+            if (category.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                removeExample(features, previous);
+            }
+            addExample(features, category);
+            save = ++unsaved >= SAVE_EVERY;
+            if (save) {
+                unsaved = 0;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (save) {
+            ioExecutor.execute(this::save);
+        }
+    }
+
+    /**
+     * Retrain from scratch unless the model was trained on exactly these
+     * labels.
+     *
+     * @param labels Normalized merchant -> category, i.e. the learned
+     *               merchant table
+     */
+    public void bootstrap(Map<String, String> labels) {
+        ensureLoaded();
+        lock.writeLock().lock();
+        try {
+            if (this.labels.equals(labels)) {
+                return;
+            }
+            clear();
+            for (Map.Entry<String, String> entry : labels.entrySet()) {
+                int[] features = features(entry.getKey());
+                if (features.length > 0 && entry.getValue() != null) {
+                    this.labels.put(entry.getKey(), entry.getValue());
+                    addExample(features, entry.getValue());
+                }
+            }
+            unsaved = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ioExecutor.execute(this::save);
+    }
+
+    /**
+     * Number of examples trained on.
+     */
+    public int getExampleCount() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return examples;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compare this model against keyword rules on held-out labels.
+     *
+     * Every fifth label (by merchant hash) is held out; a fresh in-memory
+     * model trains on the rest. The saved model is not touched.
+     */
+    public static Evaluation evaluate(Map<String, String> labels, KeywordCategorizer rules) {
+        MerchantClassifier model = new MerchantClassifier(null, Runnable::run);
+
+        List<Map.Entry<String, String>> heldOut = new ArrayList<>();
+        for (Map.Entry<String, String> entry : labels.entrySet()) {
+            if (Math.floorMod(entry.getKey().hashCode(), 5) == 0) {
+                heldOut.add(entry);
+            } else {
+                int[] features = features(entry.getKey());
+                if (features.length > 0 && entry.getValue() != null) {
+                    model.addExample(features, entry.getValue());
+                }
+            }
+        }
+
+        Evaluation evaluation = new Evaluation();
+        for (Map.Entry<String, String> entry : heldOut) {
+            evaluation.samples++;
+            String predicted = model.predict(entry.getKey());
+            if (predicted != null) {
+                evaluation.modelAnswered++;
+                if (predicted.equals(entry.getValue())) {
+                    evaluation.modelCorrect++;
+                }
+            }
+            if (entry.getValue().equalsIgnoreCase(rules.categorize(entry.getKey(), null))) {
+                evaluation.rulesCorrect++;
+            }
+        }
+        return evaluation;
+    }
+
+    // Caller holds the write lock
+    private void addExample(int[] features, String category) {
+        int c = classes.indexOf(category);
+        if (c < 0) {
+            c = classes.size();
+            classes.add(category);
+            featureCounts.add(new int[BUCKETS]);
+            logLikelihoods.add(new float[BUCKETS]);
+            classExamples = Arrays.copyOf(classExamples, c + 1);
+            classFeatureTotals = Arrays.copyOf(classFeatureTotals, c + 1);
+        }
+
+        int[] counts = featureCounts.get(c);
+        for (int feature : features) {
+            counts[feature]++;
+            knownFeatures[feature] = true;
+        }
+        classExamples[c]++;
+        classFeatureTotals[c] += features.length;
+        examples++;
+        updateLogLikelihoods(c);
+    }
+
+    // Caller holds the write lock
+    private void removeExample(int[] features, String category) {
+        int c = classes.indexOf(category);
+        if (c < 0 || classExamples[c] == 0) {
+            return;
+        }
+
+        int[] counts = featureCounts.get(c);
+        for (int feature : features) {
+            counts[feature]--;
+        }
+        classExamples[c]--;
+        classFeatureTotals[c] -= features.length;
+        examples--;
+        updateLogLikelihoods(c);
+        for (int feature : features) {
+            knownFeatures[feature] = isKnown(feature);
+        }
+    }
+
+    private boolean isKnown(int feature) {
+        for (int[] counts : featureCounts) {
+            if (counts[feature] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Caller holds the write lock
+    private void clear() {
+        classes.clear();
+        featureCounts.clear();
+        logLikelihoods.clear();
+        classExamples = new int[0];
+        classFeatureTotals = new long[0];
+        Arrays.fill(knownFeatures, false);
+        labels.clear();
+        examples = 0;
+    }
+
+    // Precomputed so scoring is additions only
+    private void updateLogLikelihoods(int c) {
+        int[] counts = featureCounts.get(c);
+        float[] table = logLikelihoods.get(c);
+        double logDenominator = Math.log(classFeatureTotals[c] + ALPHA * BUCKETS);
+        for (int i = 0; i < BUCKETS; i++) {
+            table[i] = (float) (Math.log(counts[i] + ALPHA) - logDenominator);
+        }
+    }
+
+    /**
+     * Hashed feature buckets of a merchant (may repeat).
+     */
+    static int[] features(String merchant) {
+        String key = MerchantNormalizer.normalize(merchant);
+        if (key.isEmpty()) {
+            return new int[0];
+        }
+
+        String padded = "^" + key + "$";
+        int length = padded.length();
+        int[] features = new int[Math.max(0, length - 2) + Math.max(0, length - 3) + key.length() / 2 + 1];
+        int count = 0;
+
+        for (int n = 3; n <= 4; n++) {
+            for (int i = 0; i + n <= length; i++) {
+                features[count++] = bucket(padded, i, i + n, n);
+            }
+        }
+
+        int tokenStart = 0;
+        for (int i = 0; i <= key.length(); i++) {
+            if (i == key.length() || key.charAt(i) == ' ') {
+                if (i > tokenStart && count < features.length) {
+                    features[count++] = bucket(key, tokenStart, i, 0x7F);
+                }
+                tokenStart = i + 1;
+            }
+        }
+        return count == features.length ? features : Arrays.copyOf(features, count);
+    }
+
+    // FNV-1a, seeded per feature kind
+    private static int bucket(String s, int from, int to, int seed) {
+        int hash = 0x811C9DC5 ^ seed;
+        for (int i = from; i < to; i++) {
+            hash ^= s.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash & (BUCKETS - 1);
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                load();
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void load() {
+        if (file == null || !file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != BUCKETS) {
+                Log.w(TAG, "Discarding incompatible model file");
+                return;
+            }
+            int classCount = in.readInt();
+            classExamples = new int[classCount];
+            classFeatureTotals = new long[classCount];
+            for (int c = 0; c < classCount; c++) {
+                classes.add(in.readUTF());
+                classExamples[c] = in.readInt();
+                classFeatureTotals[c] = in.readLong();
+                int[] counts = new int[BUCKETS];
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts[i] = in.readInt();
+                    knownFeatures[i] |= counts[i] > 0;
+                }
+                featureCounts.add(counts);
+                logLikelihoods.add(new float[BUCKETS]);
+                updateLogLikelihoods(c);
+                examples += classExamples[c];
+            }
+            int labelCount = in.readInt();
+            for (int i = 0; i < labelCount; i++) {
+                labels.put(in.readUTF(), in.readUTF());
+            }
+            Log.d(TAG, "Loaded model: " + classCount + " categories, " + examples + " examples");
+        } catch (Exception e) {
+            Log.w(TAG, "Discarding unreadable model file", e);
+            clear();
+            file.delete();
+        }
+    }
+
+    private void save() {
+        if (file == null) {
+            return;
+        }
+
+        // Write then rename so a crash never leaves a half-written file
+        File temp = new File(file.getPath() + ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(BUCKETS);
+            out.writeInt(classes.size());
+            for (int c = 0; c < classes.size(); c++) {
+                out.writeUTF(classes.get(c));
+                out.writeInt(classExamples[c]);
+                out.writeLong(classFeatureTotals[c]);
+                for (int count : featureCounts.get(c)) {
+                    out.writeInt(count);
+                }
+            }
+            out.writeInt(labels.size());
+            for (Map.Entry<String, String> label : labels.entrySet()) {
+                out.writeUTF(label.getKey());
+                out.writeUTF(label.getValue());
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to save model", e);
+            temp.delete();
+            return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!temp.renameTo(file)) {
+            Log.w(TAG, "Failed to replace model file");
+            temp.delete();
+        }
+    }
+
+    /**
+     * Held-out comparison of the model against keyword rules.
+     */
+    public static class Evaluation {
+        int samples;
+        int modelAnswered;
+        int modelCorrect;
+        int rulesCorrect;
+
+        public int getSamples() {
+            return samples;
+        }
+
+        /** Share of held-out merchants the model was confident about. */
+        public double getModelCoverage() {
+            return samples > 0 ? (double) modelAnswered / samples : 0;
+        }
+
+        /** Accuracy of the model where it answered. */
+        public double getModelPrecision() {
+            return modelAnswered > 0 ? (double) modelCorrect / modelAnswered : 0;
+        }
+
+        public double getRulesAccuracy() {
+            return samples > 0 ? (double) rulesCorrect / samples : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "samples=%d model coverage=%.2f precision=%.2f rules accuracy=%.2f",
+                    samples, getModelCoverage(), getModelPrecision(), getRulesAccuracy());
+        }
+    }
+}
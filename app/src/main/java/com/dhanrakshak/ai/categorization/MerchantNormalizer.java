@@ -0,0 +1,70 @@
+package com.dhanrakshak.ai.categorization;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces merchant strings from bank SMS to a stable lookup key.
+ *
+ * The same merchant shows up as "UPI-SWIGGY@ICICI", "swiggy@axisbank",
+ * "SWIGGY*ORDER 48213" or "Swiggy Pvt Ltd"; all of these become "swiggy".
+ * UPI handles lose their bank suffix, payment-rail prefixes and tokens that
+ * look like store or order IDs are dropped, and legal suffixes are removed.
+ */
+public final class MerchantNormalizer {
+
+    // "swiggy@icici" -> "swiggy"
+    private static final Pattern UPI_HANDLE = Pattern.compile("([a-z0-9._-]+)@[a-z]+");
+    private static final Pattern RAIL_PREFIX = Pattern.compile(
+            "^(?:upi|pos|vps|ach|nach|imps|neft|ecom|bil|mmt)[\\s/*:-]+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+    // IDs: three or more digits in a token ("store0456", "48213")
+    private static final int MAX_DIGITS_PER_TOKEN = 2;
+
+    private static final Set<String> NOISE = new HashSet<>(Arrays.asList(
+            "pvt", "private", "ltd", "limited", "llp", "inc", "co", "corp", "the",
+            "india", "www", "com", "in", "net", "online", "order"));
+
+    private MerchantNormalizer() {
+    }
+
+    /**
+     * Lookup key for a merchant; empty if nothing stable is left.
+     */
+    public static String normalize(String merchant) {
+        if (merchant == null || merchant.isEmpty()) {
+            return "";
+        }
+
+        String text = merchant.toLowerCase(Locale.ROOT).trim();
+        text = RAIL_PREFIX.matcher(text).replaceFirst("");
+        text = UPI_HANDLE.matcher(text).replaceAll("$1");
+
+        StringBuilder key = new StringBuilder(text.length());
+        for (String token : NON_ALNUM.split(text)) {
+            if (token.isEmpty() || NOISE.contains(token) || digitCount(token) > MAX_DIGITS_PER_TOKEN) {
+                continue;
+            }
+            if (key.length() > 0) {
+                key.append(' ');
+            }
+            key.append(token);
+        }
+        return key.toString();
+    }
+
+    private static int digitCount(String token) {
+        int digits = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            }
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,238 @@
+package com.dhanrakshak.ai.categorization;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.hilt.work.HiltWorker;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.dhanrakshak.data.local.dao.ExpenseCategoryDao;
+import com.dhanrakshak.data.local.dao.SmsTransactionDao;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
+import com.dhanrakshak.data.local.entity.ExpenseCategory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dagger.assisted.Assisted;
+import dagger.assisted.AssistedInject;
+
+/**
+ * Bulk (re)categorization of SMS transactions.
+ *
+ * Reads keyset pages of (id, merchant, category) only, categorizes each page
+ * in memory on a small thread pool, and applies it in one transaction with
+ * one {@code UPDATE ... WHERE id IN (...)} per category. Category names are
+ * resolved once per run; rows whose category doesn't change are not written.
+ */
+@HiltWorker
+public class RecategorizationWorker extends Worker {
+
+    private static final String TAG = "RecategorizationWorker";
+    public static final String WORK_NAME = "recategorization_work";
+
+    public static final String KEY_INCLUDE_CATEGORIZED = "include_categorized";
+
+    public static final String PROGRESS_PROCESSED = "processed";
+    public static final String PROGRESS_TOTAL = "total";
+    public static final String PROGRESS_UPDATED = "updated";
+
+    private static final int PAGE_SIZE = 2_000;
+    private static final int MAX_THREADS = 4;
+
+    // Below SQLite's default 999 bound-parameter limit
+    private static final int UPDATE_CHUNK = 500;
+
+    // Engine category names that the default category table spells differently
+    private static final Map<String, String> ALIASES = new HashMap<>();
+
+    static {
+        ALIASES.put("transportation", "transport");
+        ALIASES.put("investment", "investments");
+        ALIASES.put("others", "other");
+    }
+
+    private final ExpenseCategorizationEngine engine;
+    private final SmsTransactionDao smsTransactionDao;
+    private final ExpenseCategoryDao categoryDao;
+    private final DhanRakshakDatabase database;
+
+    @AssistedInject
+    public RecategorizationWorker(
+            @Assisted @NonNull Context context,
+            @Assisted @NonNull WorkerParameters params,
+            ExpenseCategorizationEngine engine,
+            SmsTransactionDao smsTransactionDao,
+            ExpenseCategoryDao categoryDao,
+            DhanRakshakDatabase database) {
+        super(context, params);
+        this.engine = engine;
+        this.smsTransactionDao = smsTransactionDao;
+        this.categoryDao = categoryDao;
+        this.database = database;
+    }
+
+    /**
+     * Queue a run.
+     *
+     * @param includeCategorized Also redo rows that already have a category
+     *                           (restarts a running job); otherwise only
+     *                           uncategorized rows (joins a running job)
+     */
+    public static void enqueue(Context context, boolean includeCategorized) {
+        OneTimeWorkRequest workRequest = new OneTimeWorkRequest.Builder(RecategorizationWorker.class)
+                .setInputData(new Data.Builder()
+                        .putBoolean(KEY_INCLUDE_CATEGORIZED, includeCategorized)
+                        .build())
+                .addTag("recategorization")
+                .build();
+
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME,
+                includeCategorized ? ExistingWorkPolicy.REPLACE : ExistingWorkPolicy.KEEP,
+                workRequest);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        boolean includeCategorized = getInputData().getBoolean(KEY_INCLUDE_CATEGORIZED, false);
+
+        int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        int processed = 0;
+        int updated = 0;
+        long start = System.currentTimeMillis();
+
+        try {
+            Map<String, String> storedNames = loadCategoryNames();
+            int total = smsTransactionDao.countForCategorization(includeCategorized).blockingGet();
+            long afterId = 0;
+
+            while (!isStopped()) {
+                List<SmsTransactionDao.CategoryRef> page = smsTransactionDao
+                        .getCategorizationPage(afterId, includeCategorized, PAGE_SIZE).blockingGet();
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                List<String> categories = categorizePage(page, executor, threads);
+                Map<String, List<Long>> idsByCategory = new LinkedHashMap<>();
+                for (int i = 0; i < page.size(); i++) {
+                    SmsTransactionDao.CategoryRef row = page.get(i);
+                    String category = storedNames.get(categories.get(i).toLowerCase(Locale.ROOT));
+                    if (category == null || category.equals(row.category)) {
+                        continue;
+                    }
+                    List<Long> ids = idsByCategory.get(category);
+                    if (ids == null) {
+                        ids = new ArrayList<>();
+                        idsByCategory.put(category, ids);
+                    }
+                    ids.add(row.id);
+                }
+
+                updated += apply(idsByCategory);
+                processed += page.size();
+                afterId = page.get(page.size() - 1).id;
+
+                setProgressAsync(new Data.Builder()
+                        .putInt(PROGRESS_PROCESSED, processed)
+                        .putInt(PROGRESS_TOTAL, total)
+                        .putInt(PROGRESS_UPDATED, updated)
+                        .build());
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Recategorization failed after " + processed + " rows", e);
+            return Result.retry();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Log.i(TAG, "Recategorized " + updated + " of " + processed + " transactions in "
+                + (System.currentTimeMillis() - start) + " ms");
+
+        return Result.success(new Data.Builder()
+                .putInt(PROGRESS_PROCESSED, processed)
+                .putInt(PROGRESS_UPDATED, updated)
+                .build());
+    }
+
+    /**
+     * Lowercased engine category name -> stored category name.
+     */
+    private Map<String, String> loadCategoryNames() {
+        Map<String, String> names = new HashMap<>();
+        for (ExpenseCategory category : categoryDao.getAllCategories().blockingFirst()) {
+            names.put(category.getName().toLowerCase(Locale.ROOT), category.getName());
+        }
+        for (Map.Entry<String, String> alias : ALIASES.entrySet()) {
+            String target = names.get(alias.getValue());
+            if (target != null && !names.containsKey(alias.getKey())) {
+                names.put(alias.getKey(), target);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Categorize a page on the pool, one contiguous slice per thread, keeping order.
+     */
+    private List<String> categorizePage(List<SmsTransactionDao.CategoryRef> page, ExecutorService executor,
+            int threads) throws Exception {
+        int sliceSize = (page.size() + threads - 1) / threads;
+        List<Callable<List<String>>> tasks = new ArrayList<>(threads);
+        for (int from = 0; from < page.size(); from += sliceSize) {
+            List<SmsTransactionDao.CategoryRef> slice = page.subList(from,
+                    Math.min(page.size(), from + sliceSize));
+            tasks.add(() -> {
+                List<String> merchants = new ArrayList<>(slice.size());
+                for (SmsTransactionDao.CategoryRef row : slice) {
+                    merchants.add(row.merchant);
+                }
+                return engine.categorizeMerchants(merchants);
+            });
+        }
+
+        List<String> results = new ArrayList<>(page.size());
+        for (Future<List<String>> future : executor.invokeAll(tasks)) {
+            results.addAll(future.get());
+        }
+        return results;
+    }
+
+    /**
+     * Write one page in a single transaction.
+     */
+    private int apply(Map<String, List<Long>> idsByCategory) {
+        if (idsByCategory.isEmpty()) {
+            return 0;
+        }
+        return database.runInTransaction(() -> {
+            int count = 0;
+            for (Map.Entry<String, List<Long>> entry : idsByCategory.entrySet()) {
+                List<Long> ids = entry.getValue();
+                for (int from = 0; from < ids.size(); from += UPDATE_CHUNK) {
+                    List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + UPDATE_CHUNK));
+                    smsTransactionDao.setCategory(entry.getKey(), chunk).blockingAwait();
+                }
+                count += ids.size();
+            }
+            return count;
+        });
+    }
+}
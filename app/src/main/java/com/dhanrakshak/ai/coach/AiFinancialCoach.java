@@ -4,11 +4,11 @@ import android.content.Context;
 
 import com.dhanrakshak.data.local.dao.BudgetDao;
 import com.dhanrakshak.data.local.dao.SmsTransactionDao;
+import com.dhanrakshak.data.local.dao.SpendingRollupDao;
 import com.dhanrakshak.data.local.entity.Budget;
-import com.dhanrakshak.data.local.entity.SmsTransaction;
+import com.dhanrakshak.data.local.entity.SpendingRollup;
 
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,55 +27,41 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 public class AiFinancialCoach {
 
     private final Context context;
-    private final SmsTransactionDao smsTransactionDao;
+    private final SpendingRollupDao spendingRollupDao;
     private final BudgetDao budgetDao;
 
     @Inject
-    public AiFinancialCoach(Context context, SmsTransactionDao smsTransactionDao,
+    public AiFinancialCoach(Context context, SpendingRollupDao spendingRollupDao,
             BudgetDao budgetDao) {
         this.context = context.getApplicationContext();
-        this.smsTransactionDao = smsTransactionDao;
+        this.spendingRollupDao = spendingRollupDao;
         this.budgetDao = budgetDao;
     }
 
     /**
      * Get weekly spending analysis with insights.
+     * This week is today and the six days before; read from the daily rollup.
      */
     public Single<WeeklyAnalysis> getWeeklyAnalysis() {
-        Calendar cal = Calendar.getInstance();
-        long endDate = cal.getTimeInMillis();
-        cal.add(Calendar.DAY_OF_YEAR, -7);
-        long startDate = cal.getTimeInMillis();
-
-        // Previous week for comparison
-        cal.add(Calendar.DAY_OF_YEAR, -7);
-        long prevStartDate = cal.getTimeInMillis();
+        int today = SpendingRollup.toDay(System.currentTimeMillis());
 
         return Single.zip(
-                smsTransactionDao.getTransactionsBetweenDates(startDate, endDate).firstOrError(),
-                smsTransactionDao.getTransactionsBetweenDates(prevStartDate, startDate).firstOrError(),
+                spendingRollupDao.getCategoryTotals("DEBIT", today - 6, today),
+                // Previous week for comparison
+                spendingRollupDao.getTotal("DEBIT", today - 13, today - 7),
                 (thisWeek, lastWeek) -> analyzeWeeklySpending(thisWeek, lastWeek)).subscribeOn(Schedulers.io());
     }
 
-    private WeeklyAnalysis analyzeWeeklySpending(List<SmsTransaction> thisWeek,
-            List<SmsTransaction> lastWeek) {
+    private WeeklyAnalysis analyzeWeeklySpending(List<SmsTransactionDao.CategorySum> thisWeek,
+            double lastWeekSpending) {
         // Calculate totals
         double thisWeekSpending = 0;
-        double lastWeekSpending = 0;
         Map<String, Double> categorySpending = new HashMap<>();
 
-        for (SmsTransaction tx : thisWeek) {
-            if ("DEBIT".equals(tx.getTransactionType())) {
-                thisWeekSpending += tx.getAmount();
-                String category = tx.getCategory() != null ? tx.getCategory() : "Others";
-                categorySpending.merge(category, tx.getAmount(), Double::sum);
-            }
-        }
-
-        for (SmsTransaction tx : lastWeek) {
-            if ("DEBIT".equals(tx.getTransactionType())) {
-                lastWeekSpending += tx.getAmount();
-            }
+        for (SmsTransactionDao.CategorySum sum : thisWeek) {
+            thisWeekSpending += sum.total;
+            String category = sum.category != null ? sum.category : "Others";
+            categorySpending.merge(category, sum.total, Double::sum);
         }
 
         // Calculate change
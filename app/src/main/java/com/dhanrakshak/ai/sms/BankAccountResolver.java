@@ -0,0 +1,121 @@
+package com.dhanrakshak.ai.sms;
+
+import android.util.Log;
+
+import com.dhanrakshak.data.local.dao.BankAccountDao;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
+import com.dhanrakshak.data.local.entity.BankAccount;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Maps (bank, last 4 digits) to a bank account id without a database round
+ * trip on the hot path.
+ *
+ * The map is warmed from {@link BankAccountDao#getAllAccounts()} and rebuilt
+ * whenever the table changes, so deleted accounts drop out. A miss looks the
+ * account up and creates it if needed inside one write transaction; SQLite
+ * serializes writers, so concurrent workers can't create the same account twice.
+ */
+@Singleton
+public class BankAccountResolver {
+
+    private static final String TAG = "BankAccountResolver";
+
+    public static final String UNKNOWN_BANK = "Unknown Bank";
+    public static final String UNKNOWN_LAST4 = "0000";
+
+    private final DhanRakshakDatabase database;
+    private final BankAccountDao bankAccountDao;
+
+    private volatile Map<String, Long> accountIds = new ConcurrentHashMap<>();
+
+    @Inject
+    public BankAccountResolver(DhanRakshakDatabase database, BankAccountDao bankAccountDao) {
+        this.database = database;
+        this.bankAccountDao = bankAccountDao;
+
+        bankAccountDao.getAllAccounts()
+                .subscribeOn(Schedulers.io())
+                .subscribe(this::rebuild, error -> Log.e(TAG, "Account cache update failed", error));
+    }
+
+    /**
+     * Id of the account, creating it if it doesn't exist. Blocking.
+     *
+     * @param bankName       Parsed bank name (null or UNKNOWN maps to {@link #UNKNOWN_BANK})
+     * @param accountLast4   Parsed last 4 digits (null maps to {@link #UNKNOWN_LAST4})
+     * @param initialBalance Balance for a newly created account
+     * @param timestamp      Last-updated time for a newly created account
+     */
+    public long resolve(String bankName, String accountLast4, double initialBalance, long timestamp) {
+        String bank = bankName == null || bankName.equals("UNKNOWN") ? UNKNOWN_BANK : bankName;
+        String last4 = accountLast4 == null ? UNKNOWN_LAST4 : accountLast4;
+        String key = key(bank, last4);
+
+        Long cached = accountIds.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long id = database.runInTransaction(() -> {
+            long existing = findAccountId(bank, last4);
+            if (existing != 0) {
+                return existing;
+            }
+
+            BankAccount newAccount = new BankAccount(bank, "SAVINGS", last4);
+            newAccount.setBalance(initialBalance);
+            // Dated by the SMS so newer messages can still update the balance
+            newAccount.setLastUpdated(timestamp);
+            Log.d(TAG, "Creating new bank account for " + bank);
+            return bankAccountDao.insertAndGetId(newAccount).blockingGet();
+        });
+
+        accountIds.put(key, id);
+        return id;
+    }
+
+    /**
+     * Drop cached ids, e.g. after a transaction that may have created
+     * accounts was rolled back.
+     */
+    public void invalidate() {
+        accountIds = new ConcurrentHashMap<>();
+    }
+
+    private void rebuild(List<BankAccount> accounts) {
+        Map<String, Long> ids = new ConcurrentHashMap<>();
+        for (BankAccount account : accounts) {
+            if (account.getBankName() != null && account.getAccountNumberLast4() != null) {
+                // Oldest account wins if the table already holds duplicates
+                ids.merge(key(account.getBankName(), account.getAccountNumberLast4()),
+                        account.getId(), Math::min);
+            }
+        }
+        accountIds = ids;
+    }
+
+    private long findAccountId(String bankName, String accountLast4) {
+        try {
+            BankAccount existing = bankAccountDao
+                    .findByBankAndLast4(bankName, accountLast4)
+                    .blockingGet();
+            return existing != null ? existing.getId() : 0;
+        } catch (Exception e) {
+            // Empty result
+            return 0;
+        }
+    }
+
+    private static String key(String bankName, String accountLast4) {
+        return bankName + "|" + accountLast4;
+    }
+}
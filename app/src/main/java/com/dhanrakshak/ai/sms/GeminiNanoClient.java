@@ -5,18 +5,29 @@ import android.util.Log;
 
 import com.google.ai.edge.aicore.Content;
 import com.google.ai.edge.aicore.GenerativeModel;
-import com.google.ai.edge.aicore.GenerativeModelFutures;
 import com.google.ai.edge.aicore.GenerateContentResponse;
 import com.google.ai.edge.aicore.java.GenerativeModelFutures;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -35,14 +46,29 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
  * - Other devices with AI Core support
  * 
  * Privacy: All inference runs locally on device - no data sent to cloud.
+ *
+ * Model calls are the slowest step of SMS ingestion, so SMS parsing is batched
+ * (several messages per prompt), results are cached in memory per masked message
+ * template (see {@link MaskedSmsTemplate}) and categories per merchant, and
+ * identical requests already in flight are shared instead of repeated.
  */
 @Singleton
 public class GeminiNanoClient {
 
     private static final String TAG = "GeminiNanoClient";
 
+    // Small on-device context window; keep prompts short
+    private static final int MAX_SMS_PER_PROMPT = 8;
+    private static final long INFERENCE_TIMEOUT_SECONDS = 30;
+    private static final Pattern MERCHANT_NOISE = Pattern.compile("[\\d\\s]+");
+
     private final Context context;
     private final Executor executor = Executors.newSingleThreadExecutor();
+    private final GeminiResultCache cache = new GeminiResultCache();
+
+    // Template key / merchant key -> pending model call
+    private final Map<String, CompletableFuture<Inference>> smsInFlight = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> categoryInFlight = new ConcurrentHashMap<>();
 
     private GenerativeModel generativeModel;
     private GenerativeModelFutures modelFutures;
@@ -69,6 +95,26 @@ public class GeminiNanoClient {
             Example: {"transactionType":"DEBIT","amount":500.00,"balance":12500.50,"merchant":"Swiggy","accountLastFour":"1234","referenceNumber":"123456789012","transactionMode":"UPI"}
             """;
 
+    // Prompt template for several SMS in one call
+    private static final String SMS_BATCH_PARSING_PROMPT = """
+            You are a financial transaction parser for Indian bank SMS messages.
+            Parse each numbered SMS below and extract transaction details as JSON.
+
+            %s
+            For each SMS extract these fields (use null if not found):
+            - index: the SMS number in brackets
+            - transactionType: "CREDIT" or "DEBIT"
+            - amount: number (in INR)
+            - balance: number (remaining balance if mentioned)
+            - merchant: string (payee/payer name)
+            - accountLastFour: string (last 4 digits of account)
+            - referenceNumber: string (UPI ref, transaction ID)
+            - transactionMode: "UPI", "NEFT", "IMPS", "ATM", "POS", "CARD", or "OTHER"
+
+            Respond ONLY with a valid JSON array, one object per SMS, no explanation.
+            Example: [{"index":1,"transactionType":"DEBIT","amount":500.00,"balance":12500.50,"merchant":"Swiggy","accountLastFour":"1234","referenceNumber":"123456789012","transactionMode":"UPI"}]
+            """;
+
     @Inject
     public GeminiNanoClient(Context context) {
         this.context = context.getApplicationContext();
@@ -124,115 +170,231 @@ public class GeminiNanoClient {
      * @return Parsed transaction or null if parsing failed
      */
     public Single<ParsedSmsTransaction> parseSms(String smsBody) {
+        return parseSmsBatch(Collections.singletonList(smsBody))
+                .flatMap(results -> results.get(0) != null
+                        ? Single.just(results.get(0))
+                        : Single.error(new Exception("Failed to parse AI response")));
+    }
+
+    /**
+     * Parse several SMS with as few model calls as possible.
+     *
+     * Messages whose template is cached are answered without the model;
+     * the rest are deduplicated by template (also against calls already in
+     * flight) and sent {@link #MAX_SMS_PER_PROMPT} per prompt.
+     *
+     * @param smsBodies Raw SMS texts
+     * @return Results in input order; null where parsing failed
+     */
+    public Single<List<ParsedSmsTransaction>> parseSmsBatch(List<String> smsBodies) {
         if (!isAvailable || modelFutures == null) {
             return Single.error(new IllegalStateException("Gemini Nano not available"));
         }
 
-        return Single.create(emitter -> {
-            try {
-                String prompt = String.format(SMS_PARSING_PROMPT, smsBody);
+        return Single.fromCallable(() -> parseSmsBatchBlocking(smsBodies))
+                .subscribeOn(Schedulers.io());
+    }
 
-                Content content = new Content.Builder()
-                        .addText(prompt)
-                        .build();
+    private List<ParsedSmsTransaction> parseSmsBatchBlocking(List<String> smsBodies) {
+        int count = smsBodies.size();
+        ParsedSmsTransaction[] results = new ParsedSmsTransaction[count];
+        MaskedSmsTemplate[] templates = new MaskedSmsTemplate[count];
+        List<CompletableFuture<Inference>> pending = new ArrayList<>(Collections.nCopies(count, null));
+        List<InferenceRequest> owned = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            String body = smsBodies.get(i);
+            templates[i] = MaskedSmsTemplate.of(body);
+            String key = templates[i].getKey();
+
+            MaskedSmsTemplate.FieldMapping mapping = cache.getTemplate(key);
+            if (mapping != null) {
+                results[i] = templates[i].apply(mapping, body);
+                if (results[i] != null) {
+                    continue;
+                }
+            }
 
-                ListenableFuture<GenerateContentResponse> future = modelFutures.generateContent(content);
+            CompletableFuture<Inference> mine = new CompletableFuture<>();
+            CompletableFuture<Inference> existing = smsInFlight.putIfAbsent(key, mine);
+            if (existing == null) {
+                owned.add(new InferenceRequest(key, body, templates[i], mine));
+                pending.set(i, mine);
+            } else {
+                pending.set(i, existing);
+            }
+        }
 
-                Futures.addCallback(future, new FutureCallback<GenerateContentResponse>() {
-                    @Override
-                    public void onSuccess(GenerateContentResponse response) {
-                        try {
-                            String responseText = response.getText();
-                            Log.d(TAG, "AI Response: " + responseText);
-
-                            ParsedSmsTransaction transaction = parseJsonResponse(responseText, smsBody);
-                            if (transaction != null) {
-                                emitter.onSuccess(transaction);
-                            } else {
-                                emitter.onError(new Exception("Failed to parse AI response"));
-                            }
-                        } catch (Exception e) {
-                            emitter.onError(e);
-                        }
-                    }
+        for (int from = 0; from < owned.size(); from += MAX_SMS_PER_PROMPT) {
+            inferBatch(owned.subList(from, Math.min(owned.size(), from + MAX_SMS_PER_PROMPT)));
+        }
 
-                    @Override
-                    public void onFailure(Throwable t) {
-                        Log.e(TAG, "AI inference failed", t);
-                        emitter.onError(t);
-                    }
-                }, executor);
+        for (int i = 0; i < count; i++) {
+            CompletableFuture<Inference> future = pending.get(i);
+            if (future == null) {
+                continue;
+            }
+            Inference inference = await(future);
+            if (inference == null || inference.parsed == null) {
+                continue;
+            }
 
-            } catch (Exception e) {
-                emitter.onError(e);
+            String body = smsBodies.get(i);
+            if (inference.mapping != null) {
+                results[i] = templates[i].apply(inference.mapping, body);
+            } else if (inference.body.equals(body)) {
+                results[i] = inference.parsed;
+            } else {
+                // Same template but the result wasn't reusable: ask for this one
+                results[i] = inferOne(body);
             }
-        }).subscribeOn(Schedulers.io());
+        }
+
+        return Arrays.asList(results);
     }
 
     /**
-     * Parse JSON response from AI into ParsedSmsTransaction.
+     * One model call for a group of distinct templates. Always completes
+     * every request's future.
      */
-    private ParsedSmsTransaction parseJsonResponse(String jsonStr, String originalSms) {
+    private void inferBatch(List<InferenceRequest> requests) {
+        Map<Integer, ParsedSmsTransaction> byIndex = new HashMap<>();
         try {
-            // Clean up response - AI might add markdown formatting
-            jsonStr = jsonStr.trim();
-            if (jsonStr.startsWith("```json")) {
-                jsonStr = jsonStr.substring(7);
-            }
-            if (jsonStr.startsWith("```")) {
-                jsonStr = jsonStr.substring(3);
+            if (requests.size() == 1) {
+                String body = requests.get(0).body;
+                byIndex.put(1, parseJsonResponse(
+                        generate(String.format(SMS_PARSING_PROMPT, body)), body));
+            } else {
+                StringBuilder numbered = new StringBuilder();
+                for (int i = 0; i < requests.size(); i++) {
+                    numbered.append('[').append(i + 1).append("] ")
+                            .append(requests.get(i).body.replace('\n', ' ')).append('\n');
+                }
+                String response = generate(String.format(SMS_BATCH_PARSING_PROMPT, numbered));
+                JSONArray array = new JSONArray(stripCodeFence(response));
+                for (int i = 0; i < array.length(); i++) {
+                    JSONObject json = array.optJSONObject(i);
+                    int index = json == null ? -1 : json.optInt("index", i + 1);
+                    if (index >= 1 && index <= requests.size()) {
+                        byIndex.put(index, toTransaction(json, requests.get(index - 1).body));
+                    }
+                }
             }
-            if (jsonStr.endsWith("```")) {
-                jsonStr = jsonStr.substring(0, jsonStr.length() - 3);
+        } catch (Exception e) {
+            Log.e(TAG, "AI inference failed for " + requests.size() + " SMS", e);
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            InferenceRequest request = requests.get(i);
+            ParsedSmsTransaction parsed = byIndex.get(i + 1);
+            MaskedSmsTemplate.FieldMapping mapping = request.template.map(parsed);
+            if (mapping != null) {
+                cache.putTemplate(request.key, mapping);
             }
-            jsonStr = jsonStr.trim();
+            request.future.complete(new Inference(request.body, parsed, mapping));
+            smsInFlight.remove(request.key, request.future);
+        }
+    }
 
-            JSONObject json = new JSONObject(jsonStr);
+    private ParsedSmsTransaction inferOne(String smsBody) {
+        try {
+            return parseJsonResponse(generate(String.format(SMS_PARSING_PROMPT, smsBody)), smsBody);
+        } catch (Exception e) {
+            Log.e(TAG, "AI inference failed", e);
+            return null;
+        }
+    }
 
-            ParsedSmsTransaction tx = new ParsedSmsTransaction();
-            tx.setOriginalMessage(originalSms);
-            tx.setParsingMethod("GEMINI_NANO");
-            tx.setConfidenceScore(0.95); // AI has high confidence
+    /**
+     * Blocking model call.
+     */
+    private String generate(String prompt) throws Exception {
+        Content content = new Content.Builder()
+                .addText(prompt)
+                .build();
+
+        GenerateContentResponse response = modelFutures.generateContent(content)
+                .get(INFERENCE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return response.getText();
+    }
 
-            if (json.has("transactionType") && !json.isNull("transactionType")) {
-                tx.setTransactionType(json.getString("transactionType"));
-            }
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(INFERENCE_TIMEOUT_SECONDS * 2, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            return null;
+        }
+    }
 
-            if (json.has("amount") && !json.isNull("amount")) {
-                tx.setAmount(json.getDouble("amount"));
-            }
+    /**
+     * Parse JSON response from AI into ParsedSmsTransaction.
+     */
+    private ParsedSmsTransaction parseJsonResponse(String jsonStr, String originalSms) {
+        try {
+            return toTransaction(new JSONObject(stripCodeFence(jsonStr)), originalSms);
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to parse JSON: " + e.getMessage());
+            return null;
+        }
+    }
 
-            if (json.has("balance") && !json.isNull("balance")) {
-                tx.setBalance(json.getDouble("balance"));
-            }
+    private static String stripCodeFence(String jsonStr) {
+        // Clean up response - AI might add markdown formatting
+        jsonStr = jsonStr.trim();
+        if (jsonStr.startsWith("```json")) {
+            jsonStr = jsonStr.substring(7);
+        }
+        if (jsonStr.startsWith("```")) {
+            jsonStr = jsonStr.substring(3);
+        }
+        if (jsonStr.endsWith("```")) {
+            jsonStr = jsonStr.substring(0, jsonStr.length() - 3);
+        }
+        return jsonStr.trim();
+    }
 
-            if (json.has("merchant") && !json.isNull("merchant")) {
-                tx.setMerchant(json.getString("merchant"));
-            }
+    private ParsedSmsTransaction toTransaction(JSONObject json, String originalSms) throws JSONException {
+        if (json == null) {
+            return null;
+        }
 
-            if (json.has("accountLastFour") && !json.isNull("accountLastFour")) {
-                tx.setAccountLastFour(json.getString("accountLastFour"));
-            }
+        ParsedSmsTransaction tx = ParsedSmsTransaction.builder()
+                .rawSms(originalSms)
+                .timestamp(System.currentTimeMillis())
+                .parseMethod("GEMINI_NANO")
+                .build();
 
-            if (json.has("referenceNumber") && !json.isNull("referenceNumber")) {
-                tx.setReferenceNumber(json.getString("referenceNumber"));
-            }
+        if (json.has("transactionType") && !json.isNull("transactionType")) {
+            tx.setType(json.getString("transactionType").toUpperCase(Locale.ROOT));
+        }
 
-            if (json.has("transactionMode") && !json.isNull("transactionMode")) {
-                tx.setTransactionMode(json.getString("transactionMode"));
-            }
+        if (json.has("amount") && !json.isNull("amount")) {
+            tx.setAmount(json.getDouble("amount"));
+        }
 
-            // Validate required fields
-            if (tx.getTransactionType() != null && tx.getAmount() > 0) {
-                return tx;
-            }
+        if (json.has("balance") && !json.isNull("balance")) {
+            tx.setBalance(json.getDouble("balance"));
+        }
 
-            return null;
+        if (json.has("merchant") && !json.isNull("merchant")) {
+            tx.setMerchant(json.getString("merchant"));
+        }
 
-        } catch (JSONException e) {
-            Log.e(TAG, "Failed to parse JSON: " + e.getMessage());
-            return null;
+        if (json.has("accountLastFour") && !json.isNull("accountLastFour")) {
+            tx.setAccountLast4(json.getString("accountLastFour"));
+        }
+
+        if (json.has("referenceNumber") && !json.isNull("referenceNumber")) {
+            tx.setReferenceId(json.getString("referenceNumber"));
+        }
+
+        // Validate required fields
+        if (tx.getType() != null && tx.getAmount() > 0) {
+            tx.setParseSuccess(true);
+            return tx;
         }
+
+        return null;
     }
 
     /**
@@ -289,47 +451,61 @@ public class GeminiNanoClient {
 
     /**
      * Categorize a transaction using AI.
+     * Results are cached per merchant (digits and spacing ignored), since the
+     * same merchants recur constantly; the description only informs the first call.
      */
     public Single<String> categorizeTransaction(String merchant, String description) {
         if (!isAvailable || modelFutures == null) {
             return Single.just("Others");
         }
 
-        return Single.create(emitter -> {
-            try {
-                String prompt = String.format("""
-                        Categorize this transaction into ONE of these categories:
-                        Food & Dining, Shopping, Transportation, Utilities, Health, Entertainment,
-                        Investment, Insurance, EMI & Loans, Education, Rent, Transfer, Others
+        String key = merchantKey(merchant);
+        String cached = cache.getCategory(key);
+        if (cached != null) {
+            return Single.just(cached);
+        }
 
-                        Merchant: %s
-                        Description: %s
+        return Single.fromCallable(() -> categorizeBlocking(key, merchant, description))
+                .subscribeOn(Schedulers.io());
+    }
 
-                        Respond with ONLY the category name, nothing else.
-                        """, merchant, description);
+    private String categorizeBlocking(String key, String merchant, String description) {
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = categoryInFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            String category = await(existing);
+            return category != null ? category : "Others";
+        }
 
-                Content content = new Content.Builder()
-                        .addText(prompt)
-                        .build();
+        String category = "Others"; // Fallback
+        try {
+            String prompt = String.format("""
+                    Categorize this transaction into ONE of these categories:
+                    Food & Dining, Shopping, Transportation, Utilities, Health, Entertainment,
+                    Investment, Insurance, EMI & Loans, Education, Rent, Transfer, Others
 
-                ListenableFuture<GenerateContentResponse> future = modelFutures.generateContent(content);
+                    Merchant: %s
+                    Description: %s
 
-                Futures.addCallback(future, new FutureCallback<GenerateContentResponse>() {
-                    @Override
-                    public void onSuccess(GenerateContentResponse response) {
-                        emitter.onSuccess(response.getText().trim());
-                    }
+                    Respond with ONLY the category name, nothing else.
+                    """, merchant, description);
 
-                    @Override
-                    public void onFailure(Throwable t) {
-                        emitter.onSuccess("Others"); // Fallback
-                    }
-                }, executor);
+            category = generate(prompt).trim();
+            cache.putCategory(key, category);
+        } catch (Exception e) {
+            Log.w(TAG, "AI categorization failed", e);
+        } finally {
+            mine.complete(category);
+            categoryInFlight.remove(key, mine);
+        }
+        return category;
+    }
 
-            } catch (Exception e) {
-                emitter.onSuccess("Others");
-            }
-        }).subscribeOn(Schedulers.io());
+    private static String merchantKey(String merchant) {
+        if (merchant == null) {
+            return "";
+        }
+        return MERCHANT_NOISE.matcher(merchant.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
     }
 
     /**
@@ -353,4 +529,35 @@ public class GeminiNanoClient {
 
         return info.toString();
     }
+
+    private static final class InferenceRequest {
+        final String key;
+        final String body;
+        final MaskedSmsTemplate template;
+        final CompletableFuture<Inference> future;
+
+        InferenceRequest(String key, String body, MaskedSmsTemplate template,
+                CompletableFuture<Inference> future) {
+            this.key = key;
+            this.body = body;
+            this.template = template;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Model answer for one template: the raw result for the message that was
+     * sent, plus the reusable mapping when there is one.
+     */
+    private static final class Inference {
+        final String body;
+        final ParsedSmsTransaction parsed;
+        final MaskedSmsTemplate.FieldMapping mapping;
+
+        Inference(String body, ParsedSmsTransaction parsed, MaskedSmsTemplate.FieldMapping mapping) {
+            this.body = body;
+            this.parsed = parsed;
+            this.mapping = mapping;
+        }
+    }
 }
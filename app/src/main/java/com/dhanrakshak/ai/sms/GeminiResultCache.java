@@ -0,0 +1,40 @@
+package com.dhanrakshak.ai.sms;
+
+import android.util.LruCache;
+
+/**
+ * In-memory LRU cache of Gemini Nano results.
+ *
+ * Holds SMS parse mappings keyed by {@link MaskedSmsTemplate#getKey()} and
+ * categories keyed by normalized merchant. Entries hold template text and
+ * merchant names only, never amounts or reference numbers.
+ *
+ * Nothing is written to disk: masked templates and payee names are financial
+ * data and only the SQLCipher database may hold those at rest. The cache
+ * refills from the model after a process restart.
+ */
+final class GeminiResultCache {
+
+    private static final int MAX_TEMPLATES = 2_000;
+    private static final int MAX_CATEGORIES = 2_000;
+
+    private final LruCache<String, MaskedSmsTemplate.FieldMapping> templates =
+            new LruCache<>(MAX_TEMPLATES);
+    private final LruCache<String, String> categories = new LruCache<>(MAX_CATEGORIES);
+
+    MaskedSmsTemplate.FieldMapping getTemplate(String key) {
+        return templates.get(key);
+    }
+
+    void putTemplate(String key, MaskedSmsTemplate.FieldMapping mapping) {
+        templates.put(key, mapping);
+    }
+
+    String getCategory(String merchantKey) {
+        return categories.get(merchantKey);
+    }
+
+    void putCategory(String merchantKey, String category) {
+        categories.put(merchantKey, category);
+    }
+}
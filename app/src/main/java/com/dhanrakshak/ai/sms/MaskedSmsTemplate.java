@@ -0,0 +1,220 @@
+package com.dhanrakshak.ai.sms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An SMS split into a stable template and its variable slots.
+ *
+ * Every token containing a digit (amounts, balances, masked account numbers,
+ * reference numbers, dates) becomes a slot, so two alerts that differ only in
+ * those values share the same {@link #getKey() key}. A parse result for one
+ * of them is turned into a {@link FieldMapping} that re-derives the fields
+ * from any other message with the same key.
+ */
+final class MaskedSmsTemplate {
+
+    // Digit-bearing token; separators only when another digit follows ("1,200.50", "12-10-24")
+    private static final Pattern SLOT = Pattern.compile(
+            "[A-Za-z0-9*]*\\d(?:[A-Za-z0-9*]|[.,:/-](?=\\d))*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern LEADING_LETTERS = Pattern.compile("^[A-Za-z*]+");
+    private static final String PLACEHOLDER = "{#}";
+
+    private final String key;
+    private final List<String> slots;
+
+    private MaskedSmsTemplate(String key, List<String> slots) {
+        this.key = key;
+        this.slots = slots;
+    }
+
+    static MaskedSmsTemplate of(String smsBody) {
+        String body = smsBody == null ? "" : smsBody;
+        List<String> slots = new ArrayList<>();
+        StringBuilder template = new StringBuilder(body.length());
+
+        Matcher matcher = SLOT.matcher(body);
+        int last = 0;
+        while (matcher.find()) {
+            template.append(body, last, matcher.start()).append(PLACEHOLDER);
+            slots.add(matcher.group());
+            last = matcher.end();
+        }
+        template.append(body, last, body.length());
+
+        String key = WHITESPACE.matcher(template).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+        return new MaskedSmsTemplate(key, Collections.unmodifiableList(slots));
+    }
+
+    /**
+     * Normalized template text with slots replaced by placeholders.
+     */
+    String getKey() {
+        return key;
+    }
+
+    List<String> getSlots() {
+        return slots;
+    }
+
+    /**
+     * Describe how a parse result of this message maps onto its slots.
+     *
+     * @return The mapping, or null if some field can't be re-derived from
+     *         the template alone (the result is then not reusable)
+     */
+    FieldMapping map(ParsedSmsTransaction parsed) {
+        if (parsed == null || parsed.getType() == null || parsed.getAmount() <= 0) {
+            return null;
+        }
+
+        FieldMapping mapping = new FieldMapping();
+        mapping.type = parsed.getType();
+        mapping.bankName = parsed.getBankName();
+
+        mapping.amountSlot = findNumber(parsed.getAmount(), -1);
+        if (mapping.amountSlot < 0) {
+            return null;
+        }
+
+        if (parsed.getBalance() > 0) {
+            mapping.balanceSlot = findNumber(parsed.getBalance(), mapping.amountSlot);
+            if (mapping.balanceSlot < 0) {
+                return null;
+            }
+        }
+
+        String last4 = parsed.getAccountLast4();
+        if (last4 != null && !last4.isEmpty()) {
+            mapping.accountSlot = -1;
+            for (int i = 0; i < slots.size(); i++) {
+                if (lastFour(slots.get(i)).equals(last4)) {
+                    mapping.accountSlot = i;
+                    break;
+                }
+            }
+            if (mapping.accountSlot < 0) {
+                return null;
+            }
+        }
+
+        String ref = parsed.getReferenceId();
+        if (ref != null && !ref.isEmpty()) {
+            mapping.refSlot = slots.indexOf(ref);
+            if (mapping.refSlot < 0) {
+                return null;
+            }
+        }
+
+        String merchant = parsed.getMerchant();
+        if (merchant != null && !merchant.isEmpty()) {
+            // Must be fixed template text, not something that varies per message
+            if (!key.contains(merchant.toLowerCase(Locale.ROOT))) {
+                return null;
+            }
+            mapping.merchant = merchant;
+        }
+
+        return mapping;
+    }
+
+    /**
+     * Rebuild a parse result for this message from a cached mapping.
+     *
+     * @return The transaction, or null if the slots don't fit the mapping
+     */
+    ParsedSmsTransaction apply(FieldMapping mapping, String smsBody) {
+        double amount = number(mapping.amountSlot);
+        if (Double.isNaN(amount)) {
+            return null;
+        }
+
+        ParsedSmsTransaction.Builder builder = ParsedSmsTransaction.builder()
+                .rawSms(smsBody)
+                .timestamp(System.currentTimeMillis())
+                .parseMethod("GEMINI_NANO_CACHED")
+                .type(mapping.type)
+                .amount(amount)
+                .merchant(mapping.merchant)
+                .bankName(mapping.bankName)
+                .isSpam(false)
+                .parseSuccess(true);
+
+        if (mapping.balanceSlot >= 0) {
+            double balance = number(mapping.balanceSlot);
+            if (Double.isNaN(balance)) {
+                return null;
+            }
+            builder.balance(balance);
+        }
+
+        if (mapping.accountSlot >= 0) {
+            if (mapping.accountSlot >= slots.size()) {
+                return null;
+            }
+            builder.accountLast4(lastFour(slots.get(mapping.accountSlot)));
+        }
+
+        if (mapping.refSlot >= 0) {
+            if (mapping.refSlot >= slots.size()) {
+                return null;
+            }
+            builder.referenceId(slots.get(mapping.refSlot));
+        }
+
+        return builder.build();
+    }
+
+    private int findNumber(double value, int skipSlot) {
+        for (int i = 0; i < slots.size(); i++) {
+            if (i != skipSlot && Math.abs(number(i) - value) < 0.005) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private double number(int slot) {
+        if (slot < 0 || slot >= slots.size()) {
+            return Double.NaN;
+        }
+        // "INR500.00" -> 500.00, "1,200.50" -> 1200.50
+        String value = LEADING_LETTERS.matcher(slots.get(slot)).replaceFirst("").replace(",", "");
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String lastFour(String slot) {
+        StringBuilder digits = new StringBuilder(4);
+        for (int i = slot.length() - 1; i >= 0 && digits.length() < 4; i--) {
+            char c = slot.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.insert(0, c);
+            } else {
+                break;
+            }
+        }
+        return digits.toString();
+    }
+
+    /**
+     * Which slot feeds which field; fixed fields are stored as-is.
+     */
+    static final class FieldMapping {
+        String type;
+        String bankName;
+        String merchant;
+        int amountSlot = -1;
+        int balanceSlot = -1;
+        int accountSlot = -1;
+        int refSlot = -1;
+    }
+}
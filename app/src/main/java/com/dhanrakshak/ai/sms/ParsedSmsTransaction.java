@@ -1,5 +1,8 @@
 package com.dhanrakshak.ai.sms;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * Parsed SMS transaction result.
  * Extracted from bank SMS using Gemini Nano or Regex fallback.
@@ -19,6 +22,16 @@ public class ParsedSmsTransaction {
     private boolean parseSuccess;
     private String parseMethod; // AI or REGEX
 
+    /**
+     * Extracted fields, for per-field confidence.
+     */
+    public enum Field {
+        AMOUNT, TYPE, BANK, ACCOUNT, MERCHANT, BALANCE, REFERENCE
+    }
+
+    // Only fields the parser scored; unscored fields don't lower confidence
+    private final Map<Field, Double> fieldConfidence = new EnumMap<>(Field.class);
+
     // Default constructor
     public ParsedSmsTransaction() {
         this.isSpam = false;
@@ -127,6 +140,42 @@ public class ParsedSmsTransaction {
         this.parseMethod = parseMethod;
     }
 
+    /**
+     * Parser's confidence (0..1) in one field, or 1.0 if it wasn't scored.
+     */
+    public double getFieldConfidence(Field field) {
+        Double confidence = fieldConfidence.get(field);
+        return confidence != null ? confidence : 1.0;
+    }
+
+    public void setFieldConfidence(Field field, double confidence) {
+        fieldConfidence.put(field, confidence);
+    }
+
+    /**
+     * Overall confidence: the weakest scored field.
+     */
+    public double getConfidence() {
+        double min = 1.0;
+        for (double confidence : fieldConfidence.values()) {
+            min = Math.min(min, confidence);
+        }
+        return min;
+    }
+
+    /**
+     * The least confident scored field, or null if none was scored.
+     */
+    public Field getWeakestField() {
+        Field weakest = null;
+        for (Map.Entry<Field, Double> entry : fieldConfidence.entrySet()) {
+            if (weakest == null || entry.getValue() < fieldConfidence.get(weakest)) {
+                weakest = entry.getKey();
+            }
+        }
+        return weakest;
+    }
+
     public boolean isDebit() {
         return "DEBIT".equalsIgnoreCase(type);
     }
@@ -205,6 +254,11 @@ public class ParsedSmsTransaction {
             return this;
         }
 
+        public Builder fieldConfidence(Field field, double confidence) {
+            transaction.setFieldConfidence(field, confidence);
+            return this;
+        }
+
         public ParsedSmsTransaction build() {
             return transaction;
         }
@@ -2,23 +2,141 @@ package com.dhanrakshak.ai.sms;
 
 import android.util.Log;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.inject.Inject;
+
 /**
  * Regex-based SMS parser for Indian bank transaction messages.
  * Supports: HDFC, ICICI, Standard Chartered, Axis Bank
  * 
  * Used as fallback when Gemini Nano is unavailable or for faster processing.
+ * 
+ * Messages from a sender registered in {@link SmsTemplateRegistry} are parsed
+ * with that bank's templates first; generic parsing is only the fallback.
+ * 
+ * All keyword checks (transaction, type, spam, bank, merchant hints) come from
+ * a single {@link SmsKeywordAutomaton} pass over the body. Field regexes are
+ * precompiled and only run when the scan saw one of their trigger words,
+ * starting from the first trigger position.
  */
 public class RegexSmsParser {
 
     private static final String TAG = "RegexSmsParser";
 
-    // Bank identification patterns
-    private static final Map<String, Pattern> BANK_PATTERNS = new HashMap<>();
+    // Keyword table for the single-pass scan (indices below must match)
+    private static final String[] KEYWORDS = {
+            // Transaction indicators
+            "debited", "credited", "withdrawn", "deposited", "transferred",
+            "payment", "purchase", "spent", "received",
+            // Amount indicators
+            "rs", "inr", "₹",
+            // Type-only indicators
+            "paid", "sent to", "transferred to", "refund", "cashback", "transferred from",
+            // Spam indicators
+            "offer", "win", "reward points", "cashback offer", "congratulations",
+            "limited period", "apply now",
+            // Merchant hints
+            "atm", "pos", "neft", "imps", "rtgs",
+            // Bank codes
+            "hdfc", "icici", "scb", "standard", "chartered", "axis", "sbi", "state", "bank", "kotak",
+            // Field regex triggers
+            "bal", "avl", "available", "a/c", "ac", "upi", "ref", "to", "from", "at", "@"
+    };
+
+    private static final int KW_DEBITED = 0;
+    private static final int KW_CREDITED = 1;
+    private static final int KW_WITHDRAWN = 2;
+    private static final int KW_DEPOSITED = 3;
+    private static final int KW_TRANSFERRED = 4;
+    private static final int KW_PAYMENT = 5;
+    private static final int KW_PURCHASE = 6;
+    private static final int KW_SPENT = 7;
+    private static final int KW_RECEIVED = 8;
+    private static final int KW_RS = 9;
+    private static final int KW_INR = 10;
+    private static final int KW_RUPEE = 11;
+    private static final int KW_PAID = 12;
+    private static final int KW_SENT_TO = 13;
+    private static final int KW_TRANSFERRED_TO = 14;
+    private static final int KW_REFUND = 15;
+    private static final int KW_CASHBACK = 16;
+    private static final int KW_TRANSFERRED_FROM = 17;
+    private static final int KW_OFFER = 18;
+    private static final int KW_WIN = 19;
+    private static final int KW_REWARD_POINTS = 20;
+    private static final int KW_CASHBACK_OFFER = 21;
+    private static final int KW_CONGRATULATIONS = 22;
+    private static final int KW_LIMITED_PERIOD = 23;
+    private static final int KW_APPLY_NOW = 24;
+    private static final int KW_ATM = 25;
+    private static final int KW_POS = 26;
+    private static final int KW_NEFT = 27;
+    private static final int KW_IMPS = 28;
+    private static final int KW_RTGS = 29;
+    private static final int KW_HDFC = 30;
+    private static final int KW_ICICI = 31;
+    private static final int KW_SCB = 32;
+    private static final int KW_STANDARD = 33;
+    private static final int KW_CHARTERED = 34;
+    private static final int KW_AXIS = 35;
+    private static final int KW_SBI = 36;
+    private static final int KW_STATE = 37;
+    private static final int KW_BANK = 38;
+    private static final int KW_KOTAK = 39;
+    private static final int KW_BAL = 40;
+    private static final int KW_AVL = 41;
+    private static final int KW_AVAILABLE = 42;
+    private static final int KW_AC_SLASH = 43;
+    private static final int KW_AC = 44;
+    private static final int KW_UPI = 45;
+    private static final int KW_REF = 46;
+    private static final int KW_TO = 47;
+    private static final int KW_FROM = 48;
+    private static final int KW_AT = 49;
+    private static final int KW_AT_SIGN = 50;
+
+    private static final SmsKeywordAutomaton AUTOMATON = new SmsKeywordAutomaton(KEYWORDS);
+
+    // Scan results are reused per thread; parse() is called from worker pools
+    private static final ThreadLocal<SmsKeywordAutomaton.Hits> BODY_HITS =
+            ThreadLocal.withInitial(AUTOMATON::newHits);
+
+    // Sender IDs repeat endlessly, so remember which bank each one maps to
+    private static final int MAX_CACHED_SENDERS = 512;
+    private static final String NO_BANK = "";
+    private static final Map<String, String> SENDER_BANK_CACHE = new ConcurrentHashMap<>();
+
+    private static final long TRANSACTION_MASK = mask(KW_DEBITED, KW_CREDITED, KW_WITHDRAWN,
+            KW_DEPOSITED, KW_TRANSFERRED, KW_PAYMENT, KW_PURCHASE, KW_SPENT, KW_RECEIVED);
+    private static final long AMOUNT_INDICATOR_MASK = mask(KW_RS, KW_INR, KW_RUPEE);
+    private static final long DEBIT_MASK = mask(KW_DEBITED, KW_WITHDRAWN, KW_SPENT, KW_PAID,
+            KW_PURCHASE, KW_SENT_TO, KW_TRANSFERRED_TO);
+    private static final long CREDIT_MASK = mask(KW_CREDITED, KW_DEPOSITED, KW_RECEIVED,
+            KW_REFUND, KW_CASHBACK, KW_TRANSFERRED_FROM);
+    private static final long SPAM_MASK = mask(KW_OFFER, KW_WIN, KW_REWARD_POINTS,
+            KW_CASHBACK_OFFER, KW_CONGRATULATIONS, KW_LIMITED_PERIOD, KW_APPLY_NOW);
+    private static final long BANK_TRANSFER_MASK = mask(KW_NEFT, KW_IMPS, KW_RTGS);
+
+    // Per-field confidence reported by the generic parser
+    private static final double CONFIDENCE_HIGH = 0.9;
+    private static final double CONFIDENCE_MEDIUM = 0.7;
+    private static final double CONFIDENCE_LOW = 0.5;
+    private static final double CONFIDENCE_NONE = 0.2;
+
+    // Bank lookup order (matches the order the previous HashMap iterated in)
+    private static final String[] BANK_ORDER = {
+            "ICICI", "HDFC", "STANDARD_CHARTERED", "SBI", "KOTAK", "AXIS"
+    };
+
+    // Multi-word bank names allow any whitespace between the words
+    private static final Pattern STANDARD_CHARTERED_PATTERN = Pattern.compile(
+            "STANDARD\\s*CHARTERED", Pattern.CASE_INSENSITIVE);
+    private static final Pattern STATE_BANK_PATTERN = Pattern.compile(
+            "STATE\\s*BANK", Pattern.CASE_INSENSITIVE);
 
     // Amount patterns
     private static final Pattern AMOUNT_PATTERN = Pattern.compile(
@@ -39,30 +157,27 @@ public class RegexSmsParser {
             "(?:UPI(?:\\s*Ref)?|Ref(?:\\.? ?No\\.?)?)[:\\s]*([A-Z0-9]+)",
             Pattern.CASE_INSENSITIVE);
 
-    static {
-        // HDFC Bank patterns
-        BANK_PATTERNS.put("HDFC", Pattern.compile(
-                "(?:HDFC|HDFCBK)", Pattern.CASE_INSENSITIVE));
+    // UPI transaction counterparty pattern
+    private static final Pattern UPI_MERCHANT_PATTERN = Pattern.compile(
+            "(?:to|from|at|@)\\s+([A-Za-z0-9@._\\-]+)", Pattern.CASE_INSENSITIVE);
 
-        // ICICI Bank patterns
-        BANK_PATTERNS.put("ICICI", Pattern.compile(
-                "(?:ICICI|ICICIB)", Pattern.CASE_INSENSITIVE));
-
-        // Standard Chartered patterns
-        BANK_PATTERNS.put("STANDARD_CHARTERED", Pattern.compile(
-                "(?:SCB|STANDARD\\s*CHARTERED|SCBANK)", Pattern.CASE_INSENSITIVE));
+    // POS terminal description pattern
+    private static final Pattern POS_PATTERN = Pattern.compile(
+            "pos[\\s-]*([A-Za-z0-9\\s]+?)(?:on|dated|rs|inr|₹)",
+            Pattern.CASE_INSENSITIVE);
 
-        // Axis Bank patterns
-        BANK_PATTERNS.put("AXIS", Pattern.compile(
-                "(?:AXIS|AXISB)", Pattern.CASE_INSENSITIVE));
+    private final SmsTemplateRegistry templateRegistry;
 
-        // SBI patterns (bonus)
-        BANK_PATTERNS.put("SBI", Pattern.compile(
-                "(?:SBI|SBIINB|STATE\\s*BANK)", Pattern.CASE_INSENSITIVE));
+    /**
+     * Generic parser without bank templates.
+     */
+    public RegexSmsParser() {
+        this(null);
+    }
 
-        // Kotak patterns (bonus)
-        BANK_PATTERNS.put("KOTAK", Pattern.compile(
-                "(?:KOTAK|KOTAKB)", Pattern.CASE_INSENSITIVE));
+    @Inject
+    public RegexSmsParser(SmsTemplateRegistry templateRegistry) {
+        this.templateRegistry = templateRegistry;
     }
 
     /**
@@ -77,8 +192,56 @@ public class RegexSmsParser {
             return null;
         }
 
+        // Route straight to the sender's bank template
+        SmsBankTemplate template = templateRegistry != null
+                ? templateRegistry.findBySender(senderId)
+                : null;
+        ParsedSmsTransaction parsed = parseWithTemplate(template, smsBody);
+        if (parsed != null) {
+            return parsed;
+        }
+
+        parsed = parseGeneric(smsBody, senderId);
+        if (parsed != null && template != null && "UNKNOWN".equals(parsed.getBankName())) {
+            // Registered sender whose format isn't templated yet
+            parsed.setBankName(template.getBankName());
+            parsed.setFieldConfidence(ParsedSmsTransaction.Field.BANK, CONFIDENCE_HIGH);
+        }
+        return parsed;
+    }
+
+    /**
+     * Whether the message looks like a transaction (money keyword plus a
+     * currency marker), whether or not its fields could be extracted.
+     */
+    public boolean isTransactionCandidate(String smsBody) {
+        return smsBody != null && isTransactionSms(AUTOMATON.scan(smsBody, BODY_HITS.get()));
+    }
+
+    /**
+     * Parse with a bank template, or null if there is none or it doesn't match.
+     * Templates only describe layouts, so spam/promotional wording is
+     * classified here exactly as for generic parses.
+     */
+    private ParsedSmsTransaction parseWithTemplate(SmsBankTemplate template, String smsBody) {
+        ParsedSmsTransaction parsed = template != null ? template.parse(smsBody) : null;
+        if (parsed != null) {
+            parsed.setSpam(isSpamMessage(AUTOMATON.scan(smsBody, BODY_HITS.get())));
+        }
+        return parsed;
+    }
+
+    /**
+     * Generic keyword/regex parsing used for unregistered senders and for
+     * messages none of the bank's templates recognise.
+     * Scores each field it fills so callers can decide whether to escalate.
+     */
+    private ParsedSmsTransaction parseGeneric(String smsBody, String senderId) {
+        // Single keyword pass over the body
+        SmsKeywordAutomaton.Hits hits = AUTOMATON.scan(smsBody, BODY_HITS.get());
+
         // Check if this is a transaction SMS (contains money-related keywords)
-        if (!isTransactionSms(smsBody)) {
+        if (!isTransactionSms(hits)) {
             return null;
         }
 
@@ -88,15 +251,18 @@ public class RegexSmsParser {
                 .parseMethod("REGEX");
 
         // Identify bank
-        String bankName = identifyBank(smsBody, senderId);
+        String bankName = identifyBank(smsBody, hits, senderId);
         builder.bankName(bankName);
+        builder.fieldConfidence(ParsedSmsTransaction.Field.BANK,
+                "UNKNOWN".equals(bankName) ? CONFIDENCE_LOW : CONFIDENCE_HIGH);
 
         // Extract transaction type (DEBIT or CREDIT)
-        String type = extractTransactionType(smsBody);
+        String type = extractTransactionType(hits);
         builder.type(type);
+        builder.fieldConfidence(ParsedSmsTransaction.Field.TYPE, typeConfidence(hits));
 
         // Extract amount
-        Double amount = extractAmount(smsBody, type);
+        Double amount = extractAmount(smsBody, hits);
         if (amount != null) {
             builder.amount(amount);
         } else {
@@ -104,26 +270,36 @@ public class RegexSmsParser {
         }
 
         // Extract balance
-        Double balance = extractBalance(smsBody);
+        Double balance = extractBalance(smsBody, hits);
         if (balance != null) {
             builder.balance(balance);
+            builder.fieldConfidence(ParsedSmsTransaction.Field.BALANCE, CONFIDENCE_HIGH);
         }
 
+        // First currency amount being the balance usually means the real amount was missed
+        builder.fieldConfidence(ParsedSmsTransaction.Field.AMOUNT,
+                balance != null && balance.equals(amount) ? CONFIDENCE_LOW : CONFIDENCE_HIGH);
+
         // Extract account number (last 4 digits)
-        String accountLast4 = extractAccountNumber(smsBody);
+        String accountLast4 = extractAccountNumber(smsBody, hits);
         builder.accountLast4(accountLast4);
+        builder.fieldConfidence(ParsedSmsTransaction.Field.ACCOUNT,
+                accountLast4 != null ? CONFIDENCE_HIGH : CONFIDENCE_MEDIUM);
 
         // Extract merchant/description
-        String merchant = extractMerchant(smsBody, type);
+        String merchant = extractMerchant(smsBody, hits);
         builder.merchant(merchant);
+        builder.fieldConfidence(ParsedSmsTransaction.Field.MERCHANT, merchantConfidence(merchant));
 
         // Extract reference ID
-        String refId = extractReferenceId(smsBody);
+        String refId = extractReferenceId(smsBody, hits);
         builder.referenceId(refId);
+        if (refId != null) {
+            builder.fieldConfidence(ParsedSmsTransaction.Field.REFERENCE, CONFIDENCE_HIGH);
+        }
 
         // Check if spam/promotional
-        boolean isSpam = isSpamMessage(smsBody);
-        builder.isSpam(isSpam);
+        builder.isSpam(isSpamMessage(hits));
 
         builder.parseSuccess(true);
 
@@ -133,87 +309,144 @@ public class RegexSmsParser {
     /**
      * Check if SMS is a transaction message.
      */
-    private boolean isTransactionSms(String smsBody) {
-        String lowerBody = smsBody.toLowerCase();
-        return (lowerBody.contains("debited") ||
-                lowerBody.contains("credited") ||
-                lowerBody.contains("withdrawn") ||
-                lowerBody.contains("deposited") ||
-                lowerBody.contains("transferred") ||
-                lowerBody.contains("payment") ||
-                lowerBody.contains("purchase") ||
-                lowerBody.contains("spent") ||
-                lowerBody.contains("received")) &&
-                (lowerBody.contains("rs") ||
-                        lowerBody.contains("inr") ||
-                        smsBody.contains("₹"));
+    private boolean isTransactionSms(SmsKeywordAutomaton.Hits hits) {
+        return hits.containsAny(TRANSACTION_MASK) && hits.containsAny(AMOUNT_INDICATOR_MASK);
+    }
+
+    /**
+     * Check if message is spam/promotional.
+     */
+    private boolean isSpamMessage(SmsKeywordAutomaton.Hits hits) {
+        return hits.containsAny(SPAM_MASK);
     }
 
     /**
      * Identify the bank from SMS content or sender ID.
      */
-    private String identifyBank(String smsBody, String senderId) {
+    private String identifyBank(String smsBody, SmsKeywordAutomaton.Hits bodyHits, String senderId) {
         // First try sender ID
         if (senderId != null) {
-            for (Map.Entry<String, Pattern> entry : BANK_PATTERNS.entrySet()) {
-                if (entry.getValue().matcher(senderId).find()) {
-                    return entry.getKey();
+            String bank = SENDER_BANK_CACHE.get(senderId);
+            if (bank == null) {
+                bank = matchBank(senderId, AUTOMATON.scan(senderId, AUTOMATON.newHits()));
+                if (bank == null) {
+                    bank = NO_BANK;
                 }
+                if (SENDER_BANK_CACHE.size() < MAX_CACHED_SENDERS) {
+                    SENDER_BANK_CACHE.put(senderId, bank);
+                }
+            }
+            if (!bank.isEmpty()) {
+                return bank;
             }
         }
 
         // Then try SMS body
-        for (Map.Entry<String, Pattern> entry : BANK_PATTERNS.entrySet()) {
-            if (entry.getValue().matcher(smsBody).find()) {
-                return entry.getKey();
+        String bank = matchBank(smsBody, bodyHits);
+        return bank != null ? bank : "UNKNOWN";
+    }
+
+    /**
+     * First bank in {@link #BANK_ORDER} whose code appears in the text.
+     */
+    private String matchBank(String text, SmsKeywordAutomaton.Hits hits) {
+        for (String bank : BANK_ORDER) {
+            if (hasBank(bank, text, hits)) {
+                return bank;
             }
         }
+        return null;
+    }
 
-        return "UNKNOWN";
+    private boolean hasBank(String bank, String text, SmsKeywordAutomaton.Hits hits) {
+        switch (bank) {
+            case "ICICI":
+                return hits.firstAsciiStart(KW_ICICI) >= 0;
+            case "HDFC":
+                return hits.firstAsciiStart(KW_HDFC) >= 0;
+            case "STANDARD_CHARTERED":
+                return hits.firstAsciiStart(KW_SCB) >= 0
+                        || findTwoWord(STANDARD_CHARTERED_PATTERN, text, hits, KW_STANDARD, KW_CHARTERED);
+            case "SBI":
+                return hits.firstAsciiStart(KW_SBI) >= 0
+                        || findTwoWord(STATE_BANK_PATTERN, text, hits, KW_STATE, KW_BANK);
+            case "KOTAK":
+                return hits.firstAsciiStart(KW_KOTAK) >= 0;
+            case "AXIS":
+                return hits.firstAsciiStart(KW_AXIS) >= 0;
+            default:
+                return false;
+        }
     }
 
     /**
-     * Extract transaction type (DEBIT or CREDIT).
+     * Run a two-word pattern only when both words were seen by the scan.
      */
-    private String extractTransactionType(String smsBody) {
-        String lowerBody = smsBody.toLowerCase();
+    private boolean findTwoWord(Pattern pattern, String text, SmsKeywordAutomaton.Hits hits,
+            int firstWord, int secondWord) {
+        if (hits.firstAsciiStart(firstWord) < 0 || hits.firstAsciiStart(secondWord) < 0) {
+            return false;
+        }
+        return findAtTriggers(pattern, text, hits, firstWord) != null;
+    }
 
+    /**
+     * Extract transaction type (DEBIT or CREDIT).
+     */
+    private String extractTransactionType(SmsKeywordAutomaton.Hits hits) {
         // Debit indicators
-        if (lowerBody.contains("debited") ||
-                lowerBody.contains("withdrawn") ||
-                lowerBody.contains("spent") ||
-                lowerBody.contains("paid") ||
-                lowerBody.contains("purchase") ||
-                lowerBody.contains("sent to") ||
-                lowerBody.contains("transferred to")) {
+        if (hits.containsAny(DEBIT_MASK)) {
             return "DEBIT";
         }
 
         // Credit indicators
-        if (lowerBody.contains("credited") ||
-                lowerBody.contains("deposited") ||
-                lowerBody.contains("received") ||
-                lowerBody.contains("refund") ||
-                lowerBody.contains("cashback") ||
-                lowerBody.contains("transferred from")) {
+        if (hits.containsAny(CREDIT_MASK)) {
             return "CREDIT";
         }
 
         return "UNKNOWN";
     }
 
+    /**
+     * Both debit and credit words ("debited from ... credited to") are
+     * common but resolved by keyword order only, so they score lower.
+     */
+    private double typeConfidence(SmsKeywordAutomaton.Hits hits) {
+        boolean debit = hits.containsAny(DEBIT_MASK);
+        boolean credit = hits.containsAny(CREDIT_MASK);
+        if (debit && credit) {
+            return CONFIDENCE_MEDIUM;
+        }
+        return debit || credit ? CONFIDENCE_HIGH : CONFIDENCE_NONE;
+    }
+
+    /**
+     * Named counterparties score high; generic labels and the catch-all lower.
+     */
+    private double merchantConfidence(String merchant) {
+        switch (merchant) {
+            case "Transaction":
+                return CONFIDENCE_LOW;
+            case "ATM Withdrawal":
+            case "POS Transaction":
+            case "Bank Transfer":
+                return CONFIDENCE_MEDIUM;
+            default:
+                return merchant.isEmpty() ? CONFIDENCE_LOW : CONFIDENCE_HIGH;
+        }
+    }
+
     /**
      * Extract transaction amount.
      */
-    private Double extractAmount(String smsBody, String type) {
-        Matcher matcher = AMOUNT_PATTERN.matcher(smsBody);
+    private Double extractAmount(String smsBody, SmsKeywordAutomaton.Hits hits) {
+        Matcher matcher = findAtTriggers(AMOUNT_PATTERN, smsBody, hits, KW_RS, KW_INR, KW_RUPEE);
 
         // For DEBIT, take first amount (transaction amount)
         // For CREDIT, also take first amount
-        if (matcher.find()) {
+        if (matcher != null) {
             try {
-                String amountStr = matcher.group(1).replace(",", "");
-                return Double.parseDouble(amountStr);
+                return Double.parseDouble(matcher.group(1).replace(",", ""));
             } catch (NumberFormatException e) {
                 Log.e(TAG, "Failed to parse amount", e);
             }
@@ -225,13 +458,12 @@ public class RegexSmsParser {
     /**
      * Extract account balance after transaction.
      */
-    private Double extractBalance(String smsBody) {
-        Matcher matcher = BALANCE_PATTERN.matcher(smsBody);
+    private Double extractBalance(String smsBody, SmsKeywordAutomaton.Hits hits) {
+        Matcher matcher = findAtTriggers(BALANCE_PATTERN, smsBody, hits, KW_BAL, KW_AVL, KW_AVAILABLE);
 
-        if (matcher.find()) {
+        if (matcher != null) {
             try {
-                String balanceStr = matcher.group(1).replace(",", "");
-                return Double.parseDouble(balanceStr);
+                return Double.parseDouble(matcher.group(1).replace(",", ""));
             } catch (NumberFormatException e) {
                 Log.e(TAG, "Failed to parse balance", e);
             }
@@ -243,10 +475,10 @@ public class RegexSmsParser {
     /**
      * Extract account number (last 4-6 digits).
      */
-    private String extractAccountNumber(String smsBody) {
-        Matcher matcher = ACCOUNT_PATTERN.matcher(smsBody);
+    private String extractAccountNumber(String smsBody, SmsKeywordAutomaton.Hits hits) {
+        Matcher matcher = findAtTriggers(ACCOUNT_PATTERN, smsBody, hits, KW_AC_SLASH, KW_AC);
 
-        if (matcher.find()) {
+        if (matcher != null) {
             String account = matcher.group(1);
             // Return last 4 digits
             if (account.length() > 4) {
@@ -261,43 +493,37 @@ public class RegexSmsParser {
     /**
      * Extract merchant or transaction description.
      */
-    private String extractMerchant(String smsBody, String type) {
-        String lowerBody = smsBody.toLowerCase();
-
+    private String extractMerchant(String smsBody, SmsKeywordAutomaton.Hits hits) {
         // UPI transaction patterns
-        Pattern upiPattern = Pattern.compile(
-                "(?:to|from|at|@)\\s+([A-Za-z0-9@._\\-]+)", Pattern.CASE_INSENSITIVE);
-        Matcher upiMatcher = upiPattern.matcher(smsBody);
+        Matcher upiMatcher = findAtTriggers(UPI_MERCHANT_PATTERN, smsBody, hits,
+                KW_TO, KW_FROM, KW_AT, KW_AT_SIGN);
 
-        if (upiMatcher.find()) {
+        if (upiMatcher != null) {
             String merchant = upiMatcher.group(1).trim();
             // Clean up UPI handles
-            if (merchant.contains("@")) {
-                merchant = merchant.split("@")[0];
+            int at = merchant.indexOf('@');
+            if (at >= 0) {
+                merchant = merchant.substring(0, at);
             }
             return merchant;
         }
 
         // ATM withdrawal
-        if (lowerBody.contains("atm")) {
+        if (hits.contains(KW_ATM)) {
             return "ATM Withdrawal";
         }
 
         // POS transaction
-        if (lowerBody.contains("pos")) {
-            Pattern posPattern = Pattern.compile(
-                    "pos[\\s-]*([A-Za-z0-9\\s]+?)(?:on|dated|rs|inr|₹)",
-                    Pattern.CASE_INSENSITIVE);
-            Matcher posMatcher = posPattern.matcher(smsBody);
-            if (posMatcher.find()) {
+        if (hits.contains(KW_POS)) {
+            Matcher posMatcher = findAtTriggers(POS_PATTERN, smsBody, hits, KW_POS);
+            if (posMatcher != null) {
                 return posMatcher.group(1).trim();
             }
             return "POS Transaction";
         }
 
         // Net banking / NEFT / IMPS
-        if (lowerBody.contains("neft") || lowerBody.contains("imps") ||
-                lowerBody.contains("rtgs")) {
+        if (hits.containsAny(BANK_TRANSFER_MASK)) {
             return "Bank Transfer";
         }
 
@@ -307,10 +533,10 @@ public class RegexSmsParser {
     /**
      * Extract UPI or transaction reference ID.
      */
-    private String extractReferenceId(String smsBody) {
-        Matcher matcher = UPI_REF_PATTERN.matcher(smsBody);
+    private String extractReferenceId(String smsBody, SmsKeywordAutomaton.Hits hits) {
+        Matcher matcher = findAtTriggers(UPI_REF_PATTERN, smsBody, hits, KW_UPI, KW_REF);
 
-        if (matcher.find()) {
+        if (matcher != null) {
             return matcher.group(1);
         }
 
@@ -318,17 +544,35 @@ public class RegexSmsParser {
     }
 
     /**
-     * Check if message is spam/promotional.
+     * Find the leftmost match of a precompiled pattern by trying it only at
+     * positions where one of its literal prefixes (trigger keywords) starts.
+     * Gives the same match as {@code pattern.matcher(text).find()}.
+     *
+     * @return Matcher positioned on the match, or null if there is none
      */
-    private boolean isSpamMessage(String smsBody) {
-        String lowerBody = smsBody.toLowerCase();
-        return lowerBody.contains("offer") ||
-                lowerBody.contains("win") ||
-                lowerBody.contains("reward points") ||
-                lowerBody.contains("cashback offer") ||
-                lowerBody.contains("congratulations") ||
-                lowerBody.contains("limited period") ||
-                lowerBody.contains("apply now");
+    private static Matcher findAtTriggers(Pattern pattern, String text,
+            SmsKeywordAutomaton.Hits hits, int... triggers) {
+        Matcher matcher = null;
+        int start = hits.nextAsciiStart(0, triggers);
+        while (start >= 0) {
+            if (matcher == null) {
+                matcher = pattern.matcher(text);
+            }
+            matcher.region(start, text.length());
+            if (matcher.lookingAt()) {
+                return matcher;
+            }
+            start = hits.nextAsciiStart(start + 1, triggers);
+        }
+        return null;
+    }
+
+    private static long mask(int... keywords) {
+        long mask = 0;
+        for (int k : keywords) {
+            mask |= 1L << k;
+        }
+        return mask;
     }
 
     /**
@@ -336,7 +580,7 @@ public class RegexSmsParser {
      */
     public ParsedSmsTransaction parseHdfcSms(String smsBody) {
         // HDFC specific format: "Rs. xxx debited from a/c **1234 on dd-mm-yy"
-        return parse(smsBody, "HDFCBK");
+        return parseForBank(smsBody, "HDFC", "HDFCBK");
     }
 
     /**
@@ -344,7 +588,7 @@ public class RegexSmsParser {
      */
     public ParsedSmsTransaction parseIciciSms(String smsBody) {
         // ICICI specific format
-        return parse(smsBody, "ICICIB");
+        return parseForBank(smsBody, "ICICI", "ICICIB");
     }
 
     /**
@@ -352,7 +596,7 @@ public class RegexSmsParser {
      */
     public ParsedSmsTransaction parseStandardCharteredSms(String smsBody) {
         // SCB specific format
-        return parse(smsBody, "SCB");
+        return parseForBank(smsBody, "STANDARD_CHARTERED", "SCB");
     }
 
     /**
@@ -360,6 +604,23 @@ public class RegexSmsParser {
      */
     public ParsedSmsTransaction parseAxisSms(String smsBody) {
         // Axis specific format
-        return parse(smsBody, "AXISB");
+        return parseForBank(smsBody, "AXIS", "AXISB");
+    }
+
+    /**
+     * Parse with the named bank's templates, falling back to generic parsing.
+     */
+    private ParsedSmsTransaction parseForBank(String smsBody, String bankName, String senderId) {
+        if (smsBody == null || smsBody.isEmpty()) {
+            return null;
+        }
+        if (templateRegistry != null) {
+            ParsedSmsTransaction parsed = parseWithTemplate(
+                    templateRegistry.findByBank(bankName), smsBody);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        return parseGeneric(smsBody, senderId);
     }
 }
@@ -0,0 +1,233 @@
+package com.dhanrakshak.ai.sms;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.provider.Telephony;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.hilt.work.HiltWorker;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dagger.assisted.Assisted;
+import dagger.assisted.AssistedInject;
+
+/**
+ * One-shot importer for the existing SMS inbox.
+ *
+ * Streams the SMS provider oldest-first, parses each page of bank messages on a
+ * small thread pool and writes the page with a single batched Room transaction
+ * through {@link SmsTransactionWriter}.
+ * The (date, _id) of the last committed message is checkpointed, so a stopped
+ * or killed run resumes where it left off.
+ */
+@HiltWorker
+public class SmsBackfillWorker extends Worker {
+
+    private static final String TAG = "SmsBackfillWorker";
+    public static final String WORK_NAME = "sms_backfill_work";
+
+    public static final String PROGRESS_SCANNED = "scanned";
+    public static final String PROGRESS_IMPORTED = "imported";
+
+    private static final String PREF_NAME = "sms_backfill";
+    private static final String KEY_LAST_DATE = "last_date";
+    private static final String KEY_LAST_ID = "last_id";
+    private static final String KEY_COMPLETED = "completed";
+
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_PARSE_THREADS = 4;
+
+    private static final String[] PROJECTION = {
+            Telephony.Sms._ID,
+            Telephony.Sms.ADDRESS,
+            Telephony.Sms.BODY,
+            Telephony.Sms.DATE
+    };
+
+    private final RegexSmsParser parser;
+    private final SmsTransactionWriter writer;
+    private final SharedPreferences prefs;
+
+    @AssistedInject
+    public SmsBackfillWorker(
+            @Assisted @NonNull Context context,
+            @Assisted @NonNull WorkerParameters params,
+            RegexSmsParser parser,
+            SmsTransactionWriter writer) {
+        super(context, params);
+        this.parser = parser;
+        this.writer = writer;
+        this.prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Queue the inbox import unless it already ran to completion.
+     * Needs READ_SMS; safe to call repeatedly.
+     */
+    public static void enqueue(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        if (prefs.getBoolean(KEY_COMPLETED, false)) {
+            return;
+        }
+
+        OneTimeWorkRequest workRequest = new OneTimeWorkRequest.Builder(SmsBackfillWorker.class)
+                .addTag("sms_backfill")
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, workRequest);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        long lastDate = prefs.getLong(KEY_LAST_DATE, 0);
+        long lastId = prefs.getLong(KEY_LAST_ID, 0);
+
+        // Keyset resume: everything strictly after the last committed (date, _id)
+        String selection = Telephony.Sms.DATE + " > ? OR (" + Telephony.Sms.DATE + " = ? AND "
+                + Telephony.Sms._ID + " > ?)";
+        String[] selectionArgs = {
+                String.valueOf(lastDate), String.valueOf(lastDate), String.valueOf(lastId)
+        };
+        String sortOrder = Telephony.Sms.DATE + " ASC, " + Telephony.Sms._ID + " ASC";
+
+        int threads = Math.max(1, Math.min(MAX_PARSE_THREADS, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        int scanned = 0;
+        int imported = 0;
+        long start = System.currentTimeMillis();
+
+        ContentResolver resolver = getApplicationContext().getContentResolver();
+        try (Cursor cursor = resolver.query(Telephony.Sms.Inbox.CONTENT_URI, PROJECTION,
+                selection, selectionArgs, sortOrder)) {
+            if (cursor == null) {
+                Log.w(TAG, "SMS provider unavailable");
+                return Result.retry();
+            }
+
+            int idColumn = cursor.getColumnIndexOrThrow(Telephony.Sms._ID);
+            int addressColumn = cursor.getColumnIndexOrThrow(Telephony.Sms.ADDRESS);
+            int bodyColumn = cursor.getColumnIndexOrThrow(Telephony.Sms.BODY);
+            int dateColumn = cursor.getColumnIndexOrThrow(Telephony.Sms.DATE);
+
+            List<InboxSms> page = new ArrayList<>(PAGE_SIZE);
+            boolean more = cursor.moveToFirst();
+            while (more) {
+                if (isStopped()) {
+                    // Checkpoint covers everything committed so far
+                    return Result.retry();
+                }
+
+                page.clear();
+                long pageLastDate = lastDate;
+                long pageLastId = lastId;
+                int rows = 0;
+                while (more && rows < PAGE_SIZE) {
+                    pageLastId = cursor.getLong(idColumn);
+                    pageLastDate = cursor.getLong(dateColumn);
+                    String sender = cursor.getString(addressColumn);
+                    String body = cursor.getString(bodyColumn);
+                    if (body != null && SmsBroadcastReceiver.isBankSms(sender, body)) {
+                        page.add(new InboxSms(sender, body, pageLastDate));
+                    }
+                    rows++;
+                    more = cursor.moveToNext();
+                }
+
+                imported += writer.write(parsePage(page, executor, threads));
+                scanned += rows;
+
+                lastDate = pageLastDate;
+                lastId = pageLastId;
+                prefs.edit()
+                        .putLong(KEY_LAST_DATE, lastDate)
+                        .putLong(KEY_LAST_ID, lastId)
+                        .commit();
+
+                setProgressAsync(new Data.Builder()
+                        .putInt(PROGRESS_SCANNED, scanned)
+                        .putInt(PROGRESS_IMPORTED, imported)
+                        .build());
+            }
+        } catch (SecurityException e) {
+            Log.w(TAG, "READ_SMS not granted, skipping backfill");
+            return Result.failure();
+        } catch (Exception e) {
+            Log.e(TAG, "SMS backfill failed after " + scanned + " messages", e);
+            return Result.retry();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        prefs.edit().putBoolean(KEY_COMPLETED, true).apply();
+        Log.i(TAG, "Backfill imported " + imported + " of " + scanned + " messages in "
+                + (System.currentTimeMillis() - start) + " ms");
+
+        return Result.success(new Data.Builder()
+                .putInt(PROGRESS_SCANNED, scanned)
+                .putInt(PROGRESS_IMPORTED, imported)
+                .build());
+    }
+
+    /**
+     * Parse a page on the pool, one contiguous slice per thread, keeping inbox order.
+     */
+    private List<SmsTransactionWriter.Entry> parsePage(List<InboxSms> page, ExecutorService executor,
+            int threads) throws Exception {
+        List<SmsTransactionWriter.Entry> results = new ArrayList<>(page.size());
+        if (page.isEmpty()) {
+            return results;
+        }
+
+        int sliceSize = (page.size() + threads - 1) / threads;
+        List<Callable<List<SmsTransactionWriter.Entry>>> tasks = new ArrayList<>(threads);
+        for (int from = 0; from < page.size(); from += sliceSize) {
+            List<InboxSms> slice = page.subList(from, Math.min(page.size(), from + sliceSize));
+            tasks.add(() -> {
+                List<SmsTransactionWriter.Entry> out = new ArrayList<>(slice.size());
+                for (InboxSms sms : slice) {
+                    ParsedSmsTransaction transaction = parser.parse(sms.body, sms.sender);
+                    if (transaction != null && transaction.isParseSuccess() && !transaction.isSpam()) {
+                        out.add(new SmsTransactionWriter.Entry(
+                                sms.body, sms.sender, sms.date, transaction));
+                    }
+                }
+                return out;
+            });
+        }
+
+        for (Future<List<SmsTransactionWriter.Entry>> future : executor.invokeAll(tasks)) {
+            results.addAll(future.get());
+        }
+        return results;
+    }
+
+    private static class InboxSms {
+        final String sender;
+        final String body;
+        final long date;
+
+        InboxSms(String sender, String body, long date) {
+            this.sender = sender;
+            this.body = body;
+            this.date = date;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.dhanrakshak.ai.sms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bank-specific SMS formats, compiled once from {@link SmsTemplateRegistry}.
+ *
+ * Each format is a full-message regex with named groups:
+ * amount (required), balance, account, merchant, ref.
+ * The transaction type is fixed per format.
+ */
+public class SmsBankTemplate {
+
+    // A full-message bank format match is trusted for every field it captures
+    private static final double CONFIDENCE = 0.95;
+
+    private final String bankName;
+    private final List<String> senderCodes;
+    private final List<Format> formats;
+
+    public SmsBankTemplate(String bankName, List<String> senderCodes, List<Format> formats) {
+        this.bankName = bankName;
+        this.senderCodes = Collections.unmodifiableList(new ArrayList<>(senderCodes));
+        this.formats = Collections.unmodifiableList(new ArrayList<>(formats));
+    }
+
+    public String getBankName() {
+        return bankName;
+    }
+
+    public List<String> getSenderCodes() {
+        return senderCodes;
+    }
+
+    public List<Format> getFormats() {
+        return formats;
+    }
+
+    /**
+     * Try each format in order and build a transaction from the first match.
+     * Spam/promotional classification is left to {@link RegexSmsParser}.
+     *
+     * @param smsBody The SMS message body
+     * @return ParsedSmsTransaction or null if no format matches
+     */
+    public ParsedSmsTransaction parse(String smsBody) {
+        if (smsBody == null || smsBody.isEmpty()) {
+            return null;
+        }
+
+        for (Format format : formats) {
+            Matcher matcher = format.pattern.matcher(smsBody);
+            if (!matcher.find()) {
+                continue;
+            }
+
+            Double amount = parseAmount(matcher.group("amount"));
+            if (amount == null) {
+                continue;
+            }
+
+            ParsedSmsTransaction.Builder builder = ParsedSmsTransaction.builder()
+                    .rawSms(smsBody)
+                    .timestamp(System.currentTimeMillis())
+                    .parseMethod("TEMPLATE")
+                    .bankName(bankName)
+                    .type(format.type)
+                    .amount(amount)
+                    .parseSuccess(true)
+                    .fieldConfidence(ParsedSmsTransaction.Field.AMOUNT, CONFIDENCE)
+                    .fieldConfidence(ParsedSmsTransaction.Field.TYPE, CONFIDENCE)
+                    .fieldConfidence(ParsedSmsTransaction.Field.BANK, CONFIDENCE);
+
+            if (format.hasBalance) {
+                Double balance = parseAmount(matcher.group("balance"));
+                if (balance != null) {
+                    builder.balance(balance);
+                    builder.fieldConfidence(ParsedSmsTransaction.Field.BALANCE, CONFIDENCE);
+                }
+            }
+
+            if (format.hasAccount) {
+                builder.accountLast4(lastFour(matcher.group("account")));
+                builder.fieldConfidence(ParsedSmsTransaction.Field.ACCOUNT, CONFIDENCE);
+            }
+
+            if (format.hasMerchant) {
+                builder.merchant(cleanMerchant(matcher.group("merchant")));
+                builder.fieldConfidence(ParsedSmsTransaction.Field.MERCHANT, CONFIDENCE);
+            }
+
+            if (format.hasRef) {
+                builder.referenceId(matcher.group("ref"));
+                builder.fieldConfidence(ParsedSmsTransaction.Field.REFERENCE, CONFIDENCE);
+            }
+
+            return builder.build();
+        }
+
+        return null;
+    }
+
+    private static Double parseAmount(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String lastFour(String account) {
+        if (account == null) {
+            return null;
+        }
+        return account.length() > 4 ? account.substring(account.length() - 4) : account;
+    }
+
+    private static String cleanMerchant(String merchant) {
+        if (merchant == null) {
+            return null;
+        }
+        merchant = merchant.trim();
+        // Clean up UPI handles
+        int at = merchant.indexOf('@');
+        if (at > 0) {
+            merchant = merchant.substring(0, at);
+        }
+        return merchant;
+    }
+
+    /**
+     * One message layout for a bank.
+     */
+    public static class Format {
+        private final String type;
+        private final Pattern pattern;
+        private final boolean hasBalance;
+        private final boolean hasAccount;
+        private final boolean hasMerchant;
+        private final boolean hasRef;
+
+        public Format(String type, String regex) {
+            if (!regex.contains("(?<amount>")) {
+                throw new IllegalArgumentException("Format needs an amount group: " + regex);
+            }
+            this.type = type;
+            this.pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+            this.hasBalance = regex.contains("(?<balance>");
+            this.hasAccount = regex.contains("(?<account>");
+            this.hasMerchant = regex.contains("(?<merchant>");
+            this.hasRef = regex.contains("(?<ref>");
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Pattern getPattern() {
+            return pattern;
+        }
+    }
+}
@@ -8,19 +8,23 @@ import android.provider.Telephony;
 import android.telephony.SmsMessage;
 import android.util.Log;
 
-import androidx.work.Data;
-import androidx.work.ExistingWorkPolicy;
-import androidx.work.OneTimeWorkRequest;
-import androidx.work.WorkManager;
+import com.dhanrakshak.data.local.dao.PendingSmsDao;
+import com.dhanrakshak.data.local.entity.PendingSms;
+
+import javax.inject.Inject;
+
+import dagger.hilt.android.AndroidEntryPoint;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * BroadcastReceiver for intercepting incoming SMS messages.
- * Filters for bank transaction SMS and queues for AI parsing.
+ * Filters for bank transaction SMS and appends them to the ingestion queue,
+ * which {@link SmsIngestWorker} drains in batches.
  */
+@AndroidEntryPoint
 public class SmsBroadcastReceiver extends BroadcastReceiver {
 
     private static final String TAG = "SmsBroadcastReceiver";
-    public static final String WORK_NAME = "sms_parse_work";
 
     // Bank sender ID keywords
     private static final String[] BANK_SENDER_KEYWORDS = {
@@ -28,6 +32,9 @@ public class SmsBroadcastReceiver extends BroadcastReceiver {
             "INDUS", "YES", "BOB", "PNB", "CANARA", "UNION", "FEDERAL"
     };
 
+    @Inject
+    PendingSmsDao pendingSmsDao;
+
     @Override
     public void onReceive(Context context, Intent intent) {
         if (intent == null || intent.getAction() == null) {
@@ -74,7 +81,7 @@ public class SmsBroadcastReceiver extends BroadcastReceiver {
 
             Log.d(TAG, "Bank SMS detected from: " + senderId);
 
-            // Queue for background processing via WorkManager
+            // Queue for background processing
             queueForProcessing(context, messageBody, senderId);
 
         } catch (Exception e) {
@@ -84,8 +91,9 @@ public class SmsBroadcastReceiver extends BroadcastReceiver {
 
     /**
      * Check if SMS is from a bank.
+     * Shared with {@link SmsBackfillWorker} so inbox import uses the same filter.
      */
-    private boolean isBankSms(String senderId, String messageBody) {
+    static boolean isBankSms(String senderId, String messageBody) {
         if (senderId == null) {
             return false;
         }
@@ -115,26 +123,21 @@ public class SmsBroadcastReceiver extends BroadcastReceiver {
     }
 
     /**
-     * Queue SMS for background processing using WorkManager.
+     * Append SMS to the durable ingestion queue and schedule a drain.
+     * The insert runs off the main thread while the broadcast is kept alive.
      */
     private void queueForProcessing(Context context, String messageBody, String senderId) {
-        Data inputData = new Data.Builder()
-                .putString(SmsParseWorker.KEY_SMS_BODY, messageBody)
-                .putString(SmsParseWorker.KEY_SENDER_ID, senderId)
-                .putLong(SmsParseWorker.KEY_TIMESTAMP, System.currentTimeMillis())
-                .build();
-
-        OneTimeWorkRequest workRequest = new OneTimeWorkRequest.Builder(SmsParseWorker.class)
-                .setInputData(inputData)
-                .addTag("sms_parse")
-                .build();
-
-        WorkManager.getInstance(context)
-                .enqueueUniqueWork(
-                        WORK_NAME + "_" + System.currentTimeMillis(),
-                        ExistingWorkPolicy.APPEND_OR_REPLACE,
-                        workRequest);
-
-        Log.d(TAG, "SMS queued for processing");
+        PendingResult pendingResult = goAsync();
+        Context appContext = context.getApplicationContext();
+
+        pendingSmsDao.insert(new PendingSms(messageBody, senderId, System.currentTimeMillis()))
+                .subscribeOn(Schedulers.io())
+                .doFinally(pendingResult::finish)
+                .subscribe(
+                        () -> {
+                            SmsIngestWorker.enqueue(appContext);
+                            Log.d(TAG, "SMS queued for processing");
+                        },
+                        error -> Log.e(TAG, "Failed to queue SMS", error));
     }
 }
@@ -0,0 +1,95 @@
+package com.dhanrakshak.ai.sms;
+
+import android.util.Log;
+
+import com.dhanrakshak.data.local.dao.SmsTransactionDao;
+import com.dhanrakshak.util.BloomFilter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Duplicate check for SMS transaction dedup keys.
+ *
+ * The unique index on {@code sms_transactions.dedupKey} is the source of
+ * truth; this keeps an in-memory Bloom filter of stored keys so that new
+ * messages (the common case) skip the database entirely. Only possible hits
+ * are confirmed with a batched IN query.
+ */
+@Singleton
+public class SmsDedupIndex {
+
+    private static final String TAG = "SmsDedupIndex";
+
+    private static final int MIN_CAPACITY = 50_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    // Below SQLite's default 999 bound-parameter limit
+    private static final int QUERY_CHUNK = 500;
+
+    private final SmsTransactionDao smsTransactionDao;
+
+    // Lazily loaded from the table; guarded by this
+    private BloomFilter filter;
+
+    @Inject
+    public SmsDedupIndex(SmsTransactionDao smsTransactionDao) {
+        this.smsTransactionDao = smsTransactionDao;
+    }
+
+    /**
+     * Keys from the given set that are already stored. Blocking.
+     */
+    public Set<String> findExisting(Collection<String> keys) {
+        List<String> candidates = new ArrayList<>();
+        synchronized (this) {
+            BloomFilter bloom = filter();
+            for (String key : keys) {
+                if (bloom.mightContain(key)) {
+                    candidates.add(key);
+                }
+            }
+        }
+
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < candidates.size(); from += QUERY_CHUNK) {
+            List<String> chunk = candidates.subList(from, Math.min(candidates.size(), from + QUERY_CHUNK));
+            existing.addAll(smsTransactionDao.findExistingDedupKeys(chunk).blockingGet());
+        }
+        return existing;
+    }
+
+    /**
+     * Record keys that were just stored.
+     */
+    public synchronized void addAll(Collection<String> keys) {
+        BloomFilter bloom = filter();
+        for (String key : keys) {
+            bloom.put(key);
+        }
+        if (bloom.isSaturated()) {
+            // Rebuilt with room to grow on next use
+            filter = null;
+        }
+    }
+
+    private BloomFilter filter() {
+        if (filter == null) {
+            List<String> stored = smsTransactionDao.getAllDedupKeys().blockingGet();
+            BloomFilter bloom = new BloomFilter(Math.max(MIN_CAPACITY, stored.size() * 2),
+                    FALSE_POSITIVE_RATE);
+            for (String key : stored) {
+                bloom.put(key);
+            }
+            filter = bloom;
+            Log.d(TAG, "Loaded " + stored.size() + " dedup keys");
+        }
+        return filter;
+    }
+}
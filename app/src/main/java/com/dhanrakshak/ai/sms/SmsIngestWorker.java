@@ -0,0 +1,136 @@
+package com.dhanrakshak.ai.sms;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.hilt.work.HiltWorker;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.dhanrakshak.data.local.dao.PendingSmsDao;
+import com.dhanrakshak.data.local.entity.PendingSms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import dagger.assisted.Assisted;
+import dagger.assisted.AssistedInject;
+
+/**
+ * Single worker that drains the SMS ingestion queue.
+ *
+ * The receiver only appends to {@code sms_ingest_queue} and calls
+ * {@link #enqueue(Context)}; unique work plus a short initial delay coalesces
+ * a burst of messages into one run. Each micro-batch is parsed and committed
+ * together with its removal from the queue in one transaction.
+ */
+@HiltWorker
+public class SmsIngestWorker extends Worker {
+
+    private static final String TAG = "SmsIngestWorker";
+    public static final String WORK_NAME = "sms_ingest_work";
+
+    private static final int BATCH_SIZE = 50;
+    private static final long COALESCE_DELAY_SECONDS = 2;
+
+    private final PendingSmsDao pendingSmsDao;
+    private final SmsTransactionWriter writer;
+    private final TieredSmsParser parser;
+
+    @AssistedInject
+    public SmsIngestWorker(
+            @Assisted @NonNull Context context,
+            @Assisted @NonNull WorkerParameters params,
+            PendingSmsDao pendingSmsDao,
+            SmsTransactionWriter writer,
+            TieredSmsParser parser) {
+        super(context, params);
+        this.pendingSmsDao = pendingSmsDao;
+        this.writer = writer;
+        this.parser = parser;
+    }
+
+    /**
+     * Schedule a drain. KEEP folds requests into the pending or running drain;
+     * a message inserted while that run is finishing is caught by the count
+     * re-check in {@link #doWork()}.
+     */
+    public static void enqueue(Context context) {
+        OneTimeWorkRequest workRequest = new OneTimeWorkRequest.Builder(SmsIngestWorker.class)
+                .setInitialDelay(COALESCE_DELAY_SECONDS, TimeUnit.SECONDS)
+                .addTag("sms_ingest")
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, workRequest);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        int drained = 0;
+        int saved = 0;
+
+        try {
+            while (!isStopped()) {
+                List<PendingSms> batch = pendingSmsDao.getOldest(BATCH_SIZE).blockingGet();
+                if (batch.isEmpty()) {
+                    // A receiver whose enqueue was folded into this run may have
+                    // inserted after the read; drain again rather than drop it
+                    if (pendingSmsDao.getCount().blockingGet() == 0) {
+                        break;
+                    }
+                    continue;
+                }
+
+                List<String> bodies = new ArrayList<>(batch.size());
+                List<String> senders = new ArrayList<>(batch.size());
+                for (PendingSms sms : batch) {
+                    bodies.add(sms.getBody());
+                    senders.add(sms.getSenderId());
+                }
+
+                // Regex first; only low-confidence messages reach the model
+                List<ParsedSmsTransaction> results = parser.parse(bodies, senders);
+                List<SmsTransactionWriter.Entry> entries = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingSms sms = batch.get(i);
+                    ParsedSmsTransaction parsed = results.get(i);
+
+                    if (parsed == null || !parsed.isParseSuccess()) {
+                        Log.w(TAG, "Failed to parse SMS " + sms.getId() + ", dropping");
+                        continue;
+                    }
+
+                    // Skip spam messages
+                    if (parsed.isSpam()) {
+                        continue;
+                    }
+
+                    entries.add(new SmsTransactionWriter.Entry(
+                            sms.getBody(), sms.getSenderId(), sms.getReceivedAt(), parsed));
+                }
+
+                long maxId = batch.get(batch.size() - 1).getId();
+
+                // Rows and queue removal commit together
+                saved += writer.write(entries, () -> pendingSmsDao.deleteUpTo(maxId).blockingAwait());
+                drained += batch.size();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error draining SMS queue after " + drained + " messages", e);
+            return Result.retry();
+        }
+
+        if (drained > 0) {
+            Log.d(TAG, "Drained " + drained + " SMS, saved " + saved + " transactions ("
+                    + parser.getStats() + ")");
+        }
+        return Result.success();
+    }
+}
@@ -0,0 +1,347 @@
+package com.dhanrakshak.ai.sms;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick keyword automaton used by the SMS parsers.
+ *
+ * Compiles a fixed keyword set (max 64, lowercase) into a dense transition
+ * table once, then finds every keyword occurrence in a single pass over the
+ * message. Text is case-folded on the fly exactly like
+ * {@code String.toLowerCase(Locale.ROOT)}, so callers get the same answers as
+ * {@code body.toLowerCase().contains(keyword)} without allocating a copy.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class SmsKeywordAutomaton {
+
+    /** Maximum number of keywords (one bit each in {@link Hits#mask}). */
+    public static final int MAX_KEYWORDS = 64;
+
+    private final String[] keywords;
+    private final int[] keywordLengths;
+
+    // Dense DFA: transitions[row + symbol], row = state * alphabetSize
+    private final int[] transitions;
+    private final long[] outputs;
+    private final int alphabetSize;
+    private final int rowShift;
+
+    // Symbol lookup; symbol 0 (chars outside the alphabet) always resets to root
+    private final int[] asciiSymbols = new int[128];
+    private final char[] extraChars;
+    private final int[] extraSymbols;
+
+    public SmsKeywordAutomaton(String... keywords) {
+        if (keywords.length == 0 || keywords.length > MAX_KEYWORDS) {
+            throw new IllegalArgumentException("Keyword count must be 1.." + MAX_KEYWORDS);
+        }
+        this.keywords = keywords.clone();
+        this.keywordLengths = new int[keywords.length];
+
+        // Build alphabet from keyword characters; symbol 0 means "not in any keyword"
+        StringBuilder extras = new StringBuilder();
+        List<Integer> extraIds = new ArrayList<>();
+        int symbols = 1;
+        for (int k = 0; k < keywords.length; k++) {
+            String keyword = keywords[k];
+            if (keyword.isEmpty() || !keyword.equals(fold(keyword))) {
+                throw new IllegalArgumentException("Keyword must be non-empty lowercase: " + keyword);
+            }
+            keywordLengths[k] = keyword.length();
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                if (c < 128) {
+                    if (asciiSymbols[c] == 0) {
+                        asciiSymbols[c] = symbols++;
+                    }
+                } else if (extras.indexOf(String.valueOf(c)) < 0) {
+                    extras.append(c);
+                    extraIds.add(symbols++);
+                }
+            }
+        }
+        // Power-of-two row width lets record() recover the state with a shift
+        this.alphabetSize = Integer.highestOneBit(Math.max(symbols - 1, 1)) << 1;
+        this.rowShift = Integer.numberOfTrailingZeros(alphabetSize);
+        this.extraChars = extras.toString().toCharArray();
+        this.extraSymbols = new int[extraChars.length];
+        for (int i = 0; i < extraChars.length; i++) {
+            extraSymbols[i] = extraIds.get(i);
+        }
+        // Fold ASCII upper case into the table so the hot loop needs no branch
+        for (char c = 'A'; c <= 'Z'; c++) {
+            asciiSymbols[c] = asciiSymbols[c + ('a' - 'A')];
+        }
+
+        // Trie
+        List<int[]> gotoTable = new ArrayList<>();
+        List<Long> outputList = new ArrayList<>();
+        gotoTable.add(newRow());
+        outputList.add(0L);
+        for (int k = 0; k < keywords.length; k++) {
+            int state = 0;
+            for (int i = 0; i < keywords[k].length(); i++) {
+                int symbol = symbolOf(keywords[k].charAt(i));
+                int next = gotoTable.get(state)[symbol];
+                if (next < 0) {
+                    next = gotoTable.size();
+                    gotoTable.add(newRow());
+                    outputList.add(0L);
+                    gotoTable.get(state)[symbol] = next;
+                }
+                state = next;
+            }
+            outputList.set(state, outputList.get(state) | (1L << k));
+        }
+
+        // Failure links (BFS), folded into a complete DFA
+        int stateCount = gotoTable.size();
+        int[] fail = new int[stateCount];
+        this.transitions = new int[stateCount * alphabetSize];
+        this.outputs = new long[stateCount];
+        outputs[0] = outputList.get(0);
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int[] rootRow = gotoTable.get(0);
+        for (int s = 1; s < alphabetSize; s++) {
+            int next = rootRow[s];
+            if (next < 0) {
+                transitions[s] = 0;
+            } else {
+                transitions[s] = next;
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = outputList.get(state) | outputs[fail[state]];
+            int[] row = gotoTable.get(state);
+            for (int s = 1; s < alphabetSize; s++) {
+                int next = row[s];
+                if (next < 0) {
+                    transitions[state * alphabetSize + s] = transitions[fail[state] * alphabetSize + s];
+                } else {
+                    transitions[state * alphabetSize + s] = next;
+                    fail[next] = transitions[fail[state] * alphabetSize + s];
+                    queue.add(next);
+                }
+            }
+        }
+
+        // Store targets as row offsets, complemented when the target emits output,
+        // so the scan loop needs neither a multiply nor an output lookup per char
+        for (int i = 0; i < transitions.length; i++) {
+            int target = transitions[i];
+            int row = target * alphabetSize;
+            transitions[i] = outputs[target] != 0 ? ~row : row;
+        }
+    }
+
+    /**
+     * Number of compiled keywords.
+     */
+    public int size() {
+        return keywords.length;
+    }
+
+    /**
+     * Keyword at the given index.
+     */
+    public String keyword(int index) {
+        return keywords[index];
+    }
+
+    /**
+     * Allocate a result holder sized for this automaton. Reusable across scans.
+     */
+    public Hits newHits() {
+        return new Hits(keywords.length);
+    }
+
+    /**
+     * Scan text once and record every keyword hit.
+     *
+     * @param text Text to scan (may be null)
+     * @param hits Result holder, reset by this call
+     * @return The same hits instance
+     */
+    public Hits scan(CharSequence text, Hits hits) {
+        hits.reset();
+        if (text == null) {
+            return hits;
+        }
+
+        // Locals keep the hot loop free of field reloads
+        final int[] delta = transitions;
+        final int[] symbols = asciiSymbols;
+
+        int row = 0;
+        int length = text.length();
+        int lastExoticFold = -1;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            int entry;
+            if (c < 128) {
+                entry = delta[row + symbols[c]];
+                if (entry >= 0) {
+                    row = entry;
+                    continue;
+                }
+            } else if (c == '\u0130') {
+                // Capital I with dot lowercases to "i" + U+0307 in the ROOT locale
+                lastExoticFold = i;
+                entry = delta[row + symbolOf('i')];
+                if (entry < 0) {
+                    row = ~entry;
+                    record(row, i, lastExoticFold, hits);
+                } else {
+                    row = entry;
+                }
+                entry = delta[row + symbolOf('\u0307')];
+            } else {
+                char lower = Character.toLowerCase(c);
+                if (lower < 128) {
+                    // e.g. KELVIN SIGN -> 'k': matches contains() but not ASCII regex
+                    lastExoticFold = i;
+                }
+                entry = delta[row + symbolOf(lower)];
+            }
+
+            if (entry < 0) {
+                row = ~entry;
+                record(row, i, lastExoticFold, hits);
+            } else {
+                row = entry;
+            }
+        }
+        return hits;
+    }
+
+    private void record(int row, int originalEnd, int lastExoticFold, Hits hits) {
+        long out = outputs[row >>> rowShift];
+        hits.mask |= out;
+        while (out != 0) {
+            int k = Long.numberOfTrailingZeros(out);
+            out &= out - 1;
+            int start = originalEnd - keywordLengths[k] + 1;
+            // Only keep positions made purely of plain-ASCII case folds
+            if (start > lastExoticFold) {
+                hits.addAsciiStart(k, start);
+            }
+        }
+    }
+
+    private int symbolOf(char c) {
+        if (c < 128) {
+            return asciiSymbols[c];
+        }
+        for (int i = 0; i < extraChars.length; i++) {
+            if (extraChars[i] == c) {
+                return extraSymbols[i];
+            }
+        }
+        return 0;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static String fold(String s) {
+        return s.toLowerCase(java.util.Locale.ROOT);
+    }
+
+    /**
+     * Result of a single scan.
+     *
+     * Besides the hit mask, keeps every ASCII-matched start position per
+     * keyword (in increasing order) so callers can try a regex only where
+     * one of its literal prefixes occurs.
+     */
+    public static final class Hits {
+        private long mask;
+        private final int[] head;
+        private final int[] tail;
+        private int[] starts = new int[32];
+        private int[] next = new int[32];
+        private int count;
+
+        Hits(int keywordCount) {
+            head = new int[keywordCount];
+            tail = new int[keywordCount];
+            reset();
+        }
+
+        void reset() {
+            mask = 0;
+            count = 0;
+            Arrays.fill(head, -1);
+        }
+
+        void addAsciiStart(int keyword, int start) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                next = Arrays.copyOf(next, count * 2);
+            }
+            starts[count] = start;
+            next[count] = -1;
+            if (head[keyword] < 0) {
+                head[keyword] = count;
+            } else {
+                next[tail[keyword]] = count;
+            }
+            tail[keyword] = count;
+            count++;
+        }
+
+        /**
+         * Whether the keyword occurs anywhere in the case-folded text.
+         */
+        public boolean contains(int keyword) {
+            return (mask & (1L << keyword)) != 0;
+        }
+
+        /**
+         * Whether any keyword in the bit set occurs.
+         */
+        public boolean containsAny(long keywordMask) {
+            return (mask & keywordMask) != 0;
+        }
+
+        /**
+         * Start index of the first occurrence that an ASCII case-insensitive
+         * regex would also match, or -1.
+         */
+        public int firstAsciiStart(int keyword) {
+            return head[keyword] < 0 ? -1 : starts[head[keyword]];
+        }
+
+        /**
+         * Earliest ASCII-matched start at or after {@code fromIndex} across the
+         * given keywords, or -1.
+         */
+        public int nextAsciiStart(int fromIndex, int... keywords) {
+            int first = -1;
+            for (int k : keywords) {
+                for (int i = head[k]; i >= 0; i = next[i]) {
+                    int start = starts[i];
+                    if (start >= fromIndex) {
+                        if (first < 0 || start < first) {
+                            first = start;
+                        }
+                        break;
+                    }
+                }
+            }
+            return first;
+        }
+    }
+}
@@ -9,18 +9,22 @@ import androidx.work.Data;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
-import com.dhanrakshak.data.local.dao.BankAccountDao;
-import com.dhanrakshak.data.local.dao.SmsTransactionDao;
-import com.dhanrakshak.data.local.entity.BankAccount;
-import com.dhanrakshak.data.local.entity.SmsTransaction;
+import com.dhanrakshak.data.local.dao.PendingSmsDao;
+import com.dhanrakshak.data.local.entity.PendingSms;
 
 import dagger.assisted.Assisted;
 import dagger.assisted.AssistedInject;
 
 /**
- * WorkManager worker for processing bank SMS in background.
- * Uses Gemini Nano for AI parsing with regex fallback.
+ * Legacy per-message SMS worker.
+ *
+ * Incoming SMS now go through the ingestion queue drained by
+ * {@link SmsIngestWorker}. This worker only remains so jobs scheduled before
+ * the upgrade still run: it moves its input into the queue.
+ *
+ * @deprecated Append a {@link PendingSms} and call {@link SmsIngestWorker#enqueue(Context)}.
  */
+@Deprecated
 @HiltWorker
 public class SmsParseWorker extends Worker {
 
@@ -30,21 +34,15 @@ public class SmsParseWorker extends Worker {
     public static final String KEY_SENDER_ID = "sender_id";
     public static final String KEY_TIMESTAMP = "timestamp";
 
-    private final GeminiNanoClient geminiClient;
-    private final SmsTransactionDao smsTransactionDao;
-    private final BankAccountDao bankAccountDao;
+    private final PendingSmsDao pendingSmsDao;
 
     @AssistedInject
     public SmsParseWorker(
             @Assisted @NonNull Context context,
             @Assisted @NonNull WorkerParameters params,
-            GeminiNanoClient geminiClient,
-            SmsTransactionDao smsTransactionDao,
-            BankAccountDao bankAccountDao) {
+            PendingSmsDao pendingSmsDao) {
         super(context, params);
-        this.geminiClient = geminiClient;
-        this.smsTransactionDao = smsTransactionDao;
-        this.bankAccountDao = bankAccountDao;
+        this.pendingSmsDao = pendingSmsDao;
     }
 
     @NonNull
@@ -62,96 +60,12 @@ public class SmsParseWorker extends Worker {
         }
 
         try {
-            // Parse SMS using Gemini Nano (with regex fallback)
-            ParsedSmsTransaction parsed = geminiClient.parseSms(smsBody, senderId);
-
-            if (parsed == null || !parsed.isParseSuccess()) {
-                Log.w(TAG, "Failed to parse SMS");
-                return Result.failure();
-            }
-
-            // Skip spam messages
-            if (parsed.isSpam()) {
-                Log.d(TAG, "Spam message detected, skipping");
-                return Result.success();
-            }
-
-            // Find or create bank account
-            long bankAccountId = getOrCreateBankAccount(parsed);
-
-            // Create SMS transaction entity
-            SmsTransaction transaction = new SmsTransaction(
-                    bankAccountId,
-                    smsBody,
-                    parsed.getAmount(),
-                    parsed.getType(),
-                    parsed.getMerchant(),
-                    parsed.getBalance(),
-                    timestamp);
-            transaction.setSmsSenderId(senderId);
-            transaction.setReferenceId(parsed.getReferenceId());
-
-            // Save to database
-            smsTransactionDao.insert(transaction).blockingAwait();
-
-            // Update bank account balance if available
-            if (parsed.getBalance() > 0) {
-                bankAccountDao.updateBalance(bankAccountId, parsed.getBalance(), timestamp)
-                        .blockingAwait();
-            }
-
-            Log.d(TAG, "SMS transaction saved: " + parsed.getType() + " ₹" + parsed.getAmount());
+            pendingSmsDao.insert(new PendingSms(smsBody, senderId, timestamp)).blockingAwait();
+            SmsIngestWorker.enqueue(getApplicationContext());
             return Result.success();
-
         } catch (Exception e) {
-            Log.e(TAG, "Error processing SMS", e);
+            Log.e(TAG, "Error queueing SMS", e);
             return Result.retry();
         }
     }
-
-    /**
-     * Find existing bank account or create new one based on parsed data.
-     */
-    private long getOrCreateBankAccount(ParsedSmsTransaction parsed) {
-        String bankName = parsed.getBankName();
-        String accountLast4 = parsed.getAccountLast4();
-
-        if (bankName == null || bankName.equals("UNKNOWN")) {
-            bankName = "Unknown Bank";
-        }
-
-        if (accountLast4 == null) {
-            accountLast4 = "0000";
-        }
-
-        try {
-            // Try to find existing account
-            BankAccount existing = bankAccountDao
-                    .findByBankAndLast4(bankName, accountLast4)
-                    .blockingGet();
-
-            if (existing != null) {
-                return existing.getId();
-            }
-        } catch (Exception e) {
-            // Account doesn't exist, create new one
-            Log.d(TAG, "Creating new bank account for " + bankName);
-        }
-
-        // Create new bank account
-        BankAccount newAccount = new BankAccount(bankName, "SAVINGS", accountLast4);
-        newAccount.setBalance(parsed.getBalance());
-
-        bankAccountDao.insert(newAccount).blockingAwait();
-
-        // Get the inserted account ID
-        try {
-            BankAccount inserted = bankAccountDao
-                    .findByBankAndLast4(bankName, accountLast4)
-                    .blockingGet();
-            return inserted != null ? inserted.getId() : 0;
-        } catch (Exception e) {
-            return 0;
-        }
-    }
 }
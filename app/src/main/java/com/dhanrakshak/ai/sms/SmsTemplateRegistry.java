@@ -0,0 +1,194 @@
+package com.dhanrakshak.ai.sms;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.dhanrakshak.R;
+import com.google.gson.Gson;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Registry of bank-specific SMS templates keyed by sender ID.
+ *
+ * Templates ship as a versioned raw resource (res/raw/sms_bank_templates.json),
+ * so new banks or formats need no code change. Lookup is a hash probe on the
+ * sender header (e.g. "AD-HDFCBK-S" -> "HDFCBK"), falling back to shorter
+ * prefixes down to {@link #MIN_CODE_LENGTH} characters.
+ *
+ * A bank may be listed with senders but no formats until its real message
+ * layouts have been collected; its senders are still recognised and named,
+ * and the messages go through generic parsing.
+ */
+@Singleton
+public class SmsTemplateRegistry {
+
+    private static final String TAG = "SmsTemplateRegistry";
+
+    private static final int MIN_CODE_LENGTH = 3;
+
+    private final int version;
+    private final Map<String, SmsBankTemplate> bySenderCode = new HashMap<>();
+    private final Map<String, SmsBankTemplate> byBankName = new LinkedHashMap<>();
+
+    @Inject
+    public SmsTemplateRegistry(Context context) {
+        int loadedVersion = 0;
+        try (InputStream in = context.getApplicationContext().getResources()
+                .openRawResource(R.raw.sms_bank_templates);
+                Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            loadedVersion = load(reader);
+            Log.i(TAG, "Loaded " + byBankName.size() + " bank templates, version " + loadedVersion);
+        } catch (Exception e) {
+            // Generic parsing still works without templates
+            Log.e(TAG, "Failed to load bank templates", e);
+            bySenderCode.clear();
+            byBankName.clear();
+        }
+        this.version = loadedVersion;
+    }
+
+    /**
+     * Build a registry from template JSON (same schema as the raw resource).
+     */
+    public SmsTemplateRegistry(Reader reader) {
+        this.version = load(reader);
+    }
+
+    private int load(Reader reader) {
+        TemplateFile file = new Gson().fromJson(reader, TemplateFile.class);
+        if (file == null || file.banks == null) {
+            throw new IllegalArgumentException("Template file has no banks");
+        }
+
+        for (BankEntry entry : file.banks) {
+            List<SmsBankTemplate.Format> formats = new ArrayList<>();
+            if (entry.formats != null) {
+                for (FormatEntry format : entry.formats) {
+                    formats.add(new SmsBankTemplate.Format(format.type, format.pattern));
+                }
+            }
+
+            List<String> codes = new ArrayList<>();
+            if (entry.senders != null) {
+                for (String sender : entry.senders) {
+                    codes.add(sender.toUpperCase(Locale.ROOT));
+                }
+            }
+
+            SmsBankTemplate template = new SmsBankTemplate(entry.bank, codes, formats);
+            byBankName.put(entry.bank, template);
+            for (String code : codes) {
+                SmsBankTemplate previous = bySenderCode.put(code, template);
+                if (previous != null && previous != template) {
+                    Log.w(TAG, "Sender code " + code + " claimed by " + previous.getBankName()
+                            + " and " + entry.bank);
+                }
+            }
+        }
+        return file.version;
+    }
+
+    /**
+     * Template file version (0 if the resource failed to load).
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Find the template for an SMS sender ID such as "VM-ICICIB" or "AXISBK".
+     *
+     * @return The bank template, or null if the sender is not registered
+     */
+    public SmsBankTemplate findBySender(String senderId) {
+        String header = senderHeader(senderId);
+        if (header == null) {
+            return null;
+        }
+
+        // Exact header first, then shorter prefixes ("HDFCBN" -> "HDFC")
+        for (int length = header.length(); length >= MIN_CODE_LENGTH; length--) {
+            SmsBankTemplate template = bySenderCode.get(
+                    length == header.length() ? header : header.substring(0, length));
+            if (template != null) {
+                return template;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the template by bank name (e.g. "HDFC", "STANDARD_CHARTERED").
+     */
+    public SmsBankTemplate findByBank(String bankName) {
+        return byBankName.get(bankName);
+    }
+
+    /**
+     * Whether the sender ID belongs to a registered bank.
+     */
+    public boolean isBankSender(String senderId) {
+        return findBySender(senderId) != null;
+    }
+
+    public Collection<SmsBankTemplate> getTemplates() {
+        return Collections.unmodifiableCollection(byBankName.values());
+    }
+
+    /**
+     * Extract the 6-character header from an Indian DLT sender ID.
+     * "AD-HDFCBK" -> "HDFCBK", "JM-ICICIT-S" -> "ICICIT", "AXISBK" -> "AXISBK".
+     */
+    static String senderHeader(String senderId) {
+        if (senderId == null) {
+            return null;
+        }
+        String id = senderId.trim();
+        int firstDash = id.indexOf('-');
+        if (firstDash >= 0 && firstDash <= 2) {
+            // Operator/circle prefix
+            id = id.substring(firstDash + 1);
+        }
+        int nextDash = id.indexOf('-');
+        if (nextDash >= 0) {
+            // Category suffix (-S, -T, -P, -G)
+            id = id.substring(0, nextDash);
+        }
+        if (id.length() < MIN_CODE_LENGTH) {
+            return null;
+        }
+        return id.toUpperCase(Locale.ROOT);
+    }
+
+    // Gson schema for sms_bank_templates.json
+    private static class TemplateFile {
+        int version;
+        List<BankEntry> banks;
+    }
+
+    private static class BankEntry {
+        String bank;
+        List<String> senders;
+        List<FormatEntry> formats;
+    }
+
+    private static class FormatEntry {
+        String type;
+        String pattern;
+    }
+}
@@ -0,0 +1,163 @@
+package com.dhanrakshak.ai.sms;
+
+import com.dhanrakshak.data.local.dao.BankAccountDao;
+import com.dhanrakshak.data.local.dao.SmsTransactionDao;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
+import com.dhanrakshak.data.local.entity.SmsTransaction;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Persists parsed bank SMS in batches.
+ *
+ * One call is one Room transaction: bank accounts are resolved through
+ * {@link BankAccountResolver}, all rows go through a single
+ * {@link SmsTransactionDao#insertAll}, and each account gets the newest
+ * balance seen in the batch. Callers can pass extra work to commit
+ * atomically with it.
+ *
+ * Writes are idempotent: rows carry a dedup key, already stored keys are
+ * dropped via {@link SmsDedupIndex}, and the unique index ignores the rest.
+ */
+@Singleton
+public class SmsTransactionWriter {
+
+    private final DhanRakshakDatabase database;
+    private final SmsTransactionDao smsTransactionDao;
+    private final BankAccountDao bankAccountDao;
+    private final SmsDedupIndex dedupIndex;
+    private final BankAccountResolver accountResolver;
+
+    @Inject
+    public SmsTransactionWriter(
+            DhanRakshakDatabase database,
+            SmsTransactionDao smsTransactionDao,
+            BankAccountDao bankAccountDao,
+            SmsDedupIndex dedupIndex,
+            BankAccountResolver accountResolver) {
+        this.database = database;
+        this.smsTransactionDao = smsTransactionDao;
+        this.bankAccountDao = bankAccountDao;
+        this.dedupIndex = dedupIndex;
+        this.accountResolver = accountResolver;
+    }
+
+    /**
+     * Write a batch of parsed messages. Blocking; call off the main thread.
+     *
+     * @param entries Parsed messages, oldest first
+     * @return Number of new rows written (duplicates excluded)
+     */
+    public int write(List<Entry> entries) {
+        return write(entries, null);
+    }
+
+    /**
+     * Write a batch and run {@code alsoInTransaction} in the same transaction.
+     *
+     * @param entries           Parsed messages, oldest first
+     * @param alsoInTransaction Extra database work, or null
+     * @return Number of new rows written (duplicates excluded)
+     */
+    public int write(List<Entry> entries, Runnable alsoInTransaction) {
+        if (entries.isEmpty() && alsoInTransaction == null) {
+            return 0;
+        }
+
+        try {
+            return database.runInTransaction(() -> {
+                int written = entries.isEmpty() ? 0 : writeBatch(entries);
+                if (alsoInTransaction != null) {
+                    alsoInTransaction.run();
+                }
+                return written;
+            });
+        } catch (RuntimeException e) {
+            // Accounts created in the rolled-back transaction are gone
+            accountResolver.invalidate();
+            throw e;
+        }
+    }
+
+    private int writeBatch(List<Entry> entries) {
+        // Keyed by dedup key, which also drops repeats within the batch
+        Map<String, SmsTransaction> rowsByKey = new LinkedHashMap<>();
+
+        for (Entry entry : entries) {
+            long bankAccountId = accountResolver.resolve(entry.parsed.getBankName(),
+                    entry.parsed.getAccountLast4(), entry.parsed.getBalance(), entry.timestamp);
+
+            SmsTransaction row = new SmsTransaction(
+                    bankAccountId,
+                    entry.rawSms,
+                    entry.parsed.getAmount(),
+                    entry.parsed.getType(),
+                    entry.parsed.getMerchant(),
+                    entry.parsed.getBalance(),
+                    entry.timestamp);
+            row.setSmsSenderId(entry.senderId);
+            row.setReferenceId(entry.parsed.getReferenceId());
+            row.setDedupKey(SmsTransaction.buildDedupKey(bankAccountId,
+                    entry.parsed.getAmount(), entry.parsed.getReferenceId(), entry.rawSms));
+
+            rowsByKey.putIfAbsent(row.getDedupKey(), row);
+        }
+
+        for (String key : dedupIndex.findExisting(rowsByKey.keySet())) {
+            rowsByKey.remove(key);
+        }
+        if (rowsByKey.isEmpty()) {
+            return 0;
+        }
+
+        List<SmsTransaction> rows = new ArrayList<>(rowsByKey.values());
+        List<Long> ids = smsTransactionDao.insertAll(rows).blockingGet();
+
+        Set<String> inserted = new HashSet<>();
+        Map<Long, SmsTransaction> latestBalance = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (ids.get(i) == -1L) {
+                continue;
+            }
+            SmsTransaction row = rows.get(i);
+            inserted.add(row.getDedupKey());
+            if (row.getBalanceAfter() > 0) {
+                // Entries are oldest-first, so the last one wins
+                latestBalance.put(row.getBankAccountId(), row);
+            }
+        }
+
+        for (SmsTransaction row : latestBalance.values()) {
+            bankAccountDao.updateBalanceIfNewer(row.getBankAccountId(), row.getBalanceAfter(),
+                    row.getTimestamp()).blockingAwait();
+        }
+
+        dedupIndex.addAll(inserted);
+        return inserted.size();
+    }
+
+    /**
+     * A parsed SMS ready to be stored.
+     */
+    public static class Entry {
+        final String rawSms;
+        final String senderId;
+        final long timestamp;
+        final ParsedSmsTransaction parsed;
+
+        public Entry(String rawSms, String senderId, long timestamp, ParsedSmsTransaction parsed) {
+            this.rawSms = rawSms;
+            this.senderId = senderId;
+            this.timestamp = timestamp;
+            this.parsed = parsed;
+        }
+    }
+}
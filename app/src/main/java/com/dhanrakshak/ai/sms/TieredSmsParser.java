@@ -0,0 +1,203 @@
+package com.dhanrakshak.ai.sms;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Two-tier SMS parsing: regex first, Gemini Nano only when needed.
+ *
+ * {@link RegexSmsParser} handles most bank SMS in microseconds and scores
+ * each field it extracts. A message escalates to the on-device model only if
+ * its weakest field is below {@link #ESCALATION_THRESHOLD}, or if it looks
+ * like a transaction but regex couldn't parse it. Escalated messages go to
+ * the model in one batched call. Per-tier counters are in {@link #getStats()}.
+ */
+@Singleton
+public class TieredSmsParser {
+
+    private static final String TAG = "TieredSmsParser";
+
+    /** Regex results scoring below this are re-parsed by the model. */
+    public static final double ESCALATION_THRESHOLD = 0.7;
+
+    private final RegexSmsParser regexParser;
+    private final GeminiNanoClient geminiClient;
+    private final Stats stats = new Stats();
+
+    @Inject
+    public TieredSmsParser(RegexSmsParser regexParser, GeminiNanoClient geminiClient) {
+        this.regexParser = regexParser;
+        this.geminiClient = geminiClient;
+    }
+
+    /**
+     * Parse one SMS. Blocking when it escalates.
+     */
+    public ParsedSmsTransaction parse(String smsBody, String senderId) {
+        return parse(Collections.singletonList(smsBody), Collections.singletonList(senderId)).get(0);
+    }
+
+    /**
+     * Parse a batch of SMS. Blocking when any message escalates.
+     *
+     * @param smsBodies Raw SMS texts
+     * @param senderIds Sender IDs, same order
+     * @return Results in input order; null where no tier could parse
+     */
+    public List<ParsedSmsTransaction> parse(List<String> smsBodies, List<String> senderIds) {
+        int count = smsBodies.size();
+        List<ParsedSmsTransaction> results = new ArrayList<>(count);
+        List<Integer> escalate = new ArrayList<>();
+        boolean aiAvailable = geminiClient.isAvailable();
+        stats.total.addAndGet(count);
+
+        for (int i = 0; i < count; i++) {
+            String body = smsBodies.get(i);
+            ParsedSmsTransaction parsed = regexParser.parse(body, senderIds.get(i));
+            results.add(parsed);
+
+            if (aiAvailable && needsEscalation(parsed, body)) {
+                escalate.add(i);
+            } else if (parsed != null && parsed.isParseSuccess()) {
+                stats.regexAccepted.incrementAndGet();
+            } else {
+                stats.unparsed.incrementAndGet();
+            }
+        }
+
+        if (escalate.isEmpty()) {
+            return results;
+        }
+
+        stats.escalated.addAndGet(escalate.size());
+        List<String> bodies = new ArrayList<>(escalate.size());
+        for (int index : escalate) {
+            bodies.add(smsBodies.get(index));
+        }
+
+        List<ParsedSmsTransaction> aiResults;
+        try {
+            aiResults = geminiClient.parseSmsBatch(bodies).blockingGet();
+        } catch (Exception e) {
+            Log.w(TAG, "AI tier failed for " + bodies.size() + " SMS, keeping regex results", e);
+            aiResults = Collections.nCopies(bodies.size(), null);
+        }
+
+        for (int j = 0; j < escalate.size(); j++) {
+            int index = escalate.get(j);
+            ParsedSmsTransaction regex = results.get(index);
+            ParsedSmsTransaction ai = aiResults.get(j);
+
+            if (ai != null && ai.isParseSuccess()) {
+                stats.aiAccepted.incrementAndGet();
+                results.set(index, merge(ai, regex));
+            } else if (regex != null && regex.isParseSuccess()) {
+                stats.aiFailedKeptRegex.incrementAndGet();
+            } else {
+                stats.unparsed.incrementAndGet();
+            }
+        }
+
+        return results;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    private boolean needsEscalation(ParsedSmsTransaction parsed, String smsBody) {
+        if (parsed == null || !parsed.isParseSuccess()) {
+            // Only worth a model call if it looked like a transaction at all
+            return regexParser.isTransactionCandidate(smsBody);
+        }
+        if (parsed.isSpam()) {
+            return false;
+        }
+        return parsed.getConfidence() < ESCALATION_THRESHOLD;
+    }
+
+    /**
+     * Model result, with fields the model doesn't return filled from regex.
+     */
+    private static ParsedSmsTransaction merge(ParsedSmsTransaction ai, ParsedSmsTransaction regex) {
+        if (regex == null) {
+            return ai;
+        }
+        if (ai.getBankName() == null) {
+            ai.setBankName(regex.getBankName());
+        }
+        if (ai.getAccountLast4() == null) {
+            ai.setAccountLast4(regex.getAccountLast4());
+        }
+        if (ai.getReferenceId() == null) {
+            ai.setReferenceId(regex.getReferenceId());
+        }
+        if (ai.getBalance() <= 0 && regex.getBalance() > 0) {
+            ai.setBalance(regex.getBalance());
+        }
+        return ai;
+    }
+
+    /**
+     * Per-tier counters since process start.
+     */
+    public static class Stats {
+        final AtomicLong total = new AtomicLong();
+        final AtomicLong regexAccepted = new AtomicLong();
+        final AtomicLong escalated = new AtomicLong();
+        final AtomicLong aiAccepted = new AtomicLong();
+        final AtomicLong aiFailedKeptRegex = new AtomicLong();
+        final AtomicLong unparsed = new AtomicLong();
+
+        public long getTotal() {
+            return total.get();
+        }
+
+        public long getRegexAccepted() {
+            return regexAccepted.get();
+        }
+
+        public long getEscalated() {
+            return escalated.get();
+        }
+
+        public long getAiAccepted() {
+            return aiAccepted.get();
+        }
+
+        public long getAiFailedKeptRegex() {
+            return aiFailedKeptRegex.get();
+        }
+
+        public long getUnparsed() {
+            return unparsed.get();
+        }
+
+        /**
+         * Share of messages sent to the model (0..1).
+         */
+        public double getEscalationRate() {
+            long seen = total.get();
+            return seen > 0 ? (double) escalated.get() / seen : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "total=" + getTotal()
+                    + " regex=" + getRegexAccepted()
+                    + " escalated=" + getEscalated()
+                    + " ai=" + getAiAccepted()
+                    + " aiFailed=" + getAiFailedKeptRegex()
+                    + " unparsed=" + getUnparsed()
+                    + String.format(Locale.ROOT, " rate=%.1f%%", getEscalationRate() * 100);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.util.List;
 
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Single;
 
 /**
@@ -45,6 +46,18 @@ public interface AssetDao {
     @Query("SELECT * FROM assets WHERE assetType = :type ORDER BY currentValue DESC")
     Flowable<List<Asset>> getAssetsByType(String type);
 
+    /**
+     * Asset by exact identifier (indexed on assetType, identifier).
+     */
+    @Query("SELECT * FROM assets WHERE assetType = :type AND identifier = :identifier LIMIT 1")
+    Maybe<Asset> getByIdentifier(String type, String identifier);
+
+    /**
+     * Ids and identifiers of all assets of a type, for bulk price updates.
+     */
+    @Query("SELECT id, identifier FROM assets WHERE assetType = :type")
+    Single<List<AssetRef>> getRefsByType(String type);
+
     @Query("SELECT SUM(currentValue) FROM assets")
     Flowable<Double> getTotalAssetsValue();
 
@@ -54,12 +67,40 @@ public interface AssetDao {
     @Query("SELECT SUM(currentValue) FROM assets WHERE assetType = :type")
     Flowable<Double> getValueByType(String type);
 
+    /**
+     * Value, invested amount and count per asset type, in one pass.
+     */
+    @Query("SELECT assetType, SUM(currentValue) AS value, SUM(investedAmount) AS invested, "
+            + "COUNT(*) AS count FROM assets GROUP BY assetType")
+    Flowable<List<TypeTotal>> getTotalsByType();
+
     @Query("SELECT * FROM assets WHERE name LIKE '%' || :query || '%' OR identifier LIKE '%' || :query || '%'")
     Flowable<List<Asset>> searchAssets(String query);
 
     @Query("SELECT COUNT(*) FROM assets")
     Single<Integer> getAssetCount();
 
-    @Query("UPDATE assets SET currentPrice = :price, currentValue = quantity * :price, lastUpdated = :timestamp WHERE identifier = :identifier")
-    Completable updatePrice(String identifier, double price, long timestamp);
+    @Query("UPDATE assets SET currentPrice = :price, currentValue = quantity * :price, lastUpdated = :timestamp WHERE assetType = :type AND identifier = :identifier")
+    Completable updatePrice(String type, String identifier, double price, long timestamp);
+
+    @Query("UPDATE assets SET currentPrice = :price, currentValue = quantity * :price, lastUpdated = :timestamp WHERE id = :id")
+    Completable updatePriceById(long id, double price, long timestamp);
+
+    /**
+     * Inner class for per-type aggregation results
+     */
+    class TypeTotal {
+        public String assetType;
+        public double value;
+        public double invested;
+        public int count;
+    }
+
+    /**
+     * Inner class for id lookups by identifier
+     */
+    class AssetRef {
+        public long id;
+        public String identifier;
+    }
 }
@@ -24,6 +24,12 @@ public interface BankAccountDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Completable insert(BankAccount bankAccount);
 
+    /**
+     * Insert a new account and return its generated id.
+     */
+    @Insert
+    Single<Long> insertAndGetId(BankAccount bankAccount);
+
     @Update
     Completable update(BankAccount bankAccount);
 
@@ -42,12 +48,19 @@ public interface BankAccountDao {
     @Query("SELECT * FROM bank_accounts WHERE bankName = :bankName AND accountNumberLast4 = :last4")
     Single<BankAccount> findByBankAndLast4(String bankName, String last4);
 
-    @Query("SELECT SUM(balance) FROM bank_accounts WHERE isActive = 1")
+    // COALESCE: a NULL sum would make the Flowable emit nothing
+    @Query("SELECT COALESCE(SUM(balance), 0) FROM bank_accounts WHERE isActive = 1")
     Flowable<Double> getTotalBankBalance();
 
     @Query("UPDATE bank_accounts SET balance = :balance, lastUpdated = :timestamp WHERE id = :id")
     Completable updateBalance(long id, double balance, long timestamp);
 
+    /**
+     * Update balance only if the value is newer than what is stored.
+     */
+    @Query("UPDATE bank_accounts SET balance = :balance, lastUpdated = :timestamp WHERE id = :id AND lastUpdated < :timestamp")
+    Completable updateBalanceIfNewer(long id, double balance, long timestamp);
+
     @Query("SELECT * FROM bank_accounts WHERE bankName LIKE '%' || :query || '%'")
     Flowable<List<BankAccount>> searchAccounts(String query);
 }
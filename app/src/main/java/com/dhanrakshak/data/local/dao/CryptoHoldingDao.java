@@ -45,6 +45,12 @@ public interface CryptoHoldingDao {
     @Query("UPDATE crypto_holdings SET currentPriceInr = :price, currentValue = quantity * :price, lastPriceUpdate = :timestamp WHERE coinGeckoId = :coinId")
     Completable updatePrice(String coinId, double price, long timestamp);
 
+    /**
+     * Set INR and USD price of every holding of a coin; returns rows updated.
+     */
+    @Query("UPDATE crypto_holdings SET currentPriceInr = :priceInr, currentPriceUsd = :priceUsd, currentValue = quantity * :priceInr, lastPriceUpdate = :timestamp WHERE coinGeckoId = :coinId")
+    Single<Integer> updatePrices(String coinId, double priceInr, double priceUsd, long timestamp);
+
     @Query("SELECT coinGeckoId FROM crypto_holdings")
     Single<List<String>> getAllCoinIds();
 }
@@ -0,0 +1,38 @@
+package com.dhanrakshak.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.dhanrakshak.data.local.entity.MerchantCategory;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Data Access Object for learned merchant categories.
+ */
+@Dao
+public interface MerchantCategoryDao {
+
+    /**
+     * Insert or overwrite; the latest user choice wins.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable upsert(MerchantCategory mapping);
+
+    @Query("SELECT * FROM merchant_categories")
+    Single<List<MerchantCategory>> getAll();
+
+    @Query("DELETE FROM merchant_categories WHERE merchantKey = :merchantKey")
+    Completable delete(String merchantKey);
+
+    /**
+     * Keep denormalized names in step when a category is renamed.
+     */
+    @Query("UPDATE merchant_categories SET categoryName = :categoryName WHERE categoryId = :categoryId")
+    Completable renameCategory(long categoryId, String categoryName);
+}
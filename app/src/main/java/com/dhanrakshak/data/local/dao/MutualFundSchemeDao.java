@@ -39,8 +39,11 @@ public interface MutualFundSchemeDao {
     @Query("SELECT * FROM mf_schemes WHERE isin = :isin")
     Single<MutualFundScheme> getByIsin(String isin);
 
-    @Query("SELECT * FROM mf_schemes WHERE schemeName LIKE '%' || :query || '%' LIMIT 50")
-    Flowable<List<MutualFundScheme>> searchSchemes(String query);
+    /**
+     * Schemes by code, in no particular order; used to resolve search hits.
+     */
+    @Query("SELECT * FROM mf_schemes WHERE schemeCode IN (:schemeCodes)")
+    Single<List<MutualFundScheme>> getBySchemeCodes(List<Long> schemeCodes);
 
     @Query("SELECT * FROM mf_schemes WHERE amcName = :amcName ORDER BY schemeName")
     Flowable<List<MutualFundScheme>> getSchemesByAmc(String amcName);
@@ -0,0 +1,64 @@
+package com.dhanrakshak.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.dhanrakshak.data.local.entity.NavHistoryBackfill;
+import com.dhanrakshak.data.local.entity.NavHistoryChunk;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Data Access Object for NAV history chunks.
+ */
+@Dao
+public interface NavHistoryDao {
+
+    /**
+     * Insert or replace whole month chunks.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable upsertAll(List<NavHistoryChunk> chunks);
+
+    /**
+     * Chunks of a scheme in [fromMonth, toMonth], oldest first.
+     */
+    @Query("SELECT * FROM nav_history WHERE schemeCode = :schemeCode "
+            + "AND month BETWEEN :fromMonth AND :toMonth ORDER BY month")
+    Single<List<NavHistoryChunk>> getChunks(long schemeCode, int fromMonth, int toMonth);
+
+    /**
+     * Epoch day of the newest stored NAV, or 0 if none.
+     */
+    @Query("SELECT COALESCE(MAX(lastDay), 0) FROM nav_history WHERE schemeCode = :schemeCode")
+    Single<Integer> getLastDay(long schemeCode);
+
+    @Query("SELECT COALESCE(SUM(count), 0) FROM nav_history WHERE schemeCode = :schemeCode")
+    Single<Integer> getPointCount(long schemeCode);
+
+    /**
+     * Record that a scheme's full history has been downloaded.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    Completable markBackfilled(NavHistoryBackfill backfill);
+
+    @Query("SELECT EXISTS(SELECT 1 FROM nav_history_backfill WHERE schemeCode = :schemeCode)")
+    Single<Boolean> isBackfilled(long schemeCode);
+
+    /**
+     * Encoded size of all history, for storage reporting.
+     */
+    @Query("SELECT COALESCE(SUM(LENGTH(data)), 0) FROM nav_history")
+    Single<Long> getDataBytes();
+
+    @Query("DELETE FROM nav_history WHERE schemeCode = :schemeCode")
+    Completable deleteScheme(long schemeCode);
+
+    @Query("DELETE FROM nav_history_backfill WHERE schemeCode = :schemeCode")
+    Completable deleteBackfillMarker(long schemeCode);
+}
@@ -0,0 +1,37 @@
+package com.dhanrakshak.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.dhanrakshak.data.local.entity.PendingSms;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Data Access Object for the SMS ingestion queue.
+ */
+@Dao
+public interface PendingSmsDao {
+
+    @Insert
+    Completable insert(PendingSms pendingSms);
+
+    /**
+     * Oldest queued messages first (FIFO).
+     */
+    @Query("SELECT * FROM sms_ingest_queue ORDER BY id ASC LIMIT :limit")
+    Single<List<PendingSms>> getOldest(int limit);
+
+    /**
+     * Remove a drained batch; ids are monotonic so a batch is a prefix.
+     */
+    @Query("DELETE FROM sms_ingest_queue WHERE id <= :maxId")
+    Completable deleteUpTo(long maxId);
+
+    @Query("SELECT COUNT(*) FROM sms_ingest_queue")
+    Single<Integer> getCount();
+}
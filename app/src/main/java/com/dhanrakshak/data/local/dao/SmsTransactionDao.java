@@ -21,11 +21,28 @@ import io.reactivex.rxjava3.core.Single;
 @Dao
 public interface SmsTransactionDao {
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    /**
+     * Insert unless a row with the same dedupKey exists.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
     Completable insert(SmsTransaction transaction);
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
-    Completable insertAll(List<SmsTransaction> transactions);
+    /**
+     * Insert, skipping rows whose dedupKey already exists.
+     *
+     * @return Row ids in input order, -1 for skipped duplicates
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    Single<List<Long>> insertAll(List<SmsTransaction> transactions);
+
+    /**
+     * Which of the given dedup keys are already stored (max 999 per call).
+     */
+    @Query("SELECT dedupKey FROM sms_transactions WHERE dedupKey IN (:keys)")
+    Single<List<String>> findExistingDedupKeys(List<String> keys);
+
+    @Query("SELECT dedupKey FROM sms_transactions WHERE dedupKey IS NOT NULL")
+    Single<List<String>> getAllDedupKeys();
 
     @Update
     Completable update(SmsTransaction transaction);
@@ -66,12 +83,60 @@ public interface SmsTransactionDao {
     @Query("UPDATE sms_transactions SET category = :category, categoryManual = 1 WHERE id = :id")
     Completable updateCategory(long id, String category);
 
+    /**
+     * Keyset page of rows the categorizer may (re)assign: never spam or
+     * manually categorized ones.
+     */
+    @Query("SELECT id, merchant, category FROM sms_transactions WHERE id > :afterId AND isSpam = 0 "
+            + "AND categoryManual = 0 AND (:includeCategorized OR category IS NULL) ORDER BY id LIMIT :limit")
+    Single<List<CategoryRef>> getCategorizationPage(long afterId, boolean includeCategorized, int limit);
+
+    @Query("SELECT COUNT(*) FROM sms_transactions WHERE isSpam = 0 AND categoryManual = 0 "
+            + "AND (:includeCategorized OR category IS NULL)")
+    Single<Integer> countForCategorization(boolean includeCategorized);
+
+    /**
+     * Set-based category write; keep ids under SQLite's 999 parameter limit.
+     */
+    @Query("UPDATE sms_transactions SET category = :category WHERE id IN (:ids) AND categoryManual = 0")
+    Completable setCategory(String category, List<Long> ids);
+
     @Query("UPDATE sms_transactions SET isSpam = :isSpam WHERE id = :id")
     Completable markAsSpam(long id, boolean isSpam);
 
     @Query("SELECT * FROM sms_transactions WHERE merchant LIKE '%' || :query || '%' AND isSpam = 0 ORDER BY timestamp DESC")
     Flowable<List<SmsTransaction>> searchByMerchant(String query);
 
+    // Keyset pages on (timestamp, id) for paged feeds. OlderThan returns rows
+    // strictly before the key, newest first; NewerThan rows strictly after it,
+    // oldest first.
+
+    @Query("SELECT * FROM sms_transactions WHERE bankAccountId = :accountId AND isSpam = 0 AND "
+            + "timestamp <= :time AND (timestamp < :time OR id < :id) ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Single<List<SmsTransaction>> getByAccountOlderThan(long accountId, long time, long id, int limit);
+
+    @Query("SELECT * FROM sms_transactions WHERE bankAccountId = :accountId AND isSpam = 0 AND "
+            + "timestamp >= :time AND (timestamp > :time OR id > :id) ORDER BY timestamp ASC, id ASC LIMIT :limit")
+    Single<List<SmsTransaction>> getByAccountNewerThan(long accountId, long time, long id, int limit);
+
+    @Query("SELECT * FROM sms_transactions WHERE isSpam = 0 AND timestamp BETWEEN :startDate AND :endDate AND "
+            + "timestamp <= :time AND (timestamp < :time OR id < :id) ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Single<List<SmsTransaction>> getBetweenDatesOlderThan(long startDate, long endDate, long time, long id,
+            int limit);
+
+    @Query("SELECT * FROM sms_transactions WHERE isSpam = 0 AND timestamp BETWEEN :startDate AND :endDate AND "
+            + "timestamp >= :time AND (timestamp > :time OR id > :id) ORDER BY timestamp ASC, id ASC LIMIT :limit")
+    Single<List<SmsTransaction>> getBetweenDatesNewerThan(long startDate, long endDate, long time, long id,
+            int limit);
+
+    @Query("SELECT * FROM sms_transactions WHERE isSpam = 0 AND merchant LIKE '%' || :query || '%' AND "
+            + "timestamp <= :time AND (timestamp < :time OR id < :id) ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Single<List<SmsTransaction>> searchByMerchantOlderThan(String query, long time, long id, int limit);
+
+    @Query("SELECT * FROM sms_transactions WHERE isSpam = 0 AND merchant LIKE '%' || :query || '%' AND "
+            + "timestamp >= :time AND (timestamp > :time OR id > :id) ORDER BY timestamp ASC, id ASC LIMIT :limit")
+    Single<List<SmsTransaction>> searchByMerchantNewerThan(String query, long time, long id, int limit);
+
     /**
      * Inner class for category aggregation results
      */
@@ -79,4 +144,13 @@ public interface SmsTransactionDao {
         public String category;
         public double total;
     }
+
+    /**
+     * Inner class for bulk categorization
+     */
+    class CategoryRef {
+        public long id;
+        public String merchant;
+        public String category;
+    }
 }
@@ -0,0 +1,41 @@
+package com.dhanrakshak.data.local.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Read access to the spending rollup. Rows are written only by triggers.
+ * Ranges are inclusive IST epoch days (see SpendingRollup.toDay).
+ */
+@Dao
+public interface SpendingRollupDao {
+
+    /**
+     * Total of one transaction type (DEBIT or CREDIT) over a day range.
+     */
+    @Query("SELECT COALESCE(SUM(total), 0) FROM spending_rollup WHERE day BETWEEN :fromDay AND :toDay "
+            + "AND type = :type")
+    Single<Double> getTotal(String type, int fromDay, int toDay);
+
+    /**
+     * Per-category totals over a day range, largest first; null category
+     * for uncategorized.
+     */
+    @Query("SELECT NULLIF(category, '') AS category, SUM(total) AS total FROM spending_rollup "
+            + "WHERE day BETWEEN :fromDay AND :toDay AND type = :type GROUP BY category ORDER BY total DESC")
+    Single<List<SmsTransactionDao.CategorySum>> getCategoryTotals(String type, int fromDay, int toDay);
+
+    /**
+     * Debits in a month for a budget category (matched by category name).
+     *
+     * @param month yyyyMM
+     */
+    @Query("SELECT COALESCE(SUM(r.total), 0) FROM spending_rollup r "
+            + "INNER JOIN expense_categories c ON c.name = r.category "
+            + "WHERE c.id = :categoryId AND r.month = :month AND r.type = 'DEBIT'")
+    Single<Double> getCategoryDebitForMonth(long categoryId, int month);
+}
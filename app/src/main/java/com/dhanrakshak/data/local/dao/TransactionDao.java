@@ -39,6 +39,22 @@ public interface TransactionDao {
     @Query("SELECT * FROM transactions WHERE assetId = :assetId ORDER BY date DESC")
     Flowable<List<Transaction>> getTransactionsByAsset(long assetId);
 
+    /**
+     * Keyset page of an asset's transactions strictly before (date, id),
+     * newest first.
+     */
+    @Query("SELECT * FROM transactions WHERE assetId = :assetId "
+            + "AND date <= :time AND (date < :time OR id < :id) ORDER BY date DESC, id DESC LIMIT :limit")
+    Single<List<Transaction>> getByAssetOlderThan(long assetId, long time, long id, int limit);
+
+    /**
+     * Keyset page of an asset's transactions strictly after (date, id),
+     * oldest first.
+     */
+    @Query("SELECT * FROM transactions WHERE assetId = :assetId "
+            + "AND date >= :time AND (date > :time OR id > :id) ORDER BY date ASC, id ASC LIMIT :limit")
+    Single<List<Transaction>> getByAssetNewerThan(long assetId, long time, long id, int limit);
+
     @Query("SELECT * FROM transactions ORDER BY date DESC LIMIT :limit")
     Flowable<List<Transaction>> getRecentTransactions(int limit);
 
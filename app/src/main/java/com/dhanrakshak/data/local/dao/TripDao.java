@@ -47,7 +47,7 @@ public interface TripDao {
     @Delete
     Completable deleteExpense(TripExpense expense);
 
-    @Query("SELECT * FROM trip_expenses WHERE tripId = :tripId ORDER BY date DESC")
+    @Query("SELECT * FROM trip_expenses WHERE tripId = :tripId ORDER BY expenseDate DESC")
     Flowable<List<TripExpense>> getExpensesForTrip(long tripId);
 
     @Query("SELECT SUM(amount) FROM trip_expenses WHERE tripId = :tripId")
@@ -0,0 +1,206 @@
+package com.dhanrakshak.data.local.db;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.dhanrakshak.data.local.entity.SmsTransaction;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Schema migrations for {@link DhanRakshakDatabase}.
+ * Statements must match the Room-generated schema exactly.
+ */
+public final class DatabaseMigrations {
+
+    private DatabaseMigrations() {
+    }
+
+    /**
+     * Version 11: SMS ingestion queue.
+     */
+    public static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sms_ingest_queue` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`body` TEXT NOT NULL, "
+                    + "`senderId` TEXT, "
+                    + "`receivedAt` INTEGER NOT NULL)");
+        }
+    };
+
+    /**
+     * Version 12: unique dedup key on SMS transactions.
+     * Existing rows get their key computed. Rows that are already duplicates
+     * would otherwise keep inflating the debit/credit sums, so only the
+     * oldest (lowest id) of each key is kept and the rest are deleted.
+     */
+    public static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `sms_transactions` ADD COLUMN `dedupKey` TEXT");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_sms_transactions_dedupKey` "
+                    + "ON `sms_transactions` (`dedupKey`)");
+
+            List<Long> ids = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            try (Cursor cursor = db.query("SELECT id, bankAccountId, amount, referenceId, rawSms "
+                    + "FROM sms_transactions ORDER BY id")) {
+                while (cursor.moveToNext()) {
+                    ids.add(cursor.getLong(0));
+                    keys.add(SmsTransaction.buildDedupKey(
+                            cursor.getLong(1),
+                            cursor.getDouble(2),
+                            cursor.getString(3),
+                            cursor.getString(4)));
+                }
+            }
+
+            // Ascending ids, so the first row seen for a key is MIN(id)
+            Set<String> seen = new HashSet<>(keys.size() * 2);
+            for (int i = 0; i < ids.size(); i++) {
+                if (seen.add(keys.get(i))) {
+                    db.execSQL("UPDATE sms_transactions SET dedupKey = ? WHERE id = ?",
+                            new Object[] { keys.get(i), ids.get(i) });
+                } else {
+                    db.execSQL("DELETE FROM sms_transactions WHERE id = ?",
+                            new Object[] { ids.get(i) });
+                }
+            }
+        }
+    };
+
+    /**
+     * Version 13: learned merchant categories.
+     */
+    public static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `merchant_categories` ("
+                    + "`merchantKey` TEXT NOT NULL, "
+                    + "`categoryId` INTEGER NOT NULL, "
+                    + "`categoryName` TEXT NOT NULL, "
+                    + "`updatedAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`merchantKey`))");
+        }
+    };
+
+    /**
+     * Version 14: delta-encoded NAV history, one row per scheme and month,
+     * and a per-scheme marker for completed backfills.
+     */
+    public static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `nav_history` ("
+                    + "`schemeCode` INTEGER NOT NULL, "
+                    + "`month` INTEGER NOT NULL, "
+                    + "`firstDay` INTEGER NOT NULL, "
+                    + "`lastDay` INTEGER NOT NULL, "
+                    + "`count` INTEGER NOT NULL, "
+                    + "`data` BLOB NOT NULL, "
+                    + "PRIMARY KEY(`schemeCode`, `month`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `nav_history_backfill` ("
+                    + "`schemeCode` INTEGER NOT NULL, "
+                    + "`backfilledAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`schemeCode`))");
+        }
+    };
+
+    /**
+     * Version 15: index assets by (assetType, identifier) for symbol lookups
+     * and price updates.
+     */
+    public static final Migration MIGRATION_14_15 = new Migration(14, 15) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_assets_assetType_identifier` "
+                    + "ON `assets` (`assetType`, `identifier`)");
+        }
+    };
+
+    /**
+     * Version 16: daily spending rollup (IST days) kept in step by
+     * triggers, seeded from the existing transactions.
+     */
+    public static final Migration MIGRATION_15_16 = new Migration(15, 16) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `spending_rollup` ("
+                    + "`day` INTEGER NOT NULL, "
+                    + "`month` INTEGER NOT NULL, "
+                    + "`category` TEXT NOT NULL, "
+                    + "`type` TEXT NOT NULL, "
+                    + "`bankAccountId` INTEGER NOT NULL, "
+                    + "`total` REAL NOT NULL, "
+                    + "`count` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`day`, `category`, `type`, `bankAccountId`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_spending_rollup_month_type` "
+                    + "ON `spending_rollup` (`month`, `type`)");
+            SpendingRollups.createTriggers(db);
+            SpendingRollups.rebuild(db);
+        }
+    };
+
+    /**
+     * Version 17: composite indexes matching the DAO filters and sort
+     * orders. The single-column sms_transactions and transactions indexes
+     * are prefixes of the new ones and are dropped.
+     */
+    public static final Migration MIGRATION_16_17 = new Migration(16, 17) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP INDEX IF EXISTS `index_sms_transactions_bankAccountId`");
+            db.execSQL("DROP INDEX IF EXISTS `index_sms_transactions_timestamp`");
+            db.execSQL("DROP INDEX IF EXISTS `index_sms_transactions_category`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sms_transactions_bankAccountId_isSpam_timestamp` "
+                    + "ON `sms_transactions` (`bankAccountId`, `isSpam`, `timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sms_transactions_isSpam_timestamp` "
+                    + "ON `sms_transactions` (`isSpam`, `timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sms_transactions_category_isSpam_timestamp` "
+                    + "ON `sms_transactions` (`category`, `isSpam`, `timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sms_transactions_type_isSpam_timestamp_amount` "
+                    + "ON `sms_transactions` (`type`, `isSpam`, `timestamp`, `amount`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sms_transactions_isSpam_categoryManual` "
+                    + "ON `sms_transactions` (`isSpam`, `categoryManual`)");
+
+            db.execSQL("DROP INDEX IF EXISTS `index_transactions_assetId`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_transactions_assetId_date` "
+                    + "ON `transactions` (`assetId`, `date`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_transactions_date` ON `transactions` (`date`)");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reminders_isEnabled_isCompleted_nextTriggerTime` "
+                    + "ON `reminders` (`isEnabled`, `isCompleted`, `nextTriggerTime`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reminders_nextTriggerTime` "
+                    + "ON `reminders` (`nextTriggerTime`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reminders_category_isEnabled` "
+                    + "ON `reminders` (`category`, `isEnabled`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reminders_linkedBillId` "
+                    + "ON `reminders` (`linkedBillId`)");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_mf_schemes_isin` ON `mf_schemes` (`isin`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_mf_schemes_amcName_schemeName` "
+                    + "ON `mf_schemes` (`amcName`, `schemeName`)");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_budgets_year_month` "
+                    + "ON `budgets` (`year`, `month`)");
+        }
+    };
+
+    public static final Migration[] ALL = {
+            MIGRATION_10_11,
+            MIGRATION_11_12,
+            MIGRATION_12_13,
+            MIGRATION_13_14,
+            MIGRATION_14_15,
+            MIGRATION_15_16,
+            MIGRATION_16_17
+    };
+}
@@ -18,9 +18,13 @@ import com.dhanrakshak.data.local.dao.FamilyMemberDao;
 import com.dhanrakshak.data.local.dao.FinancialGoalDao;
 import com.dhanrakshak.data.local.dao.FixedDepositDao;
 import com.dhanrakshak.data.local.dao.LoanDao;
+import com.dhanrakshak.data.local.dao.MerchantCategoryDao;
 import com.dhanrakshak.data.local.dao.MutualFundSchemeDao;
+import com.dhanrakshak.data.local.dao.NavHistoryDao;
+import com.dhanrakshak.data.local.dao.PendingSmsDao;
 import com.dhanrakshak.data.local.dao.RecurringDepositDao;
 import com.dhanrakshak.data.local.dao.SmsTransactionDao;
+import com.dhanrakshak.data.local.dao.SpendingRollupDao;
 import com.dhanrakshak.data.local.dao.TransactionDao;
 import com.dhanrakshak.data.local.dao.TripDao;
 import com.dhanrakshak.data.local.dao.TripExpenseDao;
@@ -37,10 +41,15 @@ import com.dhanrakshak.data.local.entity.FamilyMember;
 import com.dhanrakshak.data.local.entity.FinancialGoal;
 import com.dhanrakshak.data.local.entity.FixedDeposit;
 import com.dhanrakshak.data.local.entity.Loan;
+import com.dhanrakshak.data.local.entity.MerchantCategory;
 import com.dhanrakshak.data.local.entity.MutualFundScheme;
+import com.dhanrakshak.data.local.entity.NavHistoryBackfill;
+import com.dhanrakshak.data.local.entity.NavHistoryChunk;
+import com.dhanrakshak.data.local.entity.PendingSms;
 import com.dhanrakshak.data.local.entity.RecurringDeposit;
 import com.dhanrakshak.data.local.entity.Reminder;
 import com.dhanrakshak.data.local.entity.SmsTransaction;
+import com.dhanrakshak.data.local.entity.SpendingRollup;
 import com.dhanrakshak.data.local.entity.Transaction;
 import com.dhanrakshak.data.local.entity.Trip;
 import com.dhanrakshak.data.local.entity.TripExpense;
@@ -56,6 +65,13 @@ import java.util.concurrent.Executors;
  * Room Database for Dhan-Rakshak.
  * Encrypted with SQLCipher for financial data security.
  * Version 6: Added Reminder and Calendar Sync.
+ * Version 11: Added SMS ingestion queue.
+ * Version 12: Added SMS transaction dedup key.
+ * Version 13: Added learned merchant categories.
+ * Version 14: Added NAV history and backfill markers.
+ * Version 15: Indexed assets by type and identifier.
+ * Version 16: Added spending rollup.
+ * Version 17: Composite indexes for hot queries.
  */
 @Database(entities = {
         Asset.class,
@@ -84,8 +100,13 @@ import java.util.concurrent.Executors;
         com.dhanrakshak.data.local.entity.GiftTransaction.class,
         com.dhanrakshak.data.local.entity.JobTask.class,
         com.dhanrakshak.data.local.entity.WorkLog.class,
-        com.dhanrakshak.data.local.entity.FamilyEvent.class
-}, version = 10, exportSchema = true)
+        com.dhanrakshak.data.local.entity.FamilyEvent.class,
+        PendingSms.class,
+        MerchantCategory.class,
+        NavHistoryChunk.class,
+        NavHistoryBackfill.class,
+        SpendingRollup.class
+}, version = 17, exportSchema = true)
 
 public abstract class DhanRakshakDatabase extends RoomDatabase {
 
@@ -101,14 +122,22 @@ public abstract class DhanRakshakDatabase extends RoomDatabase {
 
     public abstract SmsTransactionDao smsTransactionDao();
 
+    public abstract SpendingRollupDao spendingRollupDao();
+
+    public abstract PendingSmsDao pendingSmsDao();
+
     public abstract ExpenseCategoryDao expenseCategoryDao();
 
+    public abstract MerchantCategoryDao merchantCategoryDao();
+
     public abstract FixedDepositDao fixedDepositDao();
 
     public abstract RecurringDepositDao recurringDepositDao();
 
     public abstract MutualFundSchemeDao mutualFundSchemeDao();
 
+    public abstract NavHistoryDao navHistoryDao();
+
     public abstract BudgetDao budgetDao();
 
     // Advanced Feature DAOs
@@ -172,6 +201,7 @@ public abstract class DhanRakshakDatabase extends RoomDatabase {
                             DATABASE_NAME)
                             .openHelperFactory(factory)
                             .addCallback(new DatabaseCallback())
+                            .addMigrations(DatabaseMigrations.ALL)
                             .setQueryExecutor(Executors.newFixedThreadPool(4))
                             .build();
                 }
@@ -192,6 +222,7 @@ public abstract class DhanRakshakDatabase extends RoomDatabase {
                             DhanRakshakDatabase.class,
                             DATABASE_NAME)
                             .addCallback(new DatabaseCallback())
+                            .addMigrations(DatabaseMigrations.ALL)
                             .setQueryExecutor(Executors.newFixedThreadPool(4))
                             .build();
                 }
@@ -207,6 +238,7 @@ public abstract class DhanRakshakDatabase extends RoomDatabase {
         @Override
         public void onCreate(@NonNull SupportSQLiteDatabase db) {
             super.onCreate(db);
+            SpendingRollups.createTriggers(db);
             // Pre-populate expense categories
             Executors.newSingleThreadExecutor().execute(() -> {
                 if (INSTANCE != null) {
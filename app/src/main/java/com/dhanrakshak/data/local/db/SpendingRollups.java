@@ -0,0 +1,89 @@
+package com.dhanrakshak.data.local.db;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.dhanrakshak.data.local.entity.SpendingRollup;
+
+/**
+ * Triggers that keep spending_rollup in step with sms_transactions.
+ *
+ * Every insert, delete and relevant update of a non-spam transaction
+ * adjusts one (day, category, type, account) row, so all write paths
+ * (ingestion, recategorization, spam marking, account deletion cascades)
+ * are covered without application code. Rows whose count drops to zero
+ * are removed.
+ *
+ * The trigger statements carry no conflict clause of their own: SQLite
+ * applies the outer statement's (Room's UPDATE OR ABORT, INSERT OR
+ * REPLACE) to them. A bucket is therefore updated first and only inserted
+ * when it does not exist yet, so no trigger statement can conflict.
+ *
+ * Buckets are computed with the fixed {@link SpendingRollup#ZONE} offset,
+ * never SQLite's 'localtime', which is read each time a trigger fires: after
+ * a time zone change the delete or update of an older row would otherwise
+ * look for a different bucket than the one the row was added to.
+ */
+public final class SpendingRollups {
+
+    private static final long ZONE_OFFSET_MS = SpendingRollup.ZONE.getTotalSeconds() * 1000L;
+    private static final long DAY_MS = 86_400_000L;
+
+    private SpendingRollups() {
+    }
+
+    private static String day(String row) {
+        return "((" + row + ".timestamp + " + ZONE_OFFSET_MS + ") / " + DAY_MS + ")";
+    }
+
+    private static String month(String row) {
+        return "CAST(strftime('%Y%m', (" + row + ".timestamp + " + ZONE_OFFSET_MS + ") / 1000, 'unixepoch') "
+                + "AS INTEGER)";
+    }
+
+    private static String key(String row) {
+        return "day = " + day(row)
+                + " AND category = COALESCE(" + row + ".category, '')"
+                + " AND type = COALESCE(" + row + ".type, '')"
+                + " AND bankAccountId = " + row + ".bankAccountId";
+    }
+
+    private static String add(String row) {
+        return "UPDATE spending_rollup SET total = total + " + row + ".amount, count = count + 1 "
+                + "WHERE " + row + ".isSpam = 0 AND " + key(row) + "; "
+                + "INSERT INTO spending_rollup (day, month, category, type, bankAccountId, total, count) "
+                + "SELECT " + day(row) + ", " + month(row) + ", COALESCE(" + row + ".category, ''), "
+                + "COALESCE(" + row + ".type, ''), " + row + ".bankAccountId, " + row + ".amount, 1 "
+                + "WHERE " + row + ".isSpam = 0 "
+                + "AND NOT EXISTS (SELECT 1 FROM spending_rollup WHERE " + key(row) + "); ";
+    }
+
+    private static String remove(String row) {
+        return "UPDATE spending_rollup SET total = total - " + row + ".amount, count = count - 1 "
+                + "WHERE " + row + ".isSpam = 0 AND " + key(row) + "; "
+                + "DELETE FROM spending_rollup WHERE count <= 0 AND " + key(row) + "; ";
+    }
+
+    /**
+     * Create the triggers (idempotent).
+     */
+    public static void createTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `spending_rollup_insert` AFTER INSERT ON `sms_transactions` "
+                + "BEGIN " + add("NEW") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `spending_rollup_delete` AFTER DELETE ON `sms_transactions` "
+                + "BEGIN " + remove("OLD") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `spending_rollup_update` "
+                + "AFTER UPDATE OF amount, type, category, timestamp, bankAccountId, isSpam ON `sms_transactions` "
+                + "BEGIN " + remove("OLD") + add("NEW") + "END");
+    }
+
+    /**
+     * Recompute the whole rollup from sms_transactions.
+     */
+    public static void rebuild(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM spending_rollup");
+        db.execSQL("INSERT INTO spending_rollup (day, month, category, type, bankAccountId, total, count) "
+                + "SELECT " + day("t") + ", " + month("t") + ", COALESCE(t.category, ''), COALESCE(t.type, ''), "
+                + "t.bankAccountId, SUM(t.amount), COUNT(*) FROM sms_transactions t WHERE t.isSpam = 0 "
+                + "GROUP BY 1, 3, 4, 5");
+    }
+}
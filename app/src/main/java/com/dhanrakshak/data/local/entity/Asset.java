@@ -1,13 +1,14 @@
 package com.dhanrakshak.data.local.entity;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * Asset entity representing any financial asset.
  * Supports: Stocks, Mutual Funds, Gold, EPF, PPF, Bonds, FD, RD
  */
-@Entity(tableName = "assets")
+@Entity(tableName = "assets", indices = @Index({ "assetType", "identifier" }))
 public class Asset {
 
     @PrimaryKey(autoGenerate = true)
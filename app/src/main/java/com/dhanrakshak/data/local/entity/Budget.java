@@ -9,7 +9,8 @@ import androidx.room.PrimaryKey;
  * Budget entity for monthly budget planning.
  */
 @Entity(tableName = "budgets", foreignKeys = @ForeignKey(entity = ExpenseCategory.class, parentColumns = "id", childColumns = "categoryId", onDelete = ForeignKey.CASCADE), indices = {
-        @Index("categoryId"), @Index(value = { "categoryId", "month", "year" }, unique = true) })
+        @Index("categoryId"), @Index(value = { "categoryId", "month", "year" }, unique = true),
+        @Index({ "year", "month" }) })
 public class Budget {
 
     @PrimaryKey(autoGenerate = true)
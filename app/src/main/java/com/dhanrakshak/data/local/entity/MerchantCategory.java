@@ -0,0 +1,82 @@
+package com.dhanrakshak.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+/**
+ * Learned merchant to category mapping.
+ * Written when the user recategorizes a transaction; keyed by the
+ * normalized merchant so UPI handles and store IDs share one row.
+ */
+@Entity(tableName = "merchant_categories")
+public class MerchantCategory {
+
+    /**
+     * Normalized merchant, see MerchantNormalizer
+     */
+    @PrimaryKey
+    @NonNull
+    private String merchantKey;
+
+    private long categoryId;
+
+    /**
+     * Category name, denormalized so lookups need no join
+     */
+    @NonNull
+    private String categoryName;
+
+    private long updatedAt;
+
+    // Constructors
+    public MerchantCategory() {
+        this.merchantKey = "";
+        this.categoryName = "";
+    }
+
+    @Ignore
+    public MerchantCategory(@NonNull String merchantKey, long categoryId, @NonNull String categoryName,
+            long updatedAt) {
+        this.merchantKey = merchantKey;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    @NonNull
+    public String getMerchantKey() {
+        return merchantKey;
+    }
+
+    public void setMerchantKey(@NonNull String merchantKey) {
+        this.merchantKey = merchantKey;
+    }
+
+    public long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    @NonNull
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(@NonNull String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,13 +1,14 @@
 package com.dhanrakshak.data.local.entity;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * Mutual Fund Scheme Master data from AMFI.
  * Cached locally for autocomplete and NAV lookup.
  */
-@Entity(tableName = "mf_schemes")
+@Entity(tableName = "mf_schemes", indices = { @Index("isin"), @Index({ "amcName", "schemeName" }) })
 public class MutualFundScheme {
 
     @PrimaryKey
@@ -0,0 +1,49 @@
+package com.dhanrakshak.data.local.entity;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+/**
+ * Marks a scheme whose full NAV history has been downloaded once.
+ * Later syncs only append the latest NAV, however short the history is
+ * (a scheme launched last month has only a few NAVs to store).
+ */
+@Entity(tableName = "nav_history_backfill")
+public class NavHistoryBackfill {
+
+    @PrimaryKey
+    private long schemeCode;
+
+    /**
+     * When the backfill finished (epoch millis)
+     */
+    private long backfilledAt;
+
+    // Constructors
+    public NavHistoryBackfill() {
+    }
+
+    @Ignore
+    public NavHistoryBackfill(long schemeCode, long backfilledAt) {
+        this.schemeCode = schemeCode;
+        this.backfilledAt = backfilledAt;
+    }
+
+    // Getters and Setters
+    public long getSchemeCode() {
+        return schemeCode;
+    }
+
+    public void setSchemeCode(long schemeCode) {
+        this.schemeCode = schemeCode;
+    }
+
+    public long getBackfilledAt() {
+        return backfilledAt;
+    }
+
+    public void setBackfilledAt(long backfilledAt) {
+        this.backfilledAt = backfilledAt;
+    }
+}
@@ -0,0 +1,102 @@
+package com.dhanrakshak.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+/**
+ * One calendar month of NAV history for a scheme.
+ * Points are delta-encoded into {@link #data} by NavSeriesCodec, so a
+ * month of daily NAVs is one small row instead of ~22.
+ */
+@Entity(tableName = "nav_history", primaryKeys = { "schemeCode", "month" })
+public class NavHistoryChunk {
+
+    private long schemeCode;
+
+    /**
+     * Months since January 1970, see NavSeries.monthOf
+     */
+    private int month;
+
+    /**
+     * First and last epoch day in the chunk
+     */
+    private int firstDay;
+
+    private int lastDay;
+
+    /**
+     * Number of encoded points
+     */
+    private int count;
+
+    @NonNull
+    private byte[] data;
+
+    // Constructors
+    public NavHistoryChunk() {
+        this.data = new byte[0];
+    }
+
+    @Ignore
+    public NavHistoryChunk(long schemeCode, int month, int firstDay, int lastDay, int count,
+            @NonNull byte[] data) {
+        this.schemeCode = schemeCode;
+        this.month = month;
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.count = count;
+        this.data = data;
+    }
+
+    // Getters and Setters
+    public long getSchemeCode() {
+        return schemeCode;
+    }
+
+    public void setSchemeCode(long schemeCode) {
+        this.schemeCode = schemeCode;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public int getFirstDay() {
+        return firstDay;
+    }
+
+    public void setFirstDay(int firstDay) {
+        this.firstDay = firstDay;
+    }
+
+    public int getLastDay() {
+        return lastDay;
+    }
+
+    public void setLastDay(int lastDay) {
+        this.lastDay = lastDay;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    @NonNull
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(@NonNull byte[] data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,78 @@
+package com.dhanrakshak.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Raw bank SMS waiting to be parsed.
+ * Append-only ingestion queue written by SmsBroadcastReceiver and drained
+ * in batches by SmsIngestWorker.
+ */
+@Entity(tableName = "sms_ingest_queue")
+public class PendingSms {
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    /**
+     * Full (multi-part joined) SMS body
+     */
+    @NonNull
+    private String body;
+
+    /**
+     * Sender address, e.g. AD-HDFCBK
+     */
+    private String senderId;
+
+    /**
+     * When the SMS was received (epoch millis)
+     */
+    private long receivedAt;
+
+    // Constructors
+    public PendingSms() {
+        this.body = "";
+    }
+
+    public PendingSms(@NonNull String body, String senderId, long receivedAt) {
+        this.body = body;
+        this.senderId = senderId;
+        this.receivedAt = receivedAt;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(@NonNull String body) {
+        this.body = body;
+    }
+
+    public String getSenderId() {
+        return senderId;
+    }
+
+    public void setSenderId(String senderId) {
+        this.senderId = senderId;
+    }
+
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(long receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+}
@@ -1,13 +1,19 @@
 package com.dhanrakshak.data.local.entity;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * Reminder entity for personal financial reminders.
  * Supports one-time and recurring reminders.
  */
-@Entity(tableName = "reminders")
+@Entity(tableName = "reminders", indices = {
+        @Index({ "isEnabled", "isCompleted", "nextTriggerTime" }),
+        @Index("nextTriggerTime"),
+        @Index({ "category", "isEnabled" }),
+        @Index("linkedBillId")
+})
 public class Reminder {
 
     @PrimaryKey(autoGenerate = true)
@@ -5,17 +5,28 @@ import androidx.room.ForeignKey;
 import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 /**
  * SMS Transaction entity for transactions parsed from bank SMS.
  * Uses Gemini Nano for AI-powered parsing on Realme GT6.
  */
 @Entity(tableName = "sms_transactions", foreignKeys = @ForeignKey(entity = BankAccount.class, parentColumns = "id", childColumns = "bankAccountId", onDelete = ForeignKey.CASCADE), indices = {
-        @Index("bankAccountId"),
-        @Index("timestamp"),
-        @Index("category")
+        @Index({ "bankAccountId", "isSpam", "timestamp" }),
+        @Index({ "isSpam", "timestamp" }),
+        @Index({ "category", "isSpam", "timestamp" }),
+        @Index({ "type", "isSpam", "timestamp", "amount" }),
+        @Index({ "isSpam", "categoryManual" }),
+        @Index(value = "dedupKey", unique = true)
 })
 public class SmsTransaction {
 
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     @PrimaryKey(autoGenerate = true)
     private long id;
 
@@ -84,6 +95,12 @@ public class SmsTransaction {
      */
     private String notes;
 
+    /**
+     * Natural key for idempotent ingestion, see {@link #buildDedupKey}.
+     * Null only for rows that predate it and collided with an older copy.
+     */
+    private String dedupKey;
+
     // Constructors
     public SmsTransaction() {
     }
@@ -212,6 +229,51 @@ public class SmsTransaction {
         this.notes = notes;
     }
 
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    public void setDedupKey(String dedupKey) {
+        this.dedupKey = dedupKey;
+    }
+
+    /**
+     * Build the dedup key for an SMS transaction.
+     *
+     * Uses the reference ID when present, so the same transaction reported
+     * with different wording still collides; otherwise a hash of the
+     * normalized SMS text (case and whitespace folded). Account and amount
+     * are always part of the key.
+     */
+    public static String buildDedupKey(long bankAccountId, double amount, String referenceId,
+            String rawSms) {
+        long paise = Math.round(amount * 100);
+        String ref = referenceId != null ? referenceId.trim().toUpperCase(Locale.ROOT) : "";
+        if (!ref.isEmpty()) {
+            return "R:" + bankAccountId + ":" + paise + ":" + ref;
+        }
+        return "H:" + bankAccountId + ":" + paise + ":" + contentHash(rawSms);
+    }
+
+    private static String contentHash(String rawSms) {
+        String normalized = rawSms == null ? ""
+                : WHITESPACE.matcher(rawSms.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalized.getBytes(StandardCharsets.UTF_8));
+            // 128 bits is plenty within one account and amount
+            StringBuilder hex = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16))
+                        .append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on Android
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Check if this is a debit transaction
      */
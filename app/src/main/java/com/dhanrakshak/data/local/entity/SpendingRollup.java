@@ -0,0 +1,137 @@
+package com.dhanrakshak.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * Daily totals of SMS transactions per category, type and bank account.
+ * Maintained by triggers on sms_transactions (see SpendingRollups); spam
+ * rows are never counted.
+ *
+ * Days and months are calendar days in {@link #ZONE} (IST), not device
+ * local time: a trigger must put a row back into the same bucket it was
+ * added to, so the bucketing cannot change when the device's time zone
+ * does. Bank SMS timestamps and statements are in IST anyway.
+ */
+@Entity(tableName = "spending_rollup", primaryKeys = { "day", "category", "type", "bankAccountId" }, indices = {
+        @Index({ "month", "type" })
+})
+public class SpendingRollup {
+
+    /**
+     * Fixed zone of the day and month buckets. India has no DST, so this
+     * equals Asia/Kolkata for every timestamp the app can hold.
+     */
+    public static final ZoneOffset ZONE = ZoneOffset.ofHoursMinutes(5, 30);
+
+    /**
+     * IST calendar day as epoch day
+     */
+    private int day;
+
+    /**
+     * IST calendar month as yyyyMM (e.g. 202610)
+     */
+    private int month;
+
+    /**
+     * Category name, empty when uncategorized
+     */
+    @NonNull
+    private String category = "";
+
+    /**
+     * DEBIT or CREDIT
+     */
+    @NonNull
+    private String type = "";
+
+    private long bankAccountId;
+
+    /**
+     * Sum of amounts
+     */
+    private double total;
+
+    /**
+     * Number of transactions
+     */
+    private int count;
+
+    /**
+     * IST epoch day of a timestamp, matching the trigger's day column.
+     */
+    public static int toDay(long millis) {
+        return (int) Instant.ofEpochMilli(millis).atOffset(ZONE).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Month column value for a year and 1-based month.
+     */
+    public static int toMonth(int year, int month) {
+        return year * 100 + month;
+    }
+
+    // Getters and Setters
+    public int getDay() {
+        return day;
+    }
+
+    public void setDay(int day) {
+        this.day = day;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    @NonNull
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(@NonNull String category) {
+        this.category = category;
+    }
+
+    @NonNull
+    public String getType() {
+        return type;
+    }
+
+    public void setType(@NonNull String type) {
+        this.type = type;
+    }
+
+    public long getBankAccountId() {
+        return bankAccountId;
+    }
+
+    public void setBankAccountId(long bankAccountId) {
+        this.bankAccountId = bankAccountId;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public void setTotal(double total) {
+        this.total = total;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
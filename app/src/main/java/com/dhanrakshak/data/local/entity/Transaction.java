@@ -9,7 +9,8 @@ import androidx.room.PrimaryKey;
  * Transaction entity for tracking buy/sell/SIP transactions.
  * Linked to Asset for portfolio tracking and XIRR calculation.
  */
-@Entity(tableName = "transactions", foreignKeys = @ForeignKey(entity = Asset.class, parentColumns = "id", childColumns = "assetId", onDelete = ForeignKey.CASCADE), indices = @Index("assetId"))
+@Entity(tableName = "transactions", foreignKeys = @ForeignKey(entity = Asset.class, parentColumns = "id", childColumns = "assetId", onDelete = ForeignKey.CASCADE), indices = {
+        @Index({ "assetId", "date" }), @Index("date") })
 public class Transaction {
 
     @PrimaryKey(autoGenerate = true)
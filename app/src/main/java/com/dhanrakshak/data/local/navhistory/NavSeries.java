@@ -0,0 +1,206 @@
+package com.dhanrakshak.data.local.navhistory;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable NAV series of one scheme: (epoch day, NAV) points in ascending
+ * day order, backed by primitive arrays. Days are IST calendar days, the
+ * dates AMFI publishes NAVs for.
+ */
+public final class NavSeries {
+
+    public static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+
+    private static final NavSeries EMPTY = new NavSeries(0, new int[0], new double[0], 0);
+
+    private final long schemeCode;
+    private final int[] days;
+    private final double[] navs;
+    private final int size;
+
+    NavSeries(long schemeCode, int[] days, double[] navs, int size) {
+        this.schemeCode = schemeCode;
+        this.days = days;
+        this.navs = navs;
+        this.size = size;
+    }
+
+    public static NavSeries empty() {
+        return EMPTY;
+    }
+
+    public long getSchemeCode() {
+        return schemeCode;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Epoch day of point {@code index}.
+     */
+    public int getDay(int index) {
+        checkIndex(index);
+        return days[index];
+    }
+
+    /**
+     * Date of point {@code index} as IST midnight in epoch millis.
+     */
+    public long getDate(int index) {
+        return toMillis(getDay(index));
+    }
+
+    public double getNav(int index) {
+        checkIndex(index);
+        return navs[index];
+    }
+
+    /**
+     * NAV in effect on a day: the last point on or before it, or NaN.
+     */
+    public double navOn(int epochDay) {
+        int index = Arrays.binarySearch(days, 0, size, epochDay);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index >= 0 ? navs[index] : Double.NaN;
+    }
+
+    /**
+     * Month-on-month returns in percent, from the last NAV of each calendar
+     * month. The first (possibly partial) month is the base, not a return.
+     */
+    public List<Double> getMonthlyReturns() {
+        List<Double> returns = new ArrayList<>();
+        double previousClose = Double.NaN;
+        for (int i = 0; i < size; i++) {
+            boolean monthEnd = i + 1 == size || monthOf(days[i + 1]) != monthOf(days[i]);
+            if (!monthEnd) {
+                continue;
+            }
+            if (!Double.isNaN(previousClose) && previousClose > 0) {
+                returns.add((navs[i] / previousClose - 1) * 100);
+            }
+            previousClose = navs[i];
+        }
+        return returns;
+    }
+
+    /**
+     * Copy of the days, for callers that need bulk access.
+     */
+    public int[] getDays() {
+        return Arrays.copyOf(days, size);
+    }
+
+    /**
+     * Copy of the NAVs, same order as {@link #getDays()}.
+     */
+    public double[] getNavs() {
+        return Arrays.copyOf(navs, size);
+    }
+
+    /**
+     * IST calendar day of an epoch millis timestamp.
+     */
+    public static int toEpochDay(long millis) {
+        return (int) Instant.ofEpochMilli(millis).atZone(IST).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * IST midnight of an epoch day, in epoch millis.
+     */
+    public static long toMillis(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay(IST).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Months since January 1970 for an epoch day; the chunk key.
+     */
+    public static int monthOf(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return (date.getYear() - 1970) * 12 + date.getMonthValue() - 1;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+    }
+
+    /**
+     * Collects points chunk by chunk, then freezes them into a series.
+     */
+    public static final class Builder {
+        private final long schemeCode;
+        private int[] days;
+        private double[] navs;
+        private int size;
+
+        public Builder(long schemeCode, int expectedSize) {
+            this.schemeCode = schemeCode;
+            this.days = new int[Math.max(16, expectedSize)];
+            this.navs = new double[days.length];
+        }
+
+        /**
+         * Append a decoded chunk; chunks must arrive in day order.
+         */
+        public Builder addChunk(byte[] data, int count) {
+            ensureCapacity(size + count);
+            NavSeriesCodec.decode(data, count, days, navs, size);
+            size += count;
+            return this;
+        }
+
+        public Builder add(int epochDay, double nav) {
+            ensureCapacity(size + 1);
+            days[size] = epochDay;
+            navs[size] = nav;
+            size++;
+            return this;
+        }
+
+        /**
+         * Series restricted to [fromDay, toDay].
+         */
+        public NavSeries build(int fromDay, int toDay) {
+            int from = lowerBound(fromDay);
+            int to = upperBound(toDay);
+            if (from >= to) {
+                return new NavSeries(schemeCode, new int[0], new double[0], 0);
+            }
+            return new NavSeries(schemeCode, Arrays.copyOfRange(days, from, to),
+                    Arrays.copyOfRange(navs, from, to), to - from);
+        }
+
+        private int lowerBound(int day) {
+            int index = Arrays.binarySearch(days, 0, size, day);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        private int upperBound(int day) {
+            int index = Arrays.binarySearch(days, 0, size, day);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > days.length) {
+                int length = Math.max(capacity, days.length * 2);
+                days = Arrays.copyOf(days, length);
+                navs = Arrays.copyOf(navs, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.dhanrakshak.data.local.navhistory;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Delta encoding for NAV history chunks.
+ *
+ * A chunk is a run of (epoch day, NAV) points in ascending day order. Each
+ * point is stored as two varints: the day gap to the previous point and the
+ * zigzag NAV change in {@link #NAV_SCALE} ticks. The first point is stored
+ * against day 0 / NAV 0. A month of daily NAVs fits in roughly 90 bytes.
+ *
+ * NAVs are kept to four decimals, the precision AMFI publishes.
+ */
+public final class NavSeriesCodec {
+
+    /** NAV ticks per rupee. */
+    public static final long NAV_SCALE = 10_000L;
+
+    private NavSeriesCodec() {
+    }
+
+    /**
+     * Encode points {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * @param days Epoch days, strictly ascending
+     * @param navs NAVs, same order
+     */
+    public static byte[] encode(int[] days, double[] navs, int from, int to) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream((to - from) * 4);
+        int previousDay = 0;
+        long previousTicks = 0;
+        for (int i = from; i < to; i++) {
+            if (i > from && days[i] <= previousDay) {
+                throw new IllegalArgumentException("Days not ascending at " + days[i]);
+            }
+            long ticks = toTicks(navs[i]);
+            writeVarint(out, days[i] - previousDay);
+            writeVarint(out, zigzag(ticks - previousTicks));
+            previousDay = days[i];
+            previousTicks = ticks;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode {@code count} points into the arrays starting at {@code offset}.
+     */
+    public static void decode(byte[] data, int count, int[] days, double[] navs, int offset) {
+        int position = 0;
+        int day = 0;
+        long ticks = 0;
+        for (int i = 0; i < count; i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            day += (int) value;
+
+            value = 0;
+            shift = 0;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            ticks += (value >>> 1) ^ -(value & 1);
+
+            days[offset + i] = day;
+            navs[offset + i] = (double) ticks / NAV_SCALE;
+        }
+    }
+
+    public static long toTicks(double nav) {
+        return Math.round(nav * NAV_SCALE);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,182 @@
+package com.dhanrakshak.data.local.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingState;
+import androidx.paging.rxjava3.RxPagingSource;
+import androidx.room.InvalidationTracker;
+import androidx.room.RoomDatabase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToLongFunction;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+import kotlin.Unit;
+
+/**
+ * Newest-first feed paged by keyset on (time, id).
+ *
+ * Each page is one indexed range query bounded by the last row already
+ * shown, so the cost of a page does not grow with its depth, unlike
+ * LIMIT/OFFSET. Pages can be loaded in both directions, which lets the
+ * pager drop pages beyond {@link #config()}'s maxSize and reload them when
+ * the user scrolls back. A write to any observed table invalidates the
+ * source; the refresh resumes around the visible position.
+ *
+ * @param <T> Row type
+ */
+public class KeysetPagingSource<T> extends RxPagingSource<KeysetPagingSource.Key, T> {
+
+    public static final int PAGE_SIZE = 50;
+
+    /**
+     * One keyset query: up to limit rows strictly past (time, id).
+     */
+    public interface PageQuery<T> {
+        Single<List<T>> load(long time, long id, int limit);
+    }
+
+    private final RoomDatabase database;
+    private final PageQuery<T> olderThan;
+    private final PageQuery<T> newerThan;
+    private final ToLongFunction<T> timeOf;
+    private final ToLongFunction<T> idOf;
+    private final InvalidationTracker.Observer observer;
+    private final AtomicBoolean observing = new AtomicBoolean();
+
+    /**
+     * @param tables    Tables whose writes invalidate the feed
+     * @param olderThan Rows before the key, newest first
+     * @param newerThan Rows after the key, oldest first
+     */
+    public KeysetPagingSource(RoomDatabase database, String[] tables,
+            PageQuery<T> olderThan, PageQuery<T> newerThan,
+            ToLongFunction<T> timeOf, ToLongFunction<T> idOf) {
+        this.database = database;
+        this.olderThan = olderThan;
+        this.newerThan = newerThan;
+        this.timeOf = timeOf;
+        this.idOf = idOf;
+        this.observer = new InvalidationTracker.Observer(tables) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> changed) {
+                invalidate();
+            }
+        };
+        registerInvalidatedCallback(() -> {
+            if (observing.get()) {
+                database.getInvalidationTracker().removeObserver(observer);
+            }
+            return Unit.INSTANCE;
+        });
+    }
+
+    /**
+     * Pager settings for keyset feeds; at most maxSize rows are held.
+     */
+    public static PagingConfig config() {
+        return new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2, PAGE_SIZE * 5);
+    }
+
+    @NonNull
+    @Override
+    public Single<LoadResult<Key, T>> loadSingle(@NonNull LoadParams<Key> params) {
+        Key key = params.getKey();
+        int limit = params.getLoadSize();
+        return Single.defer(() -> {
+            // Registering touches the database, so do it off the main thread
+            if (!getInvalid() && observing.compareAndSet(false, true)) {
+                database.getInvalidationTracker().addObserver(observer);
+            }
+            if (key == null) {
+                return olderThan.load(Long.MAX_VALUE, Long.MAX_VALUE, limit);
+            }
+            if (key.newer) {
+                return newerThan.load(key.time, key.id, limit).map(KeysetPagingSource::reversed);
+            }
+            return olderThan.load(key.time, key.id, limit);
+        })
+                .subscribeOn(Schedulers.io())
+                .map(rows -> toPage(key, rows, limit))
+                .onErrorReturn(error -> new LoadResult.Error<>(error));
+    }
+
+    private LoadResult<Key, T> toPage(@Nullable Key key, List<T> rows, int limit) {
+        if (rows.isEmpty()) {
+            return new LoadResult.Page<>(rows, null, null);
+        }
+        boolean atTop = key == null || (key.newer && rows.size() < limit);
+        boolean atEnd = (key == null || !key.newer) && rows.size() < limit;
+        Key prev = atTop ? null : keyOf(rows.get(0), true);
+        Key next = atEnd ? null : keyOf(rows.get(rows.size() - 1), false);
+        return new LoadResult.Page<>(rows, prev, next);
+    }
+
+    /**
+     * Resume so that the visible position sits in the middle of the first
+     * load; from the top if it is near the head of the feed.
+     */
+    @Nullable
+    @Override
+    public Key getRefreshKey(@NonNull PagingState<Key, T> state) {
+        Integer anchor = state.getAnchorPosition();
+        if (anchor == null) {
+            return null;
+        }
+        int start = anchor - state.getConfig().initialLoadSize / 2;
+        if (start <= 0) {
+            return null;
+        }
+        T before = state.closestItemToPosition(start - 1);
+        return before != null ? keyOf(before, false) : null;
+    }
+
+    private Key keyOf(T row, boolean newer) {
+        return new Key(timeOf.applyAsLong(row), idOf.applyAsLong(row), newer);
+    }
+
+    private static <R> List<R> reversed(List<R> rows) {
+        List<R> copy = new ArrayList<>(rows);
+        Collections.reverse(copy);
+        return copy;
+    }
+
+    /**
+     * Position strictly between rows: load newer or older rows than (time, id).
+     */
+    public static final class Key {
+        final long time;
+        final long id;
+        final boolean newer;
+
+        Key(long time, long id, boolean newer) {
+            this.time = time;
+            this.id = id;
+            this.newer = newer;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return time == other.time && id == other.id && newer == other.newer;
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(time) * 31 + Long.hashCode(id)) * 2 + (newer ? 1 : 0);
+        }
+    }
+}
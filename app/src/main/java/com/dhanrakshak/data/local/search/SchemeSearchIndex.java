@@ -0,0 +1,534 @@
+package com.dhanrakshak.data.local.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * In-memory search index over mutual fund schemes (name, AMC, ISIN, code).
+ *
+ * Text is split into lowercase alphanumeric tokens. Each distinct token has
+ * a sorted posting list of documents; a sorted token array answers prefix
+ * lookups and a trigram table over tokens finds typo candidates, which are
+ * checked with a prefix edit distance. Every query word must match (exact,
+ * prefix or within one or two edits); results rank by match quality, then
+ * a match on the first word of the name, then shorter names.
+ *
+ * A query touches only the postings of matching tokens, so it costs well
+ * under a millisecond for 15k schemes. Entries are updated in place, so
+ * the NAV sync only re-indexes schemes whose text changed.
+ */
+@Singleton
+public class SchemeSearchIndex {
+
+    private static final int SCORE_EXACT = 100;
+    private static final int SCORE_PREFIX = 60;
+    private static final int SCORE_FUZZY = 30;
+    private static final int PENALTY_PER_EDIT = 10;
+    private static final int BONUS_NAME_START = 20;
+
+    // Words this short get no typo matching; too many false hits
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int TWO_EDIT_LENGTH = 8;
+
+    private static final int MAX_NAME_LENGTH = 1023;
+    private static final int DOC_BITS = 30;
+
+    // Documents
+    private long[] codes = new long[0];
+    private Entry[] entries = new Entry[0];
+    private int[][] docTokens = new int[0][];
+    private int docCount;
+    private final Map<Long, Integer> docByCode = new HashMap<>();
+    private boolean loaded;
+
+    // Token dictionary
+    private final List<String> tokens = new ArrayList<>();
+    private final Map<String, Integer> tokenIds = new HashMap<>();
+    private final List<IntList> postings = new ArrayList<>();
+    private final Map<Long, IntList> trigramTokens = new HashMap<>();
+    private String[] sortedTokens = new String[0];
+    private int[] sortedTokenIds = new int[0];
+    // Alphabetic tokens only: ISINs and codes never need typo matching
+    private String[] sortedWords = new String[0];
+    private int[] sortedWordIds = new int[0];
+    private boolean sortedDirty;
+    private int[] trigramHits = new int[0];
+
+    // Per-query scratch, indexed by document
+    private int[] wordScore = new int[0];
+    private int[] wordStamp = new int[0];
+    private int[] totalScore = new int[0];
+    private int[] matchedWords = new int[0];
+    private int[] candidateStamp = new int[0];
+    private int stamp;
+    private int queryStamp;
+
+    @Inject
+    public SchemeSearchIndex() {
+    }
+
+    /**
+     * Indexable text of one scheme.
+     */
+    public static final class Entry {
+        final long schemeCode;
+        final String schemeName;
+        final String amcName;
+        final String isin;
+
+        public Entry(long schemeCode, String schemeName, String amcName, String isin) {
+            this.schemeCode = schemeCode;
+            this.schemeName = schemeName != null ? schemeName : "";
+            this.amcName = amcName != null ? amcName : "";
+            this.isin = isin != null ? isin : "";
+        }
+
+        boolean sameText(String name, String amc, String isinCode) {
+            return schemeName.equals(name != null ? name : "")
+                    && amcName.equals(amc != null ? amc : "")
+                    && isin.equals(isinCode != null ? isinCode : "");
+        }
+    }
+
+    /**
+     * True once {@link #rebuild} has run; until then updates are ignored.
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Replace the whole index.
+     */
+    public synchronized void rebuild(List<Entry> all) {
+        codes = new long[Math.max(16, all.size())];
+        entries = new Entry[codes.length];
+        docTokens = new int[codes.length][];
+        docCount = 0;
+        docByCode.clear();
+        tokens.clear();
+        tokenIds.clear();
+        postings.clear();
+        trigramTokens.clear();
+        sortedDirty = true;
+
+        for (Entry entry : all) {
+            put(entry);
+        }
+        sortTokens();
+        loaded = true;
+    }
+
+    /**
+     * True if the scheme is indexed with exactly this text.
+     */
+    public synchronized boolean isCurrent(long schemeCode, String schemeName, String amcName, String isin) {
+        Integer doc = docByCode.get(schemeCode);
+        return doc != null && entries[doc].sameText(schemeName, amcName, isin);
+    }
+
+    /**
+     * Add or re-index schemes. Ignored until the index is loaded.
+     */
+    public synchronized void updateAll(List<Entry> changed) {
+        if (!loaded) {
+            return;
+        }
+        for (Entry entry : changed) {
+            put(entry);
+        }
+        if (sortedDirty) {
+            sortTokens();
+        }
+    }
+
+    /**
+     * Scheme codes best matching a query, best first.
+     */
+    public synchronized long[] search(String query, int limit) {
+        String[] words = tokenize(query);
+        if (words.length == 0 || docCount == 0 || limit <= 0) {
+            return new long[0];
+        }
+        ensureScratch();
+        queryStamp++;
+
+        // Docs matching the first word are the only candidates for the rest
+        IntList candidates = new IntList();
+        for (int w = 0; w < words.length; w++) {
+            stamp++;
+            scoreWord(words[w], w, candidates);
+            if (candidates.size == 0) {
+                return new long[0];
+            }
+        }
+
+        int matches = candidates.size;
+        long[] keys = new long[matches];
+        for (int i = 0; i < matches; i++) {
+            int doc = candidates.values[i];
+            int length = Math.min(entries[doc].schemeName.length(), MAX_NAME_LENGTH);
+            keys[i] = ((long) totalScore[doc] << 40)
+                    | ((long) (MAX_NAME_LENGTH - length) << DOC_BITS)
+                    | ((1 << DOC_BITS) - 1 - doc);
+        }
+        Arrays.sort(keys);
+
+        int count = Math.min(limit, matches);
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            int doc = (1 << DOC_BITS) - 1 - (int) (keys[matches - 1 - i] & ((1L << DOC_BITS) - 1));
+            result[i] = codes[doc];
+        }
+        return result;
+    }
+
+    /**
+     * Score one query word into the scratch arrays. The first word creates
+     * the candidates; each word then drops candidates it doesn't match.
+     */
+    private void scoreWord(String word, int wordIndex, IntList candidates) {
+        // Exact and prefix: the sorted range of tokens starting with the word
+        int from = lowerBound(word);
+        for (int i = from; i < sortedTokens.length && sortedTokens[i].startsWith(word); i++) {
+            int score = sortedTokens[i].length() == word.length() ? SCORE_EXACT : SCORE_PREFIX;
+            addToken(sortedTokenIds[i], score, wordIndex, candidates);
+        }
+
+        // Typos: only when nothing matched as typed, and for alphabetic words
+        // long enough to tell apart
+        if (word.length() >= MIN_FUZZY_LENGTH && isAlphabetic(word) && !anyScored(candidates)) {
+            int maxEdits = word.length() >= TWO_EDIT_LENGTH ? 2 : 1;
+            IntList fuzzy = fuzzyCandidates(word, maxEdits);
+            for (int f = 0; f < fuzzy.size; f++) {
+                int token = fuzzy.values[f];
+                int distance = prefixEditDistance(word, tokens.get(token), maxEdits);
+                if (distance <= maxEdits) {
+                    addToken(token, SCORE_FUZZY - PENALTY_PER_EDIT * distance, wordIndex, candidates);
+                }
+            }
+        }
+
+        // Fold this word's best score into the totals, keeping only matches
+        int kept = 0;
+        for (int i = 0; i < candidates.size; i++) {
+            int doc = candidates.values[i];
+            if (wordStamp[doc] == stamp) {
+                totalScore[doc] += wordScore[doc];
+                matchedWords[doc]++;
+                candidates.values[kept++] = doc;
+            }
+        }
+        candidates.size = kept;
+    }
+
+    private boolean anyScored(IntList candidates) {
+        for (int i = 0; i < candidates.size; i++) {
+            if (wordStamp[candidates.values[i]] == stamp) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addToken(int token, int score, int wordIndex, IntList candidates) {
+        IntList docs = postings.get(token);
+        for (int i = 0; i < docs.size; i++) {
+            int doc = docs.values[i];
+            if (wordIndex == 0) {
+                if (candidateStamp[doc] != queryStamp) {
+                    candidateStamp[doc] = queryStamp;
+                    totalScore[doc] = 0;
+                    matchedWords[doc] = 0;
+                    candidates.add(doc);
+                }
+            } else if (candidateStamp[doc] != queryStamp || matchedWords[doc] != wordIndex) {
+                continue;
+            }
+
+            int docScore = score;
+            if (wordIndex == 0 && docTokens[doc].length > 0 && docTokens[doc][0] == token) {
+                docScore += BONUS_NAME_START;
+            }
+            if (wordStamp[doc] != stamp) {
+                wordStamp[doc] = stamp;
+                wordScore[doc] = docScore;
+            } else if (docScore > wordScore[doc]) {
+                wordScore[doc] = docScore;
+            }
+        }
+    }
+
+    /**
+     * Alphabetic tokens that may be within maxEdits of the word: those with
+     * the same first letter (short words have too few trigrams to survive a
+     * typo), and those sharing enough trigrams.
+     */
+    private IntList fuzzyCandidates(String word, int maxEdits) {
+        IntList result = new IntList();
+        String firstLetter = word.substring(0, 1);
+        int from = Arrays.binarySearch(sortedWords, firstLetter);
+        for (int i = from >= 0 ? from : -from - 1; i < sortedWords.length
+                && sortedWords[i].charAt(0) == word.charAt(0); i++) {
+            result.add(sortedWordIds[i]);
+        }
+
+        if (trigramHits.length < tokens.size()) {
+            trigramHits = new int[tokens.size()];
+        }
+        IntList touched = new IntList();
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            IntList list = trigramTokens.get(trigram(word, i));
+            if (list == null) {
+                continue;
+            }
+            for (int j = 0; j < list.size; j++) {
+                if (trigramHits[list.values[j]]++ == 0) {
+                    touched.add(list.values[j]);
+                }
+            }
+        }
+        // Each edit destroys at most three trigrams
+        int needed = Math.max(1, word.length() - 2 - 3 * maxEdits);
+        for (int i = 0; i < touched.size; i++) {
+            int token = touched.values[i];
+            if (trigramHits[token] >= needed && tokens.get(token).charAt(0) != word.charAt(0)) {
+                result.add(token);
+            }
+            trigramHits[token] = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Smallest edit distance (with transpositions) between the word and any
+     * prefix of the token, or maxEdits + 1 if above the bound.
+     */
+    static int prefixEditDistance(String word, String token, int maxEdits) {
+        int n = word.length();
+        int m = Math.min(token.length(), n + maxEdits);
+        int[] previous2 = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= m; j++) {
+                int cost = word.charAt(i - 1) == token.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && word.charAt(i - 1) == token.charAt(j - 2)
+                        && word.charAt(i - 2) == token.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = maxEdits + 1;
+        for (int j = Math.max(0, n - maxEdits); j <= m; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    private void put(Entry entry) {
+        Integer existing = docByCode.get(entry.schemeCode);
+        int doc;
+        if (existing != null) {
+            doc = existing;
+            if (entries[doc].sameText(entry.schemeName, entry.amcName, entry.isin)) {
+                return;
+            }
+            for (int token : docTokens[doc]) {
+                postings.get(token).remove(doc);
+            }
+        } else {
+            doc = docCount++;
+            if (doc == codes.length) {
+                int length = codes.length * 2;
+                codes = Arrays.copyOf(codes, length);
+                entries = Arrays.copyOf(entries, length);
+                docTokens = Arrays.copyOf(docTokens, length);
+            }
+            codes[doc] = entry.schemeCode;
+            docByCode.put(entry.schemeCode, doc);
+        }
+
+        entries[doc] = entry;
+        String text = entry.schemeName + ' ' + entry.amcName + ' ' + entry.isin + ' ' + entry.schemeCode;
+        String[] words = tokenize(text);
+        int[] ids = new int[words.length];
+        int distinct = 0;
+        for (String word : words) {
+            int token = tokenId(word);
+            boolean seen = false;
+            for (int i = 0; i < distinct && !seen; i++) {
+                seen = ids[i] == token;
+            }
+            if (!seen) {
+                ids[distinct++] = token;
+                postings.get(token).insertSorted(doc);
+            }
+        }
+        docTokens[doc] = Arrays.copyOf(ids, distinct);
+    }
+
+    private int tokenId(String token) {
+        Integer id = tokenIds.get(token);
+        if (id != null) {
+            return id;
+        }
+        int newId = tokens.size();
+        tokens.add(token);
+        tokenIds.put(token, newId);
+        postings.add(new IntList());
+        for (int i = 0; i + 3 <= token.length() && isAlphabetic(token); i++) {
+            long key = trigram(token, i);
+            IntList list = trigramTokens.get(key);
+            if (list == null) {
+                list = new IntList();
+                trigramTokens.put(key, list);
+            }
+            if (list.size == 0 || list.values[list.size - 1] != newId) {
+                list.add(newId);
+            }
+        }
+        sortedDirty = true;
+        return newId;
+    }
+
+    /**
+     * Rebuild the sorted token arrays after tokens were added, so searches
+     * never pay for it. Tokens are distinct, so the ids follow from the
+     * sorted strings.
+     */
+    private void sortTokens() {
+        sortedTokens = tokens.toArray(new String[0]);
+        Arrays.sort(sortedTokens);
+        sortedTokenIds = new int[sortedTokens.length];
+        for (int i = 0; i < sortedTokens.length; i++) {
+            sortedTokenIds[i] = tokenIds.get(sortedTokens[i]);
+        }
+
+        int words = 0;
+        for (String token : sortedTokens) {
+            if (isAlphabetic(token)) {
+                words++;
+            }
+        }
+        sortedWords = new String[words];
+        sortedWordIds = new int[words];
+        words = 0;
+        for (int i = 0; i < sortedTokens.length; i++) {
+            if (isAlphabetic(sortedTokens[i])) {
+                sortedWords[words] = sortedTokens[i];
+                sortedWordIds[words++] = sortedTokenIds[i];
+            }
+        }
+        sortedDirty = false;
+    }
+
+    private void ensureScratch() {
+        if (wordScore.length < docCount) {
+            int length = codes.length;
+            wordScore = new int[length];
+            wordStamp = new int[length];
+            totalScore = new int[length];
+            matchedWords = new int[length];
+            candidateStamp = new int[length];
+            stamp = 0;
+            queryStamp = 0;
+        }
+    }
+
+    private int lowerBound(String word) {
+        int index = Arrays.binarySearch(sortedTokens, word);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    private static boolean isAlphabetic(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lowercase runs of letters and digits.
+     */
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        List<String> words = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * Growable int array.
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void insertSorted(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            add(0);
+            System.arraycopy(values, index, values, index + 1, size - 1 - index);
+            values[index] = value;
+        }
+
+        void remove(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - 1 - index);
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.dhanrakshak.data.remote.amfi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Streaming tokenizer for the AMFI NAVAll.txt file.
+ *
+ * Reads raw bytes through one fixed buffer and records field boundaries as
+ * offsets, so no line strings, split arrays or trimmed copies are created.
+ * Scheme code, NAV and date are parsed straight from the bytes; text fields
+ * become Strings only when the handler asks for them. Memory use is the
+ * buffer (64 KB) regardless of file size.
+ *
+ * Line format: Scheme Code;ISIN Div Payout/Growth;ISIN Div Reinvestment;
+ * Scheme Name;Net Asset Value;Date. Lines without ';' are section headers
+ * ("Open Ended Schemes(...)") or AMC names.
+ */
+public final class AmfiNavParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIELDS = 8;
+
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+    private static final String MONTHS = "janfebmaraprmayjunjulaugsepoctnovdec";
+
+    // Exact as doubles, so mantissa / 10^scale rounds correctly
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private static final byte[][] SECTION_PREFIXES = {
+            ascii("Scheme"), ascii("Open"), ascii("Close"), ascii("Interval")
+    };
+
+    /**
+     * Receives each scheme line. The row is reused; read it before returning.
+     */
+    public interface Handler {
+        void onScheme(Row row) throws IOException;
+    }
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private final Row row = new Row();
+
+    // AMC header; decoded once per AMC, not per scheme
+    private String amcName = "";
+
+    // Dates repeat for every scheme; cache the last one
+    private final byte[] lastDate = new byte[16];
+    private int lastDateLength = -1;
+    private long lastDateMillis;
+
+    /**
+     * Parse a NAV file stream. Not thread-safe; use one parser per stream.
+     *
+     * @param in      NAV file bytes (not closed by this method)
+     * @param handler Called once per valid scheme line
+     * @return Number of scheme lines passed to the handler
+     */
+    public int parse(InputStream in, Handler handler) throws IOException {
+        amcName = "";
+        int schemes = 0;
+        int start = 0;
+        int end = 0;
+        boolean eof = false;
+
+        while (true) {
+            int newline = indexOf(buffer, start, end, (byte) '\n');
+            if (newline < 0) {
+                if (eof) {
+                    if (start < end && handleLine(start, end, handler)) {
+                        schemes++;
+                    }
+                    return schemes;
+                }
+                // Move the partial line to the front, growing only for absurdly long lines
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    start = 0;
+                } else if (end == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = in.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    end += read;
+                }
+                continue;
+            }
+
+            if (handleLine(start, newline, handler)) {
+                schemes++;
+            }
+            start = newline + 1;
+        }
+    }
+
+    private boolean handleLine(int from, int to, Handler handler) throws IOException {
+        // Trim, including the '\r' of CRLF lines
+        while (from < to && buffer[from] <= ' ') {
+            from++;
+        }
+        while (to > from && buffer[to - 1] <= ' ') {
+            to--;
+        }
+        if (from == to) {
+            return false;
+        }
+
+        int fields = 0;
+        int fieldFrom = from;
+        for (int i = from; i <= to && fields < MAX_FIELDS; i++) {
+            if (i == to || buffer[i] == ';') {
+                fieldStart[fields] = fieldFrom;
+                fieldEnd[fields] = i;
+                fields++;
+                fieldFrom = i + 1;
+            }
+        }
+
+        if (fields == 1) {
+            if (!startsWithAny(from, to)) {
+                amcName = new String(buffer, from, to - from, StandardCharsets.UTF_8);
+            }
+            return false;
+        }
+        if (fields < 5) {
+            return false;
+        }
+
+        for (int f = 0; f < fields; f++) {
+            trimField(f);
+        }
+
+        long schemeCode = parseLong(fieldStart[0], fieldEnd[0]);
+        double nav = parseDecimal(fieldStart[4], fieldEnd[4]);
+        if (schemeCode < 0 || Double.isNaN(nav)) {
+            // Column header line, or "N.A." NAV
+            return false;
+        }
+
+        row.schemeCode = schemeCode;
+        row.nav = nav;
+        row.navDate = fields > 5 ? parseDate(fieldStart[5], fieldEnd[5]) : 0;
+        handler.onScheme(row);
+        return true;
+    }
+
+    private void trimField(int f) {
+        int from = fieldStart[f];
+        int to = fieldEnd[f];
+        while (from < to && buffer[from] <= ' ') {
+            from++;
+        }
+        while (to > from && buffer[to - 1] <= ' ') {
+            to--;
+        }
+        fieldStart[f] = from;
+        fieldEnd[f] = to;
+    }
+
+    private boolean startsWithAny(int from, int to) {
+        for (byte[] prefix : SECTION_PREFIXES) {
+            if (to - from >= prefix.length) {
+                int i = 0;
+                while (i < prefix.length && buffer[from + i] == prefix[i]) {
+                    i++;
+                }
+                if (i == prefix.length) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Non-negative integer, or -1.
+     */
+    private long parseLong(int from, int to) {
+        if (from == to || to - from > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Plain decimal like "1234.5678", or NaN.
+     */
+    private double parseDecimal(int from, int to) {
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (int i = from; i < to; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                if (++digits > 15) {
+                    // Mantissa no longer exact as a double; let the JDK round it
+                    return parseDecimalSlow(from, to);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        return scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+    }
+
+    private double parseDecimalSlow(int from, int to) {
+        try {
+            return Double.parseDouble(new String(buffer, from, to - from, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * "16-Oct-2026" as IST midnight in epoch millis, or 0.
+     */
+    private long parseDate(int from, int to) {
+        int length = to - from;
+        if (length == lastDateLength && equalsRange(lastDate, buffer, from, length)) {
+            return lastDateMillis;
+        }
+
+        long millis = 0;
+        if (length == 11 && buffer[from + 2] == '-' && buffer[from + 6] == '-') {
+            long day = parseLong(from, from + 2);
+            long year = parseLong(from + 7, from + 11);
+            int month = monthOf(from + 3);
+            if (day > 0 && year > 0 && month > 0) {
+                try {
+                    millis = LocalDate.of((int) year, month, (int) day)
+                            .atStartOfDay(IST).toInstant().toEpochMilli();
+                } catch (RuntimeException e) {
+                    millis = 0;
+                }
+            }
+        }
+
+        if (length <= lastDate.length) {
+            System.arraycopy(buffer, from, lastDate, 0, length);
+            lastDateLength = length;
+            lastDateMillis = millis;
+        }
+        return millis;
+    }
+
+    private int monthOf(int at) {
+        char a = (char) (buffer[at] | 0x20);
+        char b = (char) (buffer[at + 1] | 0x20);
+        char c = (char) (buffer[at + 2] | 0x20);
+        for (int m = 0; m < 12; m++) {
+            if (MONTHS.charAt(m * 3) == a && MONTHS.charAt(m * 3 + 1) == b && MONTHS.charAt(m * 3 + 2) == c) {
+                return m + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean equalsRange(byte[] a, byte[] b, int bFrom, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[bFrom + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * One scheme line. Text fields are decoded on demand.
+     */
+    public final class Row {
+        long schemeCode;
+        double nav;
+        long navDate;
+
+        private Row() {
+        }
+
+        public long getSchemeCode() {
+            return schemeCode;
+        }
+
+        public double getNav() {
+            return nav;
+        }
+
+        /**
+         * NAV date as IST midnight (epoch millis), or 0 if missing.
+         */
+        public long getNavDate() {
+            return navDate;
+        }
+
+        /**
+         * ISIN (Div Payout / Growth); may be "-".
+         */
+        public String getIsin() {
+            return field(1);
+        }
+
+        public String getSchemeName() {
+            return field(3);
+        }
+
+        /**
+         * Most recent AMC header above this line.
+         */
+        public String getAmcName() {
+            return amcName;
+        }
+
+        private String field(int index) {
+            return new String(buffer, fieldStart[index], fieldEnd[index] - fieldStart[index],
+                    StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.dhanrakshak.data.remote.api;
 
 import io.reactivex.rxjava3.core.Single;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Streaming;
 
 /**
  * Retrofit API for AMFI NAV data.
@@ -10,10 +14,15 @@ import retrofit2.http.GET;
 public interface AmfiApi {
 
     /**
-     * Get all NAV data as plain text.
+     * All NAV data as an unbuffered byte stream; the caller closes the body.
      * Format: Scheme Code;ISIN Div Payout/Growth;ISIN Div Reinvestment;Scheme
      * Name;NAV;Date
+     * Conditional: pass the validators of the last download (or null) and
+     * an unchanged file comes back as 304 with no body.
      */
+    @Streaming
     @GET("spages/NAVAll.txt")
-    Single<String> getAllNavData();
+    Single<Response<ResponseBody>> streamAllNavData(
+            @Header("If-None-Match") String etag,
+            @Header("If-Modified-Since") String lastModified);
 }
@@ -0,0 +1,25 @@
+package com.dhanrakshak.data.remote.api;
+
+import io.reactivex.rxjava3.core.Single;
+import okhttp3.ResponseBody;
+import retrofit2.http.GET;
+import retrofit2.http.Path;
+import retrofit2.http.Streaming;
+
+/**
+ * Per-scheme NAV history (mfapi.in mirror of AMFI historical NAVs).
+ * AMFI's own history report has no scheme filter, so a full backfill from
+ * it means downloading every scheme for every day.
+ */
+public interface NavHistoryApi {
+
+    String BASE_URL = "https://api.mfapi.in/";
+
+    /**
+     * Full NAV history of a scheme as JSON, newest first:
+     * {"meta":{...},"data":[{"date":"16-10-2026","nav":"123.45670"},...]}
+     */
+    @Streaming
+    @GET("mf/{schemeCode}")
+    Single<ResponseBody> getNavHistory(@Path("schemeCode") long schemeCode);
+}
@@ -2,9 +2,12 @@ package com.dhanrakshak.data.remote.api;
 
 import com.dhanrakshak.data.remote.dto.StockQuoteDto;
 
+import java.util.List;
+
 import io.reactivex.rxjava3.core.Single;
 import retrofit2.http.GET;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 /**
  * Retrofit API for Indian Stock Market data.
@@ -27,4 +30,14 @@ public interface StockApi {
      */
     @GET("api/bse/{symbol}")
     Single<StockQuoteDto> getBseQuote(@Path("symbol") String symbol);
+
+    /**
+     * Get NSE quotes for several symbols in one call.
+     * Not every deployment of the API has this; callers fall back to
+     * {@link #getNseQuote(String)} on 404.
+     *
+     * @param symbols Comma-separated symbols (e.g., "RELIANCE,INFY")
+     */
+    @GET("api/nse/quotes")
+    Single<List<StockQuoteDto>> getNseQuotes(@Query("symbols") String symbols);
 }
@@ -0,0 +1,84 @@
+package com.dhanrakshak.data.remote.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * OkHttp interceptor that rate limits requests per host with a token bucket.
+ *
+ * Each host gets {@code burst} tokens refilled at {@code permitsPerSecond}.
+ * A request takes one token; when none is left it reserves the next one and
+ * sleeps until it is due, so concurrent callers queue fairly instead of all
+ * hitting the server at once. Interceptors run on the calling (IO) thread.
+ */
+public class HostRateLimiter implements Interceptor {
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public HostRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        acquire(chain.request().url().host());
+        return chain.proceed(chain.request());
+    }
+
+    /**
+     * Block until a request to the host is allowed.
+     */
+    public void acquire(String host) throws InterruptedIOException {
+        long waitNanos = buckets.computeIfAbsent(host, h -> new TokenBucket(permitsPerSecond, burst))
+                .reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rate limited for " + host);
+        }
+    }
+
+    /**
+     * Tokens may go negative: each negative token is a caller already
+     * waiting for a future refill.
+     */
+    static final class TokenBucket {
+        private final double permitsPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double permitsPerSecond, int burst) {
+            this.permitsPerNano = permitsPerSecond / 1e9;
+            this.capacity = burst;
+            this.tokens = burst;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * Take a token; returns how long the caller must wait for it.
+         */
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+        }
+    }
+}
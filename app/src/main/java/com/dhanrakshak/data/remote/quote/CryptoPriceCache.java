@@ -0,0 +1,33 @@
+package com.dhanrakshak.data.remote.quote;
+
+import android.content.Context;
+
+import com.dhanrakshak.data.remote.api.CryptoApi;
+
+import java.io.File;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.hilt.android.qualifiers.ApplicationContext;
+
+/**
+ * CoinGecko price cache, keyed by coin id. Crypto trades around the clock,
+ * so freshness is a flat TTL. Prices are refreshed by the hourly
+ * CryptoPriceWorker; the TTL lets a retry or manual refresh within the hour
+ * skip coins already fetched, and runs out before the next periodic run.
+ */
+@Singleton
+public class CryptoPriceCache extends QuoteCache<CryptoApi.CoinPrice> {
+
+    private static final String CACHE_FILE = "crypto_prices.json";
+    private static final int MAX_PRICES = 500;
+    private static final long TTL_MS = 55 * 60_000L;
+    private static final long MAX_STALE_MS = 60 * 60_000L;
+
+    @Inject
+    public CryptoPriceCache(@ApplicationContext Context context) {
+        super(new File(context.getNoBackupFilesDir(), CACHE_FILE), CryptoApi.CoinPrice.class, MAX_PRICES,
+                fetchedAt -> fetchedAt + TTL_MS, MAX_STALE_MS);
+    }
+}
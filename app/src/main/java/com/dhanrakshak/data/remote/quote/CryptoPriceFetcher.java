@@ -0,0 +1,107 @@
+package com.dhanrakshak.data.remote.quote;
+
+import android.util.Log;
+
+import com.dhanrakshak.data.remote.api.CryptoApi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Fetches CoinGecko prices for many coins in as few calls as possible.
+ *
+ * Coin ids go out {@link #MAX_IDS_PER_CALL} per /simple/price call, one call
+ * at a time; the HTTP client's token bucket keeps the rate inside the free
+ * tier. Throttling and transient failures are retried with the same
+ * backoff as {@link StockQuoteFetcher}. A chunk that still fails is logged
+ * and its coins are simply absent from the result; if every chunk fails,
+ * the last error is returned so the caller can retry later.
+ */
+@Singleton
+public class CryptoPriceFetcher {
+
+    private static final String TAG = "CryptoPriceFetcher";
+
+    // Keeps the query string well under URL length limits
+    static final int MAX_IDS_PER_CALL = 50;
+    private static final int MAX_RETRIES = 3;
+    private static final String CURRENCIES = "inr,usd";
+
+    private final CryptoApi cryptoApi;
+
+    @Inject
+    public CryptoPriceFetcher(CryptoApi cryptoApi) {
+        this.cryptoApi = cryptoApi;
+    }
+
+    /**
+     * Prices by lower-case coin id. Fails only if there were ids to fetch
+     * and no call succeeded.
+     */
+    public Single<Map<String, CryptoApi.CoinPrice>> fetchAll(Collection<String> coinIds) {
+        return Single.defer(() -> {
+            Set<String> distinct = new LinkedHashSet<>();
+            for (String id : coinIds) {
+                if (id != null && !id.trim().isEmpty()) {
+                    distinct.add(id.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+            List<String> ids = new ArrayList<>(distinct);
+            List<List<String>> chunks = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_CALL) {
+                chunks.add(ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_CALL)));
+            }
+
+            Map<String, CryptoApi.CoinPrice> prices = new HashMap<>();
+            AtomicInteger failedChunks = new AtomicInteger();
+            AtomicReference<Throwable> lastError = new AtomicReference<>();
+            return Flowable.fromIterable(chunks)
+                    .concatMapSingle(chunk -> fetchChunk(chunk)
+                            .onErrorReturn(error -> {
+                                Log.w(TAG, "Price call failed for " + chunk.size() + " coins: "
+                                        + error.getMessage());
+                                failedChunks.incrementAndGet();
+                                lastError.set(error);
+                                return new HashMap<>();
+                            }))
+                    .reduce(prices, (all, chunkPrices) -> {
+                        all.putAll(chunkPrices);
+                        return all;
+                    })
+                    .flatMap(all -> !chunks.isEmpty() && failedChunks.get() == chunks.size()
+                            ? Single.<Map<String, CryptoApi.CoinPrice>>error(lastError.get())
+                            : Single.just(all))
+                    .doOnSuccess(all -> Log.d(TAG, all.size() + " of " + ids.size() + " coins priced in "
+                            + chunks.size() + " calls"));
+        });
+    }
+
+    private Single<Map<String, CryptoApi.CoinPrice>> fetchChunk(List<String> chunk) {
+        AtomicInteger attempts = new AtomicInteger();
+        return cryptoApi.getPrices(String.join(",", chunk), CURRENCIES, true)
+                .subscribeOn(Schedulers.io())
+                .retryWhen(errors -> errors.flatMap(error -> {
+                    int attempt = attempts.incrementAndGet();
+                    if (attempt > MAX_RETRIES || !StockQuoteFetcher.isRetryable(error)) {
+                        return Flowable.error(error);
+                    }
+                    return Flowable.timer(StockQuoteFetcher.backoffMillis(attempt, error), TimeUnit.MILLISECONDS);
+                }));
+    }
+}
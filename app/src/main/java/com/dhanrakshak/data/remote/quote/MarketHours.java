@@ -0,0 +1,134 @@
+package com.dhanrakshak.data.remote.quote;
+
+import com.google.gson.Gson;
+
+import java.io.Reader;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * NSE trading sessions (IST) and how long an equity quote stays valid in each.
+ *
+ * Weekends are non-trading days; exchange holidays ship in
+ * res/raw/nse_holidays.json and are loaded with {@link #loadHolidays}. Outside the trading session prices cannot move, so a
+ * quote taken then (once the closing price has settled) is valid until the
+ * next pre-open.
+ */
+public final class MarketHours {
+
+    public static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+
+    public enum Session {
+        PRE_OPEN, OPEN, CLOSED, HOLIDAY
+    }
+
+    private static final LocalTime PRE_OPEN_START = LocalTime.of(9, 0);
+    private static final LocalTime OPEN_START = LocalTime.of(9, 15);
+    private static final LocalTime CLOSE = LocalTime.of(15, 30);
+
+    private static final long OPEN_TTL_MS = 60_000;
+    private static final long PRE_OPEN_TTL_MS = 30_000;
+    // Closing price is computed and published in the half hour after close
+    private static final long SETTLE_WINDOW_MS = 30 * 60_000;
+    private static final long SETTLE_TTL_MS = 5 * 60_000;
+
+    private static final Set<LocalDate> holidays = ConcurrentHashMap.newKeySet();
+
+    private MarketHours() {
+    }
+
+    /**
+     * Replace the exchange holiday list (weekends are always closed).
+     */
+    public static void setHolidays(Collection<LocalDate> dates) {
+        holidays.clear();
+        holidays.addAll(dates);
+    }
+
+    /**
+     * Replace the holiday list from JSON with the schema of
+     * res/raw/nse_holidays.json ({@code "holidays": ["yyyy-MM-dd", ...]}).
+     *
+     * @return Number of holidays loaded
+     */
+    public static int loadHolidays(Reader reader) {
+        HolidayFile file = new Gson().fromJson(reader, HolidayFile.class);
+        if (file == null || file.holidays == null) {
+            throw new IllegalArgumentException("Holiday file has no dates");
+        }
+        List<LocalDate> dates = new ArrayList<>(file.holidays.size());
+        for (String date : file.holidays) {
+            dates.add(LocalDate.parse(date));
+        }
+        setHolidays(dates);
+        return dates.size();
+    }
+
+    public static boolean isTradingDay(LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY && !holidays.contains(date);
+    }
+
+    public static Session sessionAt(long millis) {
+        ZonedDateTime time = Instant.ofEpochMilli(millis).atZone(IST);
+        if (!isTradingDay(time.toLocalDate())) {
+            return Session.HOLIDAY;
+        }
+        LocalTime clock = time.toLocalTime();
+        if (clock.isBefore(PRE_OPEN_START) || !clock.isBefore(CLOSE)) {
+            return Session.CLOSED;
+        }
+        return clock.isBefore(OPEN_START) ? Session.PRE_OPEN : Session.OPEN;
+    }
+
+    /**
+     * Start of the next pre-open session strictly after the given time.
+     */
+    public static long nextSessionStart(long millis) {
+        ZonedDateTime time = Instant.ofEpochMilli(millis).atZone(IST);
+        LocalDate date = time.toLocalDate();
+        if (!time.toLocalTime().isBefore(PRE_OPEN_START)) {
+            date = date.plusDays(1);
+        }
+        while (!isTradingDay(date)) {
+            date = date.plusDays(1);
+        }
+        return date.atTime(PRE_OPEN_START).atZone(IST).toInstant().toEpochMilli();
+    }
+
+    /**
+     * When an equity quote fetched at {@code fetchedAt} stops being fresh.
+     */
+    public static long equityExpiresAt(long fetchedAt) {
+        switch (sessionAt(fetchedAt)) {
+            case OPEN:
+                return fetchedAt + OPEN_TTL_MS;
+            case PRE_OPEN:
+                return fetchedAt + PRE_OPEN_TTL_MS;
+            case CLOSED:
+                ZonedDateTime time = Instant.ofEpochMilli(fetchedAt).atZone(IST);
+                long close = time.toLocalDate().atTime(CLOSE).atZone(IST).toInstant().toEpochMilli();
+                if (fetchedAt >= close && fetchedAt < close + SETTLE_WINDOW_MS) {
+                    return fetchedAt + SETTLE_TTL_MS;
+                }
+                return nextSessionStart(fetchedAt);
+            default:
+                return nextSessionStart(fetchedAt);
+        }
+    }
+
+    // Gson schema for nse_holidays.json
+    private static class HolidayFile {
+        int version;
+        List<String> holidays;
+    }
+}
@@ -0,0 +1,201 @@
+package com.dhanrakshak.data.remote.quote;
+
+import android.util.Log;
+import android.util.LruCache;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Two-level price cache: an in-memory LRU backed by a snapshot file in
+ * app-private storage, so quotes survive process death.
+ *
+ * Each entry gets an expiry from the {@link ExpiryPolicy} when stored. Until
+ * then it is served as is; for {@code maxStaleMillis} after that it is still
+ * served immediately while a refresh runs in the background
+ * (stale-while-revalidate). Older entries block on the network, but are
+ * still returned if the fetch fails. Concurrent fetches of one key share a
+ * single request.
+ *
+ * @param <T> Quote type; must round-trip through Gson
+ */
+public class QuoteCache<T> {
+
+    private static final String TAG = "QuoteCache";
+
+    private static final int FILE_VERSION = 1;
+    // Coalesce the writes of a bulk refresh into one file save
+    private static final long SAVE_DELAY_MS = 2_000;
+
+    /**
+     * Decides how long a quote stays fresh.
+     */
+    public interface ExpiryPolicy {
+        long expiresAt(long fetchedAt);
+    }
+
+    private final LruCache<String, Entry<T>> memory;
+    private final File file;
+    private final Type snapshotType;
+    private final ExpiryPolicy policy;
+    private final long maxStaleMillis;
+    private final Gson gson = new Gson();
+    private final Map<String, Single<T>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private final Completable loaded;
+
+    public QuoteCache(File file, Class<T> type, int maxEntries, ExpiryPolicy policy, long maxStaleMillis) {
+        this.memory = new LruCache<>(maxEntries);
+        this.file = file;
+        this.snapshotType = TypeToken.getParameterized(Snapshot.class, type).getType();
+        this.policy = policy;
+        this.maxStaleMillis = maxStaleMillis;
+        this.loaded = Completable.fromAction(this::load).subscribeOn(Schedulers.io()).cache();
+    }
+
+    /**
+     * Cached quote if usable, otherwise {@code fetch}.
+     *
+     * @param key   Cache key (e.g. upper-case symbol)
+     * @param fetch Cold network request for the key
+     */
+    public Single<T> get(String key, Single<T> fetch) {
+        return loaded.andThen(Single.defer(() -> {
+            long now = System.currentTimeMillis();
+            Entry<T> entry = memory.get(key);
+            if (entry != null && now < entry.expiresAt) {
+                return Single.just(entry.value);
+            }
+            if (entry != null && now < entry.expiresAt + maxStaleMillis) {
+                revalidate(key, fetch).subscribe(
+                        value -> { },
+                        error -> Log.w(TAG, "Background refresh failed for " + key + ": " + error.getMessage()));
+                return Single.just(entry.value);
+            }
+            return revalidate(key, fetch)
+                    .onErrorResumeNext(error -> entry != null ? Single.just(entry.value) : Single.error(error));
+        }));
+    }
+
+    /**
+     * Quotes that are still fresh, by key. Keys without one are left out.
+     */
+    public Single<Map<String, T>> getFresh(Iterable<String> keys) {
+        return loaded.andThen(Single.fromCallable(() -> {
+            long now = System.currentTimeMillis();
+            Map<String, T> fresh = new HashMap<>();
+            for (String key : keys) {
+                Entry<T> entry = memory.get(key);
+                if (entry != null && now < entry.expiresAt) {
+                    fresh.put(key, entry.value);
+                }
+            }
+            return fresh;
+        }));
+    }
+
+    /**
+     * Store a quote fetched now.
+     */
+    public void put(String key, T value) {
+        long now = System.currentTimeMillis();
+        memory.put(key, new Entry<>(value, now, policy.expiresAt(now)));
+        scheduleSave();
+    }
+
+    private Single<T> revalidate(String key, Single<T> fetch) {
+        return inFlight.computeIfAbsent(key, k -> fetch
+                .doOnSuccess(value -> put(k, value))
+                .doFinally(() -> inFlight.remove(k))
+                .cache());
+    }
+
+    private void scheduleSave() {
+        if (saveScheduled.compareAndSet(false, true)) {
+            Schedulers.io().scheduleDirect(() -> {
+                saveScheduled.set(false);
+                save();
+            }, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            Snapshot<T> snapshot = gson.fromJson(reader, snapshotType);
+            if (snapshot == null || snapshot.version != FILE_VERSION || snapshot.entries == null) {
+                return;
+            }
+            // Snapshot is least-recently-used first, so replaying keeps the order
+            for (Map.Entry<String, Entry<T>> entry : snapshot.entries.entrySet()) {
+                if (entry.getValue() != null && entry.getValue().value != null
+                        && memory.get(entry.getKey()) == null) {
+                    memory.put(entry.getKey(), entry.getValue());
+                }
+            }
+            Log.d(TAG, "Loaded " + memory.size() + " quotes from " + file.getName());
+        } catch (Exception e) {
+            Log.w(TAG, "Discarding unreadable cache file", e);
+            file.delete();
+        }
+    }
+
+    private synchronized void save() {
+        Snapshot<T> snapshot = new Snapshot<>();
+        snapshot.version = FILE_VERSION;
+        snapshot.entries = memory.snapshot();
+
+        // Write then rename so a crash never leaves a half-written file
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, snapshotType, writer);
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to save cache", e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.w(TAG, "Failed to replace cache file");
+            temp.delete();
+        }
+    }
+
+    private static class Entry<T> {
+        T value;
+        long fetchedAt;
+        long expiresAt;
+
+        Entry(T value, long fetchedAt, long expiresAt) {
+            this.value = value;
+            this.fetchedAt = fetchedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Gson schema for the cache file
+    private static class Snapshot<T> {
+        int version;
+        Map<String, Entry<T>> entries;
+    }
+}
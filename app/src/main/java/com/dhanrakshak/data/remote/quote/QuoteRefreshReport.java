@@ -0,0 +1,98 @@
+package com.dhanrakshak.data.remote.quote;
+
+import com.dhanrakshak.data.remote.dto.StockQuoteDto;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outcome of one quote refresh: fetched quotes, per-symbol failures and
+ * request counters. Filled concurrently by {@link StockQuoteFetcher}.
+ */
+public class QuoteRefreshReport {
+
+    final Map<String, StockQuoteDto> quotes = new ConcurrentHashMap<>();
+    final Map<String, String> failures = new ConcurrentHashMap<>();
+    final AtomicInteger retries = new AtomicInteger();
+    final AtomicInteger batchCalls = new AtomicInteger();
+    final AtomicInteger singleCalls = new AtomicInteger();
+    int requested;
+    int cacheHits;
+    int updated;
+    long durationMs;
+
+    /**
+     * Quotes by upper-case symbol.
+     */
+    public Map<String, StockQuoteDto> getQuotes() {
+        return Collections.unmodifiableMap(quotes);
+    }
+
+    /**
+     * Failure reason by upper-case symbol.
+     */
+    public Map<String, String> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    /**
+     * Holdings whose price was written.
+     */
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    /**
+     * Count fresh cached quotes as part of this refresh.
+     */
+    public void addCached(Map<String, StockQuoteDto> cached) {
+        quotes.putAll(cached);
+        requested += cached.size();
+        cacheHits += cached.size();
+    }
+
+    /**
+     * Symbols served from the quote cache without a request.
+     */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getRetries() {
+        return retries.get();
+    }
+
+    public int getBatchCalls() {
+        return batchCalls.get();
+    }
+
+    public int getSingleCalls() {
+        return singleCalls.get();
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return requested + " symbols, " + cacheHits + " cached, " + quotes.size() + " quoted, "
+                + updated + " updated, "
+                + failures.size() + " failed, " + batchCalls.get() + " batch + " + singleCalls.get()
+                + " single calls, " + retries.get() + " retries, " + durationMs + " ms";
+    }
+}
@@ -0,0 +1,50 @@
+package com.dhanrakshak.data.remote.quote;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.dhanrakshak.R;
+import com.dhanrakshak.data.remote.dto.StockQuoteDto;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.hilt.android.qualifiers.ApplicationContext;
+
+/**
+ * NSE quote cache; freshness follows {@link MarketHours}, whose holiday list
+ * is loaded from the raw resource when the cache is created.
+ */
+@Singleton
+public class StockQuoteCache extends QuoteCache<StockQuoteDto> {
+
+    private static final String TAG = "StockQuoteCache";
+
+    private static final String CACHE_FILE = "stock_quotes.json";
+    private static final int MAX_QUOTES = 500;
+    // Past this a quote is too old to show while refreshing
+    private static final long MAX_STALE_MS = 24 * 60 * 60_000L;
+
+    @Inject
+    public StockQuoteCache(@ApplicationContext Context context) {
+        super(new File(context.getNoBackupFilesDir(), CACHE_FILE), StockQuoteDto.class, MAX_QUOTES,
+                MarketHours::equityExpiresAt, MAX_STALE_MS);
+        loadHolidays(context);
+    }
+
+    private static void loadHolidays(Context context) {
+        try (InputStream in = context.getResources().openRawResource(R.raw.nse_holidays);
+                Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            Log.i(TAG, "Loaded " + MarketHours.loadHolidays(reader) + " exchange holidays");
+        } catch (Exception e) {
+            // Holidays then look like trading days; quotes just expire sooner
+            Log.e(TAG, "Failed to load exchange holidays", e);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.dhanrakshak.data.remote.quote;
+
+import android.util.Log;
+
+import com.dhanrakshak.data.remote.api.StockApi;
+import com.dhanrakshak.data.remote.dto.StockQuoteDto;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import retrofit2.HttpException;
+
+/**
+ * Fetches NSE quotes for many symbols without flooding the API.
+ *
+ * Symbols go out in batches of {@link #BATCH_SIZE} through the batch
+ * endpoint; if the server doesn't have it (404) that is remembered and
+ * symbols are fetched one by one. At most {@code maxConcurrency} requests
+ * are in flight, and the HTTP client adds a per-host rate limit on top.
+ * Throttling (429), server errors and network failures are retried with
+ * exponential backoff and jitter, honouring Retry-After. Every symbol
+ * ends up either quoted or in the failure map; nothing is dropped silently.
+ */
+@Singleton
+public class StockQuoteFetcher {
+
+    private static final String TAG = "StockQuoteFetcher";
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    static final int BATCH_SIZE = 20;
+    private static final int MAX_RETRIES = 3;
+    private static final long BASE_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 8_000;
+
+    private final StockApi stockApi;
+
+    // Set once the batch endpoint answers 404
+    private volatile boolean batchUnsupported;
+
+    @Inject
+    public StockQuoteFetcher(StockApi stockApi) {
+        this.stockApi = stockApi;
+    }
+
+    public Single<QuoteRefreshReport> fetchAll(Collection<String> symbols) {
+        return fetchAll(symbols, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Fetch quotes for all symbols.
+     *
+     * @param symbols        Symbols, any case; duplicates are fetched once
+     * @param maxConcurrency Requests in flight at most
+     * @return Report with quotes and failures; never errors for a single symbol
+     */
+    public Single<QuoteRefreshReport> fetchAll(Collection<String> symbols, int maxConcurrency) {
+        return Single.defer(() -> {
+            long start = System.currentTimeMillis();
+            QuoteRefreshReport report = new QuoteRefreshReport();
+
+            Set<String> distinct = new LinkedHashSet<>();
+            for (String symbol : symbols) {
+                if (symbol != null && !symbol.trim().isEmpty()) {
+                    distinct.add(symbol.trim().toUpperCase(Locale.ROOT));
+                }
+            }
+            report.requested = distinct.size();
+
+            List<List<String>> chunks = chunk(new ArrayList<>(distinct), batchUnsupported ? 1 : BATCH_SIZE);
+            return Flowable.fromIterable(chunks)
+                    .flatMapCompletable(chunk -> fetchChunk(chunk, report), false, Math.max(1, maxConcurrency))
+                    .andThen(Single.fromCallable(() -> {
+                        report.durationMs = System.currentTimeMillis() - start;
+                        return report;
+                    }));
+        });
+    }
+
+    private Completable fetchChunk(List<String> chunk, QuoteRefreshReport report) {
+        if (chunk.size() == 1 || batchUnsupported) {
+            return fetchEach(chunk, report);
+        }
+
+        report.batchCalls.incrementAndGet();
+        return withBackoff(stockApi.getNseQuotes(String.join(",", chunk)).subscribeOn(Schedulers.io()), report)
+                .flatMapCompletable(quotes -> {
+                    List<String> missing = new ArrayList<>();
+                    Set<String> quoted = new LinkedHashSet<>();
+                    for (StockQuoteDto quote : quotes) {
+                        if (quote != null && quote.getSymbol() != null && quote.getLastPrice() > 0) {
+                            String symbol = quote.getSymbol().toUpperCase(Locale.ROOT);
+                            report.quotes.put(symbol, quote);
+                            quoted.add(symbol);
+                        }
+                    }
+                    for (String symbol : chunk) {
+                        if (!quoted.contains(symbol)) {
+                            missing.add(symbol);
+                        }
+                    }
+                    return fetchEach(missing, report);
+                })
+                .onErrorResumeNext(error -> {
+                    if (error instanceof HttpException && ((HttpException) error).code() == 404) {
+                        Log.i(TAG, "Batch quote endpoint unavailable, using single quotes");
+                        batchUnsupported = true;
+                    } else {
+                        Log.w(TAG, "Batch quote failed, retrying symbols one by one: " + describe(error));
+                    }
+                    return fetchEach(chunk, report);
+                });
+    }
+
+    /**
+     * Symbols of one chunk, one after another (the outer level bounds concurrency).
+     */
+    private Completable fetchEach(List<String> symbols, QuoteRefreshReport report) {
+        return Flowable.fromIterable(symbols)
+                .concatMapCompletable(symbol -> {
+                    report.singleCalls.incrementAndGet();
+                    return withBackoff(stockApi.getNseQuote(symbol).subscribeOn(Schedulers.io()), report)
+                            .doOnSuccess(quote -> {
+                                if (quote.getLastPrice() > 0) {
+                                    report.quotes.put(symbol, quote);
+                                } else {
+                                    report.failures.put(symbol, "No price");
+                                }
+                            })
+                            .ignoreElement()
+                            .onErrorResumeNext(error -> {
+                                report.failures.put(symbol, describe(error));
+                                return Completable.complete();
+                            });
+                });
+    }
+
+    private <T> Single<T> withBackoff(Single<T> call, QuoteRefreshReport report) {
+        return Single.defer(() -> {
+            AtomicInteger attempts = new AtomicInteger();
+            return call.retryWhen(errors -> errors.flatMap(error -> {
+                int attempt = attempts.incrementAndGet();
+                if (attempt > MAX_RETRIES || !isRetryable(error)) {
+                    return Flowable.error(error);
+                }
+                report.retries.incrementAndGet();
+                return Flowable.timer(backoffMillis(attempt, error), TimeUnit.MILLISECONDS);
+            }));
+        });
+    }
+
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof HttpException) {
+            int code = ((HttpException) error).code();
+            return code == 429 || code >= 500;
+        }
+        return error instanceof IOException && !(error instanceof InterruptedIOException);
+    }
+
+    /**
+     * Exponential backoff with jitter; the server's Retry-After wins if present.
+     */
+    static long backoffMillis(int attempt, Throwable error) {
+        if (error instanceof HttpException && ((HttpException) error).response() != null) {
+            String retryAfter = ((HttpException) error).response().headers().get("Retry-After");
+            if (retryAfter != null) {
+                try {
+                    return Math.min(MAX_BACKOFF_MS, Long.parseLong(retryAfter.trim()) * 1000);
+                } catch (NumberFormatException ignored) {
+                    // HTTP-date form; fall through to our own schedule
+                }
+            }
+        }
+        long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (attempt - 1));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private static String describe(Throwable error) {
+        if (error instanceof HttpException) {
+            return "HTTP " + ((HttpException) error).code();
+        }
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+
+    private static List<List<String>> chunk(List<String> symbols, int size) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < symbols.size(); from += size) {
+            chunks.add(symbols.subList(from, Math.min(symbols.size(), from + size)));
+        }
+        return chunks;
+    }
+}
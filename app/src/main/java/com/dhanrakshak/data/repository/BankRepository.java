@@ -1,9 +1,17 @@
 package com.dhanrakshak.data.repository;
 
+import androidx.paging.Pager;
+import androidx.paging.PagingData;
+import androidx.paging.rxjava3.PagingRx;
+
 import com.dhanrakshak.data.local.dao.BankAccountDao;
 import com.dhanrakshak.data.local.dao.SmsTransactionDao;
+import com.dhanrakshak.data.local.dao.SpendingRollupDao;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
 import com.dhanrakshak.data.local.entity.BankAccount;
 import com.dhanrakshak.data.local.entity.SmsTransaction;
+import com.dhanrakshak.data.local.entity.SpendingRollup;
+import com.dhanrakshak.data.local.paging.KeysetPagingSource;
 
 import java.util.List;
 
@@ -22,11 +30,16 @@ public class BankRepository {
 
     private final BankAccountDao bankAccountDao;
     private final SmsTransactionDao smsTransactionDao;
+    private final SpendingRollupDao spendingRollupDao;
+    private final DhanRakshakDatabase database;
 
     @Inject
-    public BankRepository(BankAccountDao bankAccountDao, SmsTransactionDao smsTransactionDao) {
+    public BankRepository(BankAccountDao bankAccountDao, SmsTransactionDao smsTransactionDao,
+            SpendingRollupDao spendingRollupDao, DhanRakshakDatabase database) {
         this.bankAccountDao = bankAccountDao;
         this.smsTransactionDao = smsTransactionDao;
+        this.spendingRollupDao = spendingRollupDao;
+        this.database = database;
     }
 
     /**
@@ -86,6 +99,41 @@ public class BankRepository {
         return smsTransactionDao.getTransactionsByAccount(accountId);
     }
 
+    /**
+     * Transactions of an account, paged newest first.
+     */
+    public Flowable<PagingData<SmsTransaction>> getAccountTransactionPages(long accountId) {
+        return pages(
+                (time, id, limit) -> smsTransactionDao.getByAccountOlderThan(accountId, time, id, limit),
+                (time, id, limit) -> smsTransactionDao.getByAccountNewerThan(accountId, time, id, limit));
+    }
+
+    /**
+     * Transactions in a date range, paged newest first.
+     */
+    public Flowable<PagingData<SmsTransaction>> getTransactionPagesBetween(long startDate, long endDate) {
+        return pages(
+                (time, id, limit) -> smsTransactionDao.getBetweenDatesOlderThan(startDate, endDate, time, id, limit),
+                (time, id, limit) -> smsTransactionDao.getBetweenDatesNewerThan(startDate, endDate, time, id, limit));
+    }
+
+    /**
+     * Transactions whose merchant contains the query, paged newest first.
+     */
+    public Flowable<PagingData<SmsTransaction>> searchTransactionPages(String query) {
+        return pages(
+                (time, id, limit) -> smsTransactionDao.searchByMerchantOlderThan(query, time, id, limit),
+                (time, id, limit) -> smsTransactionDao.searchByMerchantNewerThan(query, time, id, limit));
+    }
+
+    private Flowable<PagingData<SmsTransaction>> pages(KeysetPagingSource.PageQuery<SmsTransaction> olderThan,
+            KeysetPagingSource.PageQuery<SmsTransaction> newerThan) {
+        Pager<KeysetPagingSource.Key, SmsTransaction> pager = new Pager<>(KeysetPagingSource.config(),
+                () -> new KeysetPagingSource<>(database, new String[] { "sms_transactions" },
+                        olderThan, newerThan, SmsTransaction::getTimestamp, SmsTransaction::getId));
+        return PagingRx.getFlowable(pager);
+    }
+
     /**
      * Get recent transactions across all accounts.
      */
@@ -94,17 +142,17 @@ public class BankRepository {
     }
 
     /**
-     * Get total spending for a date range.
+     * Get total spending for a date range, in whole IST days.
      */
     public Single<Double> getTotalSpending(long startDate, long endDate) {
-        return smsTransactionDao.getTotalDebitBetweenDates(startDate, endDate);
+        return spendingRollupDao.getTotal("DEBIT", SpendingRollup.toDay(startDate), SpendingRollup.toDay(endDate));
     }
 
     /**
-     * Get total income for a date range.
+     * Get total income for a date range, in whole IST days.
      */
     public Single<Double> getTotalIncome(long startDate, long endDate) {
-        return smsTransactionDao.getTotalCreditBetweenDates(startDate, endDate);
+        return spendingRollupDao.getTotal("CREDIT", SpendingRollup.toDay(startDate), SpendingRollup.toDay(endDate));
     }
 
     /**
@@ -0,0 +1,118 @@
+package com.dhanrakshak.data.repository;
+
+import android.util.Log;
+
+import com.dhanrakshak.data.local.dao.CryptoHoldingDao;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
+import com.dhanrakshak.data.local.entity.CryptoHolding;
+import com.dhanrakshak.data.remote.api.CryptoApi;
+import com.dhanrakshak.data.remote.quote.CryptoPriceCache;
+import com.dhanrakshak.data.remote.quote.CryptoPriceFetcher;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Repository for crypto holdings and their CoinGecko prices.
+ */
+@Singleton
+public class CryptoRepository {
+
+    private static final String TAG = "CryptoRepository";
+
+    private final CryptoHoldingDao holdingDao;
+    private final CryptoPriceFetcher priceFetcher;
+    private final CryptoPriceCache priceCache;
+    private final DhanRakshakDatabase database;
+
+    @Inject
+    public CryptoRepository(CryptoHoldingDao holdingDao, CryptoPriceFetcher priceFetcher,
+            CryptoPriceCache priceCache, DhanRakshakDatabase database) {
+        this.holdingDao = holdingDao;
+        this.priceFetcher = priceFetcher;
+        this.priceCache = priceCache;
+        this.database = database;
+    }
+
+    public Flowable<List<CryptoHolding>> getAllHoldings() {
+        return holdingDao.getAllHoldings();
+    }
+
+    public Completable addHolding(CryptoHolding holding) {
+        return holdingDao.insert(holding);
+    }
+
+    public Completable updateHolding(CryptoHolding holding) {
+        return holdingDao.update(holding);
+    }
+
+    public Completable deleteHolding(CryptoHolding holding) {
+        return holdingDao.delete(holding);
+    }
+
+    /**
+     * Refresh prices of all holdings.
+     * Coins with a fresh cached price are not requested; the rest go out in
+     * batched /simple/price calls. All prices are written in one transaction.
+     * Fails if prices were needed and every call failed.
+     *
+     * @return Number of holdings updated
+     */
+    public Single<Integer> refreshAllPrices() {
+        return holdingDao.getAllCoinIds()
+                .flatMap(coinIds -> {
+                    Set<String> ids = new LinkedHashSet<>();
+                    for (String id : coinIds) {
+                        if (id != null && !id.trim().isEmpty()) {
+                            ids.add(id.trim().toLowerCase(Locale.ROOT));
+                        }
+                    }
+                    return priceCache.getFresh(ids)
+                            .flatMap(cached -> {
+                                Set<String> stale = new LinkedHashSet<>(ids);
+                                stale.removeAll(cached.keySet());
+                                return priceFetcher.fetchAll(stale)
+                                        .map(fetched -> {
+                                            for (Map.Entry<String, CryptoApi.CoinPrice> price : fetched.entrySet()) {
+                                                priceCache.put(price.getKey(), price.getValue());
+                                            }
+                                            Map<String, CryptoApi.CoinPrice> prices = new HashMap<>(cached);
+                                            prices.putAll(fetched);
+                                            int updated = applyPrices(prices);
+                                            Log.d(TAG, "Crypto refresh: " + ids.size() + " coins, " + cached.size()
+                                                    + " cached, " + fetched.size() + " fetched, " + updated
+                                                    + " holdings updated");
+                                            return updated;
+                                        });
+                            });
+                })
+                .subscribeOn(Schedulers.io());
+    }
+
+    private int applyPrices(Map<String, CryptoApi.CoinPrice> prices) {
+        return database.runInTransaction(() -> {
+            long now = System.currentTimeMillis();
+            int count = 0;
+            for (Map.Entry<String, CryptoApi.CoinPrice> price : prices.entrySet()) {
+                if (price.getValue().inr <= 0) {
+                    continue;
+                }
+                count += holdingDao.updatePrices(price.getKey(), price.getValue().inr, price.getValue().usd, now)
+                        .blockingGet();
+            }
+            return count;
+        });
+    }
+}
@@ -1,27 +1,47 @@
 package com.dhanrakshak.data.repository;
 
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
 import android.util.Log;
 
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
 import com.dhanrakshak.data.local.dao.AssetDao;
 import com.dhanrakshak.data.local.dao.MutualFundSchemeDao;
 import com.dhanrakshak.data.local.dao.TransactionDao;
 import com.dhanrakshak.data.local.entity.Asset;
 import com.dhanrakshak.data.local.entity.MutualFundScheme;
 import com.dhanrakshak.data.local.entity.Transaction;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
+import com.dhanrakshak.data.local.search.SchemeSearchIndex;
+import com.dhanrakshak.data.remote.amfi.AmfiNavParser;
 import com.dhanrakshak.data.remote.api.AmfiApi;
 
-import java.io.BufferedReader;
-import java.io.StringReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import dagger.hilt.android.qualifiers.ApplicationContext;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import okhttp3.ResponseBody;
+import retrofit2.HttpException;
+import retrofit2.Response;
 
 /**
  * Repository for Mutual Fund operations.
@@ -32,18 +52,43 @@ public class MutualFundRepository {
 
     private static final String TAG = "MutualFundRepository";
 
+    private static final int COPY_BUFFER_SIZE = 16 * 1024;
+    private static final int SEARCH_LIMIT = 50;
+    private static final int HTTP_NOT_MODIFIED = 304;
+
+    private static final String PREF_NAME = "amfi_nav_sync";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "last_modified";
+    private static final String KEY_LAST_SYNC_AT = "last_sync_at";
+    private static final String KEY_LAST_NOT_MODIFIED = "last_not_modified";
+    private static final String KEY_LAST_BYTES = "last_bytes";
+    private static final String KEY_LAST_PARSED = "last_parsed";
+    private static final String KEY_LAST_UPDATED = "last_updated";
+    private static final String KEY_LAST_INSERTED = "last_inserted";
+    private static final String KEY_LAST_DURATION = "last_duration_ms";
+
     private final AssetDao assetDao;
     private final TransactionDao transactionDao;
     private final MutualFundSchemeDao schemeDao;
     private final AmfiApi amfiApi;
+    private final DhanRakshakDatabase database;
+    private final NavHistoryRepository navHistoryRepository;
+    private final SchemeSearchIndex searchIndex;
+    private final SharedPreferences syncPrefs;
 
     @Inject
     public MutualFundRepository(AssetDao assetDao, TransactionDao transactionDao,
-            MutualFundSchemeDao schemeDao, AmfiApi amfiApi) {
+            MutualFundSchemeDao schemeDao, AmfiApi amfiApi, DhanRakshakDatabase database,
+            NavHistoryRepository navHistoryRepository, SchemeSearchIndex searchIndex,
+            @ApplicationContext Context context) {
         this.assetDao = assetDao;
         this.transactionDao = transactionDao;
         this.schemeDao = schemeDao;
         this.amfiApi = amfiApi;
+        this.database = database;
+        this.navHistoryRepository = navHistoryRepository;
+        this.searchIndex = searchIndex;
+        this.syncPrefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
     }
 
     /**
@@ -76,10 +121,69 @@ public class MutualFundRepository {
     }
 
     /**
-     * Search mutual fund schemes by name.
+     * Search mutual fund schemes by name, AMC, ISIN or scheme code.
+     * Ranked, typo-tolerant, served from {@link SchemeSearchIndex}; the
+     * first call loads the index (see {@link #warmUpSchemeSearch()}).
+     */
+    public Single<List<MutualFundScheme>> searchSchemes(String query) {
+        return Single.fromCallable(() -> {
+            ensureSearchIndex();
+            long[] codes = searchIndex.search(query, SEARCH_LIMIT);
+            List<Long> codeList = new ArrayList<>(codes.length);
+            for (long code : codes) {
+                codeList.add(code);
+            }
+            return codeList;
+        })
+                .flatMap(codes -> codes.isEmpty()
+                        ? Single.just(Collections.<MutualFundScheme>emptyList())
+                        : schemeDao.getBySchemeCodes(codes).map(schemes -> {
+                            // Back into rank order
+                            Map<Long, MutualFundScheme> byCode = new HashMap<>();
+                            for (MutualFundScheme scheme : schemes) {
+                                byCode.put(scheme.getSchemeCode(), scheme);
+                            }
+                            List<MutualFundScheme> ranked = new ArrayList<>(codes.size());
+                            for (Long code : codes) {
+                                MutualFundScheme scheme = byCode.get(code);
+                                if (scheme != null) {
+                                    ranked.add(scheme);
+                                }
+                            }
+                            return ranked;
+                        }))
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Load the scheme search index ahead of the first keystroke.
      */
-    public Flowable<List<MutualFundScheme>> searchSchemes(String query) {
-        return schemeDao.searchSchemes(query);
+    public Completable warmUpSchemeSearch() {
+        return Completable.fromAction(this::ensureSearchIndex)
+                .subscribeOn(Schedulers.io());
+    }
+
+    private void ensureSearchIndex() {
+        if (searchIndex.isLoaded()) {
+            return;
+        }
+        synchronized (searchIndex) {
+            if (searchIndex.isLoaded()) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            List<SchemeSearchIndex.Entry> entries = new ArrayList<>();
+            try (Cursor cursor = database.query("SELECT schemeCode, schemeName, amcName, isin FROM mf_schemes",
+                    null)) {
+                while (cursor.moveToNext()) {
+                    entries.add(new SchemeSearchIndex.Entry(cursor.getLong(0), cursor.getString(1),
+                            cursor.getString(2), cursor.getString(3)));
+                }
+            }
+            searchIndex.rebuild(entries);
+            Log.d(TAG, "Indexed " + entries.size() + " schemes in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
     }
 
     /**
@@ -91,76 +195,211 @@ public class MutualFundRepository {
 
     /**
      * Fetch and parse all NAV data from AMFI.
-     * This downloads the complete NAV file and updates local database.
+     * This downloads the complete NAV file and updates local database,
+     * skipping the download when AMFI reports the file unchanged.
      */
     public Completable syncNavData() {
-        return amfiApi.getAllNavData()
-                .subscribeOn(Schedulers.io())
-                .flatMapCompletable(this::parseAndSaveNavData);
+        return syncNavData(false).ignoreElement();
+    }
+
+    /**
+     * Incremental NAV sync.
+     *
+     * Sends the ETag / Last-Modified of the previous download, so an
+     * unchanged file costs one 304 round trip. A new file is streamed to a
+     * temp file (the database is never locked while waiting on the network),
+     * then applied in one transaction that writes only schemes whose NAV or
+     * NAV date changed, plus new schemes. A failed download leaves the
+     * previous NAVs intact. Afterwards the NAV history of held schemes is
+     * extended (and backfilled where missing); history failures don't fail
+     * the sync.
+     *
+     * @param force Download even if the file looks unchanged
+     * @return Statistics of this sync, also kept as {@link #getLastNavSyncStats()}
+     */
+    public Single<NavSyncStats> syncNavData(boolean force) {
+        return Single.fromCallable(() -> force || schemeDao.getSchemeCount().blockingGet() == 0)
+                .flatMap(unconditional -> amfiApi.streamAllNavData(
+                        unconditional ? null : syncPrefs.getString(KEY_ETAG, null),
+                        unconditional ? null : syncPrefs.getString(KEY_LAST_MODIFIED, null)))
+                .map(this::applyNavResponse)
+                .flatMap(stats -> navHistoryRepository.recordLatestForHoldings()
+                        .andThen(navHistoryRepository.backfillHoldings())
+                        .doOnError(e -> Log.w(TAG, "NAV history update failed", e))
+                        .onErrorReturnItem(0)
+                        .map(backfilled -> stats))
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Statistics of the last successful NAV sync, or null if none ran yet.
+     */
+    public NavSyncStats getLastNavSyncStats() {
+        if (!syncPrefs.contains(KEY_LAST_SYNC_AT)) {
+            return null;
+        }
+        NavSyncStats stats = new NavSyncStats();
+        stats.syncedAt = syncPrefs.getLong(KEY_LAST_SYNC_AT, 0);
+        stats.notModified = syncPrefs.getBoolean(KEY_LAST_NOT_MODIFIED, false);
+        stats.bytes = syncPrefs.getLong(KEY_LAST_BYTES, 0);
+        stats.parsed = syncPrefs.getInt(KEY_LAST_PARSED, 0);
+        stats.updated = syncPrefs.getInt(KEY_LAST_UPDATED, 0);
+        stats.inserted = syncPrefs.getInt(KEY_LAST_INSERTED, 0);
+        stats.durationMs = syncPrefs.getLong(KEY_LAST_DURATION, 0);
+        return stats;
+    }
+
+    private NavSyncStats applyNavResponse(Response<ResponseBody> response) throws Exception {
+        long start = System.currentTimeMillis();
+        NavSyncStats stats = new NavSyncStats();
+
+        if (response.code() == HTTP_NOT_MODIFIED) {
+            stats.notModified = true;
+        } else if (!response.isSuccessful() || response.body() == null) {
+            if (response.errorBody() != null) {
+                response.errorBody().close();
+            }
+            throw new HttpException(response);
+        } else {
+            File navFile = File.createTempFile("NAVAll", ".txt");
+            try {
+                try (ResponseBody responseBody = response.body();
+                        InputStream in = responseBody.byteStream();
+                        OutputStream out = new FileOutputStream(navFile)) {
+                    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        stats.bytes += read;
+                    }
+                }
+                try (InputStream in = new FileInputStream(navFile)) {
+                    saveNavData(in, stats);
+                }
+            } finally {
+                navFile.delete();
+            }
+        }
+
+        stats.syncedAt = System.currentTimeMillis();
+        stats.durationMs = stats.syncedAt - start;
+
+        SharedPreferences.Editor editor = syncPrefs.edit()
+                .putLong(KEY_LAST_SYNC_AT, stats.syncedAt)
+                .putBoolean(KEY_LAST_NOT_MODIFIED, stats.notModified)
+                .putLong(KEY_LAST_BYTES, stats.bytes)
+                .putInt(KEY_LAST_PARSED, stats.parsed)
+                .putInt(KEY_LAST_UPDATED, stats.updated)
+                .putInt(KEY_LAST_INSERTED, stats.inserted)
+                .putLong(KEY_LAST_DURATION, stats.durationMs);
+        if (!stats.notModified) {
+            // Validators only after the data they describe is committed
+            editor.putString(KEY_ETAG, response.headers().get("ETag"))
+                    .putString(KEY_LAST_MODIFIED, response.headers().get("Last-Modified"));
+        }
+        editor.apply();
+
+        Log.d(TAG, "NAV sync: " + stats);
+        return stats;
     }
 
     /**
      * Parse AMFI NAV text file and save to database.
      * Format: Scheme Code;ISIN Div Payout/Growth;ISIN Div Reinvestment;Scheme
      * Name;NAV;Date
+     *
+     * Stored (code, NAV, date) are loaded into sorted primitive arrays first;
+     * rows matching them are skipped, changed rows are updated and new
+     * schemes inserted through reused statements. The insert replaces, so a
+     * scheme code listed twice in the file cannot abort the transaction.
+     * Name, ISIN and AMC are refreshed whenever the NAV row is rewritten; if
+     * the search index is loaded, schemes whose text changed are re-indexed
+     * after commit.
      */
-    private Completable parseAndSaveNavData(String navText) {
-        return Completable.fromAction(() -> {
-            List<MutualFundScheme> schemes = new ArrayList<>();
-            BufferedReader reader = new BufferedReader(new StringReader(navText));
-            String line;
-            String currentAmcName = "";
-
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-
-                // Skip empty lines
-                if (line.isEmpty())
-                    continue;
-
-                // Check if it's an AMC header (doesn't contain ';')
-                if (!line.contains(";")) {
-                    if (!line.startsWith("Scheme") && !line.startsWith("Open") &&
-                            !line.startsWith("Close")) {
-                        currentAmcName = line;
+    private void saveNavData(InputStream in, NavSyncStats stats) {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        boolean indexLoaded = searchIndex.isLoaded();
+        List<SchemeSearchIndex.Entry> indexChanges = new ArrayList<>();
+
+        database.runInTransaction(() -> {
+            long now = System.currentTimeMillis();
+            StoredNavs stored = loadStoredNavs(db);
+
+            try (SupportSQLiteStatement update = db.compileStatement("UPDATE mf_schemes SET "
+                    + "schemeName = ?, isin = ?, amcName = ?, latestNav = ?, navDate = ?, lastUpdated = ? "
+                    + "WHERE schemeCode = ?");
+                    SupportSQLiteStatement insert = db.compileStatement("INSERT OR REPLACE INTO mf_schemes "
+                            + "(schemeCode, schemeName, isin, amcName, latestNav, navDate, lastUpdated) "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                stats.parsed = new AmfiNavParser().parse(in, row -> {
+                    int index = Arrays.binarySearch(stored.codes, 0, stored.size, row.getSchemeCode());
+                    long navDate = row.getNavDate() > 0 ? row.getNavDate()
+                            : index >= 0 ? stored.navDates[index] : now;
+
+                    if (index >= 0 && stored.navs[index] == row.getNav() && stored.navDates[index] == navDate) {
+                        return;
+                    }
+                    String schemeName = row.getSchemeName();
+                    String isin = row.getIsin();
+                    String amcName = row.getAmcName();
+                    if (indexLoaded && !searchIndex.isCurrent(row.getSchemeCode(), schemeName, amcName, isin)) {
+                        indexChanges.add(new SchemeSearchIndex.Entry(row.getSchemeCode(), schemeName,
+                                amcName, isin));
                     }
-                    continue;
-                }
 
-                // Parse scheme data
-                String[] parts = line.split(";");
-                if (parts.length >= 5) {
-                    try {
-                        long schemeCode = Long.parseLong(parts[0].trim());
-                        String isin = parts[1].trim();
-                        String schemeName = parts[3].trim();
-                        double nav = Double.parseDouble(parts[4].trim());
-
-                        MutualFundScheme scheme = new MutualFundScheme(
-                                schemeCode, schemeName, isin, nav);
-                        scheme.setAmcName(currentAmcName);
-                        scheme.setNavDate(System.currentTimeMillis());
-
-                        schemes.add(scheme);
-
-                        // Batch insert every 500 schemes
-                        if (schemes.size() >= 500) {
-                            schemeDao.insertAll(schemes).blockingAwait();
-                            schemes.clear();
-                        }
-                    } catch (NumberFormatException e) {
-                        // Skip invalid lines
+                    if (index >= 0) {
+                        update.bindString(1, schemeName);
+                        update.bindString(2, isin);
+                        update.bindString(3, amcName);
+                        update.bindDouble(4, row.getNav());
+                        update.bindLong(5, navDate);
+                        update.bindLong(6, now);
+                        update.bindLong(7, row.getSchemeCode());
+                        update.executeUpdateDelete();
+                        stats.updated++;
+                    } else {
+                        insert.bindLong(1, row.getSchemeCode());
+                        insert.bindString(2, schemeName);
+                        insert.bindString(3, isin);
+                        insert.bindString(4, amcName);
+                        insert.bindDouble(5, row.getNav());
+                        insert.bindLong(6, navDate);
+                        insert.bindLong(7, now);
+                        insert.executeInsert();
+                        stats.inserted++;
                     }
-                }
+                });
             }
+            return null;
+        });
 
-            // Insert remaining schemes
-            if (!schemes.isEmpty()) {
-                schemeDao.insertAll(schemes).blockingAwait();
+        searchIndex.updateAll(indexChanges);
+    }
+
+    private static StoredNavs loadStoredNavs(SupportSQLiteDatabase db) {
+        StoredNavs stored = new StoredNavs();
+        try (Cursor cursor = db.query("SELECT schemeCode, latestNav, navDate FROM mf_schemes "
+                + "ORDER BY schemeCode")) {
+            int count = cursor.getCount();
+            stored.codes = new long[count];
+            stored.navs = new double[count];
+            stored.navDates = new long[count];
+            while (cursor.moveToNext()) {
+                stored.codes[stored.size] = cursor.getLong(0);
+                stored.navs[stored.size] = cursor.getDouble(1);
+                stored.navDates[stored.size] = cursor.getLong(2);
+                stored.size++;
             }
+        }
+        return stored;
+    }
 
-            Log.d(TAG, "NAV data sync complete");
-        }).subscribeOn(Schedulers.io());
+    // Sorted by scheme code for binary search
+    private static class StoredNavs {
+        long[] codes;
+        double[] navs;
+        long[] navDates;
+        int size;
     }
 
     /**
@@ -204,4 +443,63 @@ public class MutualFundRepository {
     public Single<Integer> getSchemeCount() {
         return schemeDao.getSchemeCount();
     }
+
+    /**
+     * Outcome of one NAV sync.
+     */
+    public static class NavSyncStats {
+        long syncedAt;
+        boolean notModified;
+        long bytes;
+        int parsed;
+        int updated;
+        int inserted;
+        long durationMs;
+
+        public long getSyncedAt() {
+            return syncedAt;
+        }
+
+        /**
+         * True if AMFI answered 304 and nothing was downloaded.
+         */
+        public boolean isNotModified() {
+            return notModified;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public int getParsed() {
+            return parsed;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        /**
+         * Rows written (updated + inserted).
+         */
+        public int getRowsTouched() {
+            return updated + inserted;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        @Override
+        public String toString() {
+            return notModified
+                    ? "not modified, " + durationMs + " ms"
+                    : bytes + " bytes, " + parsed + " schemes, " + updated + " updated, "
+                            + inserted + " inserted, " + durationMs + " ms";
+        }
+    }
 }
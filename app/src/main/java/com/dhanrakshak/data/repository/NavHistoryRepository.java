@@ -0,0 +1,422 @@
+package com.dhanrakshak.data.repository;
+
+import android.util.Log;
+
+import com.dhanrakshak.data.local.dao.AssetDao;
+import com.dhanrakshak.data.local.dao.MutualFundSchemeDao;
+import com.dhanrakshak.data.local.dao.NavHistoryDao;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
+import com.dhanrakshak.data.local.entity.Asset;
+import com.dhanrakshak.data.local.entity.MutualFundScheme;
+import com.dhanrakshak.data.local.entity.NavHistoryBackfill;
+import com.dhanrakshak.data.local.entity.NavHistoryChunk;
+import com.dhanrakshak.data.local.navhistory.NavSeries;
+import com.dhanrakshak.data.local.navhistory.NavSeriesCodec;
+import com.dhanrakshak.data.remote.api.NavHistoryApi;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import okhttp3.ResponseBody;
+
+/**
+ * Repository for NAV history of held mutual fund schemes.
+ *
+ * History is stored as one delta-encoded chunk per scheme and month
+ * (see NavSeriesCodec), about 4 bytes per NAV: ten years of fifty schemes
+ * is under 1 MB. A range query reads only the month chunks it spans.
+ * The daily AMFI sync appends the latest NAV of each holding; a missing
+ * history is backfilled once from {@link NavHistoryApi}, and a marker row
+ * records that so young schemes with few NAVs are not downloaded again.
+ */
+@Singleton
+public class NavHistoryRepository {
+
+    private static final String TAG = "NavHistoryRepository";
+
+    private final NavHistoryDao navHistoryDao;
+    private final AssetDao assetDao;
+    private final MutualFundSchemeDao schemeDao;
+    private final NavHistoryApi navHistoryApi;
+    private final DhanRakshakDatabase database;
+
+    @Inject
+    public NavHistoryRepository(NavHistoryDao navHistoryDao, AssetDao assetDao,
+            MutualFundSchemeDao schemeDao, NavHistoryApi navHistoryApi, DhanRakshakDatabase database) {
+        this.navHistoryDao = navHistoryDao;
+        this.assetDao = assetDao;
+        this.schemeDao = schemeDao;
+        this.navHistoryApi = navHistoryApi;
+        this.database = database;
+    }
+
+    /**
+     * NAV series of a scheme between two dates (inclusive).
+     *
+     * @param fromMillis Start, epoch millis
+     * @param toMillis   End, epoch millis
+     */
+    public Single<NavSeries> getSeries(long schemeCode, long fromMillis, long toMillis) {
+        return Single.fromCallable(() -> {
+            int fromDay = NavSeries.toEpochDay(fromMillis);
+            int toDay = NavSeries.toEpochDay(toMillis);
+            if (fromDay > toDay) {
+                return NavSeries.empty();
+            }
+            List<NavHistoryChunk> chunks = navHistoryDao.getChunks(schemeCode,
+                    NavSeries.monthOf(fromDay), NavSeries.monthOf(toDay)).blockingGet();
+
+            int points = 0;
+            for (NavHistoryChunk chunk : chunks) {
+                points += chunk.getCount();
+            }
+            NavSeries.Builder builder = new NavSeries.Builder(schemeCode, points);
+            for (NavHistoryChunk chunk : chunks) {
+                builder.addChunk(chunk.getData(), chunk.getCount());
+            }
+            return builder.build(fromDay, toDay);
+        }).subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Whole stored history of a scheme.
+     */
+    public Single<NavSeries> getSeries(long schemeCode) {
+        return getSeries(schemeCode, 0, System.currentTimeMillis());
+    }
+
+    /**
+     * Record one NAV; replaces any NAV already stored for that day.
+     */
+    public Completable record(long schemeCode, long navDate, double nav) {
+        return Completable.fromAction(() -> database.runInTransaction(() -> merge(schemeCode,
+                new int[] { NavSeries.toEpochDay(navDate) }, new double[] { nav }, 1)))
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Append the current NAV of every held scheme, in one transaction.
+     * Run after each AMFI sync.
+     */
+    public Completable recordLatestForHoldings() {
+        return getHeldSchemeCodes()
+                .flatMapCompletable(codes -> Completable.fromAction(() -> database.runInTransaction(() -> {
+                    for (long code : codes) {
+                        MutualFundScheme scheme = schemeDao.getBySchemeCode(code)
+                                .onErrorComplete().blockingGet();
+                        if (scheme == null || scheme.getNavDate() <= 0 || scheme.getLatestNav() <= 0) {
+                            continue;
+                        }
+                        merge(code, new int[] { NavSeries.toEpochDay(scheme.getNavDate()) },
+                                new double[] { scheme.getLatestNav() }, 1);
+                    }
+                })))
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Download and store the full history of every held scheme that has not
+     * been backfilled yet; a no-op query per scheme otherwise. Schemes are
+     * fetched one after another.
+     *
+     * @return Number of NAV points written
+     */
+    public Single<Integer> backfillHoldings() {
+        return getHeldSchemeCodes()
+                .flatMapPublisher(Flowable::fromIterable)
+                .concatMapSingle(code -> navHistoryDao.isBackfilled(code)
+                        .flatMap(done -> done ? Single.just(0) : backfill(code))
+                        .onErrorReturn(e -> {
+                            Log.w(TAG, "Backfill failed for scheme " + code, e);
+                            return 0;
+                        }))
+                .reduce(0, Integer::sum)
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Download and store the full history of one scheme, merged with
+     * whatever is already stored, and mark the scheme as backfilled.
+     *
+     * @return Number of NAV points written
+     */
+    public Single<Integer> backfill(long schemeCode) {
+        return navHistoryApi.getNavHistory(schemeCode)
+                .map(body -> {
+                    long start = System.currentTimeMillis();
+                    PointBuffer points;
+                    try (ResponseBody responseBody = body) {
+                        points = parseHistory(responseBody);
+                    }
+                    points.sortAndDedupe();
+                    database.runInTransaction(() -> {
+                        if (points.size > 0) {
+                            merge(schemeCode, points.days, points.navs, points.size);
+                        }
+                        navHistoryDao.markBackfilled(
+                                new NavHistoryBackfill(schemeCode, System.currentTimeMillis()))
+                                .blockingAwait();
+                    });
+                    Log.d(TAG, "Backfilled " + points.size + " NAVs for " + schemeCode + " in "
+                            + (System.currentTimeMillis() - start) + " ms");
+                    return points.size;
+                })
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Encoded bytes of all stored history.
+     */
+    public Single<Long> getStorageBytes() {
+        return navHistoryDao.getDataBytes();
+    }
+
+    public Completable deleteHistory(long schemeCode) {
+        return navHistoryDao.deleteScheme(schemeCode)
+                .andThen(navHistoryDao.deleteBackfillMarker(schemeCode));
+    }
+
+    private Single<List<Long>> getHeldSchemeCodes() {
+        return assetDao.getAssetsByType("MUTUAL_FUND")
+                .firstOrError()
+                .map(holdings -> {
+                    Set<Long> codes = new LinkedHashSet<>();
+                    for (Asset holding : holdings) {
+                        try {
+                            codes.add(Long.parseLong(holding.getIdentifier()));
+                        } catch (NumberFormatException e) {
+                            Log.w(TAG, "Holding without scheme code: " + holding.getName());
+                        }
+                    }
+                    return new ArrayList<>(codes);
+                });
+    }
+
+    /**
+     * Merge sorted, distinct points into the month chunks they fall in.
+     * New points win over stored points of the same day. Must run inside a
+     * transaction.
+     */
+    private void merge(long schemeCode, int[] days, double[] navs, int count) {
+        int firstMonth = NavSeries.monthOf(days[0]);
+        int lastMonth = NavSeries.monthOf(days[count - 1]);
+
+        Map<Integer, NavHistoryChunk> stored = new HashMap<>();
+        for (NavHistoryChunk chunk : navHistoryDao.getChunks(schemeCode, firstMonth, lastMonth).blockingGet()) {
+            stored.put(chunk.getMonth(), chunk);
+        }
+
+        List<NavHistoryChunk> writes = new ArrayList<>();
+        int from = 0;
+        while (from < count) {
+            int month = NavSeries.monthOf(days[from]);
+            int to = from + 1;
+            while (to < count && NavSeries.monthOf(days[to]) == month) {
+                to++;
+            }
+
+            NavHistoryChunk existing = stored.get(month);
+            int[] chunkDays;
+            double[] chunkNavs;
+            int chunkSize;
+            if (existing == null) {
+                chunkDays = days;
+                chunkNavs = navs;
+                chunkSize = to;
+            } else {
+                int[] oldDays = new int[existing.getCount()];
+                double[] oldNavs = new double[existing.getCount()];
+                NavSeriesCodec.decode(existing.getData(), existing.getCount(), oldDays, oldNavs, 0);
+
+                chunkDays = new int[oldDays.length + to - from];
+                chunkNavs = new double[chunkDays.length];
+                chunkSize = mergeSorted(oldDays, oldNavs, days, navs, from, to, chunkDays, chunkNavs);
+                if (unchanged(oldDays, oldNavs, chunkDays, chunkNavs, chunkSize)) {
+                    from = to;
+                    continue;
+                }
+            }
+
+            int chunkFrom = existing == null ? from : 0;
+            writes.add(new NavHistoryChunk(schemeCode, month, chunkDays[chunkFrom],
+                    chunkDays[chunkSize - 1], chunkSize - chunkFrom,
+                    NavSeriesCodec.encode(chunkDays, chunkNavs, chunkFrom, chunkSize)));
+            from = to;
+        }
+
+        if (!writes.isEmpty()) {
+            navHistoryDao.upsertAll(writes).blockingAwait();
+        }
+    }
+
+    private static int mergeSorted(int[] oldDays, double[] oldNavs, int[] newDays, double[] newNavs,
+            int from, int to, int[] outDays, double[] outNavs) {
+        int i = 0;
+        int j = from;
+        int n = 0;
+        while (i < oldDays.length || j < to) {
+            if (j == to || (i < oldDays.length && oldDays[i] < newDays[j])) {
+                outDays[n] = oldDays[i];
+                outNavs[n++] = oldNavs[i++];
+            } else {
+                if (i < oldDays.length && oldDays[i] == newDays[j]) {
+                    i++;
+                }
+                outDays[n] = newDays[j];
+                outNavs[n++] = newNavs[j++];
+            }
+        }
+        return n;
+    }
+
+    private static boolean unchanged(int[] oldDays, double[] oldNavs, int[] days, double[] navs, int size) {
+        if (size != oldDays.length) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (oldDays[i] != days[i]
+                    || NavSeriesCodec.toTicks(oldNavs[i]) != NavSeriesCodec.toTicks(navs[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stream the history JSON; only the "data" array is read.
+     */
+    private static PointBuffer parseHistory(ResponseBody body) throws IOException {
+        PointBuffer points = new PointBuffer();
+        try (JsonReader reader = new JsonReader(
+                new InputStreamReader(body.byteStream(), StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"data".equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    String date = null;
+                    String nav = null;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+                        if ("date".equals(name)) {
+                            date = reader.nextString();
+                        } else if ("nav".equals(name)) {
+                            nav = reader.nextString();
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    points.add(date, nav);
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+        }
+        return points;
+    }
+
+    /**
+     * Growable (day, NAV) arrays for a parsed history.
+     */
+    private static class PointBuffer {
+        int[] days = new int[1024];
+        double[] navs = new double[1024];
+        int size;
+
+        /**
+         * Add a "dd-MM-yyyy" / decimal pair; malformed or zero NAVs are skipped.
+         */
+        void add(String date, String nav) {
+            if (date == null || nav == null || date.length() != 10) {
+                return;
+            }
+            int day;
+            double value;
+            try {
+                day = (int) LocalDate.of(Integer.parseInt(date.substring(6, 10)),
+                        Integer.parseInt(date.substring(3, 5)),
+                        Integer.parseInt(date.substring(0, 2))).toEpochDay();
+                value = Double.parseDouble(nav);
+            } catch (RuntimeException e) {
+                return;
+            }
+            if (!(value > 0)) {
+                return;
+            }
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                navs = Arrays.copyOf(navs, size * 2);
+            }
+            days[size] = day;
+            navs[size] = value;
+            size++;
+        }
+
+        /**
+         * Ascending by day, one point per day.
+         */
+        void sortAndDedupe() {
+            // Usually newest first: reversing makes it sorted without a sort
+            boolean descending = true;
+            for (int i = 1; i < size && descending; i++) {
+                descending = days[i] < days[i - 1];
+            }
+            if (descending) {
+                for (int i = 0, j = size - 1; i < j; i++, j--) {
+                    int day = days[i];
+                    days[i] = days[j];
+                    days[j] = day;
+                    double nav = navs[i];
+                    navs[i] = navs[j];
+                    navs[j] = nav;
+                }
+                return;
+            }
+
+            long[] packed = new long[size];
+            for (int i = 0; i < size; i++) {
+                // Day in the high bits, input position in the low bits keeps the sort stable
+                packed[i] = ((long) days[i] << 32) | i;
+            }
+            Arrays.sort(packed);
+            int[] sortedDays = new int[size];
+            double[] sortedNavs = new double[size];
+            int n = 0;
+            for (long entry : packed) {
+                int day = (int) (entry >> 32);
+                double nav = navs[(int) entry];
+                if (n > 0 && sortedDays[n - 1] == day) {
+                    // Keep the first occurrence (the feed lists newest data first)
+                    continue;
+                }
+                sortedDays[n] = day;
+                sortedNavs[n++] = nav;
+            }
+            days = sortedDays;
+            navs = sortedNavs;
+            size = n;
+        }
+    }
+}
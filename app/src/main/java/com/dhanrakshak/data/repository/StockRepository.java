@@ -1,13 +1,31 @@
 package com.dhanrakshak.data.repository;
 
+import android.util.Log;
+
+import androidx.paging.Pager;
+import androidx.paging.PagingData;
+import androidx.paging.rxjava3.PagingRx;
+
 import com.dhanrakshak.data.local.dao.AssetDao;
 import com.dhanrakshak.data.local.dao.TransactionDao;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
 import com.dhanrakshak.data.local.entity.Asset;
 import com.dhanrakshak.data.local.entity.Transaction;
+import com.dhanrakshak.data.local.paging.KeysetPagingSource;
 import com.dhanrakshak.data.remote.api.StockApi;
 import com.dhanrakshak.data.remote.dto.StockQuoteDto;
-
+import com.dhanrakshak.data.remote.quote.QuoteRefreshReport;
+import com.dhanrakshak.data.remote.quote.StockQuoteCache;
+import com.dhanrakshak.data.remote.quote.StockQuoteFetcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -24,51 +42,66 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 @Singleton
 public class StockRepository {
 
+    private static final String TAG = "StockRepository";
+    private static final String TYPE_STOCK = "STOCK";
+
     private final AssetDao assetDao;
     private final TransactionDao transactionDao;
     private final StockApi stockApi;
+    private final StockQuoteFetcher quoteFetcher;
+    private final StockQuoteCache quoteCache;
+    private final DhanRakshakDatabase database;
+
+    // Upper-case symbol -> ids of the holdings with it; dropped when holdings change
+    private volatile Map<String, long[]> assetIdsBySymbol;
 
     @Inject
-    public StockRepository(AssetDao assetDao, TransactionDao transactionDao, StockApi stockApi) {
+    public StockRepository(AssetDao assetDao, TransactionDao transactionDao, StockApi stockApi,
+            StockQuoteFetcher quoteFetcher, StockQuoteCache quoteCache, DhanRakshakDatabase database) {
         this.assetDao = assetDao;
         this.transactionDao = transactionDao;
         this.stockApi = stockApi;
+        this.quoteFetcher = quoteFetcher;
+        this.quoteCache = quoteCache;
+        this.database = database;
     }
 
     /**
      * Get all stocks from local database.
      */
     public Flowable<List<Asset>> getAllStocks() {
-        return assetDao.getAssetsByType("STOCK");
+        return assetDao.getAssetsByType(TYPE_STOCK);
     }
 
     /**
      * Add a new stock holding.
      */
     public Completable addStock(String symbol, String name, double quantity, double avgPrice) {
-        Asset stock = new Asset("STOCK", name, symbol.toUpperCase(), quantity, avgPrice);
-        return assetDao.insert(stock);
+        Asset stock = new Asset(TYPE_STOCK, name, symbol.toUpperCase(), quantity, avgPrice);
+        return assetDao.insert(stock).doOnComplete(this::invalidateSymbolIds);
     }
 
     /**
      * Update stock holding.
      */
     public Completable updateStock(Asset stock) {
-        return assetDao.update(stock);
+        return assetDao.update(stock).doOnComplete(this::invalidateSymbolIds);
     }
 
     /**
      * Delete stock holding.
      */
     public Completable deleteStock(Asset stock) {
-        return assetDao.delete(stock);
+        return assetDao.delete(stock).doOnComplete(this::invalidateSymbolIds);
     }
 
     /**
-     * Fetch live stock price from API.
+     * Fetch live stock price, served from the quote cache while it is fresh
+     * for the current market session.
      */
     public Single<StockQuoteDto> fetchStockPrice(String symbol) {
-        return stockApi.getNseQuote(symbol.toUpperCase())
+        String key = symbol.toUpperCase(Locale.ROOT);
+        return quoteCache.get(key, stockApi.getNseQuote(key).subscribeOn(Schedulers.io()))
                 .subscribeOn(Schedulers.io());
     }
 
@@ -76,35 +109,102 @@ public class StockRepository {
      * Update stock price in database.
      */
     public Completable updateStockPrice(String symbol, double price) {
-        return assetDao.updatePrice(symbol.toUpperCase(), price, System.currentTimeMillis());
+        return assetDao.updatePrice(TYPE_STOCK, symbol.toUpperCase(), price, System.currentTimeMillis());
     }
 
     /**
      * Refresh all stock prices from API.
+     * Symbols with a fresh cached quote are not requested again; the rest
+     * are fetched with bounded concurrency (batched where the API allows).
+     * All prices are written in one transaction. Symbols that could not be
+     * quoted are listed in the report's failures instead of being dropped.
      */
-    public Completable refreshAllStockPrices(List<Asset> stocks) {
-        return Flowable.fromIterable(stocks)
-                .flatMapCompletable(stock -> fetchStockPrice(stock.getIdentifier())
-                        .flatMapCompletable(quote -> updateStockPrice(stock.getIdentifier(), quote.getLastPrice()))
-                        .onErrorComplete() // Continue on error for individual stock
-                );
+    public Single<QuoteRefreshReport> refreshAllStockPrices(List<Asset> stocks) {
+        Set<String> symbols = new LinkedHashSet<>();
+        for (Asset stock : stocks) {
+            symbols.add(stock.getIdentifier().toUpperCase(Locale.ROOT));
+        }
+
+        return quoteCache.getFresh(symbols)
+                .flatMap(cached -> {
+                    List<String> stale = new ArrayList<>(symbols);
+                    stale.removeAll(cached.keySet());
+                    return quoteFetcher.fetchAll(stale)
+                            .map(report -> {
+                                for (Map.Entry<String, StockQuoteDto> quote : report.getQuotes().entrySet()) {
+                                    quoteCache.put(quote.getKey(), quote.getValue());
+                                }
+                                report.addCached(cached);
+                                return report;
+                            });
+                })
+                .map(report -> {
+                    int updated = database.runInTransaction(() -> {
+                        Map<String, long[]> idsBySymbol = getSymbolIds();
+                        if (!idsBySymbol.keySet().containsAll(report.getQuotes().keySet())) {
+                            // Holdings added outside this repository
+                            invalidateSymbolIds();
+                            idsBySymbol = getSymbolIds();
+                        }
+                        long now = System.currentTimeMillis();
+                        int count = 0;
+                        for (Map.Entry<String, StockQuoteDto> quote : report.getQuotes().entrySet()) {
+                            long[] ids = idsBySymbol.get(quote.getKey());
+                            if (ids == null) {
+                                continue;
+                            }
+                            for (long id : ids) {
+                                assetDao.updatePriceById(id, quote.getValue().getLastPrice(), now)
+                                        .blockingAwait();
+                                count++;
+                            }
+                        }
+                        return count;
+                    });
+                    report.setUpdated(updated);
+                    Log.d(TAG, "Price refresh: " + report);
+                    return report;
+                })
+                .subscribeOn(Schedulers.io());
     }
 
     /**
      * Get stock by symbol.
      */
     public Single<Asset> getStockBySymbol(String symbol) {
-        return assetDao.getAllAssets()
-                .firstOrError()
-                .flatMap(assets -> {
-                    for (Asset asset : assets) {
-                        if (asset.getAssetType().equals("STOCK") &&
-                                asset.getIdentifier().equalsIgnoreCase(symbol)) {
-                            return Single.just(asset);
-                        }
-                    }
-                    return Single.error(new Exception("Stock not found"));
-                });
+        return assetDao.getByIdentifier(TYPE_STOCK, symbol.toUpperCase(Locale.ROOT))
+                .switchIfEmpty(Single.error(new Exception("Stock not found")));
+    }
+
+    /**
+     * Symbol to holding ids, loaded once with a single indexed query.
+     */
+    private Map<String, long[]> getSymbolIds() {
+        Map<String, long[]> ids = assetIdsBySymbol;
+        if (ids != null) {
+            return ids;
+        }
+        ids = new HashMap<>();
+        for (AssetDao.AssetRef ref : assetDao.getRefsByType(TYPE_STOCK).blockingGet()) {
+            if (ref.identifier == null) {
+                continue;
+            }
+            String symbol = ref.identifier.toUpperCase(Locale.ROOT);
+            long[] existing = ids.get(symbol);
+            if (existing == null) {
+                ids.put(symbol, new long[] { ref.id });
+            } else {
+                long[] grown = Arrays.copyOf(existing, existing.length + 1);
+                grown[existing.length] = ref.id;
+                ids.put(symbol, grown);
+            }
+        }
+        assetIdsBySymbol = ids;
+        return ids;
+    }
+
+    private void invalidateSymbolIds() {
+        assetIdsBySymbol = null;
     }
 
     /**
@@ -131,4 +231,16 @@ public class StockRepository {
     public Flowable<List<Transaction>> getTransactionHistory(long assetId) {
         return transactionDao.getTransactionsByAsset(assetId);
     }
+
+    /**
+     * Transaction history for a stock, paged newest first.
+     */
+    public Flowable<PagingData<Transaction>> getTransactionHistoryPages(long assetId) {
+        Pager<KeysetPagingSource.Key, Transaction> pager = new Pager<>(KeysetPagingSource.config(),
+                () -> new KeysetPagingSource<>(database, new String[] { "transactions" },
+                        (time, id, limit) -> transactionDao.getByAssetOlderThan(assetId, time, id, limit),
+                        (time, id, limit) -> transactionDao.getByAssetNewerThan(assetId, time, id, limit),
+                        Transaction::getDate, Transaction::getId));
+        return PagingRx.getFlowable(pager);
+    }
 }
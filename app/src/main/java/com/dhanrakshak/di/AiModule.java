@@ -4,6 +4,8 @@ import android.content.Context;
 
 import com.dhanrakshak.ai.insights.AiFinanceInsightsEngine;
 import com.dhanrakshak.ai.sms.GeminiNanoClient;
+import com.dhanrakshak.ai.sms.RegexSmsParser;
+import com.dhanrakshak.ai.sms.SmsTemplateRegistry;
 
 import javax.inject.Singleton;
 
@@ -26,6 +28,18 @@ public class AiModule {
         return new GeminiNanoClient(context);
     }
 
+    @Provides
+    @Singleton
+    public SmsTemplateRegistry provideSmsTemplateRegistry(@ApplicationContext Context context) {
+        return new SmsTemplateRegistry(context);
+    }
+
+    @Provides
+    @Singleton
+    public RegexSmsParser provideRegexSmsParser(SmsTemplateRegistry templateRegistry) {
+        return new RegexSmsParser(templateRegistry);
+    }
+
     @Provides
     @Singleton
     public AiFinanceInsightsEngine provideAiFinanceInsightsEngine(@ApplicationContext Context context) {
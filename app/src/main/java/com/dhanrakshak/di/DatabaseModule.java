@@ -4,11 +4,16 @@ import android.content.Context;
 
 import com.dhanrakshak.data.local.dao.AssetDao;
 import com.dhanrakshak.data.local.dao.BankAccountDao;
+import com.dhanrakshak.data.local.dao.CryptoHoldingDao;
 import com.dhanrakshak.data.local.dao.ExpenseCategoryDao;
 import com.dhanrakshak.data.local.dao.FixedDepositDao;
+import com.dhanrakshak.data.local.dao.MerchantCategoryDao;
 import com.dhanrakshak.data.local.dao.MutualFundSchemeDao;
+import com.dhanrakshak.data.local.dao.NavHistoryDao;
+import com.dhanrakshak.data.local.dao.PendingSmsDao;
 import com.dhanrakshak.data.local.dao.RecurringDepositDao;
 import com.dhanrakshak.data.local.dao.SmsTransactionDao;
+import com.dhanrakshak.data.local.dao.SpendingRollupDao;
 import com.dhanrakshak.data.local.dao.TransactionDao;
 import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
 
@@ -64,12 +69,30 @@ public class DatabaseModule {
         return database.smsTransactionDao();
     }
 
+    @Provides
+    @Singleton
+    public SpendingRollupDao provideSpendingRollupDao(DhanRakshakDatabase database) {
+        return database.spendingRollupDao();
+    }
+
+    @Provides
+    @Singleton
+    public PendingSmsDao providePendingSmsDao(DhanRakshakDatabase database) {
+        return database.pendingSmsDao();
+    }
+
     @Provides
     @Singleton
     public ExpenseCategoryDao provideExpenseCategoryDao(DhanRakshakDatabase database) {
         return database.expenseCategoryDao();
     }
 
+    @Provides
+    @Singleton
+    public MerchantCategoryDao provideMerchantCategoryDao(DhanRakshakDatabase database) {
+        return database.merchantCategoryDao();
+    }
+
     @Provides
     @Singleton
     public FixedDepositDao provideFixedDepositDao(DhanRakshakDatabase database) {
@@ -88,6 +111,18 @@ public class DatabaseModule {
         return database.mutualFundSchemeDao();
     }
 
+    @Provides
+    @Singleton
+    public NavHistoryDao provideNavHistoryDao(DhanRakshakDatabase database) {
+        return database.navHistoryDao();
+    }
+
+    @Provides
+    @Singleton
+    public CryptoHoldingDao provideCryptoHoldingDao(DhanRakshakDatabase database) {
+        return database.cryptoHoldingDao();
+    }
+
     @Provides
     @Singleton
     public com.dhanrakshak.data.local.dao.InsurancePolicyDao provideInsurancePolicyDao(DhanRakshakDatabase database) {
@@ -1,7 +1,10 @@
 package com.dhanrakshak.di;
 
 import com.dhanrakshak.data.remote.api.AmfiApi;
+import com.dhanrakshak.data.remote.api.CryptoApi;
+import com.dhanrakshak.data.remote.api.NavHistoryApi;
 import com.dhanrakshak.data.remote.api.StockApi;
+import com.dhanrakshak.data.remote.http.HostRateLimiter;
 
 import java.util.concurrent.TimeUnit;
 
@@ -28,6 +31,13 @@ public class NetworkModule {
     private static final String STOCK_API_BASE_URL = BuildConfig.STOCK_API_URL;
     private static final String AMFI_BASE_URL = BuildConfig.AMFI_API_URL;
 
+    // Quote API politeness: sustained requests per second and burst, per host
+    private static final double STOCK_API_PERMITS_PER_SECOND = 5;
+    private static final int STOCK_API_BURST = 10;
+    // CoinGecko free tier allows 10-30 calls a minute; stay at the bottom of that
+    private static final double CRYPTO_API_PERMITS_PER_SECOND = 10.0 / 60;
+    private static final int CRYPTO_API_BURST = 3;
+
     @Provides
     @Singleton
     public OkHttpClient provideOkHttpClient() {
@@ -46,9 +56,13 @@ public class NetworkModule {
     @Singleton
     @StockApiRetrofit
     public Retrofit provideStockRetrofit(OkHttpClient client) {
+        OkHttpClient stockClient = client.newBuilder()
+                .addInterceptor(new HostRateLimiter(STOCK_API_PERMITS_PER_SECOND, STOCK_API_BURST))
+                .build();
+
         return new Retrofit.Builder()
                 .baseUrl(STOCK_API_BASE_URL)
-                .client(client)
+                .client(stockClient)
                 .addConverterFactory(GsonConverterFactory.create())
                 .addCallAdapterFactory(RxJava3CallAdapterFactory.create())
                 .build();
@@ -58,9 +72,16 @@ public class NetworkModule {
     @Singleton
     @AmfiApiRetrofit
     public Retrofit provideAmfiRetrofit(OkHttpClient client) {
+        // BODY logging buffers the whole response, which defeats streaming the NAV file
+        HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
+        logging.setLevel(HttpLoggingInterceptor.Level.HEADERS);
+        OkHttpClient.Builder amfiClient = client.newBuilder();
+        amfiClient.interceptors().removeIf(interceptor -> interceptor instanceof HttpLoggingInterceptor);
+        amfiClient.addInterceptor(logging);
+
         return new Retrofit.Builder()
                 .baseUrl(AMFI_BASE_URL)
-                .client(client)
+                .client(amfiClient.build())
                 .addConverterFactory(ScalarsConverterFactory.create())
                 .addCallAdapterFactory(RxJava3CallAdapterFactory.create())
                 .build();
@@ -77,4 +98,30 @@ public class NetworkModule {
     public AmfiApi provideAmfiApi(@AmfiApiRetrofit Retrofit retrofit) {
         return retrofit.create(AmfiApi.class);
     }
+
+    @Provides
+    @Singleton
+    public CryptoApi provideCryptoApi(OkHttpClient client) {
+        OkHttpClient cryptoClient = client.newBuilder()
+                .addInterceptor(new HostRateLimiter(CRYPTO_API_PERMITS_PER_SECOND, CRYPTO_API_BURST))
+                .build();
+
+        return new Retrofit.Builder()
+                .baseUrl(CryptoApi.BASE_URL)
+                .client(cryptoClient)
+                .addConverterFactory(GsonConverterFactory.create())
+                .addCallAdapterFactory(RxJava3CallAdapterFactory.create())
+                .build()
+                .create(CryptoApi.class);
+    }
+
+    @Provides
+    @Singleton
+    public NavHistoryApi provideNavHistoryApi(@AmfiApiRetrofit Retrofit retrofit) {
+        // Same streaming-friendly client as AMFI, different host
+        return retrofit.newBuilder()
+                .baseUrl(NavHistoryApi.BASE_URL)
+                .build()
+                .create(NavHistoryApi.class);
+    }
 }
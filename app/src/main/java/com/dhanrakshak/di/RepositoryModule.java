@@ -1,17 +1,31 @@
 package com.dhanrakshak.di;
 
+import android.content.Context;
+
 import com.dhanrakshak.data.local.dao.AssetDao;
 import com.dhanrakshak.data.local.dao.BankAccountDao;
+import com.dhanrakshak.data.local.dao.CryptoHoldingDao;
 import com.dhanrakshak.data.local.dao.FixedDepositDao;
 import com.dhanrakshak.data.local.dao.MutualFundSchemeDao;
+import com.dhanrakshak.data.local.dao.NavHistoryDao;
 import com.dhanrakshak.data.local.dao.RecurringDepositDao;
 import com.dhanrakshak.data.local.dao.SmsTransactionDao;
+import com.dhanrakshak.data.local.dao.SpendingRollupDao;
 import com.dhanrakshak.data.local.dao.TransactionDao;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
+import com.dhanrakshak.data.local.search.SchemeSearchIndex;
 import com.dhanrakshak.data.remote.api.AmfiApi;
+import com.dhanrakshak.data.remote.api.NavHistoryApi;
 import com.dhanrakshak.data.remote.api.StockApi;
+import com.dhanrakshak.data.remote.quote.CryptoPriceCache;
+import com.dhanrakshak.data.remote.quote.CryptoPriceFetcher;
+import com.dhanrakshak.data.remote.quote.StockQuoteCache;
+import com.dhanrakshak.data.remote.quote.StockQuoteFetcher;
 import com.dhanrakshak.data.repository.BankRepository;
+import com.dhanrakshak.data.repository.CryptoRepository;
 import com.dhanrakshak.data.repository.DepositRepository;
 import com.dhanrakshak.data.repository.MutualFundRepository;
+import com.dhanrakshak.data.repository.NavHistoryRepository;
 import com.dhanrakshak.data.repository.StockRepository;
 
 import javax.inject.Singleton;
@@ -19,6 +33,7 @@ import javax.inject.Singleton;
 import dagger.Module;
 import dagger.Provides;
 import dagger.hilt.InstallIn;
+import dagger.hilt.android.qualifiers.ApplicationContext;
 import dagger.hilt.components.SingletonComponent;
 
 /**
@@ -31,8 +46,9 @@ public class RepositoryModule {
     @Provides
     @Singleton
     public StockRepository provideStockRepository(AssetDao assetDao, TransactionDao transactionDao,
-            StockApi stockApi) {
-        return new StockRepository(assetDao, transactionDao, stockApi);
+            StockApi stockApi, StockQuoteFetcher quoteFetcher, StockQuoteCache quoteCache,
+            DhanRakshakDatabase database) {
+        return new StockRepository(assetDao, transactionDao, stockApi, quoteFetcher, quoteCache, database);
     }
 
     @Provides
@@ -40,15 +56,40 @@ public class RepositoryModule {
     public MutualFundRepository provideMutualFundRepository(AssetDao assetDao,
             TransactionDao transactionDao,
             MutualFundSchemeDao schemeDao,
-            AmfiApi amfiApi) {
-        return new MutualFundRepository(assetDao, transactionDao, schemeDao, amfiApi);
+            AmfiApi amfiApi,
+            DhanRakshakDatabase database,
+            NavHistoryRepository navHistoryRepository,
+            SchemeSearchIndex searchIndex,
+            @ApplicationContext Context context) {
+        return new MutualFundRepository(assetDao, transactionDao, schemeDao, amfiApi, database,
+                navHistoryRepository, searchIndex, context);
+    }
+
+    @Provides
+    @Singleton
+    public NavHistoryRepository provideNavHistoryRepository(NavHistoryDao navHistoryDao,
+            AssetDao assetDao,
+            MutualFundSchemeDao schemeDao,
+            NavHistoryApi navHistoryApi,
+            DhanRakshakDatabase database) {
+        return new NavHistoryRepository(navHistoryDao, assetDao, schemeDao, navHistoryApi, database);
+    }
+
+    @Provides
+    @Singleton
+    public CryptoRepository provideCryptoRepository(CryptoHoldingDao holdingDao,
+            CryptoPriceFetcher priceFetcher,
+            CryptoPriceCache priceCache,
+            DhanRakshakDatabase database) {
+        return new CryptoRepository(holdingDao, priceFetcher, priceCache, database);
     }
 
     @Provides
     @Singleton
     public BankRepository provideBankRepository(BankAccountDao bankAccountDao,
-            SmsTransactionDao smsTransactionDao) {
-        return new BankRepository(bankAccountDao, smsTransactionDao);
+            SmsTransactionDao smsTransactionDao,
+            SpendingRollupDao spendingRollupDao, DhanRakshakDatabase database) {
+        return new BankRepository(bankAccountDao, smsTransactionDao, spendingRollupDao, database);
     }
 
     @Provides
@@ -2,6 +2,7 @@ package com.dhanrakshak.domain.analytics;
 
 import com.dhanrakshak.data.local.entity.Asset;
 import com.dhanrakshak.data.local.entity.Transaction;
+import com.dhanrakshak.data.local.navhistory.NavSeries;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -9,15 +10,22 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.inject.Inject;
+
 /**
  * Investment Analytics Engine.
  * Provides XIRR, benchmarking, sector analysis, and performance metrics.
  */
 public class InvestmentAnalyticsEngine {
 
+    @Inject
+    public InvestmentAnalyticsEngine() {
+    }
+
     /**
      * Calculate XIRR (Extended Internal Rate of Return) for cash flows.
-     * Uses Newton-Raphson method.
+     * Newton-Raphson with a bracketed Brent fallback, see {@link XirrSolver}.
+     * Returns 0 when the flows have no rate (e.g. no money out yet).
      */
     public double calculateXirr(List<CashFlow> cashFlows) {
         if (cashFlows == null || cashFlows.size() < 2)
@@ -26,39 +34,15 @@ public class InvestmentAnalyticsEngine {
         // Sort by date
         Collections.sort(cashFlows, (a, b) -> Long.compare(a.date, b.date));
 
-        // Convert dates to years from first date
-        long firstDate = cashFlows.get(0).date;
-        double[] years = new double[cashFlows.size()];
+        double[] days = new double[cashFlows.size()];
         double[] amounts = new double[cashFlows.size()];
-
         for (int i = 0; i < cashFlows.size(); i++) {
-            years[i] = (cashFlows.get(i).date - firstDate) / (365.25 * 24 * 60 * 60 * 1000);
+            days[i] = cashFlows.get(i).date / (24 * 60 * 60 * 1000.0);
             amounts[i] = cashFlows.get(i).amount;
         }
 
-        // Newton-Raphson iteration
-        double rate = 0.1; // Initial guess
-        for (int iteration = 0; iteration < 100; iteration++) {
-            double f = 0;
-            double df = 0;
-
-            for (int i = 0; i < amounts.length; i++) {
-                double factor = Math.pow(1 + rate, years[i]);
-                f += amounts[i] / factor;
-                df -= years[i] * amounts[i] / (factor * (1 + rate));
-            }
-
-            if (Math.abs(df) < 1e-10)
-                break;
-
-            double newRate = rate - f / df;
-            if (Math.abs(newRate - rate) < 1e-7) {
-                return newRate * 100; // Convert to percentage
-            }
-            rate = newRate;
-        }
-
-        return rate * 100;
+        double rate = new XirrSolver().solve(days, amounts, days.length);
+        return Double.isNaN(rate) ? 0 : rate * 100; // Convert to percentage
     }
 
     /**
@@ -203,6 +187,26 @@ public class InvestmentAnalyticsEngine {
         return new RiskMetrics(portfolioReturn, volatility, sharpeRatio, maxDrawdown);
     }
 
+    /**
+     * Risk metrics of one scheme from its NAV history.
+     * Return is the annualized CAGR over the series; volatility and max
+     * drawdown come from month-end NAVs.
+     */
+    public RiskMetrics calculateSchemeRiskMetrics(NavSeries history, double riskFreeRate) {
+        if (history == null || history.size() < 2)
+            return new RiskMetrics(0, 0, 0, 0);
+
+        int last = history.size() - 1;
+        double years = (history.getDay(last) - history.getDay(0)) / 365.25;
+        double cagr = calculateCagr(history.getNav(0), history.getNav(last), years);
+
+        List<Double> monthlyReturns = history.getMonthlyReturns();
+        double volatility = calculateVolatility(monthlyReturns);
+        double sharpeRatio = calculateSharpeRatio(cagr, riskFreeRate, volatility);
+
+        return new RiskMetrics(cagr, volatility, sharpeRatio, calculateMaxDrawdown(monthlyReturns));
+    }
+
     private double calculateMaxDrawdown(List<Double> monthlyReturns) {
         if (monthlyReturns == null || monthlyReturns.isEmpty())
             return 0;
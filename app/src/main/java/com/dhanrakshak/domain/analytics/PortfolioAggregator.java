@@ -0,0 +1,134 @@
+package com.dhanrakshak.domain.analytics;
+
+import com.dhanrakshak.data.local.dao.AssetDao;
+import com.dhanrakshak.data.local.dao.BankAccountDao;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Live portfolio totals for the dashboard and summaries.
+ *
+ * Two Room queries feed it: per-type totals of the assets table (one
+ * GROUP BY) and the active bank balance. Room re-runs each only when its own
+ * table is invalidated; {@code combineLatest} pairs the fresh side with the
+ * last value of the other, so a balance update never re-reads assets. The
+ * stream is shared, so every subscriber sees the same immutable
+ * {@link PortfolioSnapshot}.
+ */
+@Singleton
+public class PortfolioAggregator {
+
+    private final Flowable<PortfolioSnapshot> snapshots;
+
+    @Inject
+    public PortfolioAggregator(AssetDao assetDao, BankAccountDao bankAccountDao) {
+        this.snapshots = Flowable.combineLatest(
+                        assetDao.getTotalsByType().subscribeOn(Schedulers.io()),
+                        bankAccountDao.getTotalBankBalance().subscribeOn(Schedulers.io()),
+                        PortfolioSnapshot::new)
+                .distinctUntilChanged()
+                .replay(1)
+                .refCount();
+    }
+
+    public Flowable<PortfolioSnapshot> getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Totals at one point in time.
+     */
+    public static final class PortfolioSnapshot {
+        private final Map<String, AssetDao.TypeTotal> byType;
+        private final double assetsValue;
+        private final double investedAmount;
+        private final double bankBalance;
+
+        PortfolioSnapshot(List<AssetDao.TypeTotal> totals, Double bankBalance) {
+            Map<String, AssetDao.TypeTotal> types = new LinkedHashMap<>();
+            double value = 0;
+            double invested = 0;
+            for (AssetDao.TypeTotal total : totals) {
+                types.put(total.assetType, total);
+                value += total.value;
+                invested += total.invested;
+            }
+            this.byType = Collections.unmodifiableMap(types);
+            this.assetsValue = value;
+            this.investedAmount = invested;
+            this.bankBalance = bankBalance != null ? bankBalance : 0;
+        }
+
+        public double getAssetsValue() {
+            return assetsValue;
+        }
+
+        public double getInvestedAmount() {
+            return investedAmount;
+        }
+
+        public double getBankBalance() {
+            return bankBalance;
+        }
+
+        public double getNetWorth() {
+            return assetsValue + bankBalance;
+        }
+
+        /**
+         * Gain on assets (bank balances have no cost basis).
+         */
+        public double getProfitLoss() {
+            return assetsValue - investedAmount;
+        }
+
+        /**
+         * Current value of one asset type, 0 if none held.
+         */
+        public double getValue(String assetType) {
+            AssetDao.TypeTotal total = byType.get(assetType);
+            return total != null ? total.value : 0;
+        }
+
+        public Map<String, AssetDao.TypeTotal> getTotalsByType() {
+            return byType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PortfolioSnapshot)) {
+                return false;
+            }
+            PortfolioSnapshot other = (PortfolioSnapshot) o;
+            if (bankBalance != other.bankBalance || byType.size() != other.byType.size()) {
+                return false;
+            }
+            for (Map.Entry<String, AssetDao.TypeTotal> entry : byType.entrySet()) {
+                AssetDao.TypeTotal theirs = other.byType.get(entry.getKey());
+                if (theirs == null || theirs.value != entry.getValue().value
+                        || theirs.invested != entry.getValue().invested
+                        || theirs.count != entry.getValue().count) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(assetsValue) * 31 + Double.hashCode(bankBalance);
+        }
+    }
+}
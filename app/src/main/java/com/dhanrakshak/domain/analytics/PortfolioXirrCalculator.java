@@ -0,0 +1,171 @@
+package com.dhanrakshak.domain.analytics;
+
+import android.database.Cursor;
+
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * XIRR of every holding and of the whole portfolio in one pass over the
+ * transactions table.
+ *
+ * Transactions are read once in date order into per-holding primitive
+ * buffers and a portfolio buffer; each holding's current value closes its
+ * flows as of today. Holdings without transactions have no cost basis and
+ * are left out of both.
+ */
+@Singleton
+public class PortfolioXirrCalculator {
+
+    private static final double MILLIS_PER_DAY = 24 * 60 * 60 * 1000.0;
+
+    private final DhanRakshakDatabase database;
+
+    @Inject
+    public PortfolioXirrCalculator(DhanRakshakDatabase database) {
+        this.database = database;
+    }
+
+    public Single<PortfolioXirr> calculate() {
+        return Single.fromCallable(() -> calculate(System.currentTimeMillis()))
+                .subscribeOn(Schedulers.io());
+    }
+
+    PortfolioXirr calculate(long now) {
+        Map<Long, FlowBuffer> holdings = new HashMap<>();
+        FlowBuffer portfolio = new FlowBuffer();
+        double[] currentValue = database.runInTransaction(() -> {
+            try (Cursor cursor = database.query("SELECT assetId, type, amount, date FROM transactions "
+                    + "ORDER BY date, id", null)) {
+                FlowBuffer last = null;
+                long lastAsset = Long.MIN_VALUE;
+                while (cursor.moveToNext()) {
+                    long assetId = cursor.getLong(0);
+                    double amount = signedAmount(cursor.getString(1), cursor.getDouble(2));
+                    if (amount == 0) {
+                        continue;
+                    }
+                    double day = cursor.getLong(3) / MILLIS_PER_DAY;
+                    if (assetId != lastAsset) {
+                        last = holdings.get(assetId);
+                        if (last == null) {
+                            last = new FlowBuffer();
+                            holdings.put(assetId, last);
+                        }
+                        lastAsset = assetId;
+                    }
+                    last.add(day, amount);
+                    portfolio.add(day, amount);
+                }
+            }
+
+            double[] values = new double[1];
+            try (Cursor cursor = database.query("SELECT id, currentValue FROM assets WHERE currentValue > 0",
+                    null)) {
+                while (cursor.moveToNext()) {
+                    FlowBuffer holding = holdings.get(cursor.getLong(0));
+                    if (holding != null) {
+                        holding.closingValue = cursor.getDouble(1);
+                        values[0] += holding.closingValue;
+                    }
+                }
+            }
+            return values;
+        });
+
+        double today = now / MILLIS_PER_DAY;
+        XirrSolver solver = new XirrSolver();
+        Map<Long, Double> rates = new HashMap<>();
+        for (Map.Entry<Long, FlowBuffer> entry : holdings.entrySet()) {
+            FlowBuffer holding = entry.getValue();
+            holding.close(today);
+            double rate = solver.solve(holding.days, holding.amounts, holding.size);
+            if (!Double.isNaN(rate)) {
+                rates.put(entry.getKey(), rate * 100);
+            }
+        }
+
+        portfolio.closingValue = currentValue[0];
+        portfolio.close(today);
+        double portfolioRate = solver.solve(portfolio.days, portfolio.amounts, portfolio.size);
+        return new PortfolioXirr(Double.isNaN(portfolioRate) ? Double.NaN : portfolioRate * 100, rates);
+    }
+
+    /**
+     * Money in is negative, money out positive.
+     */
+    static double signedAmount(String type, double amount) {
+        if (type == null) {
+            return 0;
+        }
+        switch (type) {
+            case "BUY":
+            case "SIP":
+                return -Math.abs(amount);
+            case "SELL":
+            case "DIVIDEND":
+                return Math.abs(amount);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Growable flow arrays, in date order.
+     */
+    private static final class FlowBuffer {
+        double[] days = new double[8];
+        double[] amounts = new double[8];
+        int size;
+        double closingValue;
+
+        void add(double day, double amount) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            days[size] = day;
+            amounts[size++] = amount;
+        }
+
+        /**
+         * Append the current value as a final inflow, never before the last flow.
+         */
+        void close(double today) {
+            if (closingValue > 0 && size > 0) {
+                add(Math.max(today, days[size - 1]), closingValue);
+            }
+        }
+    }
+
+    /**
+     * Annualized returns in percent; NaN where the flows have no rate.
+     */
+    public static class PortfolioXirr {
+        public final double portfolioXirr;
+        public final Map<Long, Double> xirrByAssetId;
+
+        public PortfolioXirr(double portfolioXirr, Map<Long, Double> xirrByAssetId) {
+            this.portfolioXirr = portfolioXirr;
+            this.xirrByAssetId = Collections.unmodifiableMap(xirrByAssetId);
+        }
+
+        /**
+         * XIRR of one holding in percent, or NaN if unknown.
+         */
+        public double getXirr(long assetId) {
+            Double rate = xirrByAssetId.get(assetId);
+            return rate != null ? rate : Double.NaN;
+        }
+    }
+}
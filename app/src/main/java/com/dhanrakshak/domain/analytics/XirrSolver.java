@@ -0,0 +1,229 @@
+package com.dhanrakshak.domain.analytics;
+
+/**
+ * XIRR root finder over primitive arrays.
+ *
+ * Flow times are turned into year offsets and gaps once. The NPV at a rate
+ * r is evaluated with L = ln(1 + r) and the recurrence
+ * v[i] = v[i - 1] * exp(-gap[i] * L); the multiplier is reused while gaps
+ * repeat, so monthly SIP flows cost one multiply each instead of a pow.
+ * Newton's method runs first; if it diverges, leaves the domain or stalls
+ * on a flat derivative, the root is bracketed on a grid of rates and found
+ * with Brent's method.
+ */
+public final class XirrSolver {
+
+    public static final double DAYS_PER_YEAR = 365.0;
+
+    private static final double GUESS = 0.1;
+    private static final double RATE_TOLERANCE = 1e-9;
+    private static final double NPV_TOLERANCE = 1e-9;
+    private static final int MAX_NEWTON_ITERATIONS = 50;
+    private static final int MAX_BRENT_ITERATIONS = 200;
+    private static final double[] BRACKET_GRID = {
+            -0.999, -0.99, -0.9, -0.75, -0.5, -0.25, -0.1, 0, 0.05, 0.1, 0.2, 0.35, 0.5,
+            0.75, 1, 2, 5, 10, 100, 1e3, 1e4, 1e6, 1e9, 1e12, 1e15
+    };
+
+    // Prepared flows
+    private double[] years = new double[0];
+    private double[] gaps = new double[0];
+    private double[] amounts = new double[0];
+    private int count;
+    private double scale;
+
+    // Last evaluation
+    private double npv;
+    private double slope;
+
+    /**
+     * Annual rate (0.12 = 12%) at which the flows' NPV is zero.
+     * A solver instance is reusable but not thread-safe.
+     *
+     * @param days    Flow dates in days, ascending
+     * @param amounts Flow amounts: negative invested, positive received
+     * @param count   Number of flows to use
+     * @return Rate as a fraction, or NaN if the flows have no rate
+     */
+    public double solve(double[] days, double[] amounts, int count) {
+        if (!prepare(days, amounts, count)) {
+            return Double.NaN;
+        }
+        double rate = newton();
+        return Double.isNaN(rate) ? brent() : rate;
+    }
+
+    private boolean prepare(double[] days, double[] flowAmounts, int flowCount) {
+        if (flowCount < 2) {
+            return false;
+        }
+        if (years.length < flowCount) {
+            years = new double[flowCount];
+            gaps = new double[flowCount];
+            amounts = new double[flowCount];
+        }
+        boolean invested = false;
+        boolean received = false;
+        double total = 0;
+        double origin = days[0];
+        double previous = 0;
+        for (int i = 0; i < flowCount; i++) {
+            years[i] = (days[i] - origin) / DAYS_PER_YEAR;
+            gaps[i] = years[i] - previous;
+            previous = years[i];
+            amounts[i] = flowAmounts[i];
+            invested |= flowAmounts[i] < 0;
+            received |= flowAmounts[i] > 0;
+            total += Math.abs(flowAmounts[i]);
+        }
+        count = flowCount;
+        scale = total;
+        // Without flows both ways NPV never crosses zero
+        return invested && received;
+    }
+
+    /**
+     * NPV and its derivative at the rate, into {@link #npv} and {@link #slope}.
+     */
+    private void evaluate(double rate) {
+        double log = Math.log1p(rate);
+        double factor = 1;
+        double lastGap = Double.NaN;
+        double step = 1;
+        double value = 0;
+        double weighted = 0;
+        for (int i = 0; i < count; i++) {
+            double gap = gaps[i];
+            if (gap != lastGap) {
+                step = Math.exp(-gap * log);
+                lastGap = gap;
+            }
+            factor *= step;
+            double discounted = amounts[i] * factor;
+            value += discounted;
+            weighted += years[i] * discounted;
+        }
+        npv = value;
+        slope = -weighted / (1 + rate);
+    }
+
+    private double newton() {
+        double rate = GUESS;
+        for (int iteration = 0; iteration < MAX_NEWTON_ITERATIONS; iteration++) {
+            evaluate(rate);
+            if (!Double.isFinite(npv) || !Double.isFinite(slope) || Math.abs(slope) < 1e-12 * scale) {
+                return Double.NaN;
+            }
+            double next = rate - npv / slope;
+            if (!Double.isFinite(next)) {
+                return Double.NaN;
+            }
+            if (next <= -1) {
+                // Stay inside the domain: go halfway to -100%
+                next = (rate - 1) / 2;
+            }
+            if (Math.abs(next - rate) <= RATE_TOLERANCE * (1 + Math.abs(rate))) {
+                evaluate(next);
+                return Math.abs(npv) <= NPV_TOLERANCE * scale ? next : Double.NaN;
+            }
+            rate = next;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Bracket a sign change on the grid (preferring the one nearest the
+     * usual guess) and refine it with Brent's method.
+     */
+    private double brent() {
+        double low = Double.NaN;
+        double high = Double.NaN;
+        double bestDistance = Double.MAX_VALUE;
+        double previousRate = Double.NaN;
+        double previousNpv = Double.NaN;
+        for (double rate : BRACKET_GRID) {
+            evaluate(rate);
+            if (Double.isFinite(npv) && Double.isFinite(previousNpv) && (npv == 0 || previousNpv * npv < 0)) {
+                double distance = Math.abs((previousRate + rate) / 2 - GUESS);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    low = previousRate;
+                    high = rate;
+                }
+            }
+            previousRate = rate;
+            previousNpv = npv;
+        }
+        if (Double.isNaN(low)) {
+            return Double.NaN;
+        }
+
+        double a = low;
+        double b = high;
+        evaluate(a);
+        double fa = npv;
+        evaluate(b);
+        double fb = npv;
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+        for (int iteration = 0; iteration < MAX_BRENT_ITERATIONS; iteration++) {
+            if (fb * fc > 0) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tolerance = 2 * Math.ulp(b) + 0.5 * RATE_TOLERANCE;
+            double middle = (c - b) / 2;
+            if (Math.abs(middle) <= tolerance || fb == 0) {
+                return b;
+            }
+            if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+                // Inverse quadratic interpolation, or secant when only two points
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * middle * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * middle * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * middle * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = middle;
+                    e = d;
+                }
+            } else {
+                d = middle;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, middle);
+            evaluate(b);
+            fb = npv;
+        }
+        return b;
+    }
+}
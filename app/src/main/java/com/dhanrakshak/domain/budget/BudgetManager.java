@@ -12,9 +12,10 @@ import androidx.core.app.NotificationCompat;
 import com.dhanrakshak.R;
 import com.dhanrakshak.data.local.dao.BudgetDao;
 import com.dhanrakshak.data.local.dao.ExpenseCategoryDao;
-import com.dhanrakshak.data.local.dao.SmsTransactionDao;
+import com.dhanrakshak.data.local.dao.SpendingRollupDao;
 import com.dhanrakshak.data.local.entity.Budget;
 import com.dhanrakshak.data.local.entity.ExpenseCategory;
+import com.dhanrakshak.data.local.entity.SpendingRollup;
 import com.dhanrakshak.presentation.MainActivity;
 
 import java.util.Calendar;
@@ -41,16 +42,16 @@ public class BudgetManager {
     private final Context context;
     private final BudgetDao budgetDao;
     private final ExpenseCategoryDao categoryDao;
-    private final SmsTransactionDao smsTransactionDao;
+    private final SpendingRollupDao spendingRollupDao;
 
     @Inject
     public BudgetManager(Context context, BudgetDao budgetDao,
             ExpenseCategoryDao categoryDao,
-            SmsTransactionDao smsTransactionDao) {
+            SpendingRollupDao spendingRollupDao) {
         this.context = context.getApplicationContext();
         this.budgetDao = budgetDao;
         this.categoryDao = categoryDao;
-        this.smsTransactionDao = smsTransactionDao;
+        this.spendingRollupDao = spendingRollupDao;
 
         createNotificationChannel();
     }
@@ -131,22 +132,14 @@ public class BudgetManager {
         Calendar cal = Calendar.getInstance();
         int month = cal.get(Calendar.MONTH) + 1;
         int year = cal.get(Calendar.YEAR);
-
-        // Get start and end of month
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        long startOfMonth = cal.getTimeInMillis();
-
-        cal.add(Calendar.MONTH, 1);
-        long endOfMonth = cal.getTimeInMillis();
+        int rollupMonth = SpendingRollup.toMonth(year, month);
 
         return budgetDao.getBudgetsForMonth(month, year)
                 .firstOrError()
                 .flatMapCompletable(budgets -> Completable.merge(
                         io.reactivex.rxjava3.core.Flowable.fromIterable(budgets)
-                                .map(budget -> smsTransactionDao.getTotalForCategoryBetweenDates(
-                                        budget.getCategoryId(), startOfMonth, endOfMonth)
+                                .map(budget -> spendingRollupDao.getCategoryDebitForMonth(
+                                        budget.getCategoryId(), rollupMonth)
                                         .flatMapCompletable(spent -> {
                                             budget.setSpentAmount(spent != null ? spent : 0);
                                             return budgetDao.update(budget);
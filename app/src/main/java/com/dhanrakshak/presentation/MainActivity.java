@@ -43,6 +43,8 @@ public class MainActivity extends AppCompatActivity {
 
                 if (Boolean.TRUE.equals(receiveSms) && Boolean.TRUE.equals(readSms)) {
                     Toast.makeText(this, "SMS permissions granted", Toast.LENGTH_SHORT).show();
+                    // Import past bank SMS once; new ones arrive via SmsBroadcastReceiver
+                    com.dhanrakshak.ai.sms.SmsBackfillWorker.enqueue(this);
                 } else {
                     Toast.makeText(this,
                             "SMS permissions required for automatic transaction tracking",
@@ -139,6 +141,9 @@ public class MainActivity extends AppCompatActivity {
                     Manifest.permission.RECEIVE_SMS,
                     Manifest.permission.READ_SMS
             });
+        } else {
+            // No-op once the import has completed
+            com.dhanrakshak.ai.sms.SmsBackfillWorker.enqueue(this);
         }
 
         // Request Notification Permission for Android 13+
@@ -4,10 +4,9 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
-import com.dhanrakshak.data.local.dao.AssetDao;
-import com.dhanrakshak.data.local.dao.BankAccountDao;
 import com.dhanrakshak.data.local.dao.SmsTransactionDao;
 import com.dhanrakshak.data.local.entity.SmsTransaction;
+import com.dhanrakshak.domain.analytics.PortfolioAggregator;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,8 +24,12 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 @HiltViewModel
 public class DashboardViewModel extends ViewModel {
 
-    private final AssetDao assetDao;
-    private final BankAccountDao bankAccountDao;
+    // Allocation slices; bank accounts are folded into the "BANK" slice
+    private static final String[] ASSET_TYPES = { "STOCK", "MUTUAL_FUND", "GOLD", "EPF", "PPF", "BANK" };
+    private static final String[] COLORS = { "#2196F3", "#9C27B0", "#FFC107", "#4CAF50", "#00BCD4", "#607D8B" };
+    private static final String[] LABELS = { "Stocks", "Mutual Funds", "Gold", "EPF", "PPF", "Bank" };
+
+    private final PortfolioAggregator portfolioAggregator;
     private final SmsTransactionDao smsTransactionDao;
     private final CompositeDisposable disposables = new CompositeDisposable();
 
@@ -36,103 +39,45 @@ public class DashboardViewModel extends ViewModel {
     private final MutableLiveData<List<SmsTransaction>> recentTransactions = new MutableLiveData<>();
 
     @Inject
-    public DashboardViewModel(AssetDao assetDao, BankAccountDao bankAccountDao,
-            SmsTransactionDao smsTransactionDao) {
-        this.assetDao = assetDao;
-        this.bankAccountDao = bankAccountDao;
+    public DashboardViewModel(PortfolioAggregator portfolioAggregator, SmsTransactionDao smsTransactionDao) {
+        this.portfolioAggregator = portfolioAggregator;
         this.smsTransactionDao = smsTransactionDao;
 
         loadData();
     }
 
     private void loadData() {
-        loadNetWorth();
-        loadAssetAllocation();
+        loadPortfolio();
         loadRecentTransactions();
     }
 
-    private void loadNetWorth() {
-        // Load total assets value
-        disposables.add(
-                assetDao.getTotalAssetsValue()
-                        .subscribeOn(Schedulers.io())
-                        .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe(assetValue -> {
-                            // Also add bank balances
-                            disposables.add(
-                                    bankAccountDao.getTotalBankBalance()
-                                            .subscribeOn(Schedulers.io())
-                                            .observeOn(AndroidSchedulers.mainThread())
-                                            .subscribe(bankBalance -> {
-                                                double assetVal = assetValue != null ? assetValue : 0.0;
-                                                double bankVal = bankBalance != null ? bankBalance : 0.0;
-                                                totalNetWorth.setValue(assetVal + bankVal);
-                                            }, error -> totalNetWorth.setValue(assetValue != null ? assetValue : 0.0)));
-                        }, error -> {
-                        }));
-
-        // Load profit/loss
+    /**
+     * Net worth, profit/loss and allocation all come from one snapshot stream.
+     */
+    private void loadPortfolio() {
         disposables.add(
-                assetDao.getTotalInvestedAmount()
-                        .subscribeOn(Schedulers.io())
+                portfolioAggregator.getSnapshots()
                         .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe(invested -> {
-                            disposables.add(
-                                    assetDao.getTotalAssetsValue()
-                                            .subscribeOn(Schedulers.io())
-                                            .observeOn(AndroidSchedulers.mainThread())
-                                            .subscribe(current -> {
-                                                double investedVal = invested != null ? invested : 0.0;
-                                                double currentVal = current != null ? current : 0.0;
-                                                totalProfitLoss.setValue(currentVal - investedVal);
-                                            }, error -> {
-                                            }));
+                        .subscribe(snapshot -> {
+                            totalNetWorth.setValue(snapshot.getNetWorth());
+                            totalProfitLoss.setValue(snapshot.getProfitLoss());
+                            assetAllocation.setValue(buildAllocation(snapshot));
                         }, error -> {
                         }));
     }
 
-    private void loadAssetAllocation() {
+    private static List<AssetAllocationItem> buildAllocation(PortfolioAggregator.PortfolioSnapshot snapshot) {
         List<AssetAllocationItem> allocations = new ArrayList<>();
-
-        // Load values for each asset type
-        String[] assetTypes = { "STOCK", "MUTUAL_FUND", "GOLD", "EPF", "PPF", "BANK" };
-        String[] colors = { "#2196F3", "#9C27B0", "#FFC107", "#4CAF50", "#00BCD4", "#607D8B" };
-        String[] labels = { "Stocks", "Mutual Funds", "Gold", "EPF", "PPF", "Bank" };
-
-        for (int i = 0; i < assetTypes.length; i++) {
-            final int index = i;
-            disposables.add(
-                    assetDao.getValueByType(assetTypes[i])
-                            .subscribeOn(Schedulers.io())
-                            .observeOn(AndroidSchedulers.mainThread())
-                            .subscribe(value -> {
-                                if (value != null && value > 0) {
-                                    allocations.add(new AssetAllocationItem(
-                                            labels[index], value, colors[index]));
-                                    recalculatePercentages(allocations);
-                                }
-                            }, error -> {
-                            }));
-        }
-
-        // Add bank balance
-        disposables.add(
-                bankAccountDao.getTotalBankBalance()
-                        .subscribeOn(Schedulers.io())
-                        .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe(value -> {
-                            if (value != null && value > 0) {
-                                allocations.add(new AssetAllocationItem("Bank", value, "#607D8B"));
-                                recalculatePercentages(allocations);
-                            }
-                        }, error -> {
-                        }));
-    }
-
-    private void recalculatePercentages(List<AssetAllocationItem> allocations) {
         double total = 0;
-        for (AssetAllocationItem item : allocations) {
-            total += item.value;
+        for (int i = 0; i < ASSET_TYPES.length; i++) {
+            double value = snapshot.getValue(ASSET_TYPES[i]);
+            if ("BANK".equals(ASSET_TYPES[i])) {
+                value += snapshot.getBankBalance();
+            }
+            if (value > 0) {
+                allocations.add(new AssetAllocationItem(LABELS[i], value, COLORS[i]));
+                total += value;
+            }
         }
 
         if (total > 0) {
@@ -140,8 +85,7 @@ public class DashboardViewModel extends ViewModel {
                 item.percentage = (item.value / total) * 100;
             }
         }
-
-        assetAllocation.setValue(new ArrayList<>(allocations));
+        return allocations;
     }
 
     private void loadRecentTransactions() {
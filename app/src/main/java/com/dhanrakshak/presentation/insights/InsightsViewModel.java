@@ -8,13 +8,14 @@ import com.dhanrakshak.ai.insights.AiFinanceInsightsEngine;
 import com.dhanrakshak.data.local.dao.AssetDao;
 import com.dhanrakshak.data.local.dao.BankAccountDao;
 import com.dhanrakshak.data.local.dao.FixedDepositDao;
-import com.dhanrakshak.data.local.dao.SmsTransactionDao;
+import com.dhanrakshak.data.local.dao.SpendingRollupDao;
 import com.dhanrakshak.data.local.entity.Asset;
 import com.dhanrakshak.data.local.entity.BankAccount;
 import com.dhanrakshak.data.local.entity.FixedDeposit;
+import com.dhanrakshak.data.local.entity.SpendingRollup;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -33,7 +34,7 @@ public class InsightsViewModel extends ViewModel {
     private final AssetDao assetDao;
     private final BankAccountDao bankAccountDao;
     private final FixedDepositDao fixedDepositDao;
-    private final SmsTransactionDao smsTransactionDao;
+    private final SpendingRollupDao spendingRollupDao;
     private final com.dhanrakshak.data.local.dao.TransactionDao transactionDao;
     private final AiFinanceInsightsEngine insightsEngine;
     private final CompositeDisposable disposables = new CompositeDisposable();
@@ -55,13 +56,13 @@ public class InsightsViewModel extends ViewModel {
             AssetDao assetDao,
             BankAccountDao bankAccountDao,
             FixedDepositDao fixedDepositDao,
-            SmsTransactionDao smsTransactionDao,
+            SpendingRollupDao spendingRollupDao,
             com.dhanrakshak.data.local.dao.TransactionDao transactionDao,
             AiFinanceInsightsEngine insightsEngine) {
         this.assetDao = assetDao;
         this.bankAccountDao = bankAccountDao;
         this.fixedDepositDao = fixedDepositDao;
-        this.smsTransactionDao = smsTransactionDao;
+        this.spendingRollupDao = spendingRollupDao;
         this.transactionDao = transactionDao;
         this.insightsEngine = insightsEngine;
 
@@ -138,15 +139,15 @@ public class InsightsViewModel extends ViewModel {
         isLoading.setValue(false);
     }
 
-    Calendar cal = Calendar.getInstance();cal.set(Calendar.DAY_OF_MONTH,1);cal.set(Calendar.HOUR_OF_DAY,0);
-    long startOfMonth = cal.getTimeInMillis();
-    long now = System.currentTimeMillis();
+    // Rollup days are IST, so the month starts on the IST 1st
+    int today = SpendingRollup.toDay(System.currentTimeMillis());
+    int startOfMonth = today - LocalDate.ofEpochDay(today).getDayOfMonth() + 1;
 
     // Get monthly credits (income)
-    disposables.add(smsTransactionDao.getTotalCreditBetweenDates(startOfMonth,now).subscribeOn(Schedulers.io()).observeOn(AndroidSchedulers.mainThread()).subscribe(total->monthlyIncome.setValue(total!=null?total:0.0),error->monthlyIncome.setValue(0.0)));
+    disposables.add(spendingRollupDao.getTotal("CREDIT",startOfMonth,today).subscribeOn(Schedulers.io()).observeOn(AndroidSchedulers.mainThread()).subscribe(total->monthlyIncome.setValue(total!=null?total:0.0),error->monthlyIncome.setValue(0.0)));
 
     // Get monthly debits (expenses)
-    disposables.add(smsTransactionDao.getTotalDebitBetweenDates(startOfMonth,now).subscribeOn(Schedulers.io()).observeOn(AndroidSchedulers.mainThread()).subscribe(total->monthlyExpenses.setValue(total!=null?total:0.0),error->monthlyExpenses.setValue(0.0)));
+    disposables.add(spendingRollupDao.getTotal("DEBIT",startOfMonth,today).subscribeOn(Schedulers.io()).observeOn(AndroidSchedulers.mainThread()).subscribe(total->monthlyExpenses.setValue(total!=null?total:0.0),error->monthlyExpenses.setValue(0.0)));
     }
 
     private void checkAndGenerateInsights() {
@@ -1,17 +1,27 @@
 package com.dhanrakshak.presentation.portfolio;
 
+import android.content.Context;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.Filter;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.dhanrakshak.data.local.entity.MutualFundScheme;
 import com.dhanrakshak.databinding.DialogAddMutualFundBinding;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Dialog for adding a new mutual fund holding.
  */
@@ -36,6 +46,8 @@ public class AddMutualFundDialogFragment extends BottomSheetDialogFragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
+        setupSchemeSearch();
+
         binding.btnAdd.setOnClickListener(v -> {
             String schemeCodeStr = binding.editSchemeCode.getText().toString().trim();
             String schemeName = binding.editSchemeName.getText().toString().trim();
@@ -62,9 +74,112 @@ public class AddMutualFundDialogFragment extends BottomSheetDialogFragment {
         binding.btnCancel.setOnClickListener(v -> dismiss());
     }
 
+    /**
+     * Search-as-you-type on the scheme name; picking a suggestion fills the code.
+     */
+    private void setupSchemeSearch() {
+        SchemeSuggestionAdapter suggestionAdapter = new SchemeSuggestionAdapter(requireContext());
+        binding.editSchemeName.setAdapter(suggestionAdapter);
+        binding.editSchemeName.setOnItemClickListener((parent, itemView, position, id) -> {
+            MutualFundScheme scheme = suggestionAdapter.getItem(position);
+            if (scheme != null) {
+                binding.editSchemeCode.setText(String.valueOf(scheme.getSchemeCode()));
+            }
+        });
+        binding.editSchemeName.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (!binding.editSchemeName.isPerformingCompletion()) {
+                    viewModel.searchSchemes(s.toString());
+                }
+            }
+        });
+
+        viewModel.getSchemeSuggestions().observe(getViewLifecycleOwner(), schemes -> {
+            suggestionAdapter.setSchemes(schemes);
+            if (binding.editSchemeName.hasFocus() && !suggestionAdapter.isEmpty()) {
+                binding.editSchemeName.showDropDown();
+            }
+        });
+        viewModel.warmUpSchemeSearch();
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
         binding = null;
     }
+
+    /**
+     * Shows search results as ranked by the index; the built-in ArrayAdapter
+     * filter would drop typo and AMC/ISIN matches, so filtering is a no-op.
+     */
+    private static class SchemeSuggestionAdapter extends ArrayAdapter<MutualFundScheme> {
+
+        private final List<MutualFundScheme> schemes = new ArrayList<>();
+
+        private final Filter passThroughFilter = new Filter() {
+            @Override
+            protected FilterResults performFiltering(CharSequence constraint) {
+                FilterResults results = new FilterResults();
+                results.values = schemes;
+                results.count = schemes.size();
+                return results;
+            }
+
+            @Override
+            protected void publishResults(CharSequence constraint, FilterResults results) {
+                notifyDataSetChanged();
+            }
+
+            @Override
+            public CharSequence convertResultToString(Object resultValue) {
+                return ((MutualFundScheme) resultValue).getSchemeName();
+            }
+        };
+
+        SchemeSuggestionAdapter(Context context) {
+            super(context, android.R.layout.simple_dropdown_item_1line);
+        }
+
+        void setSchemes(List<MutualFundScheme> results) {
+            schemes.clear();
+            if (results != null) {
+                schemes.addAll(results);
+            }
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public int getCount() {
+            return schemes.size();
+        }
+
+        @Override
+        public MutualFundScheme getItem(int position) {
+            return schemes.get(position);
+        }
+
+        @NonNull
+        @Override
+        public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
+            TextView view = (TextView) super.getView(position, convertView, parent);
+            view.setText(schemes.get(position).getSchemeName());
+            return view;
+        }
+
+        @NonNull
+        @Override
+        public Filter getFilter() {
+            return passThroughFilter;
+        }
+    }
 }
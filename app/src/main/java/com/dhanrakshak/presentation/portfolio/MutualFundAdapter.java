@@ -11,9 +11,13 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.dhanrakshak.R;
 import com.dhanrakshak.data.local.entity.Asset;
 import com.dhanrakshak.databinding.ItemAssetBinding;
+import com.dhanrakshak.domain.analytics.InvestmentAnalyticsEngine;
+import com.dhanrakshak.domain.analytics.PortfolioXirrCalculator;
 
 import java.text.NumberFormat;
+import java.util.Collections;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Adapter for Mutual Fund list.
@@ -23,6 +27,8 @@ public class MutualFundAdapter extends ListAdapter<Asset, MutualFundAdapter.MfVi
     private final OnItemClickListener clickListener;
     private final OnDeleteListener deleteListener;
     private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "IN"));
+    private Map<Long, InvestmentAnalyticsEngine.RiskMetrics> riskMetrics = Collections.emptyMap();
+    private PortfolioXirrCalculator.PortfolioXirr xirr;
 
     public interface OnItemClickListener {
         void onClick(Asset asset);
@@ -50,6 +56,22 @@ public class MutualFundAdapter extends ListAdapter<Asset, MutualFundAdapter.MfVi
         }
     };
 
+    /**
+     * Risk metrics by asset id, shown next to the average NAV.
+     */
+    public void setRiskMetrics(Map<Long, InvestmentAnalyticsEngine.RiskMetrics> riskMetrics) {
+        this.riskMetrics = riskMetrics != null ? riskMetrics : Collections.emptyMap();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Per-holding XIRR, shown next to the average NAV.
+     */
+    public void setXirr(PortfolioXirrCalculator.PortfolioXirr xirr) {
+        this.xirr = xirr;
+        notifyDataSetChanged();
+    }
+
     @NonNull
     @Override
     public MfViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -92,7 +114,17 @@ public class MutualFundAdapter extends ListAdapter<Asset, MutualFundAdapter.MfVi
                         binding.getRoot().getContext().getResources().getColor(R.color.debit_red, null));
             }
 
-            binding.textAvgPrice.setText("Avg NAV: " + currencyFormat.format(mf.getAveragePrice()));
+            String avgNav = "Avg NAV: " + currencyFormat.format(mf.getAveragePrice());
+            double rate = xirr != null ? xirr.getXirr(mf.getId()) : Double.NaN;
+            if (!Double.isNaN(rate)) {
+                avgNav += String.format(" | XIRR %.2f%%", rate);
+            }
+            InvestmentAnalyticsEngine.RiskMetrics metrics = riskMetrics.get(mf.getId());
+            if (metrics != null) {
+                avgNav += String.format(" | Vol %.1f%% | Sharpe %.2f | Max DD %.1f%%",
+                        metrics.volatility, metrics.sharpeRatio, metrics.maxDrawdown);
+            }
+            binding.textAvgPrice.setText(avgNav);
 
             binding.getRoot().setOnClickListener(v -> clickListener.onClick(mf));
             binding.btnDelete.setOnClickListener(v -> deleteListener.onDelete(mf));
@@ -190,6 +190,17 @@ public class PortfolioFragment extends Fragment {
             updateEmptyState(currentTab == 1 && (mfs == null || mfs.isEmpty()));
         });
 
+        viewModel.getSchemeRiskMetrics().observe(getViewLifecycleOwner(), mfAdapter::setRiskMetrics);
+
+        viewModel.getXirr().observe(getViewLifecycleOwner(), xirr -> {
+            mfAdapter.setXirr(xirr);
+            boolean known = xirr != null && !Double.isNaN(xirr.portfolioXirr);
+            if (known) {
+                binding.textPortfolioXirr.setText(getString(R.string.portfolio_xirr, xirr.portfolioXirr));
+            }
+            binding.textPortfolioXirr.setVisibility(known ? View.VISIBLE : View.GONE);
+        });
+
         viewModel.getBankAccounts().observe(getViewLifecycleOwner(), accounts -> {
             bankAdapter.submitList(accounts);
             updateEmptyState(currentTab == 2 && (accounts == null || accounts.isEmpty()));
@@ -7,20 +7,33 @@ import androidx.lifecycle.ViewModel;
 import com.dhanrakshak.data.local.entity.Asset;
 import com.dhanrakshak.data.local.entity.BankAccount;
 import com.dhanrakshak.data.local.entity.FixedDeposit;
+import com.dhanrakshak.data.local.entity.MutualFundScheme;
 import com.dhanrakshak.data.local.entity.RecurringDeposit;
+import com.dhanrakshak.data.local.navhistory.NavSeries;
 import com.dhanrakshak.data.repository.BankRepository;
 import com.dhanrakshak.data.repository.DepositRepository;
 import com.dhanrakshak.data.repository.MutualFundRepository;
+import com.dhanrakshak.data.repository.NavHistoryRepository;
 import com.dhanrakshak.data.repository.StockRepository;
+import com.dhanrakshak.domain.analytics.InvestmentAnalyticsEngine;
+import com.dhanrakshak.domain.analytics.PortfolioXirrCalculator;
 
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
 import dagger.hilt.android.lifecycle.HiltViewModel;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subjects.PublishSubject;
 
 /**
  * ViewModel for Portfolio management.
@@ -28,10 +41,21 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 @HiltViewModel
 public class PortfolioViewModel extends ViewModel {
 
+    // Scheme risk metrics use the last three years of NAVs against a
+    // 10-year G-sec like risk-free rate (percent per year)
+    private static final int RISK_LOOKBACK_YEARS = 3;
+    private static final double RISK_FREE_RATE = 7.0;
+    // Below this much history volatility and drawdown are noise
+    private static final int MIN_HISTORY_DAYS = 90;
+    private static final int MIN_MONTHLY_RETURNS = 3;
+
     private final StockRepository stockRepository;
     private final MutualFundRepository mfRepository;
     private final BankRepository bankRepository;
     private final DepositRepository depositRepository;
+    private final NavHistoryRepository navHistoryRepository;
+    private final PortfolioXirrCalculator xirrCalculator;
+    private final InvestmentAnalyticsEngine analyticsEngine;
     private final CompositeDisposable disposables = new CompositeDisposable();
 
     // LiveData for each asset type
@@ -40,6 +64,13 @@ public class PortfolioViewModel extends ViewModel {
     private final MutableLiveData<List<BankAccount>> bankAccounts = new MutableLiveData<>();
     private final MutableLiveData<List<FixedDeposit>> fixedDeposits = new MutableLiveData<>();
     private final MutableLiveData<List<RecurringDeposit>> recurringDeposits = new MutableLiveData<>();
+    private final MutableLiveData<PortfolioXirrCalculator.PortfolioXirr> xirr = new MutableLiveData<>();
+    private final MutableLiveData<Map<Long, InvestmentAnalyticsEngine.RiskMetrics>> schemeRiskMetrics =
+            new MutableLiveData<>(Collections.emptyMap());
+
+    // Scheme search-as-you-type
+    private final PublishSubject<String> schemeQueries = PublishSubject.create();
+    private final MutableLiveData<List<MutualFundScheme>> schemeSuggestions = new MutableLiveData<>();
 
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
@@ -47,13 +78,19 @@ public class PortfolioViewModel extends ViewModel {
 
     @Inject
     public PortfolioViewModel(StockRepository stockRepository, MutualFundRepository mfRepository,
-            BankRepository bankRepository, DepositRepository depositRepository) {
+            BankRepository bankRepository, DepositRepository depositRepository,
+            NavHistoryRepository navHistoryRepository, PortfolioXirrCalculator xirrCalculator,
+            InvestmentAnalyticsEngine analyticsEngine) {
         this.stockRepository = stockRepository;
         this.mfRepository = mfRepository;
         this.bankRepository = bankRepository;
         this.depositRepository = depositRepository;
+        this.navHistoryRepository = navHistoryRepository;
+        this.xirrCalculator = xirrCalculator;
+        this.analyticsEngine = analyticsEngine;
 
         loadAllData();
+        observeSchemeQueries();
     }
 
     private void loadAllData() {
@@ -62,6 +99,18 @@ public class PortfolioViewModel extends ViewModel {
         loadBankAccounts();
         loadFixedDeposits();
         loadRecurringDeposits();
+        loadXirr();
+        loadSchemeRiskMetrics();
+    }
+
+    /**
+     * Recompute per-holding and portfolio XIRR from the transactions.
+     */
+    public void loadXirr() {
+        disposables.add(
+                xirrCalculator.calculate()
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(xirr::setValue, this::handleError));
     }
 
     private void loadStocks() {
@@ -80,6 +129,48 @@ public class PortfolioViewModel extends ViewModel {
                         .subscribe(mutualFunds::setValue, this::handleError));
     }
 
+    /**
+     * Risk metrics of every held scheme from its stored NAV history, keyed by
+     * asset id and recomputed whenever the holdings change. Schemes with
+     * less than {@link #MIN_HISTORY_DAYS} days or {@link #MIN_MONTHLY_RETURNS}
+     * monthly returns of stored NAVs are left out.
+     */
+    private void loadSchemeRiskMetrics() {
+        disposables.add(
+                mfRepository.getAllMutualFunds()
+                        .switchMapSingle(this::calculateSchemeRiskMetrics)
+                        .subscribeOn(Schedulers.io())
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(schemeRiskMetrics::setValue, this::handleError));
+    }
+
+    private Single<Map<Long, InvestmentAnalyticsEngine.RiskMetrics>> calculateSchemeRiskMetrics(
+            List<Asset> holdings) {
+        long to = System.currentTimeMillis();
+        long from = ZonedDateTime.now(NavSeries.IST).minusYears(RISK_LOOKBACK_YEARS)
+                .toInstant().toEpochMilli();
+        return Flowable.fromIterable(holdings)
+                .concatMapMaybe(holding -> {
+                    long schemeCode;
+                    try {
+                        schemeCode = Long.parseLong(holding.getIdentifier());
+                    } catch (NumberFormatException e) {
+                        return Maybe.empty();
+                    }
+                    return navHistoryRepository.getSeries(schemeCode, from, to)
+                            .filter(PortfolioViewModel::hasEnoughHistory)
+                            .map(series -> Map.entry(holding.getId(),
+                                    analyticsEngine.calculateSchemeRiskMetrics(series, RISK_FREE_RATE)));
+                })
+                .collect(HashMap::new, (metrics, entry) -> metrics.put(entry.getKey(), entry.getValue()));
+    }
+
+    private static boolean hasEnoughHistory(NavSeries series) {
+        return series.size() >= 2
+                && series.getDay(series.size() - 1) - series.getDay(0) >= MIN_HISTORY_DAYS
+                && series.getMonthlyReturns().size() >= MIN_MONTHLY_RETURNS;
+    }
+
     private void loadBankAccounts() {
         disposables.add(
                 bankRepository.getActiveAccounts()
@@ -139,7 +230,14 @@ public class PortfolioViewModel extends ViewModel {
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(
-                                () -> isLoading.setValue(false),
+                                report -> {
+                                    isLoading.setValue(false);
+                                    loadXirr();
+                                    if (report.hasFailures()) {
+                                        errorMessage.setValue("Couldn't refresh " + report.getFailures().size()
+                                                + " of " + report.getRequested() + " prices");
+                                    }
+                                },
                                 this::handleError));
     }
 
@@ -159,6 +257,35 @@ public class PortfolioViewModel extends ViewModel {
                                 this::handleError));
     }
 
+    /**
+     * Search schemes for the add dialog; results arrive in
+     * {@link #getSchemeSuggestions()}, stale queries are dropped.
+     */
+    public void searchSchemes(String query) {
+        schemeQueries.onNext(query != null ? query : "");
+    }
+
+    /**
+     * Load the scheme index before the user starts typing.
+     */
+    public void warmUpSchemeSearch() {
+        disposables.add(
+                mfRepository.warmUpSchemeSearch()
+                        .subscribe(() -> {
+                        }, this::handleError));
+    }
+
+    private void observeSchemeQueries() {
+        disposables.add(
+                schemeQueries
+                        .switchMapSingle(query -> query.trim().isEmpty()
+                                ? Single.just(Collections.<MutualFundScheme>emptyList())
+                                : mfRepository.searchSchemes(query)
+                                        .onErrorReturnItem(Collections.emptyList()))
+                        .observeOn(AndroidSchedulers.mainThread())
+                        .subscribe(schemeSuggestions::setValue, this::handleError));
+    }
+
     public void deleteMutualFund(Asset mf) {
         disposables.add(
                 mfRepository.deleteMutualFund(mf)
@@ -278,6 +405,10 @@ public class PortfolioViewModel extends ViewModel {
         return mutualFunds;
     }
 
+    public LiveData<List<MutualFundScheme>> getSchemeSuggestions() {
+        return schemeSuggestions;
+    }
+
     public LiveData<List<BankAccount>> getBankAccounts() {
         return bankAccounts;
     }
@@ -290,6 +421,17 @@ public class PortfolioViewModel extends ViewModel {
         return recurringDeposits;
     }
 
+    public LiveData<PortfolioXirrCalculator.PortfolioXirr> getXirr() {
+        return xirr;
+    }
+
+    /**
+     * Risk metrics of held schemes by asset id, from their NAV history.
+     */
+    public LiveData<Map<Long, InvestmentAnalyticsEngine.RiskMetrics>> getSchemeRiskMetrics() {
+        return schemeRiskMetrics;
+    }
+
     public LiveData<Boolean> getIsLoading() {
         return isLoading;
     }
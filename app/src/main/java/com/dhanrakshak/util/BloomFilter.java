@@ -0,0 +1,81 @@
+package com.dhanrakshak.util;
+
+/**
+ * Fixed-size Bloom filter over strings.
+ *
+ * {@link #mightContain} never returns false for an added key; it returns
+ * true for an absent key with roughly the configured false-positive rate
+ * while fewer than {@code expectedInsertions} keys have been added.
+ * Not thread-safe.
+ */
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+    private final int expectedInsertions;
+    private int insertions;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing");
+        }
+        // m = -n ln p / (ln 2)^2, k = m/n ln 2
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bitCount = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+        this.bits = new long[(bitCount + 63) >>> 6];
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public void put(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            bits[index >>> 6] |= 1L << index;
+        }
+        insertions++;
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether more keys were added than the filter was sized for.
+     */
+    public boolean isSaturated() {
+        return insertions > expectedInsertions;
+    }
+
+    public int size() {
+        return insertions;
+    }
+
+    // FNV-1a over UTF-16 units, then the MurmurHash3 fmix64 finalizer
+    private static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,47 @@
+package com.dhanrakshak.worker;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.hilt.work.HiltWorker;
+import androidx.work.RxWorker;
+import androidx.work.WorkerParameters;
+
+import com.dhanrakshak.data.repository.CryptoRepository;
+
+import dagger.assisted.Assisted;
+import dagger.assisted.AssistedInject;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Refreshes crypto holding prices in the background.
+ */
+@HiltWorker
+public class CryptoPriceWorker extends RxWorker {
+
+    private static final String TAG = "CryptoPriceWorker";
+    private final CryptoRepository cryptoRepository;
+
+    @AssistedInject
+    public CryptoPriceWorker(@Assisted @NonNull Context appContext,
+            @Assisted @NonNull WorkerParameters workerParams,
+            CryptoRepository cryptoRepository) {
+        super(appContext, workerParams);
+        this.cryptoRepository = cryptoRepository;
+    }
+
+    @NonNull
+    @Override
+    public Single<Result> createWork() {
+        return cryptoRepository.refreshAllPrices()
+                .map(updated -> Result.success())
+                .onErrorReturn(throwable -> {
+                    Log.e(TAG, "Crypto price refresh failed", throwable);
+                    if (getRunAttemptCount() < 3) {
+                        return Result.retry();
+                    }
+                    return Result.failure();
+                });
+    }
+}
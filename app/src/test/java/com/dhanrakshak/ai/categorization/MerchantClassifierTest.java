@@ -0,0 +1,88 @@
+package com.dhanrakshak.ai.categorization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MerchantClassifier kept in step with the learned merchant table.
+ */
+public class MerchantClassifierTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private Map<String, String> store;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "merchant_classifier.bin");
+        store = new HashMap<>();
+        String[] food = {"swiggy", "zomato", "dominos pizza", "pizza hut", "burger king", "kfc chicken",
+                "mcdonalds", "subway sandwich", "haldiram snacks", "barbeque nation", "biryani house",
+                "chai point"};
+        String[] travel = {"indigo airlines", "air india express", "vistara airlines", "ola cabs",
+                "uber rides", "rapido bike", "irctc rail", "redbus travels", "makemytrip flights",
+                "goibibo hotels", "spicejet airlines", "akasa airlines"};
+        for (String merchant : food) {
+            store.put(merchant, "Food");
+        }
+        for (String merchant : travel) {
+            store.put(merchant, "Travel");
+        }
+    }
+
+    @Test
+    public void relabel_replacesPreviousExample() {
+        MerchantClassifier classifier = new MerchantClassifier(file, Runnable::run);
+        classifier.bootstrap(store);
+        assertEquals(24, classifier.getExampleCount());
+
+        for (int i = 0; i < 3; i++) {
+            classifier.train("Chai Point", "Travel");
+            classifier.train("Chai Point", "Food");
+        }
+        assertEquals(24, classifier.getExampleCount());
+    }
+
+    @Test
+    public void bootstrap_retrainsWhenStoreMovedOn() {
+        MerchantClassifier classifier = new MerchantClassifier(file, Runnable::run);
+        classifier.bootstrap(store);
+
+        // Fewer than SAVE_EVERY updates: lost with the process
+        classifier.train("Croma Electronics", "Shopping");
+        classifier.train("Swiggy", "Groceries");
+        store.put("croma electronics", "Shopping");
+        store.put("swiggy", "Groceries");
+
+        MerchantClassifier restarted = new MerchantClassifier(file, Runnable::run);
+        assertEquals(24, restarted.getExampleCount());
+        restarted.bootstrap(store);
+        assertEquals(25, restarted.getExampleCount());
+
+        // Saved with its labels: an unchanged store is not retrained
+        MerchantClassifier again = new MerchantClassifier(file, Runnable::run);
+        again.bootstrap(store);
+        assertEquals(25, again.getExampleCount());
+    }
+
+    @Test
+    public void bootstrap_emptyStoreClearsModel() {
+        MerchantClassifier classifier = new MerchantClassifier(file, Runnable::run);
+        classifier.bootstrap(store);
+        classifier.bootstrap(new HashMap<>());
+
+        assertEquals(0, classifier.getExampleCount());
+        assertNull(classifier.predict("swiggy"));
+    }
+}
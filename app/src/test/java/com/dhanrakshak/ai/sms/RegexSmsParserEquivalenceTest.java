@@ -0,0 +1,232 @@
+package com.dhanrakshak.ai.sms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Checks the single-pass {@link RegexSmsParser} against the previous
+ * contains()/find() implementation ({@link LegacyRegexSmsParser}) on the
+ * golden corpus in {@code sms/golden_corpus.txt} plus a seeded generated
+ * corpus built from the same kind of fragments.
+ *
+ * The throughput comparison only runs with {@code -Dsms.bench=true}, since
+ * timing assertions are not reliable on shared CI machines.
+ */
+public class RegexSmsParserEquivalenceTest {
+
+    private static final long SEED = 20240401L;
+    private static final int GENERATED_MESSAGES = 20_000;
+    private static final double MIN_SPEEDUP = 5.0;
+
+    private static final String[] SENDERS = {
+            "VM-HDFCBK", "AD-ICICIB", "AX-AXISBK", "SC-SCBANK", "BZ-SBIINB", "CP-KOTAKB",
+            "VM-IDFCFB", "JD-PNBSMS", "AD-PROMOS", "hdfc", "StateBank", null
+    };
+    private static final String[] OPENERS = {
+            "", "Dear Customer, ", "Update! ", "ALERT: ", "Your ", "HDFC Bank: ",
+            "ICICI Bank ", "Axis Bank: ", "Standard Chartered ", "State  Bank ", "Kotak ",
+            "Congratulations! ", "POS "
+    };
+    private static final String[] AMOUNTS = {
+            "Rs.2,500.00", "Rs 349", "INR 1,250.50", "inr 75", "₹99", "₹ 1,00,000.00",
+            "RS. 12", "Rs.,", "INR", "Rs 5000.", "rs15"
+    };
+    private static final String[] VERBS = {
+            "debited", "credited", "withdrawn", "deposited", "transferred", "spent",
+            "received", "paid", "payment of", "purchase of", "refund of", "sent to",
+            "transferred to", "transferred from", "cashback of", "noted"
+    };
+    private static final String[] ACCOUNTS = {
+            "", " from a/c **4321", " to A/c XX9876", " ac no. 123456", " Acct XX987",
+            " account X5566", " A/C NO: 99887766", " card XX1122"
+    };
+    private static final String[] COUNTERPARTIES = {
+            "", " to swiggy@hdfcbank", " at AMAZON", " from RAHUL SHARMA", " @ CAFE",
+            " to @", " at POS-DMART MUMBAI on 07-Apr", " via NEFT", " by IMPS", " RTGS",
+            " at ATM", " pos   Croma Electronics dated 14-04", " to uber@axl"
+    };
+    private static final String[] TAILS = {
+            "", ". Avl bal: Rs.45,120.50", ". Available balance Rs. 23,456.78", " Bal INR 5,000",
+            ". UPI Ref No 407212345678", " UPI:409112223334", " Ref 410177773333",
+            ". Win reward points!", " apply now, limited period offer", ". Balance ₹9,876.54"
+    };
+
+    private static List<String[]> goldenCorpus;
+
+    private final RegexSmsParser parser = new RegexSmsParser();
+    private final LegacyRegexSmsParser legacyParser = new LegacyRegexSmsParser();
+
+    @BeforeClass
+    public static void loadGoldenCorpus() throws IOException {
+        goldenCorpus = new ArrayList<>();
+        InputStream in = RegexSmsParserEquivalenceTest.class.getClassLoader()
+                .getResourceAsStream("sms/golden_corpus.txt");
+        assertNotNull("golden corpus missing from test resources", in);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int bar = line.indexOf('|');
+                String sender = line.substring(0, bar);
+                goldenCorpus.add(new String[]{"-".equals(sender) ? null : sender,
+                        line.substring(bar + 1)});
+            }
+        }
+    }
+
+    @Test
+    public void goldenCorpus_matchesLegacyParser() {
+        assertTrue(goldenCorpus.size() > 30);
+        for (String[] message : goldenCorpus) {
+            assertSameResult(message[1], message[0]);
+        }
+    }
+
+    @Test
+    public void generatedCorpus_matchesLegacyParser() {
+        for (String[] message : generateCorpus(GENERATED_MESSAGES)) {
+            assertSameResult(message[1], message[0]);
+        }
+    }
+
+    @Test
+    public void bankSpecificEntryPoints_matchLegacyParser() {
+        for (String[] message : goldenCorpus) {
+            String body = message[1];
+            assertSameResult(body, () -> legacyParser.parseHdfcSms(body),
+                    parser.parseHdfcSms(body));
+            assertSameResult(body, () -> legacyParser.parseIciciSms(body),
+                    parser.parseIciciSms(body));
+            assertSameResult(body, () -> legacyParser.parseAxisSms(body),
+                    parser.parseAxisSms(body));
+            assertSameResult(body, () -> legacyParser.parseStandardCharteredSms(body),
+                    parser.parseStandardCharteredSms(body));
+        }
+    }
+
+    @Test
+    public void throughput_isAtLeastFiveTimesLegacy() {
+        assumeTrue(Boolean.getBoolean("sms.bench"));
+        List<String[]> corpus = generateCorpus(GENERATED_MESSAGES);
+
+        // Warm both parsers up so the JIT has compiled the hot paths
+        for (int i = 0; i < 5; i++) {
+            runLegacy(corpus);
+            runNew(corpus);
+        }
+
+        long legacyNanos = Long.MAX_VALUE;
+        long newNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            runLegacy(corpus);
+            legacyNanos = Math.min(legacyNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            runNew(corpus);
+            newNanos = Math.min(newNanos, System.nanoTime() - start);
+        }
+
+        double speedup = (double) legacyNanos / newNanos;
+        System.out.printf("RegexSmsParser speedup: %.1fx (%d msgs)%n", speedup, corpus.size());
+        assertTrue("speedup was only " + speedup + "x", speedup >= MIN_SPEEDUP);
+    }
+
+    private void assertSameResult(String body, String sender) {
+        assertSameResult(body, () -> legacyParser.parse(body, sender), parser.parse(body, sender));
+    }
+
+    private static void assertSameResult(String body, Supplier<ParsedSmsTransaction> legacy,
+            ParsedSmsTransaction actual) {
+        ParsedSmsTransaction expected;
+        try {
+            expected = legacy.get();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // Old split("@")[0] threw on a bare "@" handle; the new parser
+            // returns an empty merchant instead and must agree everywhere else
+            assertNotNull(body, actual);
+            assertEquals(body, "", actual.getMerchant());
+            return;
+        }
+        assertSame(expected, actual, body);
+    }
+
+    private static void assertSame(ParsedSmsTransaction expected, ParsedSmsTransaction actual,
+            String body) {
+        if (expected == null) {
+            assertNull(body, actual);
+            return;
+        }
+        assertNotNull(body, actual);
+        assertEquals(body, expected.getBankName(), actual.getBankName());
+        assertEquals(body, expected.getType(), actual.getType());
+        assertEquals(body, expected.getAmount(), actual.getAmount(), 0.0);
+        assertEquals(body, expected.getBalance(), actual.getBalance(), 0.0);
+        assertEquals(body, expected.getAccountLast4(), actual.getAccountLast4());
+        assertEquals(body, expected.getMerchant(), actual.getMerchant());
+        assertEquals(body, expected.getReferenceId(), actual.getReferenceId());
+        assertEquals(body, expected.isSpam(), actual.isSpam());
+        assertEquals(body, expected.isParseSuccess(), actual.isParseSuccess());
+        assertEquals(body, expected.getParseMethod(), actual.getParseMethod());
+        assertEquals(body, expected.getRawSms(), actual.getRawSms());
+    }
+
+    private static List<String[]> generateCorpus(int size) {
+        Random random = new Random(SEED);
+        List<String[]> corpus = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String body = pick(random, OPENERS) + pick(random, AMOUNTS) + " "
+                    + pick(random, VERBS) + pick(random, ACCOUNTS)
+                    + pick(random, COUNTERPARTIES) + pick(random, TAILS);
+            corpus.add(new String[]{pick(random, SENDERS), body});
+        }
+        return corpus;
+    }
+
+    private static String pick(Random random, String[] options) {
+        return options[random.nextInt(options.length)];
+    }
+
+    private int runLegacy(List<String[]> corpus) {
+        int parsed = 0;
+        for (String[] message : corpus) {
+            try {
+                if (legacyParser.parse(message[1], message[0]) != null) {
+                    parsed++;
+                }
+            } catch (ArrayIndexOutOfBoundsException ignored) {
+                // Known legacy failure on bare "@" handles
+            }
+        }
+        return parsed;
+    }
+
+    private int runNew(List<String[]> corpus) {
+        int parsed = 0;
+        for (String[] message : corpus) {
+            if (parser.parse(message[1], message[0]) != null) {
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,96 @@
+package com.dhanrakshak.ai.sms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Runs {@link RegexSmsParser} with the shipped res/raw/sms_bank_templates.json.
+ */
+public class SmsTemplateRegistryTest {
+
+    private static final String TEMPLATES = "src/main/res/raw/sms_bank_templates.json";
+
+    private static final String HDFC_UPI_DEBIT =
+            "Rs.2,500.00 debited from a/c **4321 on 12-03-24 to VPA swiggy@hdfcbank "
+                    + "(UPI Ref No 407212345678)";
+
+    private SmsTemplateRegistry registry;
+    private RegexSmsParser parser;
+
+    @Before
+    public void setUp() throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(TEMPLATES), StandardCharsets.UTF_8)) {
+            registry = new SmsTemplateRegistry(reader);
+        }
+        parser = new RegexSmsParser(registry);
+    }
+
+    @Test
+    public void templateMatch_isNotSpam() {
+        ParsedSmsTransaction parsed = parser.parse(HDFC_UPI_DEBIT, "VM-HDFCBK");
+
+        assertNotNull(parsed);
+        assertEquals("TEMPLATE", parsed.getParseMethod());
+        assertEquals("HDFC", parsed.getBankName());
+        assertEquals(2500.0, parsed.getAmount(), 0.0);
+        assertEquals("swiggy", parsed.getMerchant());
+        assertFalse(parsed.isSpam());
+    }
+
+    @Test
+    public void templateMatch_withPromotionalWording_isSpam() {
+        ParsedSmsTransaction parsed = parser.parse(
+                HDFC_UPI_DEBIT + ". Congratulations! Apply now for a limited period offer",
+                "VM-HDFCBK");
+
+        assertNotNull(parsed);
+        assertEquals("TEMPLATE", parsed.getParseMethod());
+        assertTrue(parsed.isSpam());
+    }
+
+    @Test
+    public void bankSpecificEntryPoint_classifiesSpam() {
+        ParsedSmsTransaction parsed = parser.parseHdfcSms(HDFC_UPI_DEBIT + ". Win reward points!");
+
+        assertNotNull(parsed);
+        assertEquals("TEMPLATE", parsed.getParseMethod());
+        assertTrue(parsed.isSpam());
+    }
+
+    @Test
+    public void senderWithoutFormats_fallsBackToGenericParsing() {
+        SmsBankTemplate idfc = registry.findBySender("VM-IDFCFB");
+        assertNotNull(idfc);
+        assertTrue(idfc.getFormats().isEmpty());
+
+        ParsedSmsTransaction parsed = parser.parse(
+                "INR 3,499.00 debited from your A/c XX1357 to VPA flipkart@axl. "
+                        + "Ref No 410177773333. Avl Bal INR 8,800.00",
+                "VM-IDFCFB");
+
+        assertNotNull(parsed);
+        assertEquals("REGEX", parsed.getParseMethod());
+        assertEquals("IDFC", parsed.getBankName());
+        assertEquals(3499.0, parsed.getAmount(), 0.0);
+    }
+
+    @Test
+    public void everyLongTailSender_isStillRegistered() {
+        String[] senders = {"IDFCFB", "INDUSB", "YESBNK", "BOBTXN", "PNBSMS", "CANBNK",
+                "UNIONB", "FEDBNK"};
+        for (String sender : senders) {
+            assertTrue(sender, registry.isBankSender("AD-" + sender));
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.dhanrakshak.data.local.db;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs EXPLAIN QUERY PLAN for every DAO {@code @Query} against the Room
+ * schema and fails on a full table scan, so a new query or a dropped index
+ * cannot quietly turn an index lookup into a scan.
+ *
+ * The schema is the JSON Room exports on each build (room.schemaLocation),
+ * so it always matches the entities. Queries are read from the DAO sources
+ * since Room's annotations are not kept at runtime. Any SCAN step fails,
+ * including a walk of a whole index, unless its table is in
+ * {@link #SMALL_TABLES} or the query is in {@link #ALLOWED_SCANS} with the
+ * reason it has to read every row.
+ */
+public class QueryPlanTest {
+
+    private static final String SCHEMA_DIR = System.getProperty("room.schemaDir", "schemas")
+            + "/" + DhanRakshakDatabase.class.getName();
+    private static final String DAO_DIR = "src/main/java/com/dhanrakshak/data/local/dao";
+
+    /**
+     * Tables that only ever hold a handful of rows the user typed in
+     * (accounts, categories, goals, ...). Scanning them is cheaper than
+     * maintaining an index.
+     */
+    private static final Set<String> SMALL_TABLES = new HashSet<>(Arrays.asList(
+            "bank_accounts", "bill_reminders", "crypto_holdings",
+            "expense_categories", "family_events", "family_members", "financial_goals",
+            "fixed_deposits", "gift_transactions", "health_goals", "insurance_policies",
+            "job_tasks", "lab_reports", "loans", "recurring_deposits", "trips", "upi_accounts"));
+
+    /**
+     * "Dao.method" of queries that must read every row, and why.
+     */
+    private static final Map<String, String> ALLOWED_SCANS = new HashMap<>();
+
+    static {
+        ALLOWED_SCANS.put("AssetDao.getAllAssets", "portfolio list shows every holding");
+        ALLOWED_SCANS.put("AssetDao.getAssetCount", "counts holdings over the smallest covering index");
+        ALLOWED_SCANS.put("AssetDao.getTotalAssetsValue", "portfolio total sums every holding");
+        ALLOWED_SCANS.put("AssetDao.getTotalInvestedAmount", "portfolio total sums every holding");
+        ALLOWED_SCANS.put("AssetDao.getTotalsByType",
+                "allocation groups every holding; the index walk avoids a sort");
+        ALLOWED_SCANS.put("AssetDao.searchAssets", "substring LIKE cannot use an index");
+        ALLOWED_SCANS.put("BudgetDao.getBudgetsNeedingAlert",
+                "filters on spent/budget ratio, an expression over each row");
+        ALLOWED_SCANS.put("HealthMetricDao.getAllMetrics",
+                "full history screen; the index walk returns rows in order without a sort");
+        ALLOWED_SCANS.put("HealthMetricDao.getAvailableMetricNames",
+                "DISTINCT reads only the covering metricName index");
+        ALLOWED_SCANS.put("MerchantCategoryDao.getAll",
+                "loads the whole learned merchant map into memory once");
+        ALLOWED_SCANS.put("MerchantCategoryDao.renameCategory",
+                "runs only when the user renames a category");
+        ALLOWED_SCANS.put("MutualFundSchemeDao.getAllAmcNames",
+                "DISTINCT reads only the covering (amcName, schemeName) index, in order");
+        ALLOWED_SCANS.put("MutualFundSchemeDao.getSchemeCount",
+                "counts schemes over the smallest covering index");
+        ALLOWED_SCANS.put("NavHistoryDao.getDataBytes",
+                "storage report over all stored history");
+        ALLOWED_SCANS.put("PendingSmsDao.getOldest",
+                "walks the rowid in order and stops after :limit rows");
+        ALLOWED_SCANS.put("PendingSmsDao.getCount",
+                "counts a queue that every ingest run drains");
+        ALLOWED_SCANS.put("ReminderDao.getAllReminders",
+                "reminder list shows every reminder; the index walk avoids a sort");
+        ALLOWED_SCANS.put("ReminderDao.getCalendarSyncedReminders",
+                "calendar export reads every synced reminder");
+        ALLOWED_SCANS.put("TransactionDao.getRecentTransactions",
+                "walks the date index newest first and stops after :limit rows");
+    }
+
+    private static final Pattern QUERY = Pattern.compile(
+            "@Query\\(\\s*(?:value\\s*=\\s*)?((?:\"(?:[^\"\\\\]|\\\\.)*\"\\s*\\+?\\s*)+)\\)");
+    private static final Pattern STRING_LITERAL = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern METHOD_NAME = Pattern.compile("(\\w+)\\s*\\(");
+    private static final Pattern ANNOTATION = Pattern.compile("@\\w+(\\([^)]*\\))?");
+    // Plain scans and full index walks ("SCAN t USING INDEX i"); SEARCH is a seek
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (?!CONSTANT ROW)(\\w+)\\b.*");
+
+    private Connection connection;
+
+    @Before
+    public void createSchema() throws IOException, SQLException {
+        File schema = latestSchema();
+        JsonObject database;
+        try (Reader reader = Files.newBufferedReader(schema.toPath(), StandardCharsets.UTF_8)) {
+            database = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonObject("database");
+        }
+
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            for (JsonElement element : database.getAsJsonArray("entities")) {
+                JsonObject entity = element.getAsJsonObject();
+                String table = entity.get("tableName").getAsString();
+                statement.execute(entity.get("createSql").getAsString().replace("${TABLE_NAME}", table));
+                JsonArray indices = entity.getAsJsonArray("indices");
+                if (indices == null) {
+                    continue;
+                }
+                for (JsonElement index : indices) {
+                    statement.execute(index.getAsJsonObject().get("createSql").getAsString()
+                            .replace("${TABLE_NAME}", table));
+                }
+            }
+            JsonArray views = database.getAsJsonArray("views");
+            if (views != null) {
+                for (JsonElement element : views) {
+                    JsonObject view = element.getAsJsonObject();
+                    statement.execute(view.get("createSql").getAsString()
+                            .replace("${VIEW_NAME}", view.get("viewName").getAsString()));
+                }
+            }
+        }
+    }
+
+    @After
+    public void close() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void everyDaoQuery_usesAnIndex() throws IOException, SQLException {
+        Map<String, String> queries = readDaoQueries();
+        assertTrue("no @Query found under " + DAO_DIR, queries.size() > 100);
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            List<String> plan;
+            try {
+                plan = explain(query.getValue());
+            } catch (SQLException e) {
+                failures.add(query.getKey() + ": " + e.getMessage());
+                continue;
+            }
+            for (String step : plan) {
+                Matcher scan = FULL_SCAN.matcher(step);
+                if (scan.matches() && !SMALL_TABLES.contains(scan.group(1))
+                        && !ALLOWED_SCANS.containsKey(query.getKey())) {
+                    failures.add(query.getKey() + ": " + step + "\n    " + query.getValue());
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            fail(failures.size() + " queries scan a whole table:\n" + String.join("\n", failures));
+        }
+    }
+
+    @Test
+    public void allowedScans_stillExist() throws IOException {
+        Set<String> queries = readDaoQueries().keySet();
+        for (String allowed : ALLOWED_SCANS.keySet()) {
+            assertTrue("stale ALLOWED_SCANS entry " + allowed, queries.contains(allowed));
+        }
+    }
+
+    private List<String> explain(String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rows.next()) {
+                plan.add(rows.getString("detail"));
+            }
+        }
+        return plan;
+    }
+
+    private static File latestSchema() {
+        File[] versions = new File(SCHEMA_DIR).listFiles((dir, name) -> name.matches("\\d+\\.json"));
+        assertNotNull("Room schema not found in " + SCHEMA_DIR + "; build the app first", versions);
+        assertTrue("Room schema not found in " + SCHEMA_DIR, versions.length > 0);
+        File latest = versions[0];
+        for (File version : versions) {
+            if (schemaVersion(version) > schemaVersion(latest)) {
+                latest = version;
+            }
+        }
+        return latest;
+    }
+
+    private static int schemaVersion(File file) {
+        return Integer.parseInt(file.getName().substring(0, file.getName().length() - ".json".length()));
+    }
+
+    /**
+     * SQL of every @Query in the DAO sources, keyed by "Dao.method".
+     */
+    private static Map<String, String> readDaoQueries() throws IOException {
+        File[] sources = new File(DAO_DIR).listFiles((dir, name) -> name.endsWith(".java"));
+        assertNotNull("DAO sources not found in " + DAO_DIR, sources);
+
+        Map<String, String> queries = new HashMap<>();
+        for (File source : sources) {
+            String dao = source.getName().substring(0, source.getName().length() - ".java".length());
+            String code = new String(Files.readAllBytes(source.toPath()), StandardCharsets.UTF_8);
+            Matcher query = QUERY.matcher(code);
+            while (query.find()) {
+                StringBuilder sql = new StringBuilder();
+                Matcher literal = STRING_LITERAL.matcher(query.group(1));
+                while (literal.find()) {
+                    sql.append(literal.group(1).replace("\\\"", "\"").replace("\\\\", "\\"));
+                }
+
+                String declaration = code.substring(query.end(), code.indexOf(';', query.end()));
+                Matcher method = METHOD_NAME.matcher(ANNOTATION.matcher(declaration).replaceAll(""));
+                assertTrue("no method after @Query in " + dao, method.find());
+                queries.put(dao + "." + method.group(1), sql.toString());
+            }
+        }
+        return queries;
+    }
+}
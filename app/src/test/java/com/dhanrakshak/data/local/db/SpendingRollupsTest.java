@@ -0,0 +1,213 @@
+package com.dhanrakshak.data.local.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.dhanrakshak.data.local.entity.SpendingRollup;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the spending_rollup triggers in SQLite with the statements Room
+ * generates for SmsTransactionDao (INSERT OR IGNORE, UPDATE OR ABORT,
+ * DELETE) and checks the rollup against a rebuild after every step.
+ */
+public class SpendingRollupsTest {
+
+    private static final long MORNING = at(2026, 10, 16, 9, 0);
+    private static final long EVENING = at(2026, 10, 16, 21, 0);
+    // 00:30 IST on the 1st is still September in UTC
+    private static final long MONTH_START = at(2026, 10, 1, 0, 30);
+
+    private Connection connection;
+    private SupportSQLiteDatabase db;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        execute("CREATE TABLE `sms_transactions` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`bankAccountId` INTEGER NOT NULL, `amount` REAL NOT NULL, `type` TEXT, "
+                + "`category` TEXT, `timestamp` INTEGER NOT NULL, `isSpam` INTEGER NOT NULL)");
+        execute("CREATE TABLE `spending_rollup` (`day` INTEGER NOT NULL, `month` INTEGER NOT NULL, "
+                + "`category` TEXT NOT NULL, `type` TEXT NOT NULL, `bankAccountId` INTEGER NOT NULL, "
+                + "`total` REAL NOT NULL, `count` INTEGER NOT NULL, "
+                + "PRIMARY KEY(`day`, `category`, `type`, `bankAccountId`))");
+
+        db = mock(SupportSQLiteDatabase.class);
+        doAnswer(invocation -> {
+            execute(invocation.getArgument(0));
+            return null;
+        }).when(db).execSQL(anyString());
+        SpendingRollups.createTriggers(db);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void insert_addsToOneBucketPerIstDay() throws SQLException {
+        insert(1, 1, 100, "DEBIT", "Food", MORNING, false);
+        insert(2, 1, 50, "DEBIT", "Food", EVENING, false);
+        insert(3, 1, 20, "DEBIT", null, EVENING, false);
+        insert(4, 1, 999, "DEBIT", "Food", EVENING, true);
+
+        assertEquals(150.0, total("Food"), 0.0);
+        assertEquals(20.0, total(""), 0.0);
+        assertEquals(2, rows().size());
+        assertEquals(SpendingRollup.toDay(MORNING), intValue("SELECT day FROM spending_rollup LIMIT 1"));
+        assertMatchesRebuild();
+    }
+
+    @Test
+    public void insert_bucketsByIstMonth() throws SQLException {
+        insert(1, 1, 10, "DEBIT", "Food", MONTH_START, false);
+
+        assertEquals(202610, intValue("SELECT month FROM spending_rollup"));
+        assertEquals(SpendingRollup.toDay(MONTH_START), intValue("SELECT day FROM spending_rollup"));
+    }
+
+    @Test
+    public void update_inSharedBucket_keepsOtherRows() throws SQLException {
+        insert(1, 1, 100, "DEBIT", "Food", MORNING, false);
+        insert(2, 1, 50, "DEBIT", "Food", EVENING, false);
+
+        update(1, 1, 120, "DEBIT", "Food", MORNING, false);
+        assertEquals(170.0, total("Food"), 0.0);
+        assertMatchesRebuild();
+
+        // Recategorize into a new bucket, then into one that exists
+        update(2, 1, 50, "DEBIT", "Travel", EVENING, false);
+        assertEquals(120.0, total("Food"), 0.0);
+        assertEquals(50.0, total("Travel"), 0.0);
+        update(2, 1, 50, "DEBIT", "Food", EVENING, false);
+        assertEquals(170.0, total("Food"), 0.0);
+        assertMatchesRebuild();
+    }
+
+    @Test
+    public void spamToggle_removesAndRestores() throws SQLException {
+        insert(1, 1, 100, "DEBIT", "Food", MORNING, false);
+        insert(2, 1, 50, "DEBIT", "Food", EVENING, false);
+
+        update(2, 1, 50, "DEBIT", "Food", EVENING, true);
+        assertEquals(100.0, total("Food"), 0.0);
+        assertMatchesRebuild();
+
+        update(1, 1, 100, "DEBIT", "Food", MORNING, true);
+        assertEquals(0, rows().size());
+
+        update(2, 1, 50, "DEBIT", "Food", EVENING, false);
+        assertEquals(50.0, total("Food"), 0.0);
+        assertMatchesRebuild();
+    }
+
+    @Test
+    public void delete_removesEmptyBuckets() throws SQLException {
+        insert(1, 1, 100, "DEBIT", "Food", MORNING, false);
+        insert(2, 1, 50, "DEBIT", "Food", EVENING, false);
+
+        execute("DELETE FROM sms_transactions WHERE id = 1");
+        assertEquals(50.0, total("Food"), 0.0);
+        assertMatchesRebuild();
+
+        execute("DELETE FROM sms_transactions WHERE id = 2");
+        assertEquals(0, rows().size());
+    }
+
+    @Test
+    public void outerReplace_addsToExistingBucket() throws SQLException {
+        insert(1, 1, 100, "DEBIT", "Food", MORNING, false);
+
+        execute("INSERT OR REPLACE INTO sms_transactions "
+                + "(id, bankAccountId, amount, type, category, timestamp, isSpam) "
+                + "VALUES (2, 1, 50, 'DEBIT', 'Food', " + EVENING + ", 0)");
+
+        assertEquals(150.0, total("Food"), 0.0);
+        assertMatchesRebuild();
+    }
+
+    private void insert(long id, long account, double amount, String type, String category,
+            long timestamp, boolean spam) throws SQLException {
+        execute("INSERT OR IGNORE INTO `sms_transactions` "
+                + "(`id`, `bankAccountId`, `amount`, `type`, `category`, `timestamp`, `isSpam`) "
+                + "VALUES (" + id + ", " + account + ", " + amount + ", " + quote(type) + ", "
+                + quote(category) + ", " + timestamp + ", " + (spam ? 1 : 0) + ")");
+    }
+
+    /**
+     * Same shape as Room's @Update: every column, OR ABORT.
+     */
+    private void update(long id, long account, double amount, String type, String category,
+            long timestamp, boolean spam) throws SQLException {
+        execute("UPDATE OR ABORT `sms_transactions` SET `id` = " + id + ", `bankAccountId` = " + account
+                + ", `amount` = " + amount + ", `type` = " + quote(type) + ", `category` = "
+                + quote(category) + ", `timestamp` = " + timestamp + ", `isSpam` = " + (spam ? 1 : 0)
+                + " WHERE `id` = " + id);
+    }
+
+    private void assertMatchesRebuild() throws SQLException {
+        List<String> maintained = rows();
+        SpendingRollups.rebuild(db);
+        assertEquals(rows(), maintained);
+    }
+
+    private List<String> rows() throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet result = statement.executeQuery("SELECT day, month, category, type, "
+                        + "bankAccountId, total, count FROM spending_rollup ORDER BY 1, 3, 4, 5")) {
+            while (result.next()) {
+                rows.add(result.getInt(1) + "|" + result.getInt(2) + "|" + result.getString(3) + "|"
+                        + result.getString(4) + "|" + result.getLong(5) + "|" + result.getDouble(6) + "|"
+                        + result.getInt(7));
+            }
+        }
+        return rows;
+    }
+
+    private double total(String category) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet result = statement.executeQuery("SELECT COALESCE(SUM(total), 0) "
+                        + "FROM spending_rollup WHERE category = " + quote(category))) {
+            return result.getDouble(1);
+        }
+    }
+
+    private int intValue(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet result = statement.executeQuery(sql)) {
+            return result.getInt(1);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static String quote(String value) {
+        return value == null ? "NULL" : "'" + value.replace("'", "''") + "'";
+    }
+
+    private static long at(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).toInstant(SpendingRollup.ZONE).toEpochMilli();
+    }
+}
@@ -0,0 +1,79 @@
+package com.dhanrakshak.data.local.navhistory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+public class NavSeriesCodecTest {
+
+    @Test
+    public void roundTrip_keepsDaysAndFourDecimalNavs() {
+        int start = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+        int[] days = { start, start + 1, start + 4, start + 5, start + 40, start + 3000 };
+        double[] navs = { 10.0, 10.1234, 9.8765, 9.8765, 0.0001, 123456.7891 };
+
+        byte[] data = NavSeriesCodec.encode(days, navs, 0, days.length);
+        int[] decodedDays = new int[days.length];
+        double[] decodedNavs = new double[days.length];
+        NavSeriesCodec.decode(data, days.length, decodedDays, decodedNavs, 0);
+
+        assertArrayEquals(days, decodedDays);
+        assertArrayEquals(navs, decodedNavs, 0.0);
+    }
+
+    @Test
+    public void roundTrip_subRangeIntoOffset() {
+        int[] days = { 100, 200, 201, 202, 300 };
+        double[] navs = { 1.5, 2.5, 2.4, 2.6, 3.5 };
+
+        byte[] data = NavSeriesCodec.encode(days, navs, 1, 4);
+        int[] decodedDays = new int[5];
+        double[] decodedNavs = new double[5];
+        NavSeriesCodec.decode(data, 3, decodedDays, decodedNavs, 2);
+
+        assertArrayEquals(new int[] { 0, 0, 200, 201, 202 }, decodedDays);
+        assertArrayEquals(new double[] { 0, 0, 2.5, 2.4, 2.6 }, decodedNavs, 0.0);
+    }
+
+    @Test
+    public void roundTrip_randomWalk() {
+        Random random = new Random(42);
+        int size = 2500;
+        int[] days = new int[size];
+        double[] navs = new double[size];
+        int day = (int) LocalDate.of(2014, 4, 1).toEpochDay();
+        double nav = 10.0;
+        for (int i = 0; i < size; i++) {
+            day += 1 + random.nextInt(4);
+            nav = Math.max(0.0001, nav * (1 + random.nextGaussian() * 0.01));
+            days[i] = day;
+            navs[i] = NavSeriesCodec.toTicks(nav) / (double) NavSeriesCodec.NAV_SCALE;
+        }
+
+        byte[] data = NavSeriesCodec.encode(days, navs, 0, size);
+        int[] decodedDays = new int[size];
+        double[] decodedNavs = new double[size];
+        NavSeriesCodec.decode(data, size, decodedDays, decodedNavs, 0);
+
+        assertArrayEquals(days, decodedDays);
+        assertArrayEquals(navs, decodedNavs, 0.0);
+        // Days after the first cost one byte, NAV moves two or three
+        assertTrue("encoded " + data.length + " bytes", data.length < size * 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_rejectsUnsortedDays() {
+        NavSeriesCodec.encode(new int[] { 10, 10 }, new double[] { 1, 2 }, 0, 2);
+    }
+
+    @Test
+    public void monthOf_countsFromJanuary1970() {
+        assertEquals(0, NavSeries.monthOf(0));
+        assertEquals(12 * 54 + 9, NavSeries.monthOf((int) LocalDate.of(2024, 10, 31).toEpochDay()));
+    }
+}
@@ -0,0 +1,152 @@
+package com.dhanrakshak.data.remote.quote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.dhanrakshak.data.remote.api.CryptoApi;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.HttpException;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava3.RxJava3CallAdapterFactory;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * CryptoPriceFetcher against a MockWebServer standing in for CoinGecko.
+ */
+public class CryptoPriceFetcherTest {
+
+    private MockWebServer server;
+    private CryptoPriceFetcher fetcher;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        fetcher = new CryptoPriceFetcher(createApi(server));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    static CryptoApi createApi(MockWebServer server) {
+        return new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .addCallAdapterFactory(RxJava3CallAdapterFactory.create())
+                .build()
+                .create(CryptoApi.class);
+    }
+
+    /**
+     * /simple/price body pricing every coin at {@code inr}.
+     */
+    static MockResponse prices(List<String> ids, double inr) {
+        StringBuilder json = new StringBuilder("{");
+        for (String id : ids) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(id).append("\":{\"inr\":").append(inr)
+                    .append(",\"usd\":").append(inr / 80).append('}');
+        }
+        return new MockResponse().setBody(json.append('}').toString());
+    }
+
+    static List<String> requestedIds(RecordedRequest request) {
+        return Arrays.asList(request.getRequestUrl().queryParameter("ids").split(","));
+    }
+
+    @Test
+    public void fetchAll_sendsFiftyIdsPerCall() throws InterruptedException {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            ids.add("Coin-" + i);
+        }
+        // Duplicates and blanks are dropped before chunking
+        ids.add("coin-7");
+        ids.add(" ");
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            expected.add("coin-" + i);
+        }
+        server.enqueue(prices(expected.subList(0, 50), 1));
+        server.enqueue(prices(expected.subList(50, 100), 2));
+        server.enqueue(prices(expected.subList(100, 120), 3));
+
+        Map<String, CryptoApi.CoinPrice> result = fetcher.fetchAll(ids).blockingGet();
+
+        assertEquals(120, result.size());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(expected.subList(0, 50), requestedIds(server.takeRequest()));
+        assertEquals(expected.subList(50, 100), requestedIds(server.takeRequest()));
+        RecordedRequest last = server.takeRequest();
+        assertEquals(expected.subList(100, 120), requestedIds(last));
+        assertEquals("inr,usd", last.getRequestUrl().queryParameter("vs_currencies"));
+        assertEquals(3.0, result.get("coin-119").inr, 0.0);
+    }
+
+    @Test
+    public void fetchAll_waitsForRetryAfterOn429() throws InterruptedException {
+        List<String> ids = Arrays.asList("bitcoin", "ethereum");
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "1"));
+        server.enqueue(prices(ids, 5_000_000));
+
+        long start = System.nanoTime();
+        Map<String, CryptoApi.CoinPrice> result = fetcher.fetchAll(ids).blockingGet();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(2, result.size());
+        assertEquals(2, server.getRequestCount());
+        assertTrue("retried after " + elapsedMs + " ms", elapsedMs >= 1000);
+        assertEquals(ids, requestedIds(server.takeRequest()));
+        assertEquals(ids, requestedIds(server.takeRequest()));
+    }
+
+    @Test
+    public void fetchAll_keepsPricesOfChunksThatSucceeded() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            ids.add("coin-" + i);
+        }
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(prices(ids.subList(50, 60), 1));
+
+        Map<String, CryptoApi.CoinPrice> result = fetcher.fetchAll(ids).blockingGet();
+
+        assertEquals(10, result.size());
+        assertTrue(result.containsKey("coin-55"));
+    }
+
+    @Test
+    public void fetchAll_failsWhenEveryChunkFails() {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        fetcher.fetchAll(Arrays.asList("bitcoin")).test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertError(error -> error instanceof HttpException
+                        && ((HttpException) error).code() == 404);
+    }
+
+    @Test
+    public void fetchAll_withNoIds_makesNoCalls() {
+        assertTrue(fetcher.fetchAll(Arrays.asList(" ", null)).blockingGet().isEmpty());
+        assertEquals(0, server.getRequestCount());
+    }
+}
@@ -0,0 +1,58 @@
+package com.dhanrakshak.data.remote.quote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+/**
+ * MarketHours with the shipped NSE holiday list.
+ */
+public class MarketHoursTest {
+
+    private static final String HOLIDAYS = "src/main/res/raw/nse_holidays.json";
+
+    @Before
+    public void setUp() throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(HOLIDAYS), StandardCharsets.UTF_8)) {
+            assertTrue(MarketHours.loadHolidays(reader) > 0);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        MarketHours.setHolidays(Collections.emptyList());
+    }
+
+    @Test
+    public void shippedHolidays_areWeekdaysAndNotTrading() {
+        // Republic Day 2026 is a Monday
+        LocalDate republicDay = LocalDate.of(2026, 1, 26);
+        assertFalse(MarketHours.isTradingDay(republicDay));
+        assertEquals(MarketHours.Session.HOLIDAY, MarketHours.sessionAt(millis(republicDay.atTime(11, 0))));
+        assertTrue(MarketHours.isTradingDay(republicDay.plusDays(1)));
+    }
+
+    @Test
+    public void quoteBeforeHoliday_staysFreshUntilNextSession() {
+        // Friday close, Monday holiday: valid until Tuesday's pre-open
+        long fridayEvening = millis(LocalDateTime.of(2026, 1, 23, 18, 0));
+        assertEquals(millis(LocalDateTime.of(2026, 1, 27, 9, 0)), MarketHours.equityExpiresAt(fridayEvening));
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(MarketHours.IST).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,133 @@
+package com.dhanrakshak.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dhanrakshak.data.local.dao.CryptoHoldingDao;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
+import com.dhanrakshak.data.remote.api.CryptoApi;
+import com.dhanrakshak.data.remote.quote.CryptoPriceCache;
+import com.dhanrakshak.data.remote.quote.CryptoPriceFetcher;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.core.Single;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.HttpException;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava3.RxJava3CallAdapterFactory;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * CryptoRepository.refreshAllPrices with a MockWebServer CoinGecko and a
+ * mocked DAO that checks every price write happens inside one transaction.
+ */
+public class CryptoRepositoryTest {
+
+    private MockWebServer server;
+    private CryptoHoldingDao holdingDao;
+    private DhanRakshakDatabase database;
+    private CryptoRepository repository;
+    private boolean inTransaction;
+    private int pricesWrittenOutsideTransaction;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        CryptoApi api = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .addCallAdapterFactory(RxJava3CallAdapterFactory.create())
+                .build()
+                .create(CryptoApi.class);
+
+        holdingDao = mock(CryptoHoldingDao.class);
+        when(holdingDao.updatePrices(anyString(), anyDouble(), anyDouble(), anyLong()))
+                .thenAnswer(invocation -> {
+                    if (!inTransaction) {
+                        pricesWrittenOutsideTransaction++;
+                    }
+                    return Single.just(1);
+                });
+
+        CryptoPriceCache priceCache = mock(CryptoPriceCache.class);
+        when(priceCache.getFresh(any())).thenReturn(Single.just(Collections.emptyMap()));
+
+        database = mock(DhanRakshakDatabase.class);
+        doAnswer(invocation -> {
+            inTransaction = true;
+            try {
+                return ((Callable<?>) invocation.getArgument(0)).call();
+            } finally {
+                inTransaction = false;
+            }
+        }).when(database).runInTransaction(ArgumentMatchers.<Callable<Integer>>any());
+
+        repository = new CryptoRepository(holdingDao, new CryptoPriceFetcher(api), priceCache, database);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void refreshAllPrices_writesEveryChunkInOneTransaction() {
+        List<String> ids = new ArrayList<>();
+        StringBuilder first = new StringBuilder("{");
+        StringBuilder second = new StringBuilder("{");
+        for (int i = 0; i < 75; i++) {
+            ids.add("coin-" + i);
+            StringBuilder body = i < 50 ? first : second;
+            if (body.length() > 1) {
+                body.append(',');
+            }
+            body.append("\"coin-").append(i).append("\":{\"inr\":").append(100 + i)
+                    .append(",\"usd\":1.5}");
+        }
+        when(holdingDao.getAllCoinIds()).thenReturn(Single.just(ids));
+        server.enqueue(new MockResponse().setBody(first.append('}').toString()));
+        server.enqueue(new MockResponse().setBody(second.append('}').toString()));
+
+        int updated = repository.refreshAllPrices().blockingGet();
+
+        assertEquals(75, updated);
+        assertEquals(2, server.getRequestCount());
+        verify(database, times(1)).runInTransaction(ArgumentMatchers.<Callable<Integer>>any());
+        verify(holdingDao, times(75)).updatePrices(anyString(), anyDouble(), anyDouble(), anyLong());
+        assertEquals(0, pricesWrittenOutsideTransaction);
+    }
+
+    @Test
+    public void refreshAllPrices_failsWhenNoPriceCallSucceeds() {
+        when(holdingDao.getAllCoinIds()).thenReturn(Single.just(Collections.singletonList("bitcoin")));
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        repository.refreshAllPrices().test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertError(HttpException.class);
+
+        verify(database, never()).runInTransaction(ArgumentMatchers.<Callable<Integer>>any());
+    }
+}
@@ -0,0 +1,260 @@
+package com.dhanrakshak.data.repository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.dhanrakshak.data.local.dao.AssetDao;
+import com.dhanrakshak.data.local.dao.MutualFundSchemeDao;
+import com.dhanrakshak.data.local.dao.NavHistoryDao;
+import com.dhanrakshak.data.local.db.DhanRakshakDatabase;
+import com.dhanrakshak.data.local.entity.Asset;
+import com.dhanrakshak.data.local.entity.NavHistoryBackfill;
+import com.dhanrakshak.data.local.entity.NavHistoryChunk;
+import com.dhanrakshak.data.local.navhistory.NavSeries;
+import com.dhanrakshak.data.remote.api.NavHistoryApi;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+/**
+ * NavHistoryRepository against an in-memory DAO and a stubbed history API.
+ */
+public class NavHistoryRepositoryTest {
+
+    private static final long SCHEME = 120503L;
+    private static final DateTimeFormatter API_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final InMemoryNavHistoryDao navHistoryDao = new InMemoryNavHistoryDao();
+    private final Map<Long, String> apiResponses = new HashMap<>();
+    private final List<Long> apiCalls = new ArrayList<>();
+    private NavHistoryRepository repository;
+
+    @Before
+    public void setUp() {
+        NavHistoryApi api = schemeCode -> {
+            apiCalls.add(schemeCode);
+            return Single.just(ResponseBody.create(apiResponses.get(schemeCode),
+                    MediaType.get("application/json")));
+        };
+
+        Asset holding = new Asset("MUTUAL_FUND", "Parag Parikh Flexi Cap", String.valueOf(SCHEME), 10, 50);
+        AssetDao assetDao = mock(AssetDao.class);
+        when(assetDao.getAssetsByType("MUTUAL_FUND"))
+                .thenReturn(Flowable.just(Collections.singletonList(holding)));
+
+        DhanRakshakDatabase database = mock(DhanRakshakDatabase.class);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(database).runInTransaction(any(Runnable.class));
+
+        repository = new NavHistoryRepository(navHistoryDao, assetDao,
+                mock(MutualFundSchemeDao.class), api, database);
+    }
+
+    @Test
+    public void backfill_storesOneChunkPerMonth() {
+        // 1 Jan - 31 Mar 2024, newest first like the API
+        apiResponses.put(SCHEME, history(LocalDate.of(2024, 3, 31), 91, 100.0));
+
+        int written = repository.backfill(SCHEME).blockingGet();
+
+        assertEquals(91, written);
+        assertEquals(3, navHistoryDao.chunks.size());
+        int points = 0;
+        for (NavHistoryChunk chunk : navHistoryDao.chunks.values()) {
+            assertEquals(NavSeries.monthOf(chunk.getFirstDay()), chunk.getMonth());
+            assertEquals(NavSeries.monthOf(chunk.getLastDay()), chunk.getMonth());
+            points += chunk.getCount();
+        }
+        assertEquals(91, points);
+        assertTrue(navHistoryDao.backfilled.containsKey(SCHEME));
+    }
+
+    @Test
+    public void getSeries_readsOnlyTheRequestedRange() {
+        apiResponses.put(SCHEME, history(LocalDate.of(2024, 3, 31), 91, 100.0));
+        repository.backfill(SCHEME).blockingGet();
+
+        NavSeries series = repository.getSeries(SCHEME, millis(LocalDate.of(2024, 1, 30)),
+                millis(LocalDate.of(2024, 2, 2))).blockingGet();
+
+        assertEquals(4, series.size());
+        assertEquals(LocalDate.of(2024, 1, 30).toEpochDay(), series.getDay(0));
+        assertEquals(LocalDate.of(2024, 2, 2).toEpochDay(), series.getDay(3));
+        assertEquals(129.0, series.getNav(0), 0.0);
+        assertEquals(132.0, series.getNav(3), 0.0);
+        assertEquals(2, navHistoryDao.lastChunkRead);
+    }
+
+    @Test
+    public void record_mergesIntoStoredMonthAndReplacesSameDay() {
+        apiResponses.put(SCHEME, history(LocalDate.of(2024, 2, 10), 10, 100.0));
+        repository.backfill(SCHEME).blockingGet();
+
+        // Overwrite 5 Feb, add 20 Feb and 1 Mar
+        repository.record(SCHEME, millis(LocalDate.of(2024, 2, 5)), 55.5).blockingAwait();
+        repository.record(SCHEME, millis(LocalDate.of(2024, 2, 20)), 120.25).blockingAwait();
+        repository.record(SCHEME, millis(LocalDate.of(2024, 3, 1)), 121.0).blockingAwait();
+
+        NavSeries series = repository.getSeries(SCHEME).blockingGet();
+        assertEquals(12, series.size());
+        assertEquals(2, navHistoryDao.chunks.size());
+        assertEquals(55.5, series.navOn((int) LocalDate.of(2024, 2, 5).toEpochDay()), 0.0);
+        assertEquals(120.25, series.getNav(10), 0.0);
+        assertEquals(121.0, series.getNav(11), 0.0);
+
+        int[] days = series.getDays();
+        int[] sorted = days.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, days);
+    }
+
+    @Test
+    public void backfillHoldings_downloadsOnlyOnce() {
+        // A young scheme with few NAVs is still only fetched once
+        apiResponses.put(SCHEME, history(LocalDate.of(2024, 3, 5), 5, 10.0));
+
+        assertEquals(5, (int) repository.backfillHoldings().blockingGet());
+        assertEquals(0, (int) repository.backfillHoldings().blockingGet());
+        assertEquals(Collections.singletonList(SCHEME), apiCalls);
+
+        repository.deleteHistory(SCHEME).blockingAwait();
+        assertEquals(5, (int) repository.backfillHoldings().blockingGet());
+        assertEquals(2, apiCalls.size());
+    }
+
+    /**
+     * API JSON for {@code days} consecutive days ending at {@code last},
+     * newest first; the NAV on the first day is {@code firstNav} and rises
+     * by one per day.
+     */
+    private static String history(LocalDate last, int days, double firstNav) {
+        StringBuilder json = new StringBuilder("{\"meta\":{\"scheme_code\":").append(SCHEME)
+                .append("},\"data\":[");
+        for (int i = 0; i < days; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"date\":\"").append(last.minusDays(i).format(API_DATE))
+                    .append("\",\"nav\":\"").append(firstNav + days - 1 - i).append("\"}");
+        }
+        return json.append("],\"status\":\"SUCCESS\"}").toString();
+    }
+
+    private static long millis(LocalDate date) {
+        return NavSeries.toMillis((int) date.toEpochDay());
+    }
+
+    /**
+     * Map-backed NavHistoryDao with the same query semantics.
+     */
+    private static class InMemoryNavHistoryDao implements NavHistoryDao {
+        final TreeMap<String, NavHistoryChunk> chunks = new TreeMap<>();
+        final Map<Long, NavHistoryBackfill> backfilled = new HashMap<>();
+        int lastChunkRead;
+
+        private static String key(long schemeCode, int month) {
+            return String.format("%d/%08d", schemeCode, month);
+        }
+
+        @Override
+        public Completable upsertAll(List<NavHistoryChunk> writes) {
+            return Completable.fromAction(() -> {
+                for (NavHistoryChunk chunk : writes) {
+                    chunks.put(key(chunk.getSchemeCode(), chunk.getMonth()), chunk);
+                }
+            });
+        }
+
+        @Override
+        public Single<List<NavHistoryChunk>> getChunks(long schemeCode, int fromMonth, int toMonth) {
+            return Single.fromCallable(() -> {
+                List<NavHistoryChunk> result = new ArrayList<>(
+                        chunks.subMap(key(schemeCode, fromMonth), true, key(schemeCode, toMonth), true)
+                                .values());
+                lastChunkRead = result.size();
+                return result;
+            });
+        }
+
+        @Override
+        public Single<Integer> getLastDay(long schemeCode) {
+            return Single.fromCallable(() -> {
+                int last = 0;
+                for (NavHistoryChunk chunk : chunks.values()) {
+                    if (chunk.getSchemeCode() == schemeCode) {
+                        last = Math.max(last, chunk.getLastDay());
+                    }
+                }
+                return last;
+            });
+        }
+
+        @Override
+        public Single<Integer> getPointCount(long schemeCode) {
+            return Single.fromCallable(() -> {
+                int count = 0;
+                for (NavHistoryChunk chunk : chunks.values()) {
+                    if (chunk.getSchemeCode() == schemeCode) {
+                        count += chunk.getCount();
+                    }
+                }
+                return count;
+            });
+        }
+
+        @Override
+        public Completable markBackfilled(NavHistoryBackfill backfill) {
+            return Completable.fromAction(() -> backfilled.put(backfill.getSchemeCode(), backfill));
+        }
+
+        @Override
+        public Single<Boolean> isBackfilled(long schemeCode) {
+            return Single.fromCallable(() -> backfilled.containsKey(schemeCode));
+        }
+
+        @Override
+        public Single<Long> getDataBytes() {
+            return Single.fromCallable(() -> {
+                long bytes = 0;
+                for (NavHistoryChunk chunk : chunks.values()) {
+                    bytes += chunk.getData().length;
+                }
+                return bytes;
+            });
+        }
+
+        @Override
+        public Completable deleteScheme(long schemeCode) {
+            return Completable.fromAction(() ->
+                    chunks.values().removeIf(chunk -> chunk.getSchemeCode() == schemeCode));
+        }
+
+        @Override
+        public Completable deleteBackfillMarker(long schemeCode) {
+            return Completable.fromAction(() -> backfilled.remove(schemeCode));
+        }
+    }
+}